@@ -0,0 +1,96 @@
+package model;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Represents a listener that hands every change it is told about to another listener on an executor,
+// one change at a time and in the order they were made, even if the executor runs tasks on many threads:
+// changes wait in a queue, and at most one task draining the queue is handed to the executor at a time.
+// The book passed along may have changed again by the time the other listener is told
+class AsyncBookshelfListener implements BookshelfListener {
+
+    private final BookListener listener;
+    private final Executor executor;
+    private final Queue<Runnable> changes;
+    private final AtomicBoolean scheduled;
+
+    // EFFECTS: construct a listener telling the given listener about every change on the given executor
+    AsyncBookshelfListener(BookListener listener, Executor executor) {
+        this.listener = listener;
+        this.executor = executor;
+        this.changes = new ConcurrentLinkedQueue<>();
+        this.scheduled = new AtomicBoolean();
+    }
+
+    // EFFECTS: return true if the listener registered is the given listener,
+    //      or hands changes to it on an executor
+    static boolean registers(BookListener registered, BookListener listener) {
+        return registered == listener || registered instanceof AsyncBookshelfListener
+                && ((AsyncBookshelfListener) registered).listener == listener;
+    }
+
+    @Override
+    public void progressUpdated(Book book, int oldPage, int newPage, long timestamp) {
+        deliver(() -> listener.progressUpdated(book, oldPage, newPage, timestamp));
+    }
+
+    @Override
+    public void genreTagAdded(Book book, String genreTag) {
+        deliver(() -> listener.genreTagAdded(book, genreTag));
+    }
+
+    @Override
+    public void genreTagRemoved(Book book, String genreTag) {
+        deliver(() -> listener.genreTagRemoved(book, genreTag));
+    }
+
+    @Override
+    public void booksAdded(Bookshelf bookshelf, List<Book> books) {
+        if (listener instanceof BookshelfListener) {
+            List<Book> added = List.copyOf(books);
+            deliver(() -> ((BookshelfListener) listener).booksAdded(bookshelf, added));
+        }
+    }
+
+    @Override
+    public void bookRemoved(Bookshelf bookshelf, Book book) {
+        if (listener instanceof BookshelfListener) {
+            deliver(() -> ((BookshelfListener) listener).bookRemoved(bookshelf, book));
+        }
+    }
+
+    // helper functions
+
+    // MODIFIES: this
+    // EFFECTS: queue the change, and hand the executor a task draining the queue unless one is pending already
+    private void deliver(Runnable change) {
+        changes.add(change);
+        schedule();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: hand the executor a task draining the queue, if the queue has changes and no task is pending
+    private void schedule() {
+        if (!changes.isEmpty() && scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: tell the listener about every change queued, then let the next change schedule a new task;
+    //      a change queued while the flag was being cleared is picked up by scheduling again
+    private void drain() {
+        try {
+            Runnable change;
+            while ((change = changes.poll()) != null) {
+                change.run();
+            }
+        } finally {
+            scheduled.set(false);
+            schedule();
+        }
+    }
+}
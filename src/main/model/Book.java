@@ -3,8 +3,11 @@ package model;
 import org.json.JSONObject;
 import persistence.Writable;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 
 
@@ -12,71 +15,253 @@ import java.util.List;
 // source: https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo.git
 
 // Represents a book that I am interested in reading;
-// it has a title, total page #, # of pages I have read,
+// it has a title and total page # (kept in a catalog entry shared with every other copy of the book),
+// # of pages I have read,
 // progress in terms of percentage rounded to the nearest tenth,
-// and the genres it belongs to.
+// the genres it belongs to, an ID that stays the same once
+// the book is put on a bookshelf, and the history of every progress update.
 public class Book implements Writable {
 
-    private String title;
-    private int totalPages;
+    public static final int NO_ID = 0;
+
+    private int id;
+    private CatalogEntry entry;
     private int pagesRead;
     private double progress;
-    private List<String> genreTags;
+    private int[] genreCodes;   // codes from the GenreDictionary, in the order the tags were added;
+                                // shared with the catalog entry until the tags are first changed
+    private int[] sortedGenreCodes;  // the same codes, sorted, so a tag is found by binary search
+    private ReadingHistory readingHistory;  // null until the first progress update
+    private long addedAt;                   // when the book was put on a bookshelf, zero until then
+    private List<BookListener> listeners;   // null until the first listener is added
+
+    private Bookshelf bookshelf;
+    private int position;
 
     // REQUIRES: title is not empty, totalPages >= 1
     // EFFECTS: construct a book with a given title, total # of pages;
-    // initially, zero pages are read, progress is zero, and the genreTags
-    // list is empty but not null;
+    // initially, zero pages are read, progress is zero, and the book
+    // has no genre tags;
     public Book(String title, int totalPages) {
-        this.title = title;
-        this.totalPages = totalPages;
-        this.pagesRead = 0;
-        this.progress = 0.0;
-        this.genreTags = new ArrayList<>();
+        this(NO_ID, title, totalPages);
+    }
+
+    // REQUIRES: id >= 0, title is not empty, totalPages >= 1
+    // EFFECTS: construct a book with a known ID (e.g. one read back from file),
+    // a given title and total # of pages; NO_ID lets the bookshelf assign one
+    public Book(int id, String title, int totalPages) {
+        this(id, title, totalPages, 0);
+    }
+
+    // REQUIRES: id >= 0, title is not empty, totalPages >= 1, 0 <= pagesRead <= totalPages
+    // EFFECTS: construct a book restored with pages already read (e.g. one read back from file),
+    // with its progress calculated from them; unlike progressUpdate, no event is logged,
+    // so restoring many books at once costs no per-book bookkeeping
+    public Book(int id, String title, int totalPages, int pagesRead) {
+        this(id, BookCatalog.getInstance().canonicalize(title, totalPages), pagesRead);
+    }
+
+    // REQUIRES: id >= 0, entry is not null, 0 <= pagesRead <= entry.getTotalPages()
+    // EFFECTS: construct a copy of the book in the catalog entry, tagged by its default genres,
+    // with pages already read (e.g. one read back from file); no event is logged.
+    // Changing the tags of this book later does not change the entry or any other copy of the book
+    public Book(int id, CatalogEntry entry, int pagesRead) {
+        this.id = id;
+        this.entry = entry;
+        this.pagesRead = pagesRead;
+        this.progress = percentageHelper();
+        this.genreCodes = entry.genreCodes();
+        this.sortedGenreCodes = entry.sortedGenreCodes();
     }
 
     // REQUIRES: newPages > # of pages read
     // MODIFIES: this
+    // EFFECTS: Update the # of pages I have read now, as progressUpdate(newPage, timestamp) does
+    public void progressUpdate(int newPage) {
+        progressUpdate(newPage, System.currentTimeMillis());
+    }
+
+    // REQUIRES: newPages > # of pages read, timestamp is in milliseconds since the epoch
+    // MODIFIES: this
     // EFFECTS: Update the # of pages I have read
     // and calculate my new progress,
     // the progress is in percentage rounded to the nearest tenth,
-    // and log an event to EventLog whenever this method is called.
-    public void progressUpdate(int newPage) {
+    // record the new page at the given time in the reading history,
+    // tell the bookshelf holding this book (if any) about the change,
+    // log an event to the event log of that bookshelf (or to EventLog if there is none)
+    // whenever this method is called and that log logs progress at INFO,
+    // and tell the listeners of this book about the change.
+    public void progressUpdate(int newPage, long timestamp) {
+        if (readingHistory == null) {
+            readingHistory = new ReadingHistory(this.pagesRead);
+        }
+        readingHistory.record(timestamp, newPage);
+
+        int oldPagesRead = this.pagesRead;
+        double oldProgress = this.progress;
+
         this.pagesRead = newPage;
         progress = percentageHelper();
 
-        EventLog.getInstance().logEvent(new Event("Progress of <" + getTitle() + "> on bookshelf updated: \n"
-                + "Now on page " + getPagesRead() + " of " + getTotalPages() + "! " + getProgress() + "% read!\n"));
+        if (bookshelf != null) {
+            bookshelf.progressUpdated(this, oldPagesRead, oldProgress, timestamp);
+        }
+
+        EventLog eventLog = bookshelf == null ? EventLog.getInstance() : bookshelf.getEventLog();
+        if (eventLog.shouldLog(EventCategory.PROGRESS, EventLevel.INFO)) {
+            eventLog.logEvent(Event.progressUpdated(this, oldPagesRead, timestamp));
+        }
+        if (listeners != null) {
+            for (BookListener listener : listeners) {
+                listener.progressUpdated(this, oldPagesRead, newPage, timestamp);
+            }
+        }
+    }
+
+    // EFFECTS: return how many pages I moved forward in this book between the two times,
+    // according to its reading history; negative if I moved back
+    public int pagesReadBetween(long from, long to) {
+        return getReadingHistory().pagesReadBetween(from, to);
+    }
+
+    // EFFECTS: return how many pages of this book I read per day between the two times,
+    // according to its reading history; zero if to is not after from
+    public double readingVelocity(long from, long to) {
+        return getReadingHistory().velocity(from, to);
+    }
+
+    // EFFECTS: return the # of pages I had read at the given time, according to the reading history
+    public int pagesReadAsOf(long timestamp) {
+        return getReadingHistory().pageAt(timestamp);
+    }
+
+    // EFFECTS: return my progress at the given time in percentage rounded to the nearest tenth,
+    // according to the reading history
+    public double progressAsOf(long timestamp) {
+        return percentageOf(pagesReadAsOf(timestamp), getTotalPages());
+    }
+
+    // REQUIRES: timestamp >= 0
+    // MODIFIES: this
+    // EFFECTS: set when this book was put on a bookshelf, e.g. a time read back from file;
+    // zero means it is set when the book is next put on a bookshelf
+    public void restoreAddedAt(long timestamp) {
+        this.addedAt = timestamp;
+    }
+
+    // REQUIRES: the last page in the history is the # of pages read, e.g. a history read back from file
+    // MODIFIES: this
+    // EFFECTS: replace the reading history of this book, without logging an event
+    public void restoreReadingHistory(ReadingHistory readingHistory) {
+        this.readingHistory = readingHistory;
     }
 
     // REQUIRES: the input string cannot be empty
     // MODIFIES: this
-    // EFFECTS: add the name of genre to the genreTags
-    // only if the genre is new
+    // EFFECTS: add the name of genre to the genre tags
+    // only if the genre is new, and tell the bookshelf holding this book (if any)
+    // so that its genre index stays up to date, and then the listeners of this book
     public void addGenreTag(String genreTag) {
-        if (!this.genreTags.contains(genreTag)) {
-            this.genreTags.add(genreTag);
+        int code = GenreDictionary.getInstance().codeOf(genreTag);
+        if (!hasGenreCode(code)) {
+            int[] codes = Arrays.copyOf(genreCodes, genreCodes.length + 1);
+            codes[genreCodes.length] = code;
+            genreCodes = codes;
+            sortedGenreCodes = withCode(sortedGenreCodes, code);
+
+            if (bookshelf != null) {
+                bookshelf.genreTagAdded(this, genreTag);
+            }
+            if (listeners != null) {
+                for (BookListener listener : listeners) {
+                    listener.genreTagAdded(this, genreTag);
+                }
+            }
         }
 
     }
 
+    // REQUIRES: the input string cannot be empty
+    // MODIFIES: this
+    // EFFECTS: remove the name of genre from the genre tags
+    // only if the book has it, and tell the bookshelf holding this book (if any) and the listeners of this book
+    public void removeGenreTag(String genreTag) {
+        int code = GenreDictionary.getInstance().lookup(genreTag);
+        if (hasGenreCode(code)) {
+            int[] codes = new int[genreCodes.length - 1];
+            int i = 0;
+            for (int next : genreCodes) {
+                if (next != code) {
+                    codes[i++] = next;
+                }
+            }
+            genreCodes = codes;
+            sortedGenreCodes = withoutCode(sortedGenreCodes, code);
+
+            if (bookshelf != null) {
+                bookshelf.genreTagRemoved(this, genreTag);
+            }
+            if (listeners != null) {
+                for (BookListener listener : listeners) {
+                    listener.genreTagRemoved(this, genreTag);
+                }
+            }
+        }
+    }
 
-    // REQUIRES: genreTag is not empty
     // MODIFIES: this
-    // EFFECTS: add new genre tag to a book
+    // EFFECTS: tell the listener about every later change to this book, on the thread making the change
+    public void addListener(BookListener listener) {
+        if (listeners == null) {
+            listeners = new CopyOnWriteArrayList<>();
+        }
+        listeners.add(listener);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: tell the listener about every later change to this book on the given executor,
+    // one change at a time and in the order they were made
+    public void addListener(BookListener listener, Executor executor) {
+        addListener(new AsyncBookshelfListener(listener, executor));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stop telling the listener about changes to this book, however it was added
+    public void removeListener(BookListener listener) {
+        if (listeners != null) {
+            listeners.removeIf(registered -> AsyncBookshelfListener.registers(registered, listener));
+        }
+    }
+
+    // REQUIRES: genreTag is not empty
+    // EFFECTS: return true if the book is tagged by the given genre
     public boolean containsGenreTag(String genreTag) {
-        return this.genreTags.contains(genreTag);
+        return hasGenreCode(GenreDictionary.getInstance().lookup(genreTag));
+    }
+
+    // EFFECTS: return true if the book is tagged by the genre with the given dictionary code
+    boolean hasGenreCode(int code) {
+        return code >= 0 && Arrays.binarySearch(sortedGenreCodes, code) >= 0;
     }
 
 
     // getters
 
+    public int getId() {
+        return this.id;
+    }
+
     public String getTitle() {
-        return this.title;
+        return this.entry.getTitle();
     }
 
     public int getTotalPages() {
-        return this.totalPages;
+        return this.entry.getTotalPages();
+    }
+
+    // EFFECTS: return the catalog entry this book shares with every other copy of it
+    public CatalogEntry getCatalogEntry() {
+        return this.entry;
     }
 
     public int getPagesRead() {
@@ -87,22 +272,117 @@ public class Book implements Writable {
         return this.progress;
     }
 
+    // EFFECTS: return when this book was put on a bookshelf, in milliseconds since the epoch;
+    // zero if it never was
+    public long getAddedAt() {
+        return this.addedAt;
+    }
+
+    // EFFECTS: return the names of the genre tags of this book, in the order they were added;
+    // the returned list does not change when tags are added or removed later
     public List<String> getGenreTags() {
-        return this.genreTags;
+        final int[] codes = this.genreCodes;
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return GenreDictionary.getInstance().nameOf(codes[index]);
+            }
+
+            @Override
+            public int size() {
+                return codes.length;
+            }
+        };
+    }
+
+    // EFFECTS: return the history of every progress update of this book, which is empty
+    // if the book was never updated; callers must not modify it
+    public ReadingHistory getReadingHistory() {
+        if (readingHistory == null) {
+            return new ReadingHistory(this.pagesRead);
+        }
+        return this.readingHistory;
+    }
+
+    // REQUIRES: id > 0
+    // MODIFIES: this
+    // EFFECTS: set the ID given to this book by its bookshelf
+    void setId(int id) {
+        this.id = id;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: set the bookshelf that holds this book and the position of this book on it
+    void setBookshelf(Bookshelf bookshelf, int position) {
+        this.bookshelf = bookshelf;
+        this.position = position;
+    }
+
+    // EFFECTS: return the position of this book on the bookshelf that holds it
+    int getPosition() {
+        return this.position;
+    }
+
+    // EFFECTS: return true if this book has a reading history, i.e. it was ever updated or had one restored
+    boolean hasReadingHistory() {
+        return this.readingHistory != null;
+    }
+
+    // EFFECTS: return the number of genre tags of this book
+    int getNumberOfGenreTags() {
+        return this.genreCodes.length;
+    }
+
+    // REQUIRES: 0 <= index < getGenreTags().size()
+    // EFFECTS: return the dictionary code of the genre tag at the index
+    int genreCodeAt(int index) {
+        return this.genreCodes[index];
     }
 
     // helper functions
 
+    // REQUIRES: sorted is sorted and does not hold code
+    // EFFECTS: return a copy of sorted with code inserted in its place
+    private static int[] withCode(int[] sorted, int code) {
+        int insertAt = -Arrays.binarySearch(sorted, code) - 1;
+        int[] copy = new int[sorted.length + 1];
+        System.arraycopy(sorted, 0, copy, 0, insertAt);
+        copy[insertAt] = code;
+        System.arraycopy(sorted, insertAt, copy, insertAt + 1, sorted.length - insertAt);
+        return copy;
+    }
+
+    // REQUIRES: sorted is sorted and holds code
+    // EFFECTS: return a copy of sorted without code
+    private static int[] withoutCode(int[] sorted, int code) {
+        int removeAt = Arrays.binarySearch(sorted, code);
+        int[] copy = new int[sorted.length - 1];
+        System.arraycopy(sorted, 0, copy, 0, removeAt);
+        System.arraycopy(sorted, removeAt + 1, copy, removeAt, copy.length - removeAt);
+        return copy;
+    }
+
     // EFFECTS: round the progress percentage to the nearest tenth
     private double percentageHelper() {
-        double hundredth = Math.floor(10000 * this.pagesRead / this.totalPages);
-        double tenth = 10 * Math.floor(1000 * this.pagesRead / this.totalPages);
+        return percentageOf(this.pagesRead, getTotalPages());
+    }
+
+    // EFFECTS: return the progress in tenths of a percent
+    static int tenths(double progress) {
+        return (int) Math.round(progress * 10);
+    }
+
+    // REQUIRES: totalPages >= 1
+    // EFFECTS: return the percentage of pages read out of total pages, rounded to the nearest tenth
+    static double percentageOf(int pagesRead, int totalPages) {
+        double hundredth = Math.floor(10000 * pagesRead / totalPages);
+        double tenth = 10 * Math.floor(1000 * pagesRead / totalPages);
         double check = hundredth - tenth;
 
         if (check < 5) {
-            return Math.floor(1000 * this.pagesRead / this.totalPages) / 10;
+            return Math.floor(1000 * pagesRead / totalPages) / 10;
         } else {
-            return Math.floor(1 + 1000 * this.pagesRead / this.totalPages) / 10;
+            return Math.floor(1 + 1000 * pagesRead / totalPages) / 10;
         }
 
     }
@@ -112,11 +392,16 @@ public class Book implements Writable {
     @Override
     public JSONObject toJson() {
         JSONObject json = new JSONObject();
-        json.put("title", title);
-        json.put("totalPages", totalPages);
+        json.put("id", id);
+        json.put("title", getTitle());
+        json.put("totalPages", getTotalPages());
         json.put("pagesRead", pagesRead);
         json.put("progress", progress);
-        json.put("genreTags", genreTags);
+        json.put("genreTags", getGenreTags());
+        json.put("addedAt", addedAt);
+        if (readingHistory != null) {
+            json.put("readingHistory", readingHistory.toJson());
+        }
 
         return json;
     }
@@ -0,0 +1,119 @@
+package model;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Represents the catalog of books known to the Reading Tracker Application.
+ * Every distinct combination of title, total pages and default genres is kept
+ * as one immutable CatalogEntry, shared by all books with it on any bookshelf,
+ * so the same book on thousands of bookshelves costs one entry instead of thousands.
+ * Entries are only held weakly: once no book refers to one, it is let go.
+ * It may be used from several threads at once.
+ * We use the Singleton Design Pattern so that books on every bookshelf share the same entries.
+ */
+public class BookCatalog {
+    /**
+     * the only BookCatalog in the system (Singleton Design Pattern)
+     */
+    private static BookCatalog theCatalog;
+
+    private static final int[] NO_GENRE_CODES = new int[0];
+
+    private Map<CatalogEntry, WeakReference<CatalogEntry>> entries;
+
+    /**
+     * Prevent external construction.
+     * (Singleton Design Pattern).
+     */
+    private BookCatalog() {
+        entries = new WeakHashMap<>();
+    }
+
+    /**
+     * Gets instance of BookCatalog - creates it
+     * if it doesn't already exist.
+     * (Singleton Design Pattern)
+     *
+     * @return instance of BookCatalog
+     */
+    public static synchronized BookCatalog getInstance() {
+        if (theCatalog == null) {
+            theCatalog = new BookCatalog();
+        }
+        return theCatalog;
+    }
+
+    /**
+     * Gets the shared entry of a book with no default genres, adding it if it is new.
+     *
+     * @param title      the title, not empty
+     * @param totalPages the total # of pages, at least one
+     * @return the entry shared by every book with that title and total pages and no default genres
+     */
+    public CatalogEntry canonicalize(String title, int totalPages) {
+        return canonicalize(new CatalogEntry(title, totalPages, NO_GENRE_CODES));
+    }
+
+    /**
+     * Gets the shared entry of a book with the given default genres, adding it if it is new.
+     * A genre named more than once counts once.
+     *
+     * @param title      the title, not empty
+     * @param totalPages the total # of pages, at least one
+     * @param genreTags  the names of the default genres, none of them empty, in the order they were added
+     * @return the entry shared by every book with that title, total pages and default genres
+     */
+    public CatalogEntry canonicalize(String title, int totalPages, List<String> genreTags) {
+        int[] codes = new int[genreTags.size()];
+        int n = 0;
+        GenreDictionary dictionary = GenreDictionary.getInstance();
+        for (String genreTag : genreTags) {
+            int code = dictionary.codeOf(genreTag);
+            if (!contains(codes, n, code)) {
+                codes[n++] = code;
+            }
+        }
+        return canonicalize(new CatalogEntry(title, totalPages, n == 0 ? NO_GENRE_CODES : Arrays.copyOf(codes, n)));
+    }
+
+    /**
+     * Gets the number of entries in the catalog, some of which may no longer be used by any book.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the shared entry equal to the given one, making the given one shared if there is none.
+     *
+     * @param entry a new entry
+     * @return the shared entry equal to it
+     */
+    private synchronized CatalogEntry canonicalize(CatalogEntry entry) {
+        WeakReference<CatalogEntry> reference = entries.get(entry);
+        CatalogEntry shared = reference == null ? null : reference.get();
+        if (shared == null) {
+            entries.put(entry, new WeakReference<>(entry));
+            shared = entry;
+        }
+        return shared;
+    }
+
+    /**
+     * Checks whether a code is among the first n codes.
+     */
+    private static boolean contains(int[] codes, int n, int code) {
+        for (int i = 0; i < n; i++) {
+            if (codes[i] == code) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,127 @@
+package model;
+
+// Represents a map from book IDs to books;
+// the IDs are kept as primitive ints in an open-addressing hash table
+// so that looking a book up by its ID needs no boxing and no pointer chasing.
+public class BookIdMap {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int EMPTY = 0;
+
+    private int[] keys;
+    private Book[] values;
+    private int size;
+
+    // EFFECTS: construct an empty map
+    public BookIdMap() {
+        this.keys = new int[INITIAL_CAPACITY];
+        this.values = new Book[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    // REQUIRES: id > 0, book is not null
+    // MODIFIES: this
+    // EFFECTS: map the id to the book, replacing any book already mapped to it
+    public void put(int id, Book book) {
+        if (2 * (size + 1) > keys.length) {
+            resize(2 * keys.length);
+        }
+        int slot = slotOf(id);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = id;
+            size++;
+        }
+        values[slot] = book;
+    }
+
+    // EFFECTS: return the book mapped to the id, or null if there is none
+    public Book get(int id) {
+        if (id == EMPTY) {
+            return null;
+        }
+        return values[slotOf(id)];
+    }
+
+    // EFFECTS: return true if a book is mapped to the id
+    public boolean containsId(int id) {
+        return get(id) != null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: remove the mapping of the id, if any;
+    // later entries of the same probe run are shifted back so no tombstones are left
+    public void remove(int id) {
+        if (id == EMPTY) {
+            return;
+        }
+        int slot = slotOf(id);
+        if (keys[slot] == EMPTY) {
+            return;
+        }
+        keys[slot] = EMPTY;
+        values[slot] = null;
+        size--;
+
+        int mask = keys.length - 1;
+        int next = (slot + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int key = keys[next];
+            Book value = values[next];
+            keys[next] = EMPTY;
+            values[next] = null;
+            keys[slotOf(key)] = key;
+            values[slotOf(key)] = value;
+            next = (next + 1) & mask;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: grow the table so that it can hold at least the given number of IDs without resizing
+    public void ensureCapacity(int expectedSize) {
+        int capacity = keys.length;
+        while (2 * expectedSize > capacity) {
+            capacity *= 2;
+        }
+        if (capacity > keys.length) {
+            resize(capacity);
+        }
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    // helper functions
+
+    // EFFECTS: return the slot that holds the id, or the empty slot where it would go
+    private int slotOf(int id) {
+        int mask = keys.length - 1;
+        int slot = hash(id) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // EFFECTS: spread the bits of the id so that consecutive IDs do not cluster
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: move every entry into a table of the given capacity
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Book[] oldValues = values;
+        keys = new int[capacity];
+        values = new Book[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
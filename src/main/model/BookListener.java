@@ -0,0 +1,21 @@
+package model;
+
+// Represents something told about every change to a book as it is made, e.g. a cache, an index
+// or an open window that updates itself from the change alone instead of re-reading every book.
+// Each method does nothing unless overridden, so a listener only overrides the changes it cares about.
+// Listeners are told on the thread making the change, after the change is made, unless they were added
+// with an executor to deliver them; either way, a listener is told about changes in the order they were made
+public interface BookListener {
+
+    // EFFECTS: react to the # of pages read of the book moving from oldPage to newPage at the given time
+    default void progressUpdated(Book book, int oldPage, int newPage, long timestamp) {
+    }
+
+    // EFFECTS: react to the genre tag being added to the book
+    default void genreTagAdded(Book book, String genreTag) {
+    }
+
+    // EFFECTS: react to the genre tag being removed from the book
+    default void genreTagRemoved(Book book, String genreTag) {
+    }
+}
@@ -0,0 +1,117 @@
+package model;
+
+import org.json.JSONObject;
+import persistence.Writable;
+
+import java.util.List;
+
+// Represents the state of a book at one moment, which never changes once recorded;
+// it has the ID, title, total page #, # of pages read, progress and genre tags the book had then,
+// when the book was put on a bookshelf, and its reading history up to then.
+public class BookRecord implements Writable {
+
+    private static final long BYTES_PER_RECORD = 96;
+    private static final long BYTES_PER_TITLE_CHARACTER = 2;
+    private static final long BYTES_PER_GENRE_TAG = 16;
+
+    private final int id;
+    private final String title;
+    private final int totalPages;
+    private final int pagesRead;
+    private final double progress;
+    private final List<String> genreTags;
+    private final long addedAt;
+    private final Writable readingHistory;   // null if the book had no reading history
+    private final int historyLength;         // the bytes of the reading history's encoded entries
+
+    // REQUIRES: book is not null, and no other thread is changing it
+    // EFFECTS: record the current state of the book
+    public BookRecord(Book book) {
+        this.id = book.getId();
+        this.title = book.getTitle();
+        this.totalPages = book.getTotalPages();
+        this.pagesRead = book.getPagesRead();
+        this.progress = book.getProgress();
+        this.genreTags = book.getGenreTags();
+        this.addedAt = book.getAddedAt();
+        this.readingHistory = book.hasReadingHistory() ? book.getReadingHistory().freeze() : null;
+        this.historyLength = book.hasReadingHistory() ? book.getReadingHistory().encodedLength() : 0;
+    }
+
+    // REQUIRES: title is not empty, totalPages >= 1, 0 <= pagesRead <= totalPages, genreTags is not null
+    // EFFECTS: record a book in the given state with no reading history, e.g. one read back from a journal;
+    //      its progress is calculated from its pages
+    public BookRecord(int id, String title, int totalPages, int pagesRead, List<String> genreTags, long addedAt) {
+        this.id = id;
+        this.title = title;
+        this.totalPages = totalPages;
+        this.pagesRead = pagesRead;
+        this.progress = Book.percentageOf(pagesRead, totalPages);
+        this.genreTags = List.copyOf(genreTags);
+        this.addedAt = addedAt;
+        this.readingHistory = null;
+        this.historyLength = 0;
+    }
+
+    // getters
+
+    public int getId() {
+        return this.id;
+    }
+
+    public String getTitle() {
+        return this.title;
+    }
+
+    public int getTotalPages() {
+        return this.totalPages;
+    }
+
+    public int getPagesRead() {
+        return this.pagesRead;
+    }
+
+    public double getProgress() {
+        return this.progress;
+    }
+
+    public List<String> getGenreTags() {
+        return this.genreTags;
+    }
+
+    public long getAddedAt() {
+        return this.addedAt;
+    }
+
+    // EFFECTS: return a rough estimate, in bytes, of the memory this record holds on to,
+    // counted from its title characters, genre tags and the encoded entries of its reading history
+    public long estimateMemoryUsage() {
+        return BYTES_PER_RECORD + title.length() * BYTES_PER_TITLE_CHARACTER
+                + genreTags.size() * BYTES_PER_GENRE_TAG + historyLength;
+    }
+
+    // EFFECTS: return true if the book was tagged by the given genre
+    public boolean containsGenreTag(String genreTag) {
+        return this.genreTags.contains(genreTag);
+    }
+
+    // for read and load functions
+
+    // EFFECTS: returns this as JSON object, in the same format as Book
+    @Override
+    public JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        json.put("id", id);
+        json.put("title", title);
+        json.put("totalPages", totalPages);
+        json.put("pagesRead", pagesRead);
+        json.put("progress", progress);
+        json.put("genreTags", genreTags);
+        json.put("addedAt", addedAt);
+        if (readingHistory != null) {
+            json.put("readingHistory", readingHistory.toJson());
+        }
+
+        return json;
+    }
+}
@@ -5,8 +5,12 @@ import org.json.JSONObject;
 import org.json.JSONArray;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 
 
@@ -14,18 +18,38 @@ import java.util.List;
 // source: https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo.git
 
 // Represent a bookshelf that stores all the books I currently need to read;
-// it stores how many books I have and what are they;
+// it stores how many books I have and what are they, in the order they were added,
+// and lets me look a book up by its ID or by its title;
 // it stores how many distinct genres on the bookshelf and what are they;
-// it stores of my total reading progress.
+// it keeps track of my total reading progress as books are added and read.
 public class Bookshelf implements Writable {
 
-    private int numberOfBooks;
-    private List<Book> collectionOfBooks;
-
-    private int numberOfGenres;
-    private List<String> collectionOfGenres;
+    // rough sizes, in bytes, of what the bookshelf keeps in memory: each book with its entries in every index,
+    // each character of a title in the title search index, each genre tag, each genre,
+    // and each change on the timeline together with its reading history entry
+    private static final long BYTES_PER_BOOK = 400;
+    private static final long BYTES_PER_TITLE_CHARACTER = 40;
+    private static final long BYTES_PER_GENRE_TAG = 32;
+    private static final long BYTES_PER_GENRE = 200;
+    private static final long BYTES_PER_TIMELINE_CHANGE = 36;
 
-    private double totalProgress;
+    private int numberOfBooks;
+    private ArrayList<Book> collectionOfBooks;
+    private BookIdMap booksById;
+    private Map<String, List<Book>> booksByTitle;
+    private TitleIndex titleIndex;
+    private int nextBookId;
+
+    private GenreManager genreManager;
+
+    private ProgressDashboard progressDashboard;
+    private ReadingOrderIndex readingOrderIndex;
+    private ShelfTimeline timeline;
+    private long lastAddedAt;
+    private long titleCharacters;
+    private EventLog eventLog;
+    private PersistentVector<BookRecord> records;   // null until the first snapshot is taken
+    private List<BookshelfListener> listeners;
 
     //EFFECTS: construct a bookshelf where
     // the # of books on the bookshelf is zero,
@@ -35,87 +59,321 @@ public class Bookshelf implements Writable {
     // and the total progress is zero.
     public Bookshelf() {
         this.numberOfBooks = 0;
-        this.collectionOfBooks = new LinkedList<>();
-        this.numberOfGenres = 0;
-        this.collectionOfGenres = new ArrayList<>();
-        this.totalProgress = 0.0;
+        this.collectionOfBooks = new ArrayList<>();
+        this.booksById = new BookIdMap();
+        this.booksByTitle = new HashMap<>();
+        this.titleIndex = new TitleIndex();
+        this.nextBookId = 1;
+        this.genreManager = new GenreManager(collectionOfBooks);
+        this.progressDashboard = new ProgressDashboard();
+        this.readingOrderIndex = new ReadingOrderIndex();
+        this.timeline = new ShelfTimeline();
+        this.lastAddedAt = 0;
+        this.titleCharacters = 0;
+        this.eventLog = EventLog.getInstance();
+        this.records = null;
+        this.listeners = new CopyOnWriteArrayList<>();
     }
 
     // REQUIRES: book is not null
     // MODIFIES: this
-    // EFFECTS: update the number of books on bookshelf by one
-    // and add the book to the collection of books.
-    // Also, log an event to EventLog whenever this method is called.
+    // EFFECTS: update the number of books on bookshelf by one,
+    // give the book a new ID unless it already has one that is not taken on this bookshelf,
+    // add the book to the collection of books, index it by its ID, title, title search index, genre tags,
+    // progress, pages remaining and total pages,
+    // add its pages and progress to the progress dashboard,
+    // and record it on the timeline of the bookshelf.
+    // Also, log an event at INFO to the event log of the bookshelf whenever this method is called,
+    // and tell the listeners of the bookshelf.
     public void addBook(Book book) {
-        this.numberOfBooks++;
-        this.collectionOfBooks.add(book);
+        shelve(book, System.currentTimeMillis());
+        this.progressDashboard.addBook(book);
+        this.readingOrderIndex.add(book.getPosition(), book.getTotalPages(), book.getPagesRead(),
+                Book.tenths(book.getProgress()));
+        this.timeline.booksAdded(List.of(book));
+        recordAdded(book);
+
+        if (this.eventLog.shouldLog(EventCategory.BOOKSHELF, EventLevel.INFO)) {
+            this.eventLog.logEvent(Event.bookAdded(book));
+        }
+        tellBooksAdded(List.of(book));
+    }
+
+    // REQUIRES: books is not null and holds no null or repeated books
+    // MODIFIES: this
+    // EFFECTS: put every book on the bookshelf as addBook does, in the order given,
+    // but make room for all of them up front, add them to the progress dashboard and the reading order index
+    // in one pass over the new books, and log a single event for the whole batch instead of one per book,
+    // keeping a record of every book in it, and tell the listeners of the bookshelf about the whole batch at once;
+    // nothing is logged or told if books is empty
+    public void addBooks(Collection<? extends Book> books) {
+        addBooks(books, EventLevel.INFO);
+    }
+
+    // REQUIRES: books is not null and holds no null or repeated books
+    // MODIFIES: this
+    // EFFECTS: put every book on the bookshelf as addBooks does, logging the event for the batch at the given level,
+    // e.g. DEBUG for the books of a bookshelf loaded from file, whose summary is logged instead;
+    // the event, with its record of every book, is only built if the event log logs it
+    void addBooks(Collection<? extends Book> books, EventLevel level) {
+        if (books.isEmpty()) {
+            return;
+        }
+        int first = this.numberOfBooks;
+        int expected = first + books.size();
+        this.collectionOfBooks.ensureCapacity(expected);
+        this.booksById.ensureCapacity(expected);
+        this.titleIndex.ensureCapacity(expected);
+
+        long now = System.currentTimeMillis();
+        for (Book book : books) {
+            shelve(book, now);
+        }
+        this.progressDashboard.addRows(this.collectionOfBooks, first);
+        this.readingOrderIndex.addRows(this.collectionOfBooks, first);
+        this.timeline.booksAdded(books);
+        for (Book book : books) {
+            recordAdded(book);
+        }
+
+        if (this.eventLog.shouldLog(EventCategory.BOOKSHELF, level)) {
+            this.eventLog.logEvent(Event.booksAdded(books));
+        }
+        tellBooksAdded(books);
+    }
+
+
+    // EFFECTS: return the book with the given ID, or null if no such book is on the bookshelf
+    public Book getBookById(int id) {
+        return booksById.get(id);
+    }
 
-        EventLog.getInstance().logEvent(new Event("Added <" + book.getTitle() + "> to bookshelf!\n"));
+    // EFFECTS: return a list of books that have exactly the given title, in the order they were added
+    public List<Book> booksTitled(String title) {
+        List<Book> books = booksByTitle.get(title);
+        if (books == null) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(books);
     }
 
+    // EFFECTS: return a list of up to limit books whose titles contain the query, ignoring case;
+    // titles equal to the query come first, then titles starting with it, then titles with a word
+    // starting with it, then the rest; ties go to shorter titles, then to books added earlier
+    public List<Book> searchTitles(String query, int limit) {
+        return booksAt(titleIndex.search(query, limit));
+    }
 
     // REQUIRES: genreName is not empty
     // EFFECTS: return a list of books that has the inputting genre name
     public List<Book> booksTaggedBy(String genreName) {
-        List<Book> booksTagged = new LinkedList<>();
-
-        for (Book nextBook : collectionOfBooks) {
-            if (nextBook.containsGenreTag(genreName)) {
-                booksTagged.add(nextBook);
-            }
-        }
-        return booksTagged;
+        return genreManager.booksTaggedBy(genreName);
     }
 
     // REQUIRES: genreName is not empty
     // EFFECTS: return the number of books that is tagged by the inputting genre name
     public int numOfBooksTaggedBy(String genreName) {
-        int num = 0;
+        return genreManager.numOfBooksTaggedBy(genreName);
+    }
 
-        for (Book nextBook : collectionOfBooks) {
-            if (nextBook.containsGenreTag(genreName)) {
-                num++;
-            }
+    // EFFECTS: return a list of books, in bookshelf order, whose genre tags match the query
+    public List<Book> booksMatching(GenreQuery query) {
+        return genreManager.booksAt(query.evaluate(genreManager, numberOfBooks));
+    }
+
+    // EFFECTS: return the number of books whose genre tags match the query,
+    // without building the list of those books
+    public int numOfBooksMatching(GenreQuery query) {
+        return query.evaluate(genreManager, numberOfBooks).cardinality();
+    }
+
+    // REQUIRES: book is on this bookshelf, genreTag is not empty
+    // MODIFIES: this
+    // EFFECTS: index the book under a genre tag that was added to it after it was put on the bookshelf
+    // and record it on the timeline
+    void genreTagAdded(Book book, String genreTag) {
+        genreManager.addTag(book, genreTag);
+        timeline.tagAdded(System.currentTimeMillis(), GenreDictionary.getInstance().lookup(genreTag));
+        recordChanged(book);
+        if (eventLog.shouldLog(EventCategory.GENRE, EventLevel.INFO)) {
+            eventLog.logEvent(Event.genreTagAdded(book, genreTag));
+        }
+        for (BookshelfListener listener : listeners) {
+            listener.genreTagAdded(book, genreTag);
+        }
+    }
+
+    // REQUIRES: book is on this bookshelf, genreTag is not empty
+    // MODIFIES: this
+    // EFFECTS: stop indexing the book under a genre tag that was removed from it,
+    // record it on the timeline, log an event to the event log of the bookshelf and tell its listeners
+    void genreTagRemoved(Book book, String genreTag) {
+        genreManager.removeTag(book, genreTag);
+        timeline.tagRemoved(System.currentTimeMillis(), GenreDictionary.getInstance().lookup(genreTag));
+        recordChanged(book);
+        if (eventLog.shouldLog(EventCategory.GENRE, EventLevel.INFO)) {
+            eventLog.logEvent(Event.genreTagRemoved(book, genreTag));
+        }
+        for (BookshelfListener listener : listeners) {
+            listener.genreTagRemoved(book, genreTag);
+        }
+    }
+
+    // REQUIRES: book is on this bookshelf
+    // MODIFIES: this
+    // EFFECTS: apply the change of pages read and progress of the book at the given time to
+    // the progress dashboard and the reading order index, record it on the timeline, and tell the listeners
+    void progressUpdated(Book book, int oldPagesRead, double oldProgress, long timestamp) {
+        int position = book.getPosition();
+        progressDashboard.progressUpdated(book, oldPagesRead, oldProgress);
+        readingOrderIndex.update(position, book.getTotalPages(), oldPagesRead, Book.tenths(oldProgress),
+                book.getPagesRead(), Book.tenths(book.getProgress()));
+        timeline.progressChanged(timestamp, book, oldPagesRead, oldProgress);
+        recordChanged(book);
+        for (BookshelfListener listener : listeners) {
+            listener.progressUpdated(book, oldPagesRead, book.getPagesRead(), timestamp);
+        }
+    }
+
+    // EFFECTS: return up to k unfinished books with the fewest pages left to read, fewest first;
+    // ties go to books added earlier
+    public List<Book> closestToFinishing(int k) {
+        return booksAt(readingOrderIndex.fewestPagesRemaining(k));
+    }
+
+    // EFFECTS: return up to k books with the least progress, least first; ties go to books added earlier
+    public List<Book> mostNeglected(int k) {
+        return booksAt(readingOrderIndex.lowestProgress(k));
+    }
+
+    // EFFECTS: return the books whose progress in percentage is between low and high (inclusive),
+    // least progress first; ties go to books added earlier
+    public List<Book> booksWithProgressBetween(double low, double high) {
+        return booksAt(readingOrderIndex.progressBetween((int) Math.ceil(low * 10 - 1e-9),
+                (int) Math.floor(high * 10 + 1e-9)));
+    }
+
+    // EFFECTS: return up to k books with the fewest total pages, fewest first; ties go to books added earlier
+    public List<Book> shortestBooks(int k) {
+        return booksAt(readingOrderIndex.fewestTotalPages(k));
+    }
+
+    // EFFECTS: return up to k books with the most total pages, most first; ties go to books added later
+    public List<Book> longestBooks(int k) {
+        return booksAt(readingOrderIndex.mostTotalPages(k));
+    }
+
+    // EFFECTS: return how many pages I moved forward on all books between the two times,
+    // according to the reading history of every book
+    public long pagesReadBetween(long from, long to) {
+        long pages = 0;
+        for (Book next : collectionOfBooks) {
+            pages += next.pagesReadBetween(from, to);
         }
-        return num;
+        return pages;
+    }
+
+    // EFFECTS: return the totals, genre counts and books of the bookshelf as they were at the given time,
+    // in milliseconds since the epoch, including books taken off it since, e.g. by an undo;
+    // Book.progressAsOf gives the progress of each of those books then
+    public ShelfState stateAsOf(long timestamp) {
+        return timeline.asOf(timestamp);
     }
 
     //MODIFIES: this
-    //EFFECTS: update how many distinct genres there are on the bookshelf
-    // and what are they; store the genre names in a list
+    //EFFECTS: rebuild the genre index, i.e. how many distinct genres there are on the bookshelf
+    // and what are they, from the genre tags of every book;
+    // the index is already kept up to date as books are added and tagged,
+    // so this is only needed to recover from books changed behind the bookshelf's back
     public void updateGenreInfo() {
-        collectionOfGenres.clear();
-        numberOfGenres = 0;
-
+        genreManager.clear();
         for (Book b : collectionOfBooks) {
-            List<String> bookTags = b.getGenreTags();
-            for (String s : bookTags) {
-                boolean repeated = checkRepeatedTag(s);
-                if (!repeated) {
-                    collectionOfGenres.add(s);
-                    numberOfGenres++;
-                }
-            }
+            genreManager.addBook(b);
         }
     }
 
     // MODIFIES: this
-    // EFFECTS: update the total progress by
-    // summing up individual book progress and
-    // taking the average (rounded to the nearest tenth)
-    public void totalProgressUpdate() {
-        if (this.numberOfBooks == 0) {
-            this.totalProgress = 0.0;
-        } else {
-            double i = 0.0;
-            for (Book next : collectionOfBooks) {
-                i = i + next.getProgress();
+    // EFFECTS: return a snapshot of the bookshelf as it is now, e.g. to save or report on it, or to undo to;
+    // the first snapshot takes time proportional to the number of books, every later one constant time,
+    // since from then on every change to the bookshelf also updates the book records kept for snapshots
+    // in O(log n) time, sharing the records of every book that did not change
+    public BookshelfSnapshot snapshot() {
+        if (this.records == null) {
+            List<BookRecord> all = new ArrayList<>(this.numberOfBooks);
+            for (Book book : this.collectionOfBooks) {
+                all.add(new BookRecord(book));
             }
+            this.records = PersistentVector.of(all);
+        }
+        return new BookshelfSnapshot(this.records, getTotalPages(), getTotalPagesRead(), getTotalProgress());
+    }
+
+    // REQUIRES: target is a snapshot taken from this bookshelf
+    // MODIFIES: this
+    // EFFECTS: bring the bookshelf back to the state of the snapshot, e.g. to undo or redo changes:
+    // take off the books added since, put back the books taken off since under their old IDs,
+    // and move the pages read and genre tags of every other book that changed back to the snapshot's,
+    // recording them on the timeline, in the reading histories and in the event log like any other change;
+    // takes time proportional to the number of changed books, times log n
+    public void restore(BookshelfSnapshot target) {
+        BookshelfSnapshot current = snapshot();
+        long now = System.currentTimeMillis();
+        while (this.numberOfBooks > target.getNumberOfBooks()) {
+            removeLastBook(now);
+        }
+        IntList changed = current.changedPositions(target);
+        List<BookRecord> targetBooks = target.getAllBooks();
+        for (int i = 0; i < changed.size(); i++) {
+            int position = changed.get(i);
+            restoreBook(this.collectionOfBooks.get(position), targetBooks.get(position), now);
+        }
+
+        List<Book> putBack = new ArrayList<>();
+        for (int i = this.numberOfBooks; i < targetBooks.size(); i++) {
+            putBack.add(bookOf(targetBooks.get(i)));
+        }
+        addBooks(putBack);
+    }
 
-            this.totalProgress = tenthPercentageHelper(i / this.numberOfBooks / 100);
+    // MODIFIES: this
+    // EFFECTS: make the change to the bookshelf the event records, e.g. one read back from a journal
+    // after a crash, as it was made then, and return true; return false and change nothing if the event
+    // records no change to a bookshelf, or one that does not apply to this bookshelf as it is now,
+    // e.g. because it was already made: books are only put on it under IDs not taken yet,
+    // a book is only taken off if it is the last one, and pages read only change from the old # of pages.
+    // Replaying the events of a bookshelf in order, over the state it was in before the first of them,
+    // brings it back to the state it was in after the last of them
+    public boolean replay(Event event) {
+        Book book = getBookById(event.getBookId());
+        switch (event.getType()) {
+            case BOOK_ADDED:
+            case BOOKS_ADDED:
+                return replayBooksAdded(event.getBooks());
+            case BOOK_REMOVED:
+                if (book == null || book.getPosition() != this.numberOfBooks - 1) {
+                    return false;
+                }
+                removeLastBook(event.getTimestamp());
+                return true;
+            case PROGRESS_UPDATED:
+                if (book == null || book.getPagesRead() != event.getOldPage()) {
+                    return false;
+                }
+                book.progressUpdate(event.getNewPage(), event.getTimestamp());
+                return true;
+            default:
+                return replayGenreTag(book, event);
         }
     }
 
+    // MODIFIES: this
+    // EFFECTS: recompute the progress dashboard from scratch by summing up the books;
+    // the dashboard is already kept up to date as books are added and read,
+    // so this is only needed to double-check it
+    public void totalProgressUpdate() {
+        progressDashboard.rebuild(collectionOfBooks);
+    }
+
 
     // getters
     public List<Book> getAllBooks() {
@@ -126,44 +384,273 @@ public class Bookshelf implements Writable {
         return this.numberOfBooks;
     }
 
+    // EFFECTS: return the distinct genre names on the bookshelf, in the order they first appeared
     public List<String> getAllGenres() {
-        return this.collectionOfGenres;
+        return this.genreManager.getAllGenres();
     }
 
     public int getNumberOfGenres() {
-        return this.numberOfGenres;
+        return this.genreManager.getNumberOfGenres();
     }
 
+    // EFFECTS: return the average progress of all books in percentage, rounded to the nearest tenth
     public double getTotalProgress() {
-        return this.totalProgress;
+        return this.progressDashboard.getTotalProgress();
+    }
+
+    public long getTotalPages() {
+        return this.progressDashboard.getTotalPages();
+    }
+
+    public long getTotalPagesRead() {
+        return this.progressDashboard.getPagesRead();
+    }
+
+    public int getNumberOfFinishedBooks() {
+        return this.progressDashboard.getNumberOfFinishedBooks();
+    }
+
+    public int getNumberOfUnstartedBooks() {
+        return this.progressDashboard.getNumberOfUnstartedBooks();
+    }
+
+    // REQUIRES: 0 <= p <= 100
+    // EFFECTS: return the p-th percentile of individual progress in percentage,
+    // i.e. the least progress such that at least p% of the books are at or below it
+    public double getProgressPercentile(double p) {
+        return this.progressDashboard.getProgressHistogram().getPercentile(p);
+    }
+
+    // EFFECTS: return the variance of individual progress in squared percentage points
+    public double getProgressVariance() {
+        return this.progressDashboard.getProgressHistogram().getVariance();
+    }
+
+    // EFFECTS: return the standard deviation of individual progress in percentage points
+    public double getProgressStandardDeviation() {
+        return this.progressDashboard.getProgressHistogram().getStandardDeviation();
+    }
+
+    // REQUIRES: numberOfRanges >= 1
+    // EFFECTS: return how many books fall into each of numberOfRanges equally wide ranges of progress,
+    // e.g. for 10 ranges: [0%, 10%), [10%, 20%), ..., [90%, 100%]
+    public int[] getProgressDistribution(int numberOfRanges) {
+        return this.progressDashboard.getProgressHistogram().getDistribution(numberOfRanges);
+    }
+
+
+    // EFFECTS: return the event log that events on this bookshelf and its books are logged to;
+    // the EventLog shared by the system unless another one was set
+    public EventLog getEventLog() {
+        return this.eventLog;
+    }
+
+    // REQUIRES: eventLog is not null
+    // MODIFIES: this
+    // EFFECTS: log later events on this bookshelf and its books to the given event log,
+    // e.g. one kept for the user owning this bookshelf
+    public void setEventLog(EventLog eventLog) {
+        this.eventLog = eventLog;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: tell the listener about every later change to this bookshelf and the books on it,
+    // on the thread making the change
+    public void addListener(BookshelfListener listener) {
+        this.listeners.add(listener);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: tell the listener about every later change to this bookshelf and the books on it
+    // on the given executor, one change at a time and in the order they were made
+    public void addListener(BookshelfListener listener, Executor executor) {
+        this.listeners.add(new AsyncBookshelfListener(listener, executor));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stop telling the listener about changes to this bookshelf, however it was added
+    public void removeListener(BookshelfListener listener) {
+        this.listeners.removeIf(registered -> AsyncBookshelfListener.registers(registered, listener));
+    }
+
+    // EFFECTS: return a rough estimate, in bytes, of the memory this bookshelf holds on to,
+    // counted from its books, title characters, genre tags, genres and timeline changes;
+    // takes time proportional to the number of genres, not books
+    public long estimateMemoryUsage() {
+        long genreTags = 0;
+        for (String genre : this.genreManager.getAllGenres()) {
+            genreTags += this.genreManager.numOfBooksTaggedBy(genre);
+        }
+        return this.numberOfBooks * BYTES_PER_BOOK
+                + this.titleCharacters * BYTES_PER_TITLE_CHARACTER
+                + genreTags * BYTES_PER_GENRE_TAG
+                + this.genreManager.getNumberOfGenres() * BYTES_PER_GENRE
+                + this.timeline.size() * BYTES_PER_TIMELINE_CHANGE;
     }
 
 
     // helper functions
 
-    // EFFECTS: round and return the nearest percentage point
-    private double tenthPercentageHelper(double i) {
-        double hundredth = Math.floor(10000 * i);
-        double tenth = 10 * Math.floor(1000 * i);
-        double check = hundredth - tenth;
+    // MODIFIES: this, book
+    // EFFECTS: give the book an ID, set when it was added (now, unless already set,
+    // but never before the book added last), add it to the collection of books, index it by its ID, title,
+    // title search index and genre tags
+    private void shelve(Book book, long now) {
+        assignId(book);
+        this.lastAddedAt = Math.max(this.lastAddedAt, book.getAddedAt() == 0 ? now : book.getAddedAt());
+        book.restoreAddedAt(this.lastAddedAt);
 
-        if (check < 5) {
-            return Math.floor(1000 * i) / 10;
-        } else {
-            return Math.floor(1 + 1000 * i) / 10;
+        this.numberOfBooks++;
+        this.collectionOfBooks.add(book);
+        this.booksById.put(book.getId(), book);
+        this.booksByTitle.computeIfAbsent(book.getTitle(), title -> new ArrayList<>(1)).add(book);
+        this.titleCharacters += book.getTitle().length();
+        book.setBookshelf(this, this.numberOfBooks - 1);
+        this.titleIndex.add(book);
+        this.genreManager.addBook(book);
+    }
+
+    // REQUIRES: this.numberOfBooks > 0
+    // MODIFIES: this
+    // EFFECTS: take the book put on the bookshelf last off it and out of every index,
+    // record it on the timeline at the given time, log an event to the event log of the bookshelf
+    // and tell its listeners
+    private void removeLastBook(long timestamp) {
+        Book book = this.collectionOfBooks.get(this.numberOfBooks - 1);
+        int position = book.getPosition();
+        this.timeline.bookRemoved(timestamp, book);
+        for (String tag : book.getGenreTags()) {
+            this.genreManager.removeTag(book, tag);
+        }
+        this.readingOrderIndex.remove(position, book.getTotalPages(), book.getPagesRead(),
+                Book.tenths(book.getProgress()));
+        this.progressDashboard.removeBook(book);
+        this.titleIndex.removeLast();
+        this.booksById.remove(book.getId());
+        removeLastTitle(book);
+        this.collectionOfBooks.remove(position);
+        this.numberOfBooks--;
+        book.setBookshelf(null, 0);
+        this.records = this.records == null ? null : this.records.minusLast();
+        if (this.eventLog.shouldLog(EventCategory.BOOKSHELF, EventLevel.INFO)) {
+            this.eventLog.logEvent(Event.bookRemoved(book));
+        }
+        for (BookshelfListener listener : this.listeners) {
+            listener.bookRemoved(this, book);
         }
     }
 
-    // REQUIRES: string is not empty
-    // EFFECTS: check if the input genre tag has already
-    // in the collectionOfGenres
-    private boolean checkRepeatedTag(String tag) {
-        for (String next : collectionOfGenres) {
-            if (next.equals(tag)) {
-                return true;
+    // REQUIRES: book is the last one on the bookshelf with its title
+    // MODIFIES: this
+    // EFFECTS: stop indexing the book by its title
+    private void removeLastTitle(Book book) {
+        List<Book> sameTitle = this.booksByTitle.get(book.getTitle());
+        sameTitle.remove(sameTitle.size() - 1);
+        if (sameTitle.isEmpty()) {
+            this.booksByTitle.remove(book.getTitle());
+        }
+        this.titleCharacters -= book.getTitle().length();
+    }
+
+    // EFFECTS: tell the listeners that the books were put on the bookshelf; builds nothing if there are none
+    private void tellBooksAdded(Collection<? extends Book> books) {
+        if (this.listeners.isEmpty()) {
+            return;
+        }
+        List<Book> added = List.copyOf(books);
+        for (BookshelfListener listener : this.listeners) {
+            listener.booksAdded(this, added);
+        }
+    }
+
+    // MODIFIES: book
+    // EFFECTS: move the pages read and genre tags of the book to those in the record, at the given time
+    private void restoreBook(Book book, BookRecord record, long timestamp) {
+        if (book.getPagesRead() != record.getPagesRead()) {
+            book.progressUpdate(record.getPagesRead(), timestamp);
+        }
+        for (String tag : book.getGenreTags()) {
+            if (!record.containsGenreTag(tag)) {
+                book.removeGenreTag(tag);
+            }
+        }
+        for (String tag : record.getGenreTags()) {
+            book.addGenreTag(tag);
+        }
+    }
+
+    // EFFECTS: return a new book, not on any bookshelf, in the state of the record but without a reading history
+    private static Book bookOf(BookRecord record) {
+        CatalogEntry entry = BookCatalog.getInstance().canonicalize(record.getTitle(), record.getTotalPages(),
+                record.getGenreTags());
+        Book book = new Book(record.getId(), entry, record.getPagesRead());
+        book.restoreAddedAt(record.getAddedAt());
+        return book;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: put books in the state of the records on the bookshelf in one batch, skipping those
+    // whose IDs are taken, and return true if there were any
+    private boolean replayBooksAdded(List<BookRecord> records) {
+        List<Book> books = new ArrayList<>(records.size());
+        for (BookRecord record : records) {
+            if (!this.booksById.containsId(record.getId())) {
+                books.add(bookOf(record));
             }
         }
-        return false;
+        addBooks(books);
+        return !books.isEmpty();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: add or remove the genre tag of a GENRE_TAG_ADDED or GENRE_TAG_REMOVED event to or from the book,
+    // and return true if the book's tags changed
+    private boolean replayGenreTag(Book book, Event event) {
+        if (book == null || event.getGenre() == null) {
+            return false;
+        }
+        int tags = book.getNumberOfGenreTags();
+        if (event.getType() == EventType.GENRE_TAG_ADDED) {
+            book.addGenreTag(event.getGenre());
+        } else if (event.getType() == EventType.GENRE_TAG_REMOVED) {
+            book.removeGenreTag(event.getGenre());
+        }
+        return book.getNumberOfGenreTags() != tags;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: append a record of the book just put on the bookshelf to the records kept for snapshots, if any
+    private void recordAdded(Book book) {
+        if (this.records != null) {
+            this.records = this.records.plus(new BookRecord(book));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: replace the record of the book in the records kept for snapshots, if any, with its current state
+    private void recordChanged(Book book) {
+        if (this.records != null) {
+            this.records = this.records.with(book.getPosition(), new BookRecord(book));
+        }
+    }
+
+    // EFFECTS: return the books at the given positions, in the order given
+    private List<Book> booksAt(List<Integer> positions) {
+        List<Book> books = new ArrayList<>(positions.size());
+        for (int position : positions) {
+            books.add(collectionOfBooks.get(position));
+        }
+        return books;
+    }
+
+    // MODIFIES: book
+    // EFFECTS: give the book the next free ID if it has none or its ID is already taken,
+    // and make sure IDs handed out later never collide with the book's ID
+    private void assignId(Book book) {
+        if (book.getId() == Book.NO_ID || booksById.containsId(book.getId())) {
+            book.setId(nextBookId);
+        }
+        nextBookId = Math.max(nextBookId, book.getId() + 1);
     }
 
     // for read and load functions
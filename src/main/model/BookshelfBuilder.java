@@ -0,0 +1,54 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Represents a builder for a bookshelf holding many books at once, e.g. when loading one from file;
+// books are collected first and put on the bookshelf in one batch when it is built,
+// so the bookshelf can make room for all of them up front and logs one event for the batch,
+// at DEBUG: the caller logs a summary of what was built, if anything.
+public class BookshelfBuilder {
+
+    private List<Book> books;
+
+    // EFFECTS: construct a builder with no books
+    public BookshelfBuilder() {
+        this.books = new ArrayList<>();
+    }
+
+    // REQUIRES: expectedNumberOfBooks >= 0
+    // EFFECTS: construct a builder with no books that has room for the expected number of books
+    public BookshelfBuilder(int expectedNumberOfBooks) {
+        this.books = new ArrayList<>(expectedNumberOfBooks);
+    }
+
+    // REQUIRES: book is not null and not already added
+    // MODIFIES: this
+    // EFFECTS: add the book to the books to be put on the bookshelf and return this builder
+    public BookshelfBuilder addBook(Book book) {
+        this.books.add(book);
+        return this;
+    }
+
+    // REQUIRES: books is not null and holds no null or already added books
+    // MODIFIES: this
+    // EFFECTS: add the books, in the order given, to the books to be put on the bookshelf
+    // and return this builder
+    public BookshelfBuilder addBooks(Collection<? extends Book> books) {
+        this.books.addAll(books);
+        return this;
+    }
+
+    // EFFECTS: return a new bookshelf holding every book added so far, in the order they were added;
+    // the event for the batch is logged at DEBUG, so by default it is not even built
+    public Bookshelf build() {
+        Bookshelf bookshelf = new Bookshelf();
+        bookshelf.addBooks(books, EventLevel.DEBUG);
+        return bookshelf;
+    }
+
+    public int getNumberOfBooks() {
+        return this.books.size();
+    }
+}
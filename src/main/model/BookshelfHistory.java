@@ -0,0 +1,102 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+// Represents the undo and redo history of a bookshelf, as a window of its most recent snapshots.
+// A snapshot is taken at every checkpoint (e.g. before each action of the user) if anything changed,
+// and costs O(1) since snapshots share every book record that did not change between them;
+// undoing brings the bookshelf back to the snapshot before, and redoing to the one after.
+// Snapshots older than the window are dropped, so they can be garbage-collected.
+public class BookshelfHistory {
+
+    private Bookshelf bookshelf;
+    private int limit;
+    private Deque<BookshelfSnapshot> undoSnapshots;   // most recent first
+    private Deque<BookshelfSnapshot> redoSnapshots;   // most recent first
+    private BookshelfSnapshot current;
+
+    // REQUIRES: bookshelf is not null, limit >= 1
+    // EFFECTS: construct an empty history of the bookshelf that can undo up to limit changes
+    public BookshelfHistory(Bookshelf bookshelf, int limit) {
+        this.bookshelf = bookshelf;
+        this.limit = limit;
+        this.undoSnapshots = new ArrayDeque<>();
+        this.redoSnapshots = new ArrayDeque<>();
+        this.current = bookshelf.snapshot();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if the bookshelf changed since the last checkpoint, keep its state before the change so it
+    //      can be undone, dropping the oldest state kept once there are more than limit of them,
+    //      and forget every change that could be redone
+    public void checkpoint() {
+        BookshelfSnapshot now = bookshelf.snapshot();
+        if (now.hasSameBooksAs(current)) {
+            return;
+        }
+        undoSnapshots.push(current);
+        if (undoSnapshots.size() > limit) {
+            undoSnapshots.removeLast();
+        }
+        redoSnapshots.clear();
+        current = now;
+    }
+
+    // MODIFIES: this, bookshelf
+    // EFFECTS: take a checkpoint, then bring the bookshelf back to its state before the last change
+    //      and return true; return false if there is no change to undo
+    public boolean undo() {
+        checkpoint();
+        if (undoSnapshots.isEmpty()) {
+            return false;
+        }
+        redoSnapshots.push(current);
+        moveTo(undoSnapshots.pop());
+        return true;
+    }
+
+    // MODIFIES: this, bookshelf
+    // EFFECTS: take a checkpoint, then bring the bookshelf forward to its state before the last undo
+    //      and return true; return false if there is no undo to redo, e.g. the bookshelf changed since
+    public boolean redo() {
+        checkpoint();
+        if (redoSnapshots.isEmpty()) {
+            return false;
+        }
+        undoSnapshots.push(current);
+        moveTo(redoSnapshots.pop());
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: return true if there is a change to undo, taking a checkpoint first
+    public boolean canUndo() {
+        checkpoint();
+        return !undoSnapshots.isEmpty();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: return true if there is an undo to redo, taking a checkpoint first
+    public boolean canRedo() {
+        checkpoint();
+        return !redoSnapshots.isEmpty();
+    }
+
+    // EFFECTS: return the number of changes that can be undone, not counting any since the last checkpoint
+    public int getNumberOfUndos() {
+        return undoSnapshots.size();
+    }
+
+    // EFFECTS: return the number of undos that can be redone
+    public int getNumberOfRedos() {
+        return redoSnapshots.size();
+    }
+
+    // MODIFIES: this, bookshelf
+    // EFFECTS: restore the bookshelf to the snapshot and take its new state as the current one
+    private void moveTo(BookshelfSnapshot target) {
+        bookshelf.restore(target);
+        current = bookshelf.snapshot();
+    }
+}
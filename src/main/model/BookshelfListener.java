@@ -0,0 +1,16 @@
+package model;
+
+import java.util.List;
+
+// Represents something told about every change to a bookshelf as it is made: books put on it or taken off it,
+// and every change to a book on it, as a BookListener of each of its books would be
+public interface BookshelfListener extends BookListener {
+
+    // EFFECTS: react to the books being put on the bookshelf in one batch, in the order given
+    default void booksAdded(Bookshelf bookshelf, List<Book> books) {
+    }
+
+    // EFFECTS: react to the book being taken off the bookshelf
+    default void bookRemoved(Bookshelf bookshelf, Book book) {
+    }
+}
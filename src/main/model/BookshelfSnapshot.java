@@ -0,0 +1,110 @@
+package model;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import persistence.Writable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Represents a read-only snapshot of a bookshelf;
+// it holds a record of every book taken when the snapshot was made,
+// and its totals are computed from those same records, so they always agree with them.
+// The records are kept in a persistent vector, so snapshots taken from the same bookshelf
+// share every record that did not change between them.
+public class BookshelfSnapshot implements Writable {
+
+    private final PersistentVector<BookRecord> books;
+    private final long totalPages;
+    private final long pagesRead;
+    private final double totalProgress;
+
+    // REQUIRES: books is not null and is not changed afterwards
+    // EFFECTS: construct a snapshot of the given book records and compute its totals
+    public BookshelfSnapshot(List<BookRecord> books) {
+        this.books = PersistentVector.of(books);
+
+        long pages = 0;
+        long read = 0;
+        long progressSum = 0;
+        for (BookRecord next : books) {
+            pages += next.getTotalPages();
+            read += next.getPagesRead();
+            progressSum += Book.tenths(next.getProgress());
+        }
+        this.totalPages = pages;
+        this.pagesRead = read;
+        this.totalProgress = ProgressDashboard.averageOf(progressSum, books.size());
+    }
+
+    // REQUIRES: the totals are those of the given book records
+    // EFFECTS: construct a snapshot of the given book records with totals already known, in constant time
+    BookshelfSnapshot(PersistentVector<BookRecord> books, long totalPages, long pagesRead, double totalProgress) {
+        this.books = books;
+        this.totalPages = totalPages;
+        this.pagesRead = pagesRead;
+        this.totalProgress = totalProgress;
+    }
+
+    // REQUIRES: genreName is not empty
+    // EFFECTS: return a list of the book records that have the given genre name
+    public List<BookRecord> booksTaggedBy(String genreName) {
+        List<BookRecord> booksTagged = new ArrayList<>();
+        for (BookRecord next : books) {
+            if (next.containsGenreTag(genreName)) {
+                booksTagged.add(next);
+            }
+        }
+        return booksTagged;
+    }
+
+    // getters
+
+    public List<BookRecord> getAllBooks() {
+        return this.books;
+    }
+
+    public int getNumberOfBooks() {
+        return this.books.size();
+    }
+
+    public long getTotalPages() {
+        return this.totalPages;
+    }
+
+    public long getTotalPagesRead() {
+        return this.pagesRead;
+    }
+
+    public double getTotalProgress() {
+        return this.totalProgress;
+    }
+
+    // EFFECTS: return true if this snapshot holds the very same book records as the other one,
+    // i.e. nothing changed on the bookshelf between the two
+    boolean hasSameBooksAs(BookshelfSnapshot other) {
+        return this.books == other.books;
+    }
+
+    // EFFECTS: return the positions below both sizes where this snapshot and the other one hold
+    // different records, in increasing order; takes time proportional to the changes between them
+    // if they were taken from the same bookshelf
+    IntList changedPositions(BookshelfSnapshot other) {
+        return this.books.changedIndexes(other.books);
+    }
+
+    // for read and load functions
+
+    // EFFECTS: returns this as JSON object, in the same format as Bookshelf
+    @Override
+    public JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        JSONArray jsonArray = new JSONArray();
+        for (BookRecord next : books) {
+            jsonArray.put(next.toJson());
+        }
+        json.put("collectionOfBooks", jsonArray);
+
+        return json;
+    }
+}
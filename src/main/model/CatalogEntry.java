@@ -0,0 +1,81 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+// Represents what every copy of a book has in common, whoever is reading it:
+// its title, total # of pages, and the genres it is tagged by by default.
+// A catalog entry never changes, so the BookCatalog can share one among all books
+// with the same title, total pages and default genres, whichever bookshelves they are on.
+public final class CatalogEntry {
+
+    private final String title;
+    private final int totalPages;
+    private final int[] genreCodes;   // codes from the GenreDictionary, in the order the tags were added
+    private final int[] sortedGenreCodes;  // the same codes, sorted
+    private final int hash;
+
+    // REQUIRES: title is not empty, totalPages >= 1, genreCodes holds distinct codes from the GenreDictionary
+    // EFFECTS: construct an entry with the given title, total # of pages and default genres;
+    //      genreCodes must not be changed afterwards
+    CatalogEntry(String title, int totalPages, int[] genreCodes) {
+        this.title = title;
+        this.totalPages = totalPages;
+        this.genreCodes = genreCodes;
+        this.sortedGenreCodes = genreCodes.clone();
+        Arrays.sort(this.sortedGenreCodes);
+        this.hash = 31 * (31 * title.hashCode() + totalPages) + Arrays.hashCode(genreCodes);
+    }
+
+    public String getTitle() {
+        return this.title;
+    }
+
+    public int getTotalPages() {
+        return this.totalPages;
+    }
+
+    // EFFECTS: return the names of the default genres, in the order they were added
+    public List<String> getDefaultGenres() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return GenreDictionary.getInstance().nameOf(genreCodes[index]);
+            }
+
+            @Override
+            public int size() {
+                return genreCodes.length;
+            }
+        };
+    }
+
+    // EFFECTS: return the codes of the default genres; callers must not modify them
+    int[] genreCodes() {
+        return this.genreCodes;
+    }
+
+    // EFFECTS: return the codes of the default genres, sorted; callers must not modify them
+    int[] sortedGenreCodes() {
+        return this.sortedGenreCodes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CatalogEntry)) {
+            return false;
+        }
+        CatalogEntry other = (CatalogEntry) o;
+        return hash == other.hash && totalPages == other.totalPages && title.equals(other.title)
+                && Arrays.equals(genreCodes, other.genreCodes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,180 @@
+package model;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Represents a bookshelf of books that many threads can add, read and tag at once.
+// Adding books is serialized by one lock; changes to a book are serialized by one of a fixed set of
+// striped locks chosen by the book's ID, so changes to different books rarely wait for each other.
+// The whole bookshelf is published as one immutable state: the records of its books in a persistent vector,
+// and their totals. Every change swaps in a new state with one record replaced or added,
+// sharing everything else with the state before it, so the changes are published one at a time.
+// Readers take the current state as a snapshot without taking any lock, so they never block writers,
+// and a snapshot is the whole bookshelf as it was between two changes: if it holds one change,
+// it holds every change published before it, whichever book each was to.
+public class ConcurrentBookshelf {
+
+    private static final int STRIPES = 64;
+
+    private final Object addLock;
+    private final ReentrantLock[] stripes;
+    private final ConcurrentHashMap<Integer, Slot> slotsById;
+    private final AtomicReference<State> state;
+    private int nextBookId;
+
+    // EFFECTS: construct an empty concurrent bookshelf
+    public ConcurrentBookshelf() {
+        this.addLock = new Object();
+        this.stripes = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.slotsById = new ConcurrentHashMap<>();
+        this.state = new AtomicReference<>(new State(PersistentVector.empty(), 0, 0, 0));
+        this.nextBookId = 1;
+    }
+
+    // REQUIRES: book is not null, is not on any other bookshelf,
+    //           and is no longer changed directly by the caller
+    // MODIFIES: this, book
+    // EFFECTS: give the book an ID unless it already has one that is not taken on this bookshelf,
+    // add it to the bookshelf, log an event to EventLog, and return its ID
+    public int addBook(Book book) {
+        synchronized (addLock) {
+            if (book.getId() == Book.NO_ID || slotsById.containsKey(book.getId())) {
+                book.setId(nextBookId);
+            }
+            nextBookId = Math.max(nextBookId, book.getId() + 1);
+
+            BookRecord record = new BookRecord(book);
+            int position = state.getAndUpdate(current -> current.plus(record)).records.size();
+            slotsById.put(book.getId(), new Slot(book, position));
+        }
+
+        if (EventLog.getInstance().shouldLog(EventCategory.BOOKSHELF, EventLevel.INFO)) {
+            EventLog.getInstance().logEvent(Event.bookAdded(book));
+        }
+        return book.getId();
+    }
+
+    // REQUIRES: newPage >= 0
+    // MODIFIES: this
+    // EFFECTS: update the # of pages read of the book with the given ID and return true;
+    // return false if no such book is on the bookshelf
+    public boolean progressUpdate(int id, int newPage) {
+        Slot slot = slotsById.get(id);
+        if (slot == null) {
+            return false;
+        }
+
+        ReentrantLock lock = stripeOf(id);
+        lock.lock();
+        try {
+            slot.book.progressUpdate(newPage);
+            publish(slot);
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    // REQUIRES: genreTag is not empty
+    // MODIFIES: this
+    // EFFECTS: add the genre tag to the book with the given ID and return true;
+    // return false if no such book is on the bookshelf
+    public boolean addGenreTag(int id, String genreTag) {
+        Slot slot = slotsById.get(id);
+        if (slot == null) {
+            return false;
+        }
+
+        ReentrantLock lock = stripeOf(id);
+        lock.lock();
+        try {
+            slot.book.addGenreTag(genreTag);
+            publish(slot);
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    // EFFECTS: return a snapshot of the whole bookshelf as it is now, in constant time and without
+    // blocking any writer; it holds every change published before this call, and no change to any book
+    // unless it also holds every change published before that one
+    public BookshelfSnapshot snapshot() {
+        return state.get().toSnapshot();
+    }
+
+    // EFFECTS: return the current record of the book with the given ID, or null if there is no such book
+    public BookRecord getBookById(int id) {
+        Slot slot = slotsById.get(id);
+        return slot == null ? null : state.get().records.get(slot.position);
+    }
+
+    public int getNumberOfBooks() {
+        return state.get().records.size();
+    }
+
+    // helper functions
+
+    // REQUIRES: the lock guarding changes to the book in the slot is held
+    // MODIFIES: this
+    // EFFECTS: publish a new state of the bookshelf with the record of the book in the slot replaced
+    // by one of its current state
+    private void publish(Slot slot) {
+        BookRecord record = new BookRecord(slot.book);
+        state.updateAndGet(current -> current.with(slot.position, record));
+    }
+
+    // EFFECTS: return the lock guarding changes to the book with the given ID
+    private ReentrantLock stripeOf(int id) {
+        return stripes[Math.floorMod(id, STRIPES)];
+    }
+
+    // Represents a book on the bookshelf and its position among the records
+    private static class Slot {
+        private final Book book;
+        private final int position;
+
+        Slot(Book book, int position) {
+            this.book = book;
+            this.position = position;
+        }
+    }
+
+    // Represents the whole bookshelf between two changes: the records of its books and their totals
+    private static final class State {
+        private final PersistentVector<BookRecord> records;
+        private final long totalPages;
+        private final long pagesRead;
+        private final long progressSum;   // in tenths of a percent
+
+        State(PersistentVector<BookRecord> records, long totalPages, long pagesRead, long progressSum) {
+            this.records = records;
+            this.totalPages = totalPages;
+            this.pagesRead = pagesRead;
+            this.progressSum = progressSum;
+        }
+
+        // EFFECTS: return this state with the record added as the last one
+        State plus(BookRecord record) {
+            return new State(records.plus(record), totalPages + record.getTotalPages(),
+                    pagesRead + record.getPagesRead(), progressSum + Book.tenths(record.getProgress()));
+        }
+
+        // EFFECTS: return this state with the record at the position replaced by the given one
+        State with(int position, BookRecord record) {
+            BookRecord old = records.get(position);
+            return new State(records.with(position, record), totalPages,
+                    pagesRead - old.getPagesRead() + record.getPagesRead(),
+                    progressSum - Book.tenths(old.getProgress()) + Book.tenths(record.getProgress()));
+        }
+
+        BookshelfSnapshot toSnapshot() {
+            return new BookshelfSnapshot(records, totalPages, pagesRead,
+                    ProgressDashboard.averageOf(progressSum, records.size()));
+        }
+    }
+}
@@ -1,16 +1,36 @@
 package model;
 
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 
 
 /**
  * Represents an event from Reading Tracker Application.
+ * Besides free-text messages, an event can be about a book (its ID, title, pages and progress)
+ * or about a number of books; such an event keeps those values as they are and only writes
+ * its description when it is asked for, so logging it builds no strings.
+ * An event about books being put on a bookshelf also keeps a record of each of them,
+ * and one about a genre tag keeps the genre, so that every change to a bookshelf
+ * can be replayed from its events.
  */
 public class Event {
     private static final int HASH_CONSTANT = 13;
-    private Date dateLogged;
-    private String description;
+    private static final int DESCRIPTION_LENGTH_ESTIMATE = 48;
+
+    private long timestamp;
+    private EventType type;
+    private String text;          // the description of a MESSAGE, or the title of the book
+    private int bookId;
+    private int oldPage;
+    private int newPage;
+    private int totalPages;
+    private int progressTenths;   // in tenths of a percent
+    private int numberOfBooks;
+    private String genre;               // the genre of a GENRE_TAG_ADDED or GENRE_TAG_REMOVED event
+    private List<BookRecord> books;     // the books put on a bookshelf by a BOOK_ADDED or BOOKS_ADDED event
 
     /**
      * Creates an event with the given description
@@ -19,8 +39,162 @@ public class Event {
      * @param description a description of the event
      */
     public Event(String description) {
-        dateLogged = Calendar.getInstance().getTime();
-        this.description = description;
+        this(EventType.MESSAGE, description, Calendar.getInstance().getTimeInMillis());
+    }
+
+    /**
+     * Creates an event of the given type and text with the given date/time stamp.
+     */
+    private Event(EventType type, String text, long timestamp) {
+        this.timestamp = timestamp;
+        this.type = type;
+        this.text = text;
+        this.books = List.of();
+    }
+
+    /**
+     * Creates an event about a book being put on a bookshelf.
+     *
+     * @param book the book that was put on a bookshelf
+     * @return the event
+     */
+    public static Event bookAdded(Book book) {
+        Event event = aboutBook(EventType.BOOK_ADDED, book);
+        event.books = List.of(new BookRecord(book));
+        return event;
+    }
+
+    /**
+     * Creates an event about a number of books being put on a bookshelf in one batch.
+     *
+     * @param numberOfBooks the number of books
+     * @return the event
+     */
+    public static Event booksAdded(int numberOfBooks) {
+        Event event = new Event(EventType.BOOKS_ADDED, null, System.currentTimeMillis());
+        event.numberOfBooks = numberOfBooks;
+        return event;
+    }
+
+    /**
+     * Creates an event about books being put on a bookshelf in one batch,
+     * keeping a record of each of them as they are now.
+     *
+     * @param books the books, in the order they were put on the bookshelf
+     * @return the event
+     */
+    public static Event booksAdded(Collection<? extends Book> books) {
+        Event event = booksAdded(books.size());
+        List<BookRecord> records = new ArrayList<>(books.size());
+        for (Book book : books) {
+            records.add(new BookRecord(book));
+        }
+        event.books = records;
+        return event;
+    }
+
+    /**
+     * Creates an event about a book being taken off a bookshelf.
+     *
+     * @param book the book that was taken off a bookshelf
+     * @return the event
+     */
+    public static Event bookRemoved(Book book) {
+        return aboutBook(EventType.BOOK_REMOVED, book);
+    }
+
+    /**
+     * Creates an event about the # of pages read of a book being updated.
+     *
+     * @param book    the book, with its # of pages read and progress already updated
+     * @param oldPage the # of pages read before the update
+     * @return the event
+     */
+    public static Event progressUpdated(Book book, int oldPage) {
+        return progressUpdated(book, oldPage, System.currentTimeMillis());
+    }
+
+    /**
+     * Creates an event about the # of pages read of a book being updated at the given time.
+     *
+     * @param book      the book, with its # of pages read and progress already updated
+     * @param oldPage   the # of pages read before the update
+     * @param timestamp the time of the update, in milliseconds since the epoch
+     * @return the event
+     */
+    public static Event progressUpdated(Book book, int oldPage, long timestamp) {
+        Event event = aboutBook(EventType.PROGRESS_UPDATED, book);
+        event.timestamp = timestamp;
+        event.oldPage = oldPage;
+        return event;
+    }
+
+    /**
+     * Creates an event about a genre tag being added to a book on a bookshelf.
+     *
+     * @param book  the book
+     * @param genre the name of the genre
+     * @return the event
+     */
+    public static Event genreTagAdded(Book book, String genre) {
+        Event event = aboutBook(EventType.GENRE_TAG_ADDED, book);
+        event.genre = genre;
+        return event;
+    }
+
+    /**
+     * Creates an event about a genre tag being removed from a book on a bookshelf.
+     *
+     * @param book  the book
+     * @param genre the name of the genre
+     * @return the event
+     */
+    public static Event genreTagRemoved(Book book, String genre) {
+        Event event = aboutBook(EventType.GENRE_TAG_REMOVED, book);
+        event.genre = genre;
+        return event;
+    }
+
+    /**
+     * Creates an event about a bookshelf being loaded from file.
+     *
+     * @param numberOfBooks the number of books on the bookshelf loaded
+     * @return the event
+     */
+    public static Event bookshelfLoaded(int numberOfBooks) {
+        Event event = new Event(EventType.BOOKSHELF_LOADED, null, System.currentTimeMillis());
+        event.numberOfBooks = numberOfBooks;
+        return event;
+    }
+
+    /**
+     * Creates an event as it was logged, e.g. one read back from a journal;
+     * the progress of the book is calculated from its pages.
+     *
+     * @param type          the kind of event
+     * @param timestamp     the time of the event, in milliseconds since the epoch
+     * @param text          the description of a MESSAGE, or the title of the book
+     * @param bookId        the ID of the book, or Book.NO_ID if the event is not about one book
+     * @param oldPage       the # of pages read before a PROGRESS_UPDATED event, zero for other events
+     * @param newPage       the # of pages read at the time of the event
+     * @param totalPages    the total # of pages of the book, or zero if the event is not about one book
+     * @param numberOfBooks the number of books of a BOOKS_ADDED or BOOKSHELF_LOADED event, zero for other events
+     * @param genre         the genre of a GENRE_TAG_ADDED or GENRE_TAG_REMOVED event, null for other events
+     * @param books         the records of the books put on a bookshelf, empty if there are none
+     * @return the event
+     */
+    public static Event restore(EventType type, long timestamp, String text, int bookId, int oldPage, int newPage,
+                                int totalPages, int numberOfBooks, String genre, List<BookRecord> books) {
+        Event event = new Event(type, text, timestamp);
+        event.genre = genre;
+        event.books = List.copyOf(books);
+        event.bookId = bookId;
+        event.oldPage = oldPage;
+        event.newPage = newPage;
+        event.totalPages = totalPages;
+        event.progressTenths = totalPages == 0 ? 0 : Book.tenths(Book.percentageOf(newPage, totalPages));
+        event.numberOfBooks = numberOfBooks;
+        return event;
     }
 
     /**
@@ -29,16 +203,164 @@ public class Event {
      * @return the date of the event
      */
     public Date getDate() {
-        return dateLogged;
+        return new Date(timestamp);
     }
 
     /**
-     * Gets the description of this event.
+     * Gets the time of this event.
+     *
+     * @return the time of the event, in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Gets the description of this event, writing it out if this event is not a MESSAGE.
      *
      * @return the description of the event
      */
     public String getDescription() {
-        return description;
+        switch (type) {
+            case BOOK_ADDED:
+                return "Added <" + text + "> to bookshelf!\n";
+            case BOOKS_ADDED:
+                return "Added " + numberOfBooks + " books to bookshelf!\n";
+            case BOOK_REMOVED:
+                return "Removed <" + text + "> from bookshelf!\n";
+            case PROGRESS_UPDATED:
+                return "Progress of <" + text + "> on bookshelf updated: \n"
+                        + "Now on page " + newPage + " of " + totalPages + "! " + getProgress() + "% read!\n";
+            case GENRE_TAG_ADDED:
+                return "Tagged <" + text + "> as " + genre + "!\n";
+            case GENRE_TAG_REMOVED:
+                return "Removed genre tag " + genre + " from <" + text + ">!\n";
+            case BOOKSHELF_LOADED:
+                return "Loaded " + numberOfBooks + " books from file!\n";
+            default:
+                return text;
+        }
+    }
+
+    public EventType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the ID of the book this event is about.
+     *
+     * @return the ID of the book, or Book.NO_ID if this event is not about one book
+     */
+    public int getBookId() {
+        return bookId;
+    }
+
+    /**
+     * Gets the title of the book this event is about.
+     *
+     * @return the title of the book, or null if this event is not about one book
+     */
+    public String getTitle() {
+        return type == EventType.MESSAGE ? null : text;
+    }
+
+    /**
+     * Gets the genre of a GENRE_TAG_ADDED or GENRE_TAG_REMOVED event.
+     *
+     * @return the name of the genre, or null for other events
+     */
+    public String getGenre() {
+        return genre;
+    }
+
+    /**
+     * Gets the records of the books put on a bookshelf by a BOOK_ADDED or BOOKS_ADDED event,
+     * as they were when they were put on it.
+     *
+     * @return the records of the books, or an empty list for other events
+     *         (and for a BOOKS_ADDED event that only counts the books)
+     */
+    public List<BookRecord> getBooks() {
+        return books;
+    }
+
+    /**
+     * Gets the # of pages read of the book before this event, for a PROGRESS_UPDATED event.
+     *
+     * @return the old # of pages read, or zero for other events
+     */
+    public int getOldPage() {
+        return oldPage;
+    }
+
+    /**
+     * Gets the # of pages read of the book this event is about, at the time of the event.
+     *
+     * @return the # of pages read, or zero if this event is not about one book
+     */
+    public int getNewPage() {
+        return newPage;
+    }
+
+    /**
+     * Gets the total # of pages of the book this event is about.
+     *
+     * @return the total # of pages, or zero if this event is not about one book
+     */
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    /**
+     * Gets the progress of the book this event is about, at the time of the event.
+     *
+     * @return the progress in percentage rounded to the nearest tenth, or zero if this event is not about one book
+     */
+    public double getProgress() {
+        return progressTenths / 10.0;
+    }
+
+    /**
+     * Gets the number of books this event is about.
+     *
+     * @return the number of books added in a batch for a BOOKS_ADDED event or loaded for a BOOKSHELF_LOADED event,
+     *         one for other events about a book, and zero for a MESSAGE
+     */
+    public int getNumberOfBooks() {
+        switch (type) {
+            case BOOKS_ADDED:
+            case BOOKSHELF_LOADED:
+                return numberOfBooks;
+            case MESSAGE:
+                return 0;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * Estimates the length of the description without writing it out.
+     *
+     * @return about the number of characters of the description
+     */
+    int estimateDescriptionLength() {
+        return type == EventType.MESSAGE ? text.length()
+                : DESCRIPTION_LENGTH_ESTIMATE + (text == null ? 0 : text.length())
+                        + (genre == null ? 0 : genre.length());
+    }
+
+    /**
+     * Estimates the bytes taken by the records of the books this event keeps, e.g. one for every book
+     * put on a bookshelf in a batch.
+     *
+     * @return about the number of bytes of the book records, zero if the event keeps none
+     */
+    long estimateRecordBytes() {
+        long bytes = 0;
+        for (BookRecord record : books) {
+            bytes += record.estimateMemoryUsage();
+        }
+        return bytes;
     }
 
     @Override
@@ -51,17 +373,29 @@ public class Event {
         }
         Event otherEvent = (Event) other;
 
-        return (this.dateLogged.equals(otherEvent.dateLogged)
-                && this.description.equals(otherEvent.description));
+        return (this.timestamp == otherEvent.timestamp
+                && this.getDescription().equals(otherEvent.getDescription()));
     }
 
     @Override
     public int hashCode() {
-        return (HASH_CONSTANT * dateLogged.hashCode() + description.hashCode());
+        return (HASH_CONSTANT * getDate().hashCode() + getDescription().hashCode());
     }
 
     @Override
     public String toString() {
-        return dateLogged.toString() + "\n" + description;
+        return getDate().toString() + "\n" + getDescription();
+    }
+
+    /**
+     * Creates an event of the given type about the book as it is now.
+     */
+    private static Event aboutBook(EventType type, Book book) {
+        Event event = new Event(type, book.getTitle(), System.currentTimeMillis());
+        event.bookId = book.getId();
+        event.newPage = book.getPagesRead();
+        event.totalPages = book.getTotalPages();
+        event.progressTenths = Book.tenths(book.getProgress());
+        return event;
     }
 }
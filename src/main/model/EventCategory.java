@@ -0,0 +1,34 @@
+package model;
+
+/**
+ * Represents what part of Reading Tracker Application an event is about.
+ * An EventLog sets the level, the sampling and the rate limit of each category on its own.
+ */
+public enum EventCategory {
+    /**
+     * free-text messages from the application
+     */
+    APPLICATION,
+    /**
+     * books put on or taken off a bookshelf, and bookshelves loaded from file
+     */
+    BOOKSHELF,
+    /**
+     * the # of pages read of a book
+     */
+    PROGRESS,
+    /**
+     * the genre tags of a book
+     */
+    GENRE;
+
+    /**
+     * Tells whether events of this category record changes to a bookshelf, which are what a bookshelf
+     * is recovered from.
+     *
+     * @return true for BOOKSHELF, PROGRESS and GENRE
+     */
+    public boolean isChange() {
+        return this != APPLICATION;
+    }
+}
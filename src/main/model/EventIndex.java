@@ -0,0 +1,356 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Represents the secondary indexes of an EventLog over the events it retains, by sequence number.
+ * Events are not quite logged in time order (events logged from several threads race,
+ * and some events carry a time of their own), so the time index keeps them in two parts.
+ * An event is in order if it happened no earlier than the last event in order before it;
+ * those are kept by sequence number, which is then also time order, so a time range of them is binary searched.
+ * The events out of order are kept apart, sorted by time, and dropped with the events retained,
+ * so an event that happened long ago costs searches nothing once it is no longer retained,
+ * and nothing but its own place in the results while it is.
+ * The book index keeps the same two parts for the events about every book.
+ * Books are keyed by ID alone, as events do not say which bookshelf they came from:
+ * books with the same ID on bookshelves that log to the same log, e.g. a bookshelf and the one loaded
+ * to replace it, share the events about them.
+ * The indexes are not thread-safe: the log brings them up to date with the events committed to it
+ * and searches them under a lock of their own, so logging itself stays lock-free.
+ */
+class EventIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long base;                // the sequence number of the event in slot zero
+    private int first;                // the slot of the oldest event retained
+    private int size;                 // the number of slots filled
+    private Event[] events;
+    private long lastInOrder;         // the timestamp of the last event in order
+    private final Run inOrder;
+    private final NavigableSet<Late> late;
+    private final Deque<Late> lateInLogOrder;
+    private final Map<Integer, BookEvents> byBook;
+
+    /**
+     * Creates empty indexes, starting from sequence number zero.
+     */
+    EventIndex() {
+        events = new Event[INITIAL_CAPACITY];
+        lastInOrder = Long.MIN_VALUE;
+        inOrder = new Run();
+        late = new TreeSet<>();
+        lateInLogOrder = new ArrayDeque<>();
+        byBook = new HashMap<>();
+    }
+
+    /**
+     * Gets the sequence number of the next event to index.
+     *
+     * @return the sequence number after the last one indexed
+     */
+    long end() {
+        return base + size;
+    }
+
+    /**
+     * Indexes the event with the given sequence number; if events were skipped since the last one indexed,
+     * e.g. because they were dropped from the log before they were indexed, everything indexed is dropped.
+     *
+     * @param sequence the sequence number of the event, at least end()
+     * @param e        the event
+     */
+    void add(long sequence, Event e) {
+        if (sequence != end()) {
+            reset(sequence);
+        }
+        if (size == events.length) {
+            makeRoom();
+        }
+        events[size++] = e;
+        if (e.getTimestamp() >= lastInOrder) {
+            lastInOrder = e.getTimestamp();
+            inOrder.add(sequence, lastInOrder);
+            for (int bookId : booksOf(e)) {
+                byBook.computeIfAbsent(bookId, id -> new BookEvents()).inOrder.add(sequence, lastInOrder);
+            }
+        } else {
+            Late lateEvent = new Late(e.getTimestamp(), sequence, e);
+            late.add(lateEvent);
+            lateInLogOrder.addLast(lateEvent);
+            for (int bookId : booksOf(e)) {
+                byBook.computeIfAbsent(bookId, id -> new BookEvents()).late.add(lateEvent);
+            }
+        }
+    }
+
+    /**
+     * Drops the events before the given sequence number, e.g. those the log no longer retains;
+     * the events in order about each book go when the slots are next moved, or when the book is searched.
+     *
+     * @param sequence the sequence number of the oldest event to keep
+     */
+    void dropBefore(long sequence) {
+        int slot = (int) Math.min(size, Math.max(first, sequence - base));
+        Arrays.fill(events, first, slot, null);
+        first = slot;
+        inOrder.dropBefore(base + first);
+        while (!lateInLogOrder.isEmpty() && lateInLogOrder.peekFirst().sequence < base + first) {
+            Late dropped = lateInLogOrder.removeFirst();
+            late.remove(dropped);
+            for (int bookId : booksOf(dropped.event)) {
+                byBook.get(bookId).late.remove(dropped);
+            }
+        }
+    }
+
+    /**
+     * Gets the events indexed that happened between the two times, in the order they were logged;
+     * takes time logarithmic in the number of events indexed plus the number of events found.
+     *
+     * @param from the earliest time, in milliseconds since the epoch
+     * @param to   the latest time, in milliseconds since the epoch
+     * @return the events between the two times, inclusive
+     */
+    List<Event> between(long from, long to) {
+        return find(inOrder, late, from, to);
+    }
+
+    /**
+     * Gets the events indexed about the book with the given ID that happened between the two times,
+     * in the order they were logged, whichever bookshelf the book was on; takes time logarithmic
+     * in the number of events about the book plus the number of events found.
+     *
+     * @param bookId the ID of the book
+     * @param from   the earliest time, in milliseconds since the epoch
+     * @param to     the latest time, in milliseconds since the epoch
+     * @return the events about the book between the two times, inclusive
+     */
+    List<Event> about(int bookId, long from, long to) {
+        BookEvents book = byBook.get(bookId);
+        if (book == null) {
+            return new ArrayList<>();
+        }
+        book.inOrder.dropBefore(base + first);
+        return find(book.inOrder, book.late, from, to);
+    }
+
+    /**
+     * Gets the number of books with events indexed.
+     *
+     * @return the number of books in the book index
+     */
+    int getNumberOfBooks() {
+        return byBook.size();
+    }
+
+    /**
+     * Gets the events in order and out of order that happened between the two times,
+     * merged back into the order they were logged.
+     */
+    private List<Event> find(Run run, NavigableSet<Late> lateEvents, long from, long to) {
+        List<Event> found = new ArrayList<>();
+        if (from > to) {
+            return found;
+        }
+        List<Late> lateFound = new ArrayList<>(lateEvents.subSet(
+                new Late(from, Long.MIN_VALUE, null), true, new Late(to, Long.MAX_VALUE, null), true));
+        lateFound.sort(Comparator.comparingLong(lateEvent -> lateEvent.sequence));
+        int next = 0;
+        for (int i = run.firstAtOrAfterTime(from); i < run.size() && run.getTimestamp(i) <= to; i++) {
+            while (next < lateFound.size() && lateFound.get(next).sequence < run.getSequence(i)) {
+                found.add(lateFound.get(next++).event);
+            }
+            found.add(events[(int) (run.getSequence(i) - base)]);
+        }
+        while (next < lateFound.size()) {
+            found.add(lateFound.get(next++).event);
+        }
+        return found;
+    }
+
+    /**
+     * Gets the IDs of the books the event is about; an event about books put on a bookshelf
+     * in one batch is about each of them.
+     */
+    private static List<Integer> booksOf(Event e) {
+        if (e.getBooks().isEmpty()) {
+            return e.getBookId() == Book.NO_ID ? List.of() : List.of(e.getBookId());
+        }
+        List<Integer> bookIds = new ArrayList<>();
+        for (BookRecord record : e.getBooks()) {
+            bookIds.add(record.getId());
+        }
+        return bookIds;
+    }
+
+    /**
+     * Drops everything indexed and starts again from the given sequence number.
+     */
+    private void reset(long sequence) {
+        Arrays.fill(events, null);
+        base = sequence;
+        first = 0;
+        size = 0;
+        lastInOrder = Long.MIN_VALUE;
+        inOrder.clear();
+        late.clear();
+        lateInLogOrder.clear();
+        byBook.clear();
+    }
+
+    /**
+     * Makes room for more events: moves the events retained to the front if at least half the slots
+     * hold dropped events, or else doubles the slots; the events about each book dropped go too.
+     */
+    private void makeRoom() {
+        if (first >= events.length / 2) {
+            int retained = size - first;
+            System.arraycopy(events, first, events, 0, retained);
+            Arrays.fill(events, retained, size, null);
+            base += first;
+            first = 0;
+            size = retained;
+            dropBooksBefore(base);
+        } else {
+            events = Arrays.copyOf(events, events.length * 2);
+        }
+    }
+
+    /**
+     * Drops the events in order before the given sequence number from the book index,
+     * and the books left with no events.
+     */
+    private void dropBooksBefore(long sequence) {
+        Iterator<BookEvents> iterator = byBook.values().iterator();
+        while (iterator.hasNext()) {
+            BookEvents book = iterator.next();
+            book.inOrder.dropBefore(sequence);
+            if (book.inOrder.size() == 0 && book.late.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Represents the events about one book, in order and out of order.
+     */
+    private static class BookEvents {
+        private final Run inOrder = new Run();
+        private final NavigableSet<Late> late = new TreeSet<>();
+    }
+
+    /**
+     * Represents an event logged out of order, sorted by time and then by sequence number.
+     */
+    private static class Late implements Comparable<Late> {
+        private final long timestamp;
+        private final long sequence;
+        private final Event event;
+
+        Late(long timestamp, long sequence, Event event) {
+            this.timestamp = timestamp;
+            this.sequence = sequence;
+            this.event = event;
+        }
+
+        @Override
+        public int compareTo(Late other) {
+            int byTime = Long.compare(timestamp, other.timestamp);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * Represents the sequence numbers and timestamps of events in order; both increase,
+     * though timestamps may repeat.
+     */
+    private static class Run {
+        private long[] sequences = new long[4];
+        private long[] timestamps = new long[4];
+        private int first;
+        private int size;
+
+        void add(long sequence, long timestamp) {
+            if (size > first && sequences[size - 1] == sequence) {
+                return;
+            }
+            if (size == sequences.length) {
+                makeRoom();
+            }
+            sequences[size] = sequence;
+            timestamps[size] = timestamp;
+            size++;
+        }
+
+        int size() {
+            return size - first;
+        }
+
+        long getSequence(int i) {
+            return sequences[first + i];
+        }
+
+        long getTimestamp(int i) {
+            return timestamps[first + i];
+        }
+
+        void clear() {
+            first = 0;
+            size = 0;
+        }
+
+        void dropBefore(long sequence) {
+            int low = first;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (sequences[middle] < sequence) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            first = low;
+        }
+
+        /**
+         * Gets the index of the first event that happened at or after the given time, or size() if there is none.
+         */
+        int firstAtOrAfterTime(long from) {
+            int low = first;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (timestamps[middle] < from) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low - first;
+        }
+
+        private void makeRoom() {
+            if (first >= sequences.length / 2) {
+                System.arraycopy(sequences, first, sequences, 0, size - first);
+                System.arraycopy(timestamps, first, timestamps, 0, size - first);
+                size -= first;
+                first = 0;
+            } else {
+                sequences = Arrays.copyOf(sequences, sequences.length * 2);
+                timestamps = Arrays.copyOf(timestamps, timestamps.length * 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package model;
+
+/**
+ * Represents how important an event from Reading Tracker Application is, least important first.
+ * An EventLog logs the events of a category at or above the level set for that category.
+ */
+public enum EventLevel {
+    /**
+     * a detail of a bulk operation, e.g. the books put on a bookshelf loaded from file
+     */
+    DEBUG,
+    /**
+     * a change a user made, or the summary of a bulk operation
+     */
+    INFO,
+    /**
+     * something that went wrong; never sampled away or rate limited
+     */
+    WARNING
+}
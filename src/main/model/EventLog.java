@@ -1,63 +1,627 @@
 package model;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Represents a log of events from Reading Tracker Application.
  * We use the Singleton Design Pattern to ensure that there is only
  * one EventLog in the system and that the system has global access
  * to the single instance of the EventLog.
+ * Events may be logged from several threads at once without any lock:
+ * each event claims the next sequence number with an atomic increment and is then stored
+ * in the slot for that number, in a chain of fixed-size segments of slots.
+ * Readers see the committed prefix of the log, i.e. every event up to the first slot not stored yet.
+ * By default every event is kept, but the log can be told to retain only so many events,
+ * only events up to a certain age, or only up to a certain number of bytes of events;
+ * the oldest events are dropped to make room, and the number of events dropped
+ * for each reason is counted.
+ * Sinks, e.g. a journal on disk, can be attached to the log to be handed every event as it is logged.
+ * The events retained can be looked up by time range and by book through secondary indexes,
+ * which are brought up to date with the events logged since just before they are searched.
+ * Each category of events has a level, and can be sampled and rate limited, so that callers can check
+ * cheaply whether to log an event before they build it; bulk operations log their details at a level
+ * below the default, and only a summary at it. While a sink that needs every change is attached,
+ * e.g. the journal of a bookshelf store, changes at INFO and above are logged whatever their category is set to.
  */
 public class EventLog implements Iterable<Event> {
-    /**
-     * the only EventLog in the system (Singleton Design Pattern)
-     */
-    private static EventLog theLog;
-    private Collection<Event> events;
+
+    private static final int SEGMENT_SIZE = 256;
+    private static final int BYTES_PER_EVENT = 64;
+    private static final int BYTES_PER_CHARACTER = 2;
+
+    private final AtomicLong nextSequence;   // the sequence number the next event claims
+    private final AtomicLong head;           // the sequence number of the oldest event retained
+    private final LongAdder retainedBytes;   // summed only to enforce or report retention
+    private volatile Segment headSegment;    // the segment holding head, or one before it
+    private volatile Segment tailSegment;    // the last segment created, or one before it
+
+    private volatile int maxEvents;
+    private volatile long maxAgeMillis;
+    private volatile long maxBytes;
+
+    private final LongAdder droppedByCount;
+    private final LongAdder droppedByAge;
+    private final LongAdder droppedBySize;
+
+    private final List<EventSink> sinks;
+    private volatile boolean keepEveryChange; // whether a sink attached needs every change
+    private final CategoryFilter[] filters;  // by the ordinal of their category
+
+    private final EventIndex index;          // guarded by itself
+    private final AtomicReference<Segment> indexedSegment; // where the index was brought up to, moved on with head
 
     /**
      * Prevent external construction.
      * (Singleton Design Pattern).
      */
     private EventLog() {
-        events = new ArrayList<Event>();
+        nextSequence = new AtomicLong();
+        head = new AtomicLong();
+        retainedBytes = new LongAdder();
+        headSegment = new Segment(0);
+        tailSegment = headSegment;
+        maxEvents = Integer.MAX_VALUE;
+        maxAgeMillis = Long.MAX_VALUE;
+        maxBytes = Long.MAX_VALUE;
+        droppedByCount = new LongAdder();
+        droppedByAge = new LongAdder();
+        droppedBySize = new LongAdder();
+        sinks = new CopyOnWriteArrayList<>();
+        filters = new CategoryFilter[EventCategory.values().length];
+        for (int i = 0; i < filters.length; i++) {
+            filters[i] = new CategoryFilter();
+        }
+        index = new EventIndex();
+        indexedSegment = new AtomicReference<>(headSegment);
     }
 
     /**
      * Gets instance of EventLog - creates it
      * if it doesn't already exist.
      * (Singleton Design Pattern)
+     * The instance is created when the holder class is first initialized,
+     * which the JVM does exactly once and publishes safely to every thread.
      *
      * @return instance of EventLog
      */
     public static EventLog getInstance() {
-        if (theLog == null) {
-            theLog = new EventLog();
-        }
-        return theLog;
+        return Holder.THE_LOG;
     }
 
     /**
-     * Adds an event to the event log.
+     * Creates an event log of its own, separate from the one shared by the system,
+     * e.g. for the bookshelf of one user among many hosted together.
+     *
+     * @return a new, empty event log
+     */
+    public static EventLog newLog() {
+        return new EventLog();
+    }
+
+    /**
+     * Adds an event to the event log, then drops the oldest events
+     * the log is no longer told to retain, and hands the event to every sink attached.
      *
      * @param e the event to be added
      */
     public void logEvent(Event e) {
-        events.add(e);
+        long sequence = nextSequence.getAndIncrement();
+        segmentFor(sequence).store(sequence, e);
+        retainedBytes.add(sizeOf(e));
+        enforceRetention(e.getTimestamp());
+        for (EventSink sink : sinks) {
+            sink.accept(e);
+        }
+    }
+
+    /**
+     * Checks whether events of the given category and level are logged at all, i.e. whether the level is
+     * at or above the one set for the category; reads one field, so it can be checked before an event is built.
+     *
+     * @param category the category of the event
+     * @param level    the level of the event
+     * @return true if events of the category and level are logged
+     */
+    public boolean isEnabled(EventCategory category, EventLevel level) {
+        return isKeptChange(category, level) || level.compareTo(filters[category.ordinal()].level) >= 0;
+    }
+
+    /**
+     * Decides whether to log the next event of the given category and level, before it is built:
+     * its level must be enabled and, unless it is a WARNING, it must be the one in every so many events
+     * the category samples and must not take the category past its rate limit for the current second.
+     * Events turned away by sampling or the rate limit are counted as suppressed.
+     * Each call counts as an event of the category, so call it once for every event that may be logged.
+     * While a sink that needs every change is attached, changes at INFO and above are always logged.
+     *
+     * @param category the category of the event
+     * @param level    the level of the event
+     * @return true if the event is to be logged
+     */
+    public boolean shouldLog(EventCategory category, EventLevel level) {
+        if (isKeptChange(category, level)) {
+            return true;
+        }
+        CategoryFilter filter = filters[category.ordinal()];
+        if (level.compareTo(filter.level) < 0) {
+            return false;
+        }
+        return level == EventLevel.WARNING || filter.admit();
+    }
+
+    /**
+     * Logs events of the given category at or above the given level from now on; INFO by default.
+     *
+     * @param category the category
+     * @param level    the lowest level of events of the category to log
+     */
+    public void setLevel(EventCategory category, EventLevel level) {
+        filters[category.ordinal()].level = level;
+    }
+
+    /**
+     * Logs only one in every so many events of the given category below WARNING from now on; 1 by default.
+     *
+     * @param category    the category
+     * @param sampleEvery the number of events of the category to log one of, at least one
+     */
+    public void setSampling(EventCategory category, int sampleEvery) {
+        filters[category.ordinal()].sampleEvery = sampleEvery;
+    }
+
+    /**
+     * Logs at most the given number of events of the given category below WARNING in each second from now on;
+     * Integer.MAX_VALUE, i.e. no limit, by default.
+     *
+     * @param category     the category
+     * @param maxPerSecond the number of events of the category to log in each second, at least zero
+     */
+    public void setRateLimit(EventCategory category, int maxPerSecond) {
+        filters[category.ordinal()].maxPerSecond = maxPerSecond;
+    }
+
+    /**
+     * Gets the number of events of the given category turned away by sampling or the rate limit.
+     *
+     * @param category the category
+     * @return the number of events of the category suppressed
+     */
+    public long getSuppressedEvents(EventCategory category) {
+        return filters[category.ordinal()].suppressed.sum();
+    }
+
+    /**
+     * Attaches a sink to be handed every event logged from now on.
+     *
+     * @param sink the sink to attach
+     */
+    public synchronized void addSink(EventSink sink) {
+        sinks.add(sink);
+        keepEveryChange |= sink.needsEveryChange();
+    }
+
+    /**
+     * Detaches a sink, so it is handed no more events.
+     *
+     * @param sink the sink to detach
+     */
+    public synchronized void removeSink(EventSink sink) {
+        sinks.remove(sink);
+        keepEveryChange = sinks.stream().anyMatch(EventSink::needsEveryChange);
+    }
+
+    /**
+     * Gets the events retained that happened between the two times, in the order they were logged.
+     * Takes time logarithmic in the number of events retained plus the number of events found,
+     * once the indexes are up to date with the events logged since the last search.
+     *
+     * @param from the earliest time, in milliseconds since the epoch
+     * @param to   the latest time, in milliseconds since the epoch
+     * @return the events between the two times, inclusive
+     */
+    public List<Event> eventsBetween(long from, long to) {
+        synchronized (index) {
+            catchUpIndex();
+            return index.between(from, to);
+        }
+    }
+
+    /**
+     * Gets the events retained about the book with the given ID, in the order they were logged;
+     * an event about books put on a bookshelf in one batch is about each of them.
+     * Events do not say which bookshelf they came from, so they are about the book with that ID
+     * on any bookshelf logging to this log, e.g. the one a loaded bookshelf replaced;
+     * give each bookshelf a log of its own to keep them apart.
+     *
+     * @param bookId the ID of the book
+     * @return the events about the book
+     */
+    public List<Event> eventsAbout(int bookId) {
+        return eventsAbout(bookId, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Gets the events retained about the book with the given ID that happened between the two times,
+     * in the order they were logged, e.g. all updates to a book last week.
+     * Takes time logarithmic in the number of events about the book plus the number of events found,
+     * once the indexes are up to date with the events logged since the last search.
+     *
+     * @param bookId the ID of the book
+     * @param from   the earliest time, in milliseconds since the epoch
+     * @param to     the latest time, in milliseconds since the epoch
+     * @return the events about the book between the two times, inclusive
+     */
+    public List<Event> eventsAbout(int bookId, long from, long to) {
+        synchronized (index) {
+            catchUpIndex();
+            return index.about(bookId, from, to);
+        }
     }
 
     /**
      * Clears the event log and logs the event.
+     * The counts of dropped events are kept.
      */
-    public void clear() {
-        events.clear();
+    public synchronized void clear() {
+        long end = nextSequence.get();
+        long h = head.get();
+        while (h < end && eventAt(h) != null) {
+            if (head.compareAndSet(h, h + 1)) {
+                retainedBytes.add(-sizeOf(eventAt(h)));
+            }
+            h = head.get();
+        }
+        advanceHeadSegment();
         logEvent(new Event("Event log cleared."));
     }
 
+    /**
+     * Retains at most the given number of events from now on, dropping the oldest ones beyond it.
+     *
+     * @param maxEvents the number of events to retain, at least one
+     */
+    public synchronized void setMaxEvents(int maxEvents) {
+        this.maxEvents = maxEvents;
+        enforceRetention(Long.MIN_VALUE);
+    }
+
+    /**
+     * Retains only events logged at most the given number of milliseconds before the newest one.
+     *
+     * @param maxAgeMillis the age of the oldest events to retain, at least zero
+     */
+    public synchronized void setMaxAge(long maxAgeMillis) {
+        this.maxAgeMillis = maxAgeMillis;
+        Event newest = newest();
+        enforceRetention(newest == null ? Long.MIN_VALUE : newest.getTimestamp());
+    }
+
+    /**
+     * Retains at most the given number of bytes of events, as estimated from their descriptions
+     * and the records of the books they keep, though always at least the newest event.
+     *
+     * @param maxBytes the number of bytes of events to retain, at least zero
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        enforceRetention(Long.MIN_VALUE);
+    }
+
+    /**
+     * Gets the number of events retained, counting events being logged right now.
+     *
+     * @return the number of events retained
+     */
+    public int size() {
+        return (int) (nextSequence.get() - head.get());
+    }
+
+    /**
+     * Gets an estimate of the bytes taken by the events retained.
+     *
+     * @return the estimated number of bytes
+     */
+    public long getRetainedBytes() {
+        return retainedBytes.sum();
+    }
+
+    /**
+     * Gets the number of events dropped because more events than the retained number were logged.
+     *
+     * @return the number of events dropped by count
+     */
+    public long getDroppedByCount() {
+        return droppedByCount.sum();
+    }
+
+    /**
+     * Gets the number of events dropped because they were older than the retained age.
+     *
+     * @return the number of events dropped by age
+     */
+    public long getDroppedByAge() {
+        return droppedByAge.sum();
+    }
+
+    /**
+     * Gets the number of events dropped because the events retained took more than the retained bytes.
+     *
+     * @return the number of events dropped by size
+     */
+    public long getDroppedBySize() {
+        return droppedBySize.sum();
+    }
+
+    /**
+     * Gets the number of events dropped for any reason.
+     *
+     * @return the number of events dropped
+     */
+    public long getDroppedEvents() {
+        return getDroppedByCount() + getDroppedByAge() + getDroppedBySize();
+    }
+
+    /**
+     * Iterates over a copy of the committed prefix of the events retained, oldest to newest,
+     * so events logged by other threads while iterating are not seen
+     * and cannot break the iteration.
+     */
     @Override
     public Iterator<Event> iterator() {
-        return events.iterator();
+        long end = nextSequence.get();
+        long sequence = head.get();
+        Segment segment = headSegment;
+        List<Event> copy = new ArrayList<>((int) Math.min(SEGMENT_SIZE, end - sequence));
+        for (sequence = Math.max(sequence, segment.base); sequence < end; sequence++) {
+            while (segment != null && sequence >= segment.base + SEGMENT_SIZE) {
+                segment = segment.next.get();
+            }
+            Event e = segment == null ? null : segment.load(sequence);
+            if (e == null) {
+                break;
+            }
+            copy.add(e);
+        }
+        return copy.iterator();
+    }
+
+    /**
+     * Drops the oldest events while more than the retained number of events are retained,
+     * while they are older than the retained age before the given time,
+     * or while the events retained take more than the retained bytes;
+     * the newest event is always kept, and an event still being stored is never dropped.
+     */
+    private void enforceRetention(long now) {
+        if (maxEvents == Integer.MAX_VALUE && maxAgeMillis == Long.MAX_VALUE && maxBytes == Long.MAX_VALUE) {
+            return;
+        }
+        boolean dropped = false;
+        while (true) {
+            long h = head.get();
+            Event oldest = eventAt(h);
+            if (oldest == null || nextSequence.get() - h <= 1) {
+                break;
+            }
+            LongAdder reason = reasonToDrop(oldest, h, now);
+            if (reason == null) {
+                break;
+            }
+            if (head.compareAndSet(h, h + 1)) {
+                retainedBytes.add(-sizeOf(oldest));
+                reason.increment();
+                dropped = true;
+            }
+        }
+        if (dropped) {
+            advanceHeadSegment();
+        }
+    }
+
+    /**
+     * Brings the indexes up to date: drops the events no longer retained, and indexes the committed prefix
+     * of the events logged since they were last brought up to date, walking the segments from where it left off.
+     * Must be called holding the lock of the index.
+     */
+    private void catchUpIndex() {
+        long h = head.get();
+        index.dropBefore(h);
+        Segment segment = indexedSegment.get();
+        if (segment.base < headSegment.base) {
+            segment = headSegment;
+        }
+        long end = nextSequence.get();
+        for (long sequence = Math.max(Math.max(index.end(), h), segment.base); sequence < end; sequence++) {
+            while (sequence >= segment.base + SEGMENT_SIZE && segment.next.get() != null) {
+                segment = segment.next.get();
+            }
+            Event e = sequence < segment.base + SEGMENT_SIZE ? segment.load(sequence) : null;
+            if (e == null) {
+                break;
+            }
+            index.add(sequence, e);
+        }
+        indexedSegment.set(segment);
+        Segment current = headSegment;
+        if (segment.base < current.base) {
+            indexedSegment.compareAndSet(segment, current);
+        }
+    }
+
+    /**
+     * Gets the counter of the reason to drop the oldest event, at the given sequence number,
+     * or null if it is to be retained.
+     */
+    private LongAdder reasonToDrop(Event oldest, long sequence, long now) {
+        if (nextSequence.get() - sequence > maxEvents) {
+            return droppedByCount;
+        } else if (now != Long.MIN_VALUE && now - oldest.getTimestamp() > maxAgeMillis) {
+            return droppedByAge;
+        } else if (maxBytes != Long.MAX_VALUE && retainedBytes.sum() > maxBytes) {
+            return droppedBySize;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the event with the given sequence number, or null if it is not stored (yet).
+     */
+    private Event eventAt(long sequence) {
+        Segment segment = headSegment;
+        while (segment != null && sequence >= segment.base + SEGMENT_SIZE) {
+            segment = segment.next.get();
+        }
+        return segment == null || sequence < segment.base ? null : segment.load(sequence);
+    }
+
+    /**
+     * Gets the newest event stored, or null if there is none.
+     */
+    private Event newest() {
+        long end = nextSequence.get();
+        return end == head.get() ? null : eventAt(end - 1);
+    }
+
+    /**
+     * Gets the segment holding the given sequence number, creating segments up to it as needed;
+     * the sequence number must be claimed and not dropped, so it is at or after head.
+     */
+    private Segment segmentFor(long sequence) {
+        Segment segment = tailSegment;
+        if (segment.base > sequence) {
+            segment = headSegment;
+        }
+        while (sequence >= segment.base + SEGMENT_SIZE) {
+            segment = segment.nextOrCreate();
+        }
+        if (segment.base > tailSegment.base) {
+            tailSegment = segment;
+        }
+        return segment;
+    }
+
+    /**
+     * Lets go of the segments wholly before head, so their events can be garbage-collected;
+     * moves where the index was brought up to along with them, as it would keep them reachable otherwise.
+     * Either this or catchUpIndex, racing to set the two, sees what the other set and moves it on.
+     */
+    private void advanceHeadSegment() {
+        Segment segment = headSegment;
+        long h = head.get();
+        while (h >= segment.base + SEGMENT_SIZE && segment.next.get() != null) {
+            segment = segment.next.get();
+        }
+        headSegment = segment;
+        Segment indexed = indexedSegment.get();
+        if (indexed.base < segment.base) {
+            indexedSegment.compareAndSet(indexed, segment);
+        }
+    }
+
+    /**
+     * Tells whether an event of the given category and level is a change a sink attached needs.
+     */
+    private boolean isKeptChange(EventCategory category, EventLevel level) {
+        return keepEveryChange && category.isChange() && level != EventLevel.DEBUG;
+    }
+
+    /**
+     * Estimates the bytes an event takes from the length of its description, without writing it out,
+     * and from the records of the books it keeps.
+     */
+    private static long sizeOf(Event e) {
+        return BYTES_PER_EVENT + (long) BYTES_PER_CHARACTER * e.estimateDescriptionLength() + e.estimateRecordBytes();
+    }
+
+    /**
+     * Represents the level, sampling and rate limit of one category of events.
+     * The rate limit counts events in the current second, packed with the second into one atomic value,
+     * so that events are admitted from several threads at once without any lock.
+     */
+    private static class CategoryFilter {
+        private volatile EventLevel level = EventLevel.INFO;
+        private volatile int sampleEvery = 1;
+        private volatile int maxPerSecond = Integer.MAX_VALUE;
+        private final AtomicLong sampled = new AtomicLong();
+        private final AtomicLong window = new AtomicLong();   // the second in the high half, the count in the low
+        private final LongAdder suppressed = new LongAdder();
+
+        /**
+         * Admits the next event if it is the one sampled among every sampleEvery events
+         * and the rate limit has room for it in the current second; counts it as suppressed otherwise.
+         */
+        boolean admit() {
+            int every = sampleEvery;
+            boolean admitted = (every <= 1 || sampled.getAndIncrement() % every == 0)
+                    && (maxPerSecond == Integer.MAX_VALUE || withinRateLimit(System.currentTimeMillis() / 1000));
+            if (!admitted) {
+                suppressed.increment();
+            }
+            return admitted;
+        }
+
+        /**
+         * Counts an event in the given second if fewer than maxPerSecond were counted in it already.
+         */
+        private boolean withinRateLimit(long second) {
+            while (true) {
+                long current = window.get();
+                long count = (current >>> 32) == second ? current & 0xFFFFFFFFL : 0;
+                if (count >= maxPerSecond) {
+                    return false;
+                }
+                if (window.compareAndSet(current, (second << 32) | (count + 1))) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Holds the only EventLog in the system (Singleton Design Pattern).
+     */
+    private static class Holder {
+        private static final EventLog THE_LOG = new EventLog();
+    }
+
+    /**
+     * Represents the slots of SEGMENT_SIZE consecutive sequence numbers, starting from base.
+     */
+    private static class Segment {
+        private final long base;
+        private final AtomicReferenceArray<Event> slots;
+        private final AtomicReference<Segment> next;
+
+        Segment(long base) {
+            this.base = base;
+            this.slots = new AtomicReferenceArray<>(SEGMENT_SIZE);
+            this.next = new AtomicReference<>();
+        }
+
+        void store(long sequence, Event e) {
+            slots.set((int) (sequence - base), e);
+        }
+
+        Event load(long sequence) {
+            return slots.get((int) (sequence - base));
+        }
+
+        /**
+         * Gets the next segment, creating it if no thread has yet.
+         */
+        Segment nextOrCreate() {
+            Segment segment = next.get();
+            if (segment == null) {
+                next.compareAndSet(null, new Segment(base + SEGMENT_SIZE));
+                segment = next.get();
+            }
+            return segment;
+        }
     }
 }
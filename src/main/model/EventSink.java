@@ -0,0 +1,27 @@
+package model;
+
+/**
+ * Represents a destination every event logged to an EventLog is handed to as it is logged,
+ * e.g. a journal on disk. Events are handed over on the thread that logs them,
+ * possibly from several threads at once, so a sink must be thread-safe and must return quickly.
+ */
+public interface EventSink {
+
+    /**
+     * Takes an event that was just logged.
+     *
+     * @param e the event logged
+     */
+    void accept(Event e);
+
+    /**
+     * Tells whether the sink depends on every change to a bookshelf being logged, e.g. a journal the bookshelf
+     * is recovered from. While such a sink is attached to an EventLog, the log logs every event of a category
+     * of changes at INFO or above, whatever the level, sampling and rate limit of the category are set to.
+     *
+     * @return true if the sink needs every change; false by default
+     */
+    default boolean needsEveryChange() {
+        return false;
+    }
+}
@@ -0,0 +1,41 @@
+package model;
+
+/**
+ * Represents the kinds of events from Reading Tracker Application.
+ * An event of a kind other than MESSAGE carries the book and numbers it is about
+ * instead of a description, and its description is only written out when asked for.
+ */
+public enum EventType {
+    /**
+     * an event described by free text
+     */
+    MESSAGE,
+    /**
+     * a book was put on a bookshelf
+     */
+    BOOK_ADDED,
+    /**
+     * a number of books were put on a bookshelf in one batch
+     */
+    BOOKS_ADDED,
+    /**
+     * a book was taken off a bookshelf
+     */
+    BOOK_REMOVED,
+    /**
+     * the # of pages read of a book was updated
+     */
+    PROGRESS_UPDATED,
+    /**
+     * a genre tag was added to a book on a bookshelf
+     */
+    GENRE_TAG_ADDED,
+    /**
+     * a genre tag was removed from a book on a bookshelf
+     */
+    GENRE_TAG_REMOVED,
+    /**
+     * a bookshelf was loaded from file, replacing the books on it
+     */
+    BOOKSHELF_LOADED
+}
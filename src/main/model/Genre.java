@@ -0,0 +1,57 @@
+package model;
+
+import java.util.BitSet;
+
+// Represents a genre on a bookshelf;
+// it has a name and the positions on the bookshelf of the books that are tagged by it,
+// kept as a bitmap so that genres can be combined with fast set operations.
+public class Genre {
+
+    private String name;
+    private BitSet books;
+    private int numberOfBooks;
+
+    // REQUIRES: name is not empty
+    // EFFECTS: construct a genre with the given name and no books
+    public Genre(String name) {
+        this.name = name;
+        this.books = new BitSet();
+        this.numberOfBooks = 0;
+    }
+
+    // REQUIRES: position >= 0
+    // MODIFIES: this
+    // EFFECTS: mark the book at the given position as tagged by this genre
+    public void addBook(int position) {
+        if (!books.get(position)) {
+            books.set(position);
+            numberOfBooks++;
+        }
+    }
+
+    // REQUIRES: position >= 0
+    // MODIFIES: this
+    // EFFECTS: mark the book at the given position as no longer tagged by this genre
+    public void removeBook(int position) {
+        if (books.get(position)) {
+            books.clear(position);
+            numberOfBooks--;
+        }
+    }
+
+    // getters
+
+    public String getName() {
+        return this.name;
+    }
+
+    // EFFECTS: return the bitmap of positions of the books tagged by this genre;
+    // callers must not modify it
+    public BitSet getBooks() {
+        return this.books;
+    }
+
+    public int getNumberOfBooks() {
+        return this.numberOfBooks;
+    }
+}
@@ -0,0 +1,105 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Represents the dictionary of genre tag names used by the Reading Tracker Application.
+ * Every distinct tag name is stored once and given a small int code, starting from zero,
+ * so that books can keep their tags as small sorted arrays of codes instead of strings.
+ * It may be used from several threads at once; only giving a new name its code takes a lock,
+ * so books looking up or naming their tags never wait on each other.
+ * We use the Singleton Design Pattern so that books tagged before they are put
+ * on any bookshelf share the same codes as the books already on one.
+ */
+public class GenreDictionary {
+    /**
+     * the only GenreDictionary in the system (Singleton Design Pattern)
+     */
+    private static GenreDictionary theDictionary;
+
+    private final Map<String, Integer> codes;
+    private volatile String[] names;   // by code; grown by copying, each filled before its code is handed out
+    private volatile int size;
+
+    /**
+     * Prevent external construction.
+     * (Singleton Design Pattern).
+     */
+    private GenreDictionary() {
+        codes = new ConcurrentHashMap<>();
+        names = new String[16];
+    }
+
+    /**
+     * Gets instance of GenreDictionary - creates it
+     * if it doesn't already exist.
+     * (Singleton Design Pattern)
+     *
+     * @return instance of GenreDictionary
+     */
+    public static synchronized GenreDictionary getInstance() {
+        if (theDictionary == null) {
+            theDictionary = new GenreDictionary();
+        }
+        return theDictionary;
+    }
+
+    /**
+     * Gets the code of a tag name, giving it the next free code if it is new.
+     *
+     * @param name the tag name
+     * @return the code of the tag name
+     */
+    public int codeOf(String name) {
+        Integer code = codes.get(name);
+        return code != null ? code : addName(name);
+    }
+
+    /**
+     * Looks up the code of a tag name without adding it.
+     *
+     * @param name the tag name
+     * @return the code of the tag name, or -1 if it has never been used
+     */
+    public int lookup(String name) {
+        Integer code = codes.get(name);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * Gets the tag name behind a code.
+     *
+     * @param code a code handed out by this dictionary
+     * @return the tag name
+     */
+    public String nameOf(int code) {
+        return names[code];
+    }
+
+    /**
+     * Gets the number of distinct tag names seen so far.
+     *
+     * @return the number of codes handed out
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gives the tag name the next free code, unless another thread gave it one first;
+     * the name is stored before its code is published, so whoever gets the code can name it.
+     */
+    private synchronized int addName(String name) {
+        Integer code = codes.get(name);
+        if (code != null) {
+            return code;
+        }
+        String[] grown = size == names.length ? Arrays.copyOf(names, size * 2) : names;
+        grown[size] = name;
+        names = grown;
+        codes.put(name, size);
+        return size++;
+    }
+}
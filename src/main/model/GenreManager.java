@@ -0,0 +1,151 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Represents the genre index of a bookshelf;
+// it maps each genre name to the genre and the positions of the books tagged by it,
+// so that genre lookups and genre queries do not need to walk the whole bookshelf.
+// A genre is only kept while at least one book is tagged by it,
+// and the distinct genre names are kept in the order they first appeared;
+// the genres are kept in a linked map, so dropping one takes constant time however many there are,
+// and the names are listed from it, only built again into an indexed list when one is looked up by index
+// after the genres changed.
+public class GenreManager {
+
+    private List<Book> books;
+    private Map<String, Genre> genres;
+    private List<String> genreNames;   // a read-only view of the names of the genres
+    private List<String> indexedNames; // the names of the genres by index, or null until looked up again
+
+    // REQUIRES: books is not null
+    // EFFECTS: construct a genre manager with no genres for the given books of a bookshelf,
+    // where the book at index i of the list is at position i on the bookshelf
+    public GenreManager(List<Book> books) {
+        this.books = books;
+        this.genres = new LinkedHashMap<>();
+        this.genreNames = new GenreNames();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: remove every genre
+    public void clear() {
+        genres.clear();
+        indexedNames = null;
+    }
+
+    // REQUIRES: book is on the bookshelf
+    // MODIFIES: this
+    // EFFECTS: index the book under every genre tag it currently has
+    public void addBook(Book book) {
+        for (String tag : book.getGenreTags()) {
+            addTag(book, tag);
+        }
+    }
+
+    // REQUIRES: book is on the bookshelf, genreName is not empty
+    // MODIFIES: this
+    // EFFECTS: index the book under the given genre,
+    // creating the genre if it is new
+    public void addTag(Book book, String genreName) {
+        Genre genre = genres.get(genreName);
+        if (genre == null) {
+            genre = new Genre(genreName);
+            genres.put(genreName, genre);
+            indexedNames = null;
+        }
+        genre.addBook(book.getPosition());
+    }
+
+    // REQUIRES: book is indexed under the given genre
+    // MODIFIES: this
+    // EFFECTS: stop indexing the book under the given genre,
+    // and drop the genre once no book is tagged by it
+    public void removeTag(Book book, String genreName) {
+        Genre genre = genres.get(genreName);
+        if (genre == null) {
+            return;
+        }
+        genre.removeBook(book.getPosition());
+        if (genre.getNumberOfBooks() == 0) {
+            genres.remove(genreName);
+            indexedNames = null;
+        }
+    }
+
+    // REQUIRES: genreName is not empty
+    // EFFECTS: return a new list of the books tagged by the given genre, in bookshelf order;
+    // the list is empty if there is no such genre
+    public List<Book> booksTaggedBy(String genreName) {
+        return booksAt(booksBitmapOf(genreName));
+    }
+
+    // REQUIRES: positions only holds positions of books on the bookshelf
+    // EFFECTS: return a new list of the books at the given positions, in bookshelf order
+    public List<Book> booksAt(BitSet positions) {
+        List<Book> result = new ArrayList<>(positions.cardinality());
+        for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+            result.add(books.get(i));
+        }
+        return result;
+    }
+
+    // EFFECTS: return the bitmap of positions of the books tagged by the given genre,
+    // which is empty if there is no such genre; callers must not modify it
+    public BitSet booksBitmapOf(String genreName) {
+        Genre genre = genres.get(genreName);
+        if (genre == null) {
+            return new BitSet();
+        }
+        return genre.getBooks();
+    }
+
+    // REQUIRES: genreName is not empty
+    // EFFECTS: return the number of books tagged by the given genre
+    public int numOfBooksTaggedBy(String genreName) {
+        Genre genre = genres.get(genreName);
+        if (genre == null) {
+            return 0;
+        }
+        return genre.getNumberOfBooks();
+    }
+
+    // EFFECTS: return a read-only view of the distinct genre names,
+    // in the order they first appeared
+    public List<String> getAllGenres() {
+        return this.genreNames;
+    }
+
+    public int getNumberOfGenres() {
+        return this.genres.size();
+    }
+
+    // Represents the read-only view of the genre names; it walks the genres themselves,
+    // and keeps them in an indexed list only for looking names up by index
+    private class GenreNames extends AbstractList<String> {
+
+        @Override
+        public String get(int index) {
+            if (indexedNames == null) {
+                indexedNames = new ArrayList<>(genres.keySet());
+            }
+            return indexedNames.get(index);
+        }
+
+        @Override
+        public int size() {
+            return genres.size();
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return Collections.unmodifiableCollection(genres.keySet()).iterator();
+        }
+    }
+}
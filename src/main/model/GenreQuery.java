@@ -0,0 +1,225 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+// Represents a boolean query over the genre tags of the books on a bookshelf,
+// e.g. Russian AND Novel AND NOT History, or (Philosophy OR "Political Science") AND German.
+// AND, OR and NOT must be written in capitals; NOT binds tighter than AND, which binds tighter than OR.
+// A genre name is a run of words, or any text in double quotes.
+// A query is evaluated with set operations on the bitmaps kept by the genre index,
+// so it never looks at the books themselves.
+public class GenreQuery {
+
+    private static final String AND = "AND";
+    private static final String OR = "OR";
+    private static final String NOT = "NOT";
+
+    private String operator;     // AND, OR, NOT, or null for a single genre
+    private String genreName;
+    private GenreQuery left;
+    private GenreQuery right;    // null for NOT
+
+    // EFFECTS: construct a query that matches the books tagged by the genre
+    private GenreQuery(String genreName) {
+        this.genreName = genreName;
+    }
+
+    // EFFECTS: construct a query that combines one or two queries with an operator
+    private GenreQuery(String operator, GenreQuery left, GenreQuery right) {
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+    }
+
+    // EFFECTS: parse the text of a query and return it;
+    //      throws InvalidQueryException if the text is not a valid query
+    public static GenreQuery parse(String text) throws InvalidQueryException {
+        Parser parser = new Parser(tokenize(text));
+        GenreQuery query = parser.parseOr();
+        if (parser.hasNext()) {
+            throw new InvalidQueryException("Unexpected \"" + parser.peek() + "\" in query");
+        }
+        return query;
+    }
+
+    // REQUIRES: genreManager indexes a bookshelf with numberOfBooks books
+    // EFFECTS: return a new bitmap of the positions of the books that match this query
+    public BitSet evaluate(GenreManager genreManager, int numberOfBooks) {
+        if (operator == null) {
+            return (BitSet) genreManager.booksBitmapOf(genreName).clone();
+        }
+
+        BitSet result = left.evaluate(genreManager, numberOfBooks);
+        if (operator.equals(NOT)) {
+            result.flip(0, numberOfBooks);
+        } else if (operator.equals(AND)) {
+            if (right.isNegation()) {
+                result.andNot(right.left.evaluate(genreManager, numberOfBooks));
+            } else {
+                result.and(right.evaluate(genreManager, numberOfBooks));
+            }
+        } else {
+            result.or(right.evaluate(genreManager, numberOfBooks));
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        if (operator == null) {
+            return "\"" + genreName + "\"";
+        } else if (operator.equals(NOT)) {
+            return NOT + " " + left;
+        } else {
+            return "(" + left + " " + operator + " " + right + ")";
+        }
+    }
+
+    // helper functions
+
+    // EFFECTS: return true if this query is a NOT
+    private boolean isNegation() {
+        return NOT.equals(operator);
+    }
+
+    // EFFECTS: split the text into parentheses, quoted genre names and words;
+    //      throws InvalidQueryException if a quote is not closed
+    private static List<String> tokenize(String text) throws InvalidQueryException {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else {
+                int end = c == '"' ? endOfQuote(text, i) : endOfWord(text, i);
+                tokens.add(text.substring(i, end));
+                i = end;
+            }
+        }
+        return tokens;
+    }
+
+    // REQUIRES: the character at index i of the text is a quote
+    // EFFECTS: return the index just past the quote closing the one at i;
+    //      throws InvalidQueryException if there is none
+    private static int endOfQuote(String text, int i) throws InvalidQueryException {
+        int end = text.indexOf('"', i + 1);
+        if (end < 0) {
+            throw new InvalidQueryException("Missing closing quote in query");
+        }
+        return end + 1;
+    }
+
+    // EFFECTS: return the index just past the word starting at i,
+    //      which ends at whitespace, a parenthesis, a quote or the end of the text
+    private static int endOfWord(String text, int i) {
+        int end = i;
+        while (end < text.length() && !Character.isWhitespace(text.charAt(end))
+                && "()\"".indexOf(text.charAt(end)) < 0) {
+            end++;
+        }
+        return end;
+    }
+
+    // Represents a recursive-descent parser over the tokens of a query
+    private static class Parser {
+        private List<String> tokens;
+        private int next;
+
+        // EFFECTS: construct a parser positioned at the first token
+        Parser(List<String> tokens) {
+            this.tokens = tokens;
+            this.next = 0;
+        }
+
+        // EFFECTS: return true if there are tokens left
+        boolean hasNext() {
+            return next < tokens.size();
+        }
+
+        // REQUIRES: hasNext()
+        // EFFECTS: return the next token without consuming it
+        String peek() {
+            return tokens.get(next);
+        }
+
+        // MODIFIES: this
+        // EFFECTS: parse terms joined by OR
+        GenreQuery parseOr() throws InvalidQueryException {
+            GenreQuery query = parseAnd();
+            while (hasNext() && peek().equals(OR)) {
+                next++;
+                query = new GenreQuery(OR, query, parseAnd());
+            }
+            return query;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: parse factors joined by AND
+        GenreQuery parseAnd() throws InvalidQueryException {
+            GenreQuery query = parseNot();
+            while (hasNext() && peek().equals(AND)) {
+                next++;
+                query = new GenreQuery(AND, query, parseNot());
+            }
+            return query;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: parse a NOT, a parenthesized query or a genre name
+        GenreQuery parseNot() throws InvalidQueryException {
+            if (!hasNext()) {
+                throw new InvalidQueryException("Query ends where a genre name was expected");
+            }
+            String token = peek();
+            if (token.equals(NOT)) {
+                next++;
+                return new GenreQuery(NOT, parseNot(), null);
+            } else if (token.equals("(")) {
+                next++;
+                GenreQuery query = parseOr();
+                if (!hasNext() || !peek().equals(")")) {
+                    throw new InvalidQueryException("Missing closing parenthesis in query");
+                }
+                next++;
+                return query;
+            } else {
+                return parseGenreName();
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: parse a quoted genre name, or a run of words that are not operators
+        GenreQuery parseGenreName() throws InvalidQueryException {
+            String token = peek();
+            if (token.startsWith("\"")) {
+                next++;
+                return new GenreQuery(token.substring(1, token.length() - 1));
+            }
+
+            StringBuilder name = new StringBuilder();
+            while (hasNext() && isWord(peek())) {
+                if (name.length() > 0) {
+                    name.append(" ");
+                }
+                name.append(tokens.get(next++));
+            }
+            if (name.length() == 0) {
+                throw new InvalidQueryException("Unexpected \"" + token + "\" where a genre name was expected");
+            }
+            return new GenreQuery(name.toString());
+        }
+
+        // EFFECTS: return true if the token is part of an unquoted genre name
+        private boolean isWord(String token) {
+            return !token.equals(AND) && !token.equals(OR) && !token.equals(NOT)
+                    && !token.equals("(") && !token.equals(")") && !token.startsWith("\"");
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package model;
+
+import java.util.Arrays;
+
+// Represents a growable list of primitive ints,
+// used for posting lists of book positions without boxing every entry.
+public class IntList {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] values;
+    private int size;
+
+    // EFFECTS: construct an empty list
+    public IntList() {
+        this.values = new int[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: append the value to the end of the list
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, 2 * values.length);
+        }
+        values[size++] = value;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: remove the first occurrence of the value, if any, keeping the order of the rest
+    public void remove(int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                System.arraycopy(values, i + 1, values, i, size - i - 1);
+                size--;
+                return;
+            }
+        }
+    }
+
+    // REQUIRES: !isEmpty()
+    // MODIFIES: this
+    // EFFECTS: remove the last value
+    public void removeLast() {
+        size--;
+    }
+
+    // REQUIRES: 0 <= index < size()
+    // EFFECTS: return the value at the index
+    public int get(int index) {
+        return values[index];
+    }
+
+    // EFFECTS: return the last value, or -1 if the list is empty
+    public int last() {
+        return size == 0 ? -1 : values[size - 1];
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+}
@@ -0,0 +1,12 @@
+package model;
+
+// Represents an exception thrown when a genre query cannot be parsed
+public class InvalidQueryException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    // EFFECTS: construct an exception with a message explaining what is wrong with the query
+    public InvalidQueryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,214 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+// Represents a list that never changes once made; "changing" it makes a new list instead,
+// which shares all but O(log n) of its structure with the old one.
+// The elements are kept in a trie where every node has up to 32 children, indexed by 5 bits of the index
+// at a time, so getting, setting, appending and removing the last element each touch one path of
+// at most log32(n) nodes, and only that path is copied.
+// Old lists stay valid as long as they are referenced and are garbage-collected once they are not.
+public final class PersistentVector<T> extends AbstractList<T> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, 0, new Object[0]);
+
+    private final int size;
+    private final int shift;       // BITS times the number of levels above the leaves
+    private final Object[] root;   // inner nodes hold child nodes, leaves hold elements
+
+    // EFFECTS: construct a list with the given size, height and root node
+    private PersistentVector(int size, int shift, Object[] root) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+    }
+
+    // EFFECTS: return the empty list
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentVector<T> empty() {
+        return (PersistentVector<T>) EMPTY;
+    }
+
+    // REQUIRES: elements is not null
+    // EFFECTS: return a list of the given elements, in the same order, built in linear time
+    public static <T> PersistentVector<T> of(List<? extends T> elements) {
+        if (elements.isEmpty()) {
+            return empty();
+        }
+        Object[][] level = new Object[(elements.size() + MASK) >>> BITS][];
+        for (int i = 0; i < level.length; i++) {
+            int from = i << BITS;
+            level[i] = elements.subList(from, Math.min(from + WIDTH, elements.size())).toArray();
+        }
+        int shift = 0;
+        while (level.length > 1) {
+            Object[][] parents = new Object[(level.length + MASK) >>> BITS][];
+            for (int i = 0; i < parents.length; i++) {
+                int from = i << BITS;
+                parents[i] = Arrays.copyOfRange(level, from, Math.min(from + WIDTH, level.length), Object[].class);
+            }
+            level = parents;
+            shift += BITS;
+        }
+        return new PersistentVector<>(elements.size(), shift, level[0]);
+    }
+
+    // REQUIRES: 0 <= index < size()
+    // EFFECTS: return the element at the index
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return (T) node[index & MASK];
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    // REQUIRES: 0 <= index < size()
+    // EFFECTS: return a list equal to this one except that the element at the index is the given one
+    public PersistentVector<T> with(int index, T element) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return new PersistentVector<>(size, shift, withAt(root, shift, index, element));
+    }
+
+    // EFFECTS: return a list equal to this one with the given element appended
+    public PersistentVector<T> plus(T element) {
+        if (size == 0) {
+            return new PersistentVector<>(1, 0, new Object[] {element});
+        }
+        if (size == 1L << (shift + BITS)) {
+            Object[] newRoot = new Object[] {root, pathTo(shift, element)};
+            return new PersistentVector<>(size + 1, shift + BITS, newRoot);
+        }
+        return new PersistentVector<>(size + 1, shift, plusAt(root, shift, size, element));
+    }
+
+    // REQUIRES: size() > 0
+    // EFFECTS: return a list equal to this one without its last element
+    public PersistentVector<T> minusLast() {
+        if (size == 0) {
+            throw new IndexOutOfBoundsException("List is empty");
+        }
+        if (size == 1) {
+            return empty();
+        }
+        Object[] newRoot = minusLastAt(root, shift, size - 1);
+        if (shift > 0 && newRoot.length == 1) {
+            return new PersistentVector<>(size - 1, shift - BITS, (Object[]) newRoot[0]);
+        }
+        return new PersistentVector<>(size - 1, shift, newRoot);
+    }
+
+    // EFFECTS: return, in increasing order, the indexes below both sizes where this list and the other
+    //      do not hold the very same element; parts of the two lists shared with each other are skipped,
+    //      so for two versions of one list this takes time proportional to the changes between them
+    public IntList changedIndexes(PersistentVector<T> other) {
+        IntList changed = new IntList();
+        int limit = Math.min(size, other.size);
+        if (limit > 0) {
+            int common = Math.min(shift, other.shift);
+            changedAt(lowerTo(root, shift, common), lowerTo(other.root, other.shift, common),
+                    common, 0, limit, changed);
+        }
+        return changed;
+    }
+
+    // helper functions
+
+    // EFFECTS: return a copy of the node at the given level with the element at the index replaced
+    private static Object[] withAt(Object[] node, int level, int index, Object element) {
+        Object[] copy = node.clone();
+        int slot = (index >>> level) & MASK;
+        if (level == 0) {
+            copy[slot] = element;
+        } else {
+            copy[slot] = withAt((Object[]) node[slot], level - BITS, index, element);
+        }
+        return copy;
+    }
+
+    // REQUIRES: the subtree of the node has room for the element at the index
+    // EFFECTS: return a copy of the node at the given level with the element added at the index
+    private static Object[] plusAt(Object[] node, int level, int index, Object element) {
+        int slot = (index >>> level) & MASK;
+        Object[] copy = Arrays.copyOf(node, Math.max(node.length, slot + 1));
+        if (level == 0) {
+            copy[slot] = element;
+        } else if (slot < node.length) {
+            copy[slot] = plusAt((Object[]) node[slot], level - BITS, index, element);
+        } else {
+            copy[slot] = pathTo(level - BITS, element);
+        }
+        return copy;
+    }
+
+    // EFFECTS: return a new chain of nodes down from the given level, ending in a leaf holding only the element
+    private static Object[] pathTo(int level, Object element) {
+        Object[] node = new Object[] {element};
+        for (int i = 0; i < level; i += BITS) {
+            node = new Object[] {node};
+        }
+        return node;
+    }
+
+    // REQUIRES: the element at the index is the last one in the subtree of the node
+    // EFFECTS: return a copy of the node at the given level without the element at the index,
+    //      dropping children that are left empty
+    private static Object[] minusLastAt(Object[] node, int level, int index) {
+        int slot = (index >>> level) & MASK;
+        if (level == 0) {
+            return Arrays.copyOf(node, slot);
+        }
+        Object[] child = minusLastAt((Object[]) node[slot], level - BITS, index);
+        Object[] copy = Arrays.copyOf(node, child.length == 0 ? slot : slot + 1);
+        if (child.length > 0) {
+            copy[slot] = child;
+        }
+        return copy;
+    }
+
+    // REQUIRES: level >= target
+    // EFFECTS: return the node at the target level that holds the first elements under the given node
+    private static Object[] lowerTo(Object[] node, int level, int target) {
+        for (int i = level; i > target; i -= BITS) {
+            node = (Object[]) node[0];
+        }
+        return node;
+    }
+
+    // MODIFIES: changed
+    // EFFECTS: append to changed the indexes below limit where the two nodes at the given level,
+    //      whose first element is at index offset, do not hold the very same element
+    private static void changedAt(Object[] a, Object[] b, int level, int offset, int limit, IntList changed) {
+        if (a == b) {
+            return;
+        }
+        int span = 1 << level;
+        for (int slot = 0; slot < WIDTH && offset + slot * span < limit; slot++) {
+            int start = offset + slot * span;
+            if (level == 0 && a[slot] != b[slot]) {
+                changed.add(start);
+            } else if (level > 0) {
+                changedAt((Object[]) a[slot], (Object[]) b[slot], level - BITS, start, limit, changed);
+            }
+        }
+    }
+}
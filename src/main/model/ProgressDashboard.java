@@ -0,0 +1,182 @@
+package model;
+
+import java.util.List;
+
+// Represents the reading progress dashboard of a bookshelf;
+// it keeps running sums of total pages, pages read, individual progress,
+// finished and unstarted books, and a histogram of individual progress,
+// which are updated by deltas whenever a book is added or its progress changes,
+// so neither the total progress nor the progress distribution ever has to be recomputed.
+public class ProgressDashboard {
+
+    private int numberOfBooks;
+    private long totalPages;
+    private long pagesRead;
+    private long progressSum;   // sum of individual progress in tenths of a percent
+    private int numberOfFinishedBooks;
+    private int numberOfUnstartedBooks;
+    private ProgressHistogram progressHistogram;
+
+    // EFFECTS: construct a dashboard with no books, where every sum is zero
+    public ProgressDashboard() {
+        this.progressHistogram = new ProgressHistogram();
+        reset();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: set every sum back to zero
+    public void reset() {
+        this.numberOfBooks = 0;
+        this.totalPages = 0;
+        this.pagesRead = 0;
+        this.progressSum = 0;
+        this.numberOfFinishedBooks = 0;
+        this.numberOfUnstartedBooks = 0;
+        this.progressHistogram.reset();
+    }
+
+    // REQUIRES: books is not null
+    // MODIFIES: this
+    // EFFECTS: recompute every sum and the histogram from the books of a bookshelf
+    public void rebuild(List<? extends Book> books) {
+        reset();
+        addRows(books, 0);
+    }
+
+    // REQUIRES: book is not null
+    // MODIFIES: this
+    // EFFECTS: add the pages and progress of the book to the running sums
+    public void addBook(Book book) {
+        this.numberOfBooks++;
+        this.totalPages += book.getTotalPages();
+        this.pagesRead += book.getPagesRead();
+        this.progressSum += tenths(book.getProgress());
+        if (isFinished(book.getPagesRead(), book.getTotalPages())) {
+            this.numberOfFinishedBooks++;
+        }
+        if (book.getPagesRead() == 0) {
+            this.numberOfUnstartedBooks++;
+        }
+        this.progressHistogram.add(Book.tenths(book.getProgress()));
+    }
+
+    // REQUIRES: book is counted by this dashboard with its current pages read and progress
+    // MODIFIES: this
+    // EFFECTS: take the pages and progress of the book out of the running sums,
+    // e.g. when it is taken off the bookshelf
+    public void removeBook(Book book) {
+        this.numberOfBooks--;
+        this.totalPages -= book.getTotalPages();
+        this.pagesRead -= book.getPagesRead();
+        this.progressSum -= tenths(book.getProgress());
+        if (isFinished(book.getPagesRead(), book.getTotalPages())) {
+            this.numberOfFinishedBooks--;
+        }
+        if (book.getPagesRead() == 0) {
+            this.numberOfUnstartedBooks--;
+        }
+        this.progressHistogram.remove(Book.tenths(book.getProgress()));
+    }
+
+    // REQUIRES: books is not null, 0 <= from <= books.size(),
+    //      and the rows from the given position on are not counted by this dashboard yet
+    // MODIFIES: this
+    // EFFECTS: add the pages and progress of every book from the given position on
+    //      to the running sums, e.g. after a batch of books was put on the bookshelf
+    public void addRows(List<? extends Book> books, int from) {
+        for (int i = from; i < books.size(); i++) {
+            addBook(books.get(i));
+        }
+    }
+
+    // REQUIRES: book is counted by this dashboard
+    // MODIFIES: this
+    // EFFECTS: replace the old pages read and progress of the book with its current ones,
+    // whether the book moved forward or back
+    public void progressUpdated(Book book, int oldPagesRead, double oldProgress) {
+        this.pagesRead += book.getPagesRead() - oldPagesRead;
+        this.progressSum += tenths(book.getProgress()) - tenths(oldProgress);
+        this.progressHistogram.move(Book.tenths(oldProgress), Book.tenths(book.getProgress()));
+        if (oldPagesRead == 0 && book.getPagesRead() != 0) {
+            this.numberOfUnstartedBooks--;
+        } else if (oldPagesRead != 0 && book.getPagesRead() == 0) {
+            this.numberOfUnstartedBooks++;
+        }
+
+        boolean wasFinished = isFinished(oldPagesRead, book.getTotalPages());
+        boolean nowFinished = isFinished(book.getPagesRead(), book.getTotalPages());
+        if (!wasFinished && nowFinished) {
+            this.numberOfFinishedBooks++;
+        } else if (wasFinished && !nowFinished) {
+            this.numberOfFinishedBooks--;
+        }
+    }
+
+    // EFFECTS: return the average progress of all books in percentage,
+    // rounded to the nearest tenth; zero if there are no books
+    public double getTotalProgress() {
+        return averageOf(progressSum, numberOfBooks);
+    }
+
+    // getters
+
+    public int getNumberOfBooks() {
+        return this.numberOfBooks;
+    }
+
+    public long getTotalPages() {
+        return this.totalPages;
+    }
+
+    public long getPagesRead() {
+        return this.pagesRead;
+    }
+
+    public int getNumberOfFinishedBooks() {
+        return this.numberOfFinishedBooks;
+    }
+
+    public int getNumberOfUnstartedBooks() {
+        return this.numberOfUnstartedBooks;
+    }
+
+    // EFFECTS: return the histogram of individual progress; callers must not modify it
+    public ProgressHistogram getProgressHistogram() {
+        return this.progressHistogram;
+    }
+
+    // helper functions
+
+    // REQUIRES: progressSum is in tenths of a percent, numberOfBooks >= 0
+    // EFFECTS: return the average progress in percentage, rounded to the nearest tenth;
+    // zero if there are no books
+    static double averageOf(long progressSum, int numberOfBooks) {
+        if (numberOfBooks == 0) {
+            return 0.0;
+        }
+        return tenthPercentageHelper(progressSum / 10.0 / numberOfBooks / 100);
+    }
+
+    // EFFECTS: return the progress in tenths of a percent
+    private static long tenths(double progress) {
+        return Book.tenths(progress);
+    }
+
+    // EFFECTS: return true if all pages of a book are read
+    private static boolean isFinished(int pagesRead, int totalPages) {
+        return pagesRead >= totalPages;
+    }
+
+    // EFFECTS: round and return the nearest percentage point
+    private static double tenthPercentageHelper(double i) {
+        double hundredth = Math.floor(10000 * i);
+        double tenth = 10 * Math.floor(1000 * i);
+        double check = hundredth - tenth;
+
+        if (check < 5) {
+            return Math.floor(1000 * i) / 10;
+        } else {
+            return Math.floor(1 + 1000 * i) / 10;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package model;
+
+import java.util.Arrays;
+
+// Represents the distribution of the progress of the books on a bookshelf;
+// it counts the books at every possible progress, i.e. every tenth of a percent from 0.0% to 100.0%,
+// and keeps the sum and the sum of squares of the progress in exact integer arithmetic,
+// so the mean, variance and percentiles stay correct however often books move up or down.
+public class ProgressHistogram {
+
+    public static final int MAX_PROGRESS = 1000;    // 100.0% in tenths of a percent
+
+    private int[] counts;
+    private int count;
+    private long sum;
+    private long sumOfSquares;
+
+    // EFFECTS: construct an empty histogram
+    public ProgressHistogram() {
+        this.counts = new int[MAX_PROGRESS + 1];
+        reset();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: remove every book from the histogram
+    public void reset() {
+        Arrays.fill(counts, 0);
+        this.count = 0;
+        this.sum = 0;
+        this.sumOfSquares = 0;
+    }
+
+    // REQUIRES: progress is in tenths of a percent
+    // MODIFIES: this
+    // EFFECTS: count a book with the given progress
+    public void add(int progress) {
+        int bucket = bucketOf(progress);
+        counts[bucket]++;
+        count++;
+        sum += bucket;
+        sumOfSquares += (long) bucket * bucket;
+    }
+
+    // REQUIRES: a book with the given progress is counted, progress is in tenths of a percent
+    // MODIFIES: this
+    // EFFECTS: stop counting a book with the given progress
+    public void remove(int progress) {
+        int bucket = bucketOf(progress);
+        counts[bucket]--;
+        count--;
+        sum -= bucket;
+        sumOfSquares -= (long) bucket * bucket;
+    }
+
+    // REQUIRES: a book with the old progress is counted, both are in tenths of a percent
+    // MODIFIES: this
+    // EFFECTS: move a book from the old progress to the new one
+    public void move(int oldProgress, int newProgress) {
+        if (bucketOf(oldProgress) != bucketOf(newProgress)) {
+            remove(oldProgress);
+            add(newProgress);
+        }
+    }
+
+    // EFFECTS: return the mean progress in percentage; zero if there are no books
+    public double getMean() {
+        if (count == 0) {
+            return 0.0;
+        }
+        return (double) sum / count / 10;
+    }
+
+    // EFFECTS: return the (population) variance of the progress in squared percentage points;
+    // zero if there are no books
+    public double getVariance() {
+        if (count == 0) {
+            return 0.0;
+        }
+        double variance = (sumOfSquares - (double) sum * sum / count) / count / 100;
+        return Math.max(0.0, variance);
+    }
+
+    // EFFECTS: return the standard deviation of the progress in percentage points
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    // REQUIRES: 0 <= p <= 100
+    // EFFECTS: return the p-th percentile of the progress in percentage, by the nearest-rank method,
+    // i.e. the least progress such that at least p% of the books are at or below it;
+    // zero if there are no books
+    public double getPercentile(double p) {
+        if (count == 0) {
+            return 0.0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < MAX_PROGRESS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i / 10.0;
+            }
+        }
+        return MAX_PROGRESS / 10.0;
+    }
+
+    // EFFECTS: return the median progress in percentage
+    public double getMedian() {
+        return getPercentile(50);
+    }
+
+    // REQUIRES: numberOfRanges >= 1
+    // EFFECTS: return how many books fall into each of numberOfRanges equally wide ranges of progress,
+    // i.e. for 10 ranges: [0%, 10%), [10%, 20%), ..., [90%, 100%]; the last range includes 100%
+    public int[] getDistribution(int numberOfRanges) {
+        int[] ranges = new int[numberOfRanges];
+        for (int i = 0; i <= MAX_PROGRESS; i++) {
+            ranges[Math.min(numberOfRanges - 1, (int) ((long) i * numberOfRanges / MAX_PROGRESS))] += counts[i];
+        }
+        return ranges;
+    }
+
+    // REQUIRES: progress is in tenths of a percent
+    // EFFECTS: return the number of books with exactly the given progress
+    public int countAt(int progress) {
+        return counts[bucketOf(progress)];
+    }
+
+    public int getCount() {
+        return this.count;
+    }
+
+    // helper functions
+
+    // EFFECTS: return the bucket for the progress, clamped to [0.0%, 100.0%]
+    private static int bucketOf(int progress) {
+        return Math.max(0, Math.min(MAX_PROGRESS, progress));
+    }
+}
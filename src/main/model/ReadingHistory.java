@@ -0,0 +1,301 @@
+package model;
+
+import org.json.JSONObject;
+import persistence.Writable;
+
+import java.util.Arrays;
+import java.util.Base64;
+
+// Represents the reading history of a book as an append-only time series of (timestamp, page) entries;
+// every entry is stored as the change from the entry before it, i.e. the time passed in milliseconds
+// and the pages moved forward or back, each as a variable-length number in one byte array.
+// Every BLOCK_SIZE entries, the timestamp and byte offset of the entry are also kept in primitive arrays,
+// so the page at any point in time is found by a binary search over the blocks and a short scan.
+public class ReadingHistory implements Writable {
+
+    private static final int BLOCK_SIZE = 64;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int startPage;
+    private byte[] data;
+    private int length;
+    private int size;
+    private long lastTimestamp;
+    private int lastPage;
+
+    // the first entry of every block, and the entry just before it
+    private long[] blockTimestamps;
+    private int[] blockOffsets;
+    private long[] blockPreviousTimestamps;
+    private int[] blockPreviousPages;
+
+    // REQUIRES: startPage >= 0
+    // EFFECTS: construct an empty history of a book that was on the given page before it was first updated
+    public ReadingHistory(int startPage) {
+        this.startPage = startPage;
+        this.data = new byte[INITIAL_CAPACITY];
+        this.length = 0;
+        this.size = 0;
+        this.lastTimestamp = 0;
+        this.lastPage = startPage;
+        this.blockTimestamps = new long[1];
+        this.blockOffsets = new int[1];
+        this.blockPreviousTimestamps = new long[1];
+        this.blockPreviousPages = new int[1];
+    }
+
+    // REQUIRES: data holds exactly size entries encoded by a history with the same start page,
+    //      e.g. the data saved by toJson
+    // EFFECTS: construct a history holding the given encoded entries
+    public ReadingHistory(int startPage, int size, byte[] data) {
+        this(startPage);
+        Cursor cursor = new Cursor(0, 0, startPage);
+        for (int i = 0; i < size; i++) {
+            cursor.next(data);
+            record(cursor.timestamp, cursor.page);
+        }
+    }
+
+    // REQUIRES: page >= 0
+    // MODIFIES: this
+    // EFFECTS: append an entry saying the book was on the given page at the given time;
+    //      a timestamp earlier than the last entry's is taken as the last entry's,
+    //      so the entries always stay in time order
+    public void record(long timestamp, int page) {
+        long time = Math.max(timestamp, lastTimestamp);
+        if (size % BLOCK_SIZE == 0) {
+            startBlock(time);
+        }
+        ensureCapacity(length + 15);
+        writeVarLong(time - lastTimestamp);
+        writeVarLong(zigzag(page - lastPage));
+        lastTimestamp = time;
+        lastPage = page;
+        size++;
+    }
+
+    // EFFECTS: return the page the book was on at the given time, i.e. the page of the last entry
+    //      at or before it, or the start page if there is no such entry
+    public int pageAt(long timestamp) {
+        if (size == 0 || timestamp < blockTimestamps[0]) {
+            return startPage;
+        }
+        int block = lastBlockStartingAtOrBefore(timestamp);
+        Cursor cursor = cursorAt(block);
+        int end = Math.min(size, (block + 1) * BLOCK_SIZE);
+        for (int i = block * BLOCK_SIZE; i < end; i++) {
+            int page = cursor.page;
+            cursor.next(data);
+            if (cursor.timestamp > timestamp) {
+                return page;
+            }
+        }
+        return cursor.page;
+    }
+
+    // EFFECTS: return how many pages the book moved forward between the two times,
+    //      i.e. the page at the end minus the page at the start, which is negative if it moved back
+    public int pagesReadBetween(long from, long to) {
+        return pageAt(to) - pageAt(from);
+    }
+
+    // EFFECTS: return the pages read per day between the two times; zero if to is not after from
+    public double velocity(long from, long to) {
+        if (to <= from) {
+            return 0.0;
+        }
+        return pagesReadBetween(from, to) / ((to - from) / (double) (24 * 60 * 60 * 1000));
+    }
+
+    // REQUIRES: 0 <= index < size()
+    // EFFECTS: return the timestamp of the entry at the index
+    public long getTimestamp(int index) {
+        return entryAt(index).timestamp;
+    }
+
+    // REQUIRES: 0 <= index < size()
+    // EFFECTS: return the page of the entry at the index
+    public int getPage(int index) {
+        return entryAt(index).page;
+    }
+
+    // EFFECTS: return the timestamps of every entry, oldest first
+    public long[] getTimestamps() {
+        long[] result = new long[size];
+        Cursor cursor = new Cursor(0, 0, startPage);
+        for (int i = 0; i < size; i++) {
+            cursor.next(data);
+            result[i] = cursor.timestamp;
+        }
+        return result;
+    }
+
+    // EFFECTS: return the pages of every entry, oldest first
+    public int[] getPages() {
+        int[] result = new int[size];
+        Cursor cursor = new Cursor(0, 0, startPage);
+        for (int i = 0; i < size; i++) {
+            cursor.next(data);
+            result[i] = cursor.page;
+        }
+        return result;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    // EFFECTS: return the number of bytes the encoded entries take
+    int encodedLength() {
+        return this.length;
+    }
+
+    public int getStartPage() {
+        return this.startPage;
+    }
+
+    // EFFECTS: return the page of the last entry, or the start page if there are no entries
+    public int getLastPage() {
+        return this.lastPage;
+    }
+
+    // helper functions
+
+    // EFFECTS: return a cursor positioned on the entry at the index
+    private Cursor entryAt(int index) {
+        int block = index / BLOCK_SIZE;
+        Cursor cursor = cursorAt(block);
+        for (int i = block * BLOCK_SIZE; i <= index; i++) {
+            cursor.next(data);
+        }
+        return cursor;
+    }
+
+    // EFFECTS: return a cursor positioned just before the first entry of the block
+    private Cursor cursorAt(int block) {
+        return new Cursor(blockOffsets[block], blockPreviousTimestamps[block], blockPreviousPages[block]);
+    }
+
+    // REQUIRES: size > 0, timestamp >= the timestamp of the first entry
+    // EFFECTS: return the last block whose first entry is at or before the timestamp
+    private int lastBlockStartingAtOrBefore(long timestamp) {
+        int low = 0;
+        int high = (size - 1) / BLOCK_SIZE;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (blockTimestamps[mid] <= timestamp) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: start a new block whose first entry is at the given time
+    private void startBlock(long timestamp) {
+        int block = size / BLOCK_SIZE;
+        if (block == blockTimestamps.length) {
+            blockTimestamps = Arrays.copyOf(blockTimestamps, 2 * block);
+            blockOffsets = Arrays.copyOf(blockOffsets, 2 * block);
+            blockPreviousTimestamps = Arrays.copyOf(blockPreviousTimestamps, 2 * block);
+            blockPreviousPages = Arrays.copyOf(blockPreviousPages, 2 * block);
+        }
+        blockTimestamps[block] = timestamp;
+        blockOffsets[block] = length;
+        blockPreviousTimestamps[block] = lastTimestamp;
+        blockPreviousPages[block] = lastPage;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: append the non-negative value seven bits at a time, lowest first,
+    //      with the high bit of every byte but the last one set
+    private void writeVarLong(long value) {
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            data[length++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        data[length++] = (byte) v;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: grow the data so that it can hold at least the given number of bytes
+    private void ensureCapacity(int capacity) {
+        if (capacity > data.length) {
+            data = Arrays.copyOf(data, Math.max(capacity, 2 * data.length));
+        }
+    }
+
+    // EFFECTS: map a signed value to a non-negative one so that small changes either way stay small
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    // EFFECTS: undo zigzag
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // for read and load functions
+
+    @Override
+    public JSONObject toJson() {
+        return toJson(startPage, size, data, length);
+    }
+
+    // EFFECTS: return the history as it is now, to be saved later (e.g. from another thread),
+    //      which stays as it is while this history grows; it shares the encoded entries with this history,
+    //      since entries are only ever appended after them
+    Writable freeze() {
+        final int frozenSize = size;
+        final byte[] frozenData = data;
+        final int frozenLength = length;
+        return () -> toJson(startPage, frozenSize, frozenData, frozenLength);
+    }
+
+    // EFFECTS: return the JSON of a history with the given start page and the given encoded entries
+    private static JSONObject toJson(int startPage, int size, byte[] data, int length) {
+        JSONObject json = new JSONObject();
+        json.put("startPage", startPage);
+        json.put("size", size);
+        json.put("data", Base64.getEncoder().encodeToString(Arrays.copyOf(data, length)));
+        return json;
+    }
+
+    // Represents a position in the encoded entries together with the entry decoded last
+    private static class Cursor {
+        private int offset;
+        private long timestamp;
+        private int page;
+
+        // EFFECTS: construct a cursor at the offset, just after an entry with the given timestamp and page
+        Cursor(int offset, long timestamp, int page) {
+            this.offset = offset;
+            this.timestamp = timestamp;
+            this.page = page;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: decode the next entry of the data
+        void next(byte[] data) {
+            timestamp += readVarLong(data);
+            page += (int) unzigzag(readVarLong(data));
+        }
+
+        // MODIFIES: this
+        // EFFECTS: decode the variable-length number at the offset and move past it
+        private long readVarLong(byte[] data) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+// Represents the ordered indexes of a bookshelf, which keep the positions of its books sorted
+// by progress, by pages remaining and by total pages; each entry packs the sort value and the
+// position into one long (value in the high 32 bits), so ties go to the book added earlier.
+// The indexes are balanced search trees updated as books are added and read,
+// so top-K and range queries cost O(log n + k) instead of sorting the whole bookshelf.
+public class ReadingOrderIndex {
+
+    private NavigableSet<Long> byProgress;        // progress in tenths of a percent
+    private NavigableSet<Long> byPagesRemaining;
+    private NavigableSet<Long> byTotalPages;
+
+    // EFFECTS: construct empty indexes
+    public ReadingOrderIndex() {
+        this.byProgress = new TreeSet<>();
+        this.byPagesRemaining = new TreeSet<>();
+        this.byTotalPages = new TreeSet<>();
+    }
+
+    // REQUIRES: position is not indexed yet, 0 <= pagesRead <= totalPages,
+    //      progress is in tenths of a percent
+    // MODIFIES: this
+    // EFFECTS: index the book at the position by its progress, pages remaining and total pages
+    public void add(int position, int totalPages, int pagesRead, int progress) {
+        byProgress.add(key(progress, position));
+        byPagesRemaining.add(key(totalPages - pagesRead, position));
+        byTotalPages.add(key(totalPages, position));
+    }
+
+    // REQUIRES: the book at the position is indexed with the given total pages, pages read and progress
+    // MODIFIES: this
+    // EFFECTS: stop indexing the book at the position, e.g. when it is taken off the bookshelf
+    public void remove(int position, int totalPages, int pagesRead, int progress) {
+        byProgress.remove(key(progress, position));
+        byPagesRemaining.remove(key(totalPages - pagesRead, position));
+        byTotalPages.remove(key(totalPages, position));
+    }
+
+    // REQUIRES: books is not null, 0 <= from <= books.size(), each book is at its position on the bookshelf,
+    //      and the books from the given position on are not indexed yet
+    // MODIFIES: this
+    // EFFECTS: index every book from the given position on, e.g. after a batch
+    //      of books was put on the bookshelf; the keys of each index are sorted first and inserted in order,
+    //      which keeps the tree walks short and the rebalancing cheap
+    public void addRows(List<? extends Book> books, int from) {
+        int count = books.size() - from;
+        long[] progress = new long[count];
+        long[] pagesRemaining = new long[count];
+        long[] totalPages = new long[count];
+        for (int i = 0; i < count; i++) {
+            int position = from + i;
+            Book book = books.get(position);
+            progress[i] = key(Book.tenths(book.getProgress()), position);
+            pagesRemaining[i] = key(book.getTotalPages() - book.getPagesRead(), position);
+            totalPages[i] = key(book.getTotalPages(), position);
+        }
+        addSorted(byProgress, progress);
+        addSorted(byPagesRemaining, pagesRemaining);
+        addSorted(byTotalPages, totalPages);
+    }
+
+    // REQUIRES: the book at the position is indexed with oldPagesRead and oldProgress
+    // MODIFIES: this
+    // EFFECTS: move the book at the position to its new progress and pages remaining
+    public void update(int position, int totalPages, int oldPagesRead, int oldProgress,
+                       int pagesRead, int progress) {
+        if (oldProgress != progress) {
+            byProgress.remove(key(oldProgress, position));
+            byProgress.add(key(progress, position));
+        }
+        if (oldPagesRead != pagesRead) {
+            byPagesRemaining.remove(key(totalPages - oldPagesRead, position));
+            byPagesRemaining.add(key(totalPages - pagesRead, position));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: remove every book from the indexes
+    public void clear() {
+        byProgress.clear();
+        byPagesRemaining.clear();
+        byTotalPages.clear();
+    }
+
+    // EFFECTS: return the positions of up to k unfinished books with the fewest pages remaining,
+    //      fewest first
+    public List<Integer> fewestPagesRemaining(int k) {
+        return firstPositions(byPagesRemaining.tailSet(key(1, 0), true), k);
+    }
+
+    // EFFECTS: return the positions of up to k books with the least progress, least first
+    public List<Integer> lowestProgress(int k) {
+        return firstPositions(byProgress, k);
+    }
+
+    // REQUIRES: low and high are in tenths of a percent
+    // EFFECTS: return the positions of the books whose progress is between low and high (inclusive),
+    //      least progress first
+    public List<Integer> progressBetween(int low, int high) {
+        if (low > high) {
+            return new ArrayList<>();
+        }
+        return firstPositions(byProgress.subSet(key(low, 0), true, key(high, Integer.MAX_VALUE), true),
+                Integer.MAX_VALUE);
+    }
+
+    // EFFECTS: return the positions of up to k books with the fewest total pages, fewest first
+    public List<Integer> fewestTotalPages(int k) {
+        return firstPositions(byTotalPages, k);
+    }
+
+    // EFFECTS: return the positions of up to k books with the most total pages, most first
+    public List<Integer> mostTotalPages(int k) {
+        return firstPositions(byTotalPages.descendingSet(), k);
+    }
+
+    public int size() {
+        return this.byTotalPages.size();
+    }
+
+    // helper functions
+
+    // EFFECTS: return the positions held by the first k keys of the set, in iteration order
+    private static List<Integer> firstPositions(NavigableSet<Long> keys, int k) {
+        List<Integer> result = new ArrayList<>(Math.max(0, Math.min(k, 16)));
+        Iterator<Long> iterator = keys.iterator();
+        while (result.size() < k && iterator.hasNext()) {
+            result.add((int) (iterator.next() & 0xFFFFFFFFL));
+        }
+        return result;
+    }
+
+    // MODIFIES: index, keys
+    // EFFECTS: sort the keys and add them to the index in ascending order
+    private static void addSorted(NavigableSet<Long> index, long[] keys) {
+        Arrays.sort(keys);
+        for (long key : keys) {
+            index.add(key);
+        }
+    }
+
+    // REQUIRES: value >= 0, position >= 0
+    // EFFECTS: return the sort value and the position packed into one key
+    private static long key(int value, int position) {
+        return ((long) value << 32) | position;
+    }
+}
@@ -0,0 +1,92 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Represents what a bookshelf looked like at some instant:
+// how many books it had, their total pages, pages read and progress,
+// how many of them were finished, and how many books each genre had.
+// It also holds the books that were on the bookshelf at that instant, whether or not they still are,
+// and the progress of each of them at that instant is given by Book.progressAsOf.
+public class ShelfState {
+
+    private long timestamp;
+    private List<Book> books;
+    private long totalPages;
+    private long pagesRead;
+    private long progressSum;   // sum of individual progress in tenths of a percent
+    private int numberOfFinishedBooks;
+    private int[] genreCounts;  // number of books tagged by the genre with dictionary code i
+
+    // EFFECTS: construct the state of a bookshelf at the given instant
+    ShelfState(long timestamp, List<Book> books, long totalPages, long pagesRead, long progressSum,
+               int numberOfFinishedBooks, int[] genreCounts) {
+        this.timestamp = timestamp;
+        this.books = Collections.unmodifiableList(books);
+        this.totalPages = totalPages;
+        this.pagesRead = pagesRead;
+        this.progressSum = progressSum;
+        this.numberOfFinishedBooks = numberOfFinishedBooks;
+        this.genreCounts = genreCounts;
+    }
+
+    // EFFECTS: return the average progress of all books at that instant in percentage,
+    // rounded to the nearest tenth; zero if there were no books
+    public double getTotalProgress() {
+        return ProgressDashboard.averageOf(progressSum, books.size());
+    }
+
+    // REQUIRES: genreName is not empty
+    // EFFECTS: return the number of books tagged by the given genre at that instant
+    public int numOfBooksTaggedBy(String genreName) {
+        int code = GenreDictionary.getInstance().lookup(genreName);
+        if (code < 0 || code >= genreCounts.length) {
+            return 0;
+        }
+        return genreCounts[code];
+    }
+
+    // EFFECTS: return the names of the genres at least one book was tagged by at that instant,
+    // in the order they were first used on any bookshelf
+    public List<String> getAllGenres() {
+        List<String> genres = new ArrayList<>();
+        for (int i = 0; i < genreCounts.length; i++) {
+            if (genreCounts[i] > 0) {
+                genres.add(GenreDictionary.getInstance().nameOf(i));
+            }
+        }
+        return genres;
+    }
+
+    // getters
+
+    public long getTimestamp() {
+        return this.timestamp;
+    }
+
+    public int getNumberOfBooks() {
+        return this.books.size();
+    }
+
+    // EFFECTS: return a read-only list of the books on the bookshelf at that instant, in the order they were added
+    public List<Book> getBooks() {
+        return this.books;
+    }
+
+    public long getTotalPages() {
+        return this.totalPages;
+    }
+
+    public long getTotalPagesRead() {
+        return this.pagesRead;
+    }
+
+    public int getNumberOfFinishedBooks() {
+        return this.numberOfFinishedBooks;
+    }
+
+    public int getNumberOfGenres() {
+        return getAllGenres().size();
+    }
+}
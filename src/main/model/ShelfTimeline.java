@@ -0,0 +1,303 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+// Represents the timeline of a bookshelf, i.e. every change to it in the order they happened:
+// a book being added or removed, a book's progress changing, and a genre tag being added to or removed from a book.
+// Each change is stored as a timestamp, a type and three int arguments in parallel primitive arrays,
+// and only says how the totals of the bookshelf changed, e.g. by how many pages read;
+// a book being added or removed also keeps the book itself, so the books on the bookshelf at any instant
+// are known even after books were taken off it and others put on it, e.g. by an undo.
+// Every so many changes a checkpoint of the totals, genre counts and books is kept, so the state at any past
+// instant is found by a binary search for the instant and the checkpoint before it, then replaying
+// at most one checkpoint interval of changes; the books are kept in a persistent vector,
+// which checkpoints share instead of copying.
+public class ShelfTimeline {
+
+    static final byte BOOK_ADDED = 0;        // total pages, pages read, progress
+    static final byte PROGRESS_CHANGED = 1;  // change of pages read, of progress, of # of finished books
+    static final byte TAG_ADDED = 2;         // genre code
+    static final byte TAG_REMOVED = 3;       // genre code
+    static final byte BOOK_REMOVED = 4;      // total pages, pages read, progress
+
+    private static final int MIN_CHECKPOINT_INTERVAL = 256;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] timestamps;
+    private byte[] types;
+    private int[] firstArgs;
+    private int[] secondArgs;
+    private int[] thirdArgs;
+    private Book[] books;               // the book added or removed, or null for other changes
+    private int size;
+
+    private Totals head;                // the totals after every change so far
+    private List<Totals> checkpoints;   // checkpoint i holds the totals after the first index changes
+    private int sinceCheckpoint;
+
+    // EFFECTS: construct an empty timeline
+    public ShelfTimeline() {
+        this.timestamps = new long[INITIAL_CAPACITY];
+        this.types = new byte[INITIAL_CAPACITY];
+        this.firstArgs = new int[INITIAL_CAPACITY];
+        this.secondArgs = new int[INITIAL_CAPACITY];
+        this.thirdArgs = new int[INITIAL_CAPACITY];
+        this.books = new Book[INITIAL_CAPACITY];
+        this.size = 0;
+        this.head = new Totals(0, new int[0], PersistentVector.empty());
+        this.checkpoints = new ArrayList<>();
+        this.checkpoints.add(head.copy());
+        this.sinceCheckpoint = 0;
+    }
+
+    // REQUIRES: books are the books just put on the bookshelf, in the order they were put on it,
+    //      and the time each of them was added is set
+    // MODIFIES: this
+    // EFFECTS: record every book being added at the time it was added, with the pages read and the genre tags
+    //      it had then, followed by every later entry of its reading history, all in time order
+    public void booksAdded(Collection<? extends Book> books) {
+        List<Book> added = new ArrayList<>(books);
+        List<long[]> changes = new ArrayList<>();
+        for (int i = 0; i < added.size(); i++) {
+            collectChanges(added.get(i), i, changes);
+        }
+        // stable, so the changes of a book stay after its being added when the times are the same
+        changes.sort((a, b) -> Long.compare(a[0], b[0]));
+        for (long[] next : changes) {
+            record(next[0], (byte) next[1], (int) next[2], (int) next[3], (int) next[4],
+                    next[5] < 0 ? null : added.get((int) next[5]));
+        }
+    }
+
+    // REQUIRES: the book is on the bookshelf
+    // MODIFIES: this
+    // EFFECTS: record the change of the book's progress from the old pages read and progress to its current ones
+    public void progressChanged(long timestamp, Book book, int oldPagesRead, double oldProgress) {
+        int finished = isFinished(book.getPagesRead(), book.getTotalPages()) ? 1 : 0;
+        int wasFinished = isFinished(oldPagesRead, book.getTotalPages()) ? 1 : 0;
+        record(timestamp, PROGRESS_CHANGED, book.getPagesRead() - oldPagesRead,
+                Book.tenths(book.getProgress()) - Book.tenths(oldProgress), finished - wasFinished, null);
+    }
+
+    // REQUIRES: the book is on the bookshelf; for the books at an instant to be right, it is the last one on it
+    // MODIFIES: this
+    // EFFECTS: record the book being taken off the bookshelf with the pages read and the genre tags it has
+    public void bookRemoved(long timestamp, Book book) {
+        for (int i = 0; i < book.getNumberOfGenreTags(); i++) {
+            record(timestamp, TAG_REMOVED, book.genreCodeAt(i), 0, 0, null);
+        }
+        record(timestamp, BOOK_REMOVED, book.getTotalPages(), book.getPagesRead(),
+                Book.tenths(book.getProgress()), book);
+    }
+
+    // REQUIRES: code >= 0
+    // MODIFIES: this
+    // EFFECTS: record a book being tagged by the genre with the given dictionary code
+    public void tagAdded(long timestamp, int code) {
+        record(timestamp, TAG_ADDED, code, 0, 0, null);
+    }
+
+    // REQUIRES: code >= 0
+    // MODIFIES: this
+    // EFFECTS: record a book no longer being tagged by the genre with the given dictionary code
+    public void tagRemoved(long timestamp, int code) {
+        record(timestamp, TAG_REMOVED, code, 0, 0, null);
+    }
+
+    // EFFECTS: return the state of the bookshelf at the given instant, i.e. after every change
+    //      recorded at or before it
+    public ShelfState asOf(long timestamp) {
+        int end = countAtOrBefore(timestamp);
+        Totals totals = checkpointAtOrBefore(end).copy();
+        for (int i = totals.index; i < end; i++) {
+            totals.apply(types[i], firstArgs[i], secondArgs[i], thirdArgs[i], books[i]);
+        }
+        return totals.toState(timestamp);
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    // EFFECTS: return the time of the last change, or zero if there is none
+    public long getLastTimestamp() {
+        return size == 0 ? 0 : timestamps[size - 1];
+    }
+
+    // helper functions
+
+    // MODIFIES: this
+    // EFFECTS: append a change, with the book added or removed if it is one, taking a timestamp earlier than
+    //      the last change's as the last change's, apply it to the head totals, and keep a checkpoint
+    //      once enough changes were appended since the last one
+    private void record(long timestamp, byte type, int first, int second, int third, Book book) {
+        ensureCapacity(size + 1);
+        timestamps[size] = Math.max(timestamp, getLastTimestamp());
+        types[size] = type;
+        firstArgs[size] = first;
+        secondArgs[size] = second;
+        thirdArgs[size] = third;
+        books[size] = book;
+        size++;
+
+        head.apply(type, first, second, third, book);
+        head.index = size;
+        sinceCheckpoint++;
+        if (sinceCheckpoint >= Math.max(MIN_CHECKPOINT_INTERVAL, head.genreCounts.length)) {
+            checkpoints.add(head.copy());
+            sinceCheckpoint = 0;
+        }
+    }
+
+    // MODIFIES: this, changes
+    // EFFECTS: add to changes, as {timestamp, type, first, second, third, index of the book added or -1},
+    //      the book at the given index of the books added being added with the pages it had read
+    //      and the genre tags it had then, and every later entry of its reading history if it has one
+    private void collectChanges(Book book, int index, List<long[]> changes) {
+        long addedAt = book.getAddedAt();
+        ReadingHistory history = book.hasReadingHistory() ? book.getReadingHistory() : null;
+        int pages = history == null ? book.getPagesRead() : history.pageAt(addedAt);
+        int progress = Book.tenths(Book.percentageOf(pages, book.getTotalPages()));
+        changes.add(new long[] {addedAt, BOOK_ADDED, book.getTotalPages(), pages, progress, index});
+        for (int i = 0; i < book.getNumberOfGenreTags(); i++) {
+            changes.add(new long[] {addedAt, TAG_ADDED, book.genreCodeAt(i), 0, 0, -1});
+        }
+        if (history != null) {
+            collectProgressChanges(book, history, pages, changes);
+        }
+    }
+
+    // MODIFIES: changes
+    // EFFECTS: add to changes every entry of the book's reading history after it was added,
+    //      starting from the given pages read when it was added
+    private void collectProgressChanges(Book book, ReadingHistory history, int pages, List<long[]> changes) {
+        long addedAt = book.getAddedAt();
+        int progress = Book.tenths(Book.percentageOf(pages, book.getTotalPages()));
+        long[] times = history.getTimestamps();
+        int[] pagesRead = history.getPages();
+        for (int i = 0; i < times.length; i++) {
+            if (times[i] > addedAt) {
+                int newProgress = Book.tenths(Book.percentageOf(pagesRead[i], book.getTotalPages()));
+                int finished = (isFinished(pagesRead[i], book.getTotalPages()) ? 1 : 0)
+                        - (isFinished(pages, book.getTotalPages()) ? 1 : 0);
+                changes.add(new long[] {times[i], PROGRESS_CHANGED, pagesRead[i] - pages, newProgress - progress,
+                        finished, -1});
+                pages = pagesRead[i];
+                progress = newProgress;
+            }
+        }
+    }
+
+    // EFFECTS: return the number of changes recorded at or before the timestamp
+    private int countAtOrBefore(long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // EFFECTS: return the last checkpoint taken after at most the given number of changes
+    private Totals checkpointAtOrBefore(int count) {
+        int low = 0;
+        int high = checkpoints.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (checkpoints.get(mid).index <= count) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return checkpoints.get(low);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: grow the arrays so that they can hold at least the given number of changes
+    private void ensureCapacity(int capacity) {
+        if (capacity > timestamps.length) {
+            int newCapacity = Math.max(capacity, 2 * timestamps.length);
+            timestamps = Arrays.copyOf(timestamps, newCapacity);
+            types = Arrays.copyOf(types, newCapacity);
+            firstArgs = Arrays.copyOf(firstArgs, newCapacity);
+            secondArgs = Arrays.copyOf(secondArgs, newCapacity);
+            thirdArgs = Arrays.copyOf(thirdArgs, newCapacity);
+            books = Arrays.copyOf(books, newCapacity);
+        }
+    }
+
+    // EFFECTS: return true if all pages of a book are read
+    private static boolean isFinished(int pagesRead, int totalPages) {
+        return pagesRead >= totalPages;
+    }
+
+    // Represents the totals and the books of a bookshelf after the first index changes of its timeline
+    private static class Totals {
+        private int index;
+        private long totalPages;
+        private long pagesRead;
+        private long progressSum;
+        private int numberOfFinishedBooks;
+        private int[] genreCounts;
+        private PersistentVector<Book> books;
+
+        // EFFECTS: construct totals after the given number of changes with the given genre counts and books
+        Totals(int index, int[] genreCounts, PersistentVector<Book> books) {
+            this.index = index;
+            this.genreCounts = genreCounts;
+            this.books = books;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: apply a change to the totals; the book is the one added or removed, if it is such a change
+        void apply(byte type, int first, int second, int third, Book book) {
+            if (type == BOOK_ADDED || type == BOOK_REMOVED) {
+                applyBook(type == BOOK_ADDED ? 1 : -1, first, second, third);
+                books = type == BOOK_ADDED ? books.plus(book) : books.minusLast();
+            } else if (type == PROGRESS_CHANGED) {
+                pagesRead += first;
+                progressSum += second;
+                numberOfFinishedBooks += third;
+            } else {
+                if (first >= genreCounts.length) {
+                    genreCounts = Arrays.copyOf(genreCounts, Math.max(first + 1, 2 * genreCounts.length));
+                }
+                genreCounts[first] += type == TAG_ADDED ? 1 : -1;
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: add (sign 1) or take out (sign -1) a book with the given total pages, pages read and progress
+        void applyBook(int sign, int totalPages, int pagesRead, int progress) {
+            this.totalPages += sign * totalPages;
+            this.pagesRead += sign * pagesRead;
+            progressSum += sign * progress;
+            numberOfFinishedBooks += isFinished(pagesRead, totalPages) ? sign : 0;
+        }
+
+        // EFFECTS: return a copy of these totals
+        Totals copy() {
+            Totals copy = new Totals(index, genreCounts.clone(), books);
+            copy.totalPages = totalPages;
+            copy.pagesRead = pagesRead;
+            copy.progressSum = progressSum;
+            copy.numberOfFinishedBooks = numberOfFinishedBooks;
+            return copy;
+        }
+
+        // EFFECTS: return these totals as the state of the bookshelf at the given instant
+        ShelfState toState(long timestamp) {
+            return new ShelfState(timestamp, books, totalPages, pagesRead, progressSum,
+                    numberOfFinishedBooks, genreCounts);
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// Represents the title search index of a bookshelf;
+// titles are matched ignoring case, through a trie of whole titles for exact and prefix matches
+// and a trigram index (every 3 consecutive characters of a title) for substring matches.
+// Queries shorter than a trigram, i.e. the first characters a user types, are served from an index of
+// every 1 or 2 consecutive characters of a title past its start, split by whether they start a word
+// and bucketed by title length, so the best matches are found without looking at any other title.
+// The index stores positions of books on the bookshelf, in the order they were added.
+public class TitleIndex {
+
+    private static final int GRAM = 3;
+    private static final int PRUNE_RATIO = 16;
+
+    private static final int WORD_PREFIX = 1;
+    private static final int SUBSTRING = 2;
+
+    private TrieNode root;
+    private Map<Long, IntList> trigrams;
+    private Map<Long, IntList[]> shortGrams;  // for every short query and rank, the positions by title length
+    private ArrayList<String> normalizedTitles;
+
+    // EFFECTS: construct an empty title index
+    public TitleIndex() {
+        this.root = new TrieNode();
+        this.trigrams = new HashMap<>();
+        this.shortGrams = new HashMap<>();
+        this.normalizedTitles = new ArrayList<>();
+    }
+
+    // REQUIRES: book is the next book put on the bookshelf, i.e. book's position is size()
+    // MODIFIES: this
+    // EFFECTS: index the title of the book
+    public void add(Book book) {
+        int position = book.getPosition();
+        String title = normalize(book.getTitle());
+        normalizedTitles.add(title);
+
+        TrieNode node = root;
+        for (int i = 0; i < title.length(); i++) {
+            node = node.childOrCreate(title.charAt(i));
+        }
+        node.addPosition(position);
+
+        for (int i = 0; i + GRAM <= title.length(); i++) {
+            IntList postings = trigrams.computeIfAbsent(trigram(title, i), k -> new IntList());
+            if (postings.last() != position) {
+                postings.add(position);
+            }
+        }
+
+        addShortGrams(title, position);
+    }
+
+    // REQUIRES: size() > 0
+    // MODIFIES: this
+    // EFFECTS: stop indexing the title of the book put on the bookshelf last, i.e. the one at size() - 1
+    public void removeLast() {
+        int position = normalizedTitles.size() - 1;
+        String title = normalizedTitles.remove(position);
+
+        TrieNode node = root;
+        for (int i = 0; i < title.length(); i++) {
+            node = node.child(title.charAt(i));
+        }
+        node.removeLastPosition();
+
+        for (int i = 0; i + GRAM <= title.length(); i++) {
+            IntList postings = trigrams.get(trigram(title, i));
+            if (postings != null && postings.last() == position) {
+                postings.removeLast();
+                if (postings.isEmpty()) {
+                    trigrams.remove(trigram(title, i));
+                }
+            }
+        }
+
+        for (long key : shortGramsOf(title)) {
+            shortGrams.get(key)[title.length()].removeLast();
+        }
+    }
+
+    // EFFECTS: return the positions of up to limit books whose titles contain the query, ignoring case,
+    //      best matches first: titles equal to the query, then titles starting with it,
+    //      then titles with a word starting with it, then any other titles containing it;
+    //      within each group shorter titles come first, then books added earlier.
+    //      An empty query matches nothing.
+    public List<Integer> search(String query, int limit) {
+        String q = normalize(query);
+        List<Integer> result = new ArrayList<>();
+        if (q.isEmpty() || limit <= 0) {
+            return result;
+        }
+
+        // exact and prefix matches come straight from the trie, already in rank order
+        collectStartingWith(q, limit, result);
+        if (result.size() >= limit) {
+            return result;
+        }
+
+        collectOtherMatches(q, limit - result.size(), result);
+        return result;
+    }
+
+    // EFFECTS: return the positions of the books whose titles start with the prefix, ignoring case;
+    //      shorter titles come first, then books added earlier
+    public List<Integer> startingWith(String prefix) {
+        List<Integer> result = new ArrayList<>();
+        collectStartingWith(normalize(prefix), Integer.MAX_VALUE, result);
+        return result;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: make room for at least the given number of titles without growing the index
+    public void ensureCapacity(int expectedSize) {
+        normalizedTitles.ensureCapacity(expectedSize);
+    }
+
+    public int size() {
+        return this.normalizedTitles.size();
+    }
+
+    // helper functions
+
+    // MODIFIES: this
+    // EFFECTS: index the position under every query shorter than a trigram that the title contains past its start,
+    //      in the bucket for the length of the title
+    private void addShortGrams(String title, int position) {
+        for (long key : shortGramsOf(title)) {
+            IntList[] byLength = shortGrams.get(key);
+            if (byLength == null || byLength.length <= title.length()) {
+                byLength = Arrays.copyOf(byLength == null ? new IntList[0] : byLength, title.length() + 1);
+                shortGrams.put(key, byLength);
+            }
+            if (byLength[title.length()] == null) {
+                byLength[title.length()] = new IntList();
+            }
+            byLength[title.length()].add(position);
+        }
+    }
+
+    // MODIFIES: result
+    // EFFECTS: append to result the positions of up to limit books whose normalized titles start with p,
+    //      walking the trie one level (i.e. one title length) at a time
+    private void collectStartingWith(String p, int limit, List<Integer> result) {
+        TrieNode node = root;
+        for (int i = 0; i < p.length() && node != null; i++) {
+            node = node.child(p.charAt(i));
+        }
+        if (node == null) {
+            return;
+        }
+
+        List<TrieNode> level = new ArrayList<>();
+        level.add(node);
+        while (!level.isEmpty() && result.size() < limit) {
+            List<TrieNode> nextLevel = new ArrayList<>();
+            List<Integer> sameLength = new ArrayList<>();
+            for (TrieNode next : level) {
+                next.collectPositions(sameLength);
+                next.collectChildren(nextLevel);
+            }
+            sameLength.sort(null);
+            for (int i = 0; i < sameLength.size() && result.size() < limit; i++) {
+                result.add(sameLength.get(i));
+            }
+            level = nextLevel;
+        }
+    }
+
+    // MODIFIES: result
+    // EFFECTS: append to result, best first, the positions of up to wanted books whose normalized titles
+    //      contain q without starting with it; the best of the trigram candidates are kept in a max-heap
+    //      of packed keys, while the matches of queries shorter than a trigram are already in rank order
+    private void collectOtherMatches(String q, int wanted, List<Integer> result) {
+        if (q.length() < GRAM) {
+            int end = result.size() + wanted;
+            collectShortMatches(shortGrams.get(shortGram(q, WORD_PREFIX)), q, end, result);
+            collectShortMatches(shortGrams.get(shortGram(q, SUBSTRING)), q, end, result);
+            return;
+        }
+        PriorityQueue<Long> best = new PriorityQueue<>(wanted, Comparator.reverseOrder());
+        for (int position : substringCandidates(q)) {
+            offer(best, wanted, position, q);
+        }
+
+        List<Long> keys = new ArrayList<>(best);
+        keys.sort(null);
+        for (long key : keys) {
+            result.add((int) (key & 0xFFFFFFFFL));
+        }
+    }
+
+    // MODIFIES: result
+    // EFFECTS: append to result, until it holds end positions, the positions of the books by title length,
+    //      shorter titles first, then books added earlier, skipping titles that start with q
+    private void collectShortMatches(IntList[] byLength, String q, int end, List<Integer> result) {
+        for (int length = 0; byLength != null && length < byLength.length; length++) {
+            IntList positions = byLength[length];
+            for (int i = 0; positions != null && i < positions.size() && result.size() < end; i++) {
+                if (!normalizedTitles.get(positions.get(i)).startsWith(q)) {
+                    result.add(positions.get(i));
+                }
+            }
+        }
+    }
+
+    // MODIFIES: best
+    // EFFECTS: if the title at the position contains q without starting with it,
+    //      offer its packed (rank, length, position) key to the heap of the wanted best keys
+    private void offer(PriorityQueue<Long> best, int wanted, int position, String q) {
+        String title = normalizedTitles.get(position);
+        if (title.startsWith(q) || !title.contains(q)) {
+            return;
+        }
+        long key = ((long) rank(title, q) << 61) | ((long) Math.min(title.length(), 0x1FFFFFFF) << 32) | position;
+        if (best.size() < wanted) {
+            best.add(key);
+        } else if (key < best.peek()) {
+            best.poll();
+            best.add(key);
+        }
+    }
+
+    // EFFECTS: return the positions of books whose titles may contain the query,
+    //      by intersecting the trigram postings of the query, rarest first;
+    //      the titles still have to be checked for the query itself
+    private List<Integer> substringCandidates(String q) {
+        List<IntList> postings = new ArrayList<>();
+        for (int i = 0; i + GRAM <= q.length(); i++) {
+            IntList next = trigrams.get(trigram(q, i));
+            if (next == null) {
+                return new ArrayList<>();
+            }
+            postings.add(next);
+        }
+        postings.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+        int[] candidates = new int[postings.get(0).size()];
+        int count = postings.get(0).size();
+        for (int i = 0; i < count; i++) {
+            candidates[i] = postings.get(0).get(i);
+        }
+        // once the candidates are far fewer than a posting list, checking the titles is cheaper
+        for (int i = 1; i < postings.size() && count > 0 && postings.get(i).size() <= PRUNE_RATIO * count; i++) {
+            count = intersect(candidates, count, postings.get(i));
+        }
+
+        List<Integer> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(candidates[i]);
+        }
+        return result;
+    }
+
+    // REQUIRES: the first count candidates and the postings are both in ascending order
+    // MODIFIES: candidates
+    // EFFECTS: keep only the candidates that are also in the postings, and return how many are left
+    private static int intersect(int[] candidates, int count, IntList postings) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count; i++) {
+            int low = j;
+            int high = postings.size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (postings.get(mid) < candidates[i]) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            j = low;
+            if (j < postings.size() && postings.get(j) == candidates[i]) {
+                candidates[kept++] = candidates[i];
+            }
+        }
+        return kept;
+    }
+
+    // REQUIRES: title contains q but does not start with it
+    // EFFECTS: return how well the title matches the query; lower is better
+    private static int rank(String title, String q) {
+        if (title.contains(" " + q)) {
+            return WORD_PREFIX;
+        } else {
+            return SUBSTRING;
+        }
+    }
+
+    // EFFECTS: return the three characters of s starting at index i packed into one key;
+    //      the packed characters are multiplied by an odd constant, which keeps keys distinct
+    //      but spreads them over all 64 bits so that Long.hashCode does not make them collide
+    private static long trigram(String s, int i) {
+        return (((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2)) * 0x9E3779B97F4A7C15L;
+    }
+
+    // EFFECTS: return the keys of the queries shorter than a trigram that the title contains past its start,
+    //      each with how well the title matches it: a word prefix if it starts a word anywhere, else a substring
+    private static Set<Long> shortGramsOf(String title) {
+        Set<String> wordPrefixes = new HashSet<>();
+        Set<String> substrings = new HashSet<>();
+        for (int length = 1; length < GRAM; length++) {
+            for (int i = 1; i + length <= title.length(); i++) {
+                String gram = title.substring(i, i + length);
+                (title.charAt(i - 1) == ' ' ? wordPrefixes : substrings).add(gram);
+            }
+        }
+        substrings.removeAll(wordPrefixes);
+
+        Set<Long> keys = new HashSet<>();
+        for (String gram : wordPrefixes) {
+            keys.add(shortGram(gram, WORD_PREFIX));
+        }
+        for (String gram : substrings) {
+            keys.add(shortGram(gram, SUBSTRING));
+        }
+        return keys;
+    }
+
+    // REQUIRES: 0 < q.length() < GRAM
+    // EFFECTS: return the key of a query shorter than a trigram and a rank, packed and spread like a trigram;
+    //      a missing second character is packed as a code no character has
+    private static long shortGram(String q, int rank) {
+        long second = q.length() > 1 ? q.charAt(1) : 0x10000L;
+        return (((long) q.charAt(0) << 40) | (second << 20) | rank) * 0x9E3779B97F4A7C15L;
+    }
+
+    // EFFECTS: return the title in lower case, which is how titles are compared
+    private static String normalize(String title) {
+        return title.toLowerCase(Locale.ROOT);
+    }
+
+    // Represents a node of the title trie; the children are kept sorted by character,
+    // and the positions are only created for nodes where a title ends
+    private static class TrieNode {
+        private static final char[] NO_KEYS = new char[0];
+        private static final TrieNode[] NO_CHILDREN = new TrieNode[0];
+
+        private char[] keys = NO_KEYS;
+        private TrieNode[] children = NO_CHILDREN;
+        private int childCount = 0;
+        private IntList positions = null;
+
+        // MODIFIES: this
+        // EFFECTS: record that the title of the book at the position ends at this node
+        void addPosition(int position) {
+            if (positions == null) {
+                positions = new IntList();
+            }
+            positions.add(position);
+        }
+
+        // REQUIRES: numberOfPositions() > 0
+        // MODIFIES: this
+        // EFFECTS: forget the title recorded last as ending at this node
+        void removeLastPosition() {
+            positions.removeLast();
+        }
+
+        // EFFECTS: return the number of titles ending at this node
+        int numberOfPositions() {
+            return positions == null ? 0 : positions.size();
+        }
+
+        // MODIFIES: result
+        // EFFECTS: append the positions of the titles ending at this node to result
+        void collectPositions(List<Integer> result) {
+            for (int i = 0; i < numberOfPositions(); i++) {
+                result.add(positions.get(i));
+            }
+        }
+
+        // MODIFIES: result
+        // EFFECTS: append the children of this node to result, in character order
+        void collectChildren(List<TrieNode> result) {
+            for (int i = 0; i < childCount; i++) {
+                result.add(children[i]);
+            }
+        }
+
+        // EFFECTS: return the child for the character, or null if there is none
+        TrieNode child(char c) {
+            int i = Arrays.binarySearch(keys, 0, childCount, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: return the child for the character, creating it if there is none
+        TrieNode childOrCreate(char c) {
+            int i = Arrays.binarySearch(keys, 0, childCount, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int insertAt = -i - 1;
+            if (childCount == keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(2, 2 * keys.length));
+                children = Arrays.copyOf(children, keys.length);
+            }
+            System.arraycopy(keys, insertAt, keys, insertAt + 1, childCount - insertAt);
+            System.arraycopy(children, insertAt, children, insertAt + 1, childCount - insertAt);
+            keys[insertAt] = c;
+            children[insertAt] = new TrieNode();
+            childCount++;
+            return children[insertAt];
+        }
+    }
+}
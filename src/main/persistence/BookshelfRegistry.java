@@ -0,0 +1,208 @@
+package persistence;
+
+import model.Bookshelf;
+import model.EventLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Represents the bookshelves of many users hosted in one application, keyed by user ID.
+// Each user's bookshelf is saved as <directory>/<user ID>.json and is only read back from file
+// the first time it is asked for; each user's bookshelf logs to an event log of its own,
+// which retains at most a given number of bytes of events and is let go together with the bookshelf.
+// The bookshelves kept in memory, with their event logs, must fit in a budget of bytes,
+// as estimated by the bookshelves and the logs themselves; whenever they do not, the bookshelves
+// used least recently are saved to file and let go until they fit again (the bookshelf just asked for is
+// always kept).
+// The registry may be used from several threads at once, but it does not guard the bookshelves it hands out:
+// a thread changing a bookshelf must hold its lock (synchronized on the bookshelf), which the registry
+// also holds while it saves it. A bookshelf that was let go is no longer saved, so it must not be changed
+// any more; ask the registry for the user's bookshelf again instead of keeping it around.
+public class BookshelfRegistry {
+
+    public static final long DEFAULT_MAX_LOG_BYTES = 256 * 1024;
+
+    private String directory;
+    private long memoryBudget;
+    private LinkedHashMap<String, Bookshelf> loaded;   // in order of use, least recently used first
+    private Map<String, Long> memoryUsages;            // estimate of each loaded bookshelf when last used
+    private long totalMemoryUsage;
+    private long maxLogBytes;
+
+    // REQUIRES: memoryBudget >= 0
+    // EFFECTS: construct a registry with no bookshelves loaded, saving them to and loading them from
+    //      the given directory, and keeping bookshelves within the given budget of bytes in memory;
+    //      each event log retains up to DEFAULT_MAX_LOG_BYTES bytes of events
+    public BookshelfRegistry(String directory, long memoryBudget) {
+        this(directory, memoryBudget, DEFAULT_MAX_LOG_BYTES);
+    }
+
+    // REQUIRES: memoryBudget >= 0, maxLogBytes >= 0
+    // EFFECTS: construct a registry with no bookshelves loaded, saving them to and loading them from
+    //      the given directory, and keeping bookshelves within the given budget of bytes in memory;
+    //      each event log retains up to maxLogBytes bytes of events
+    public BookshelfRegistry(String directory, long memoryBudget, long maxLogBytes) {
+        this.directory = directory;
+        this.memoryBudget = memoryBudget;
+        this.loaded = new LinkedHashMap<>();
+        this.memoryUsages = new HashMap<>();
+        this.totalMemoryUsage = 0;
+        this.maxLogBytes = maxLogBytes;
+    }
+
+    // REQUIRES: userId is not empty and only has letters, digits, '-' and '_'
+    // MODIFIES: this
+    // EFFECTS: return the bookshelf of the user, reading it from file if it is not in memory yet,
+    //      or a new empty one if the user has none saved; then save and let go of the bookshelves
+    //      used least recently until the bookshelves in memory fit in the budget;
+    //      throws IOException if the user's bookshelf cannot be read or another one cannot be saved
+    public synchronized Bookshelf getBookshelf(String userId) throws IOException {
+        Bookshelf bookshelf = loaded.remove(userId);
+        if (bookshelf == null) {
+            bookshelf = load(userId);
+        }
+        loaded.put(userId, bookshelf);
+        updateMemoryUsage(userId, bookshelf);
+        evictUntilWithinBudget(userId);
+        return bookshelf;
+    }
+
+    // REQUIRES: userId is not empty and only has letters, digits, '-' and '_'
+    // MODIFIES: this
+    // EFFECTS: return the event log of the user's bookshelf, reading the bookshelf as getBookshelf does;
+    //      a bookshelf read back after it was let go starts a new, empty event log
+    public synchronized EventLog getEventLog(String userId) throws IOException {
+        return getBookshelf(userId).getEventLog();
+    }
+
+    // EFFECTS: return true if the user's bookshelf is in memory
+    public synchronized boolean isLoaded(String userId) {
+        return loaded.containsKey(userId);
+    }
+
+    // EFFECTS: return the IDs of the users whose bookshelves are in memory, least recently used first
+    public synchronized List<String> getLoadedUsers() {
+        return new ArrayList<>(loaded.keySet());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: return an estimate, in bytes, of the memory the user's bookshelf and its event log hold on to,
+    //      or zero if it is not in memory
+    public synchronized long getMemoryUsage(String userId) {
+        Bookshelf bookshelf = loaded.get(userId);
+        if (bookshelf == null) {
+            return 0;
+        }
+        updateMemoryUsage(userId, bookshelf);
+        return memoryUsages.get(userId);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: return an estimate, in bytes, of the memory all bookshelves in memory and their event logs
+    //      hold on to
+    public synchronized long getTotalMemoryUsage() {
+        for (Map.Entry<String, Bookshelf> entry : loaded.entrySet()) {
+            updateMemoryUsage(entry.getKey(), entry.getValue());
+        }
+        return totalMemoryUsage;
+    }
+
+    // EFFECTS: return the budget of bytes the bookshelves in memory must fit in
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    // EFFECTS: save the user's bookshelf to file if it is in memory;
+    //      throws IOException if it cannot be saved
+    public synchronized void save(String userId) throws IOException {
+        Bookshelf bookshelf = loaded.get(userId);
+        if (bookshelf != null) {
+            write(userId, bookshelf);
+        }
+    }
+
+    // EFFECTS: save every bookshelf in memory to file;
+    //      throws IOException if one cannot be saved
+    public synchronized void saveAll() throws IOException {
+        for (Map.Entry<String, Bookshelf> entry : loaded.entrySet()) {
+            write(entry.getKey(), entry.getValue());
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: save the user's bookshelf to file and let go of it, if it is in memory;
+    //      throws IOException if it cannot be saved, in which case it is kept
+    public synchronized void evict(String userId) throws IOException {
+        Bookshelf bookshelf = loaded.get(userId);
+        if (bookshelf != null) {
+            write(userId, bookshelf);
+            forget(userId);
+        }
+    }
+
+    // helper functions
+
+    // EFFECTS: return the file the user's bookshelf is saved to
+    private String fileOf(String userId) {
+        return directory + File.separator + userId + ".json";
+    }
+
+    // EFFECTS: read the user's bookshelf from file, or construct an empty one if there is no such file,
+    //      and have it log to a new event log of its own, bounded to maxLogBytes bytes
+    private Bookshelf load(String userId) throws IOException {
+        String file = fileOf(userId);
+        Bookshelf bookshelf = new File(file).exists() ? new JsonReader(file).read() : new Bookshelf();
+        EventLog log = EventLog.newLog();
+        log.setMaxBytes(maxLogBytes);
+        bookshelf.setEventLog(log);
+        return bookshelf;
+    }
+
+    // EFFECTS: write the user's bookshelf to file, creating the directory if needed,
+    //      holding the lock of the bookshelf so that no thread changes it half-way through
+    private void write(String userId, Bookshelf bookshelf) throws IOException {
+        new File(directory).mkdirs();
+        JsonWriter writer = new JsonWriter(fileOf(userId));
+        writer.open();
+        synchronized (bookshelf) {
+            writer.write(bookshelf);
+        }
+        writer.close();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: replace the kept estimate of the user's bookshelf and its event log with their current one
+    private void updateMemoryUsage(String userId, Bookshelf bookshelf) {
+        long usage = bookshelf.estimateMemoryUsage() + bookshelf.getEventLog().getRetainedBytes();
+        Long previous = memoryUsages.put(userId, usage);
+        totalMemoryUsage += usage - (previous == null ? 0 : previous);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: save and let go of the bookshelves used least recently, other than the one of the given user,
+    //      until the bookshelves in memory fit in the budget
+    private void evictUntilWithinBudget(String keptUserId) throws IOException {
+        Iterator<Map.Entry<String, Bookshelf>> iterator = loaded.entrySet().iterator();
+        while (totalMemoryUsage > memoryBudget && iterator.hasNext()) {
+            Map.Entry<String, Bookshelf> eldest = iterator.next();
+            if (!eldest.getKey().equals(keptUserId)) {
+                write(eldest.getKey(), eldest.getValue());
+                iterator.remove();
+                totalMemoryUsage -= memoryUsages.remove(eldest.getKey());
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: let go of the user's bookshelf
+    private void forget(String userId) {
+        loaded.remove(userId);
+        totalMemoryUsage -= memoryUsages.remove(userId);
+    }
+}
@@ -0,0 +1,311 @@
+package persistence;
+
+import model.Bookshelf;
+import model.BookshelfSnapshot;
+import model.Event;
+import model.EventCategory;
+import model.EventLevel;
+import model.EventLog;
+import model.EventSink;
+import model.EventType;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Represents where a bookshelf is kept safe from crashes: the snapshot of it saved last with JsonWriter,
+// and a journal of every change made to it since, i.e. of every event logged about it,
+// so that after a crash between saves the bookshelf is recovered exactly as it was
+// by loading the snapshot and replaying the changes journaled after it.
+// The journal goes in generations, each in a file of its own, <snapshot file>.<generation>.journal,
+// and the snapshot names the generation that follows it. Saving starts a new generation,
+// and so does compaction: once the journal passes a size threshold, it is folded into a new snapshot
+// in the background, so recovery time stays bounded. The new snapshot is taken in constant time
+// when the new generation starts, and written out while the bookshelf keeps changing.
+// A change waits a short, bounded time for room in the journal's queue, so the thread making it,
+// e.g. the Swing event thread, is never held up for long by the disk; if there is still no room,
+// or the journal failed, the change is dropped from the journal and the journal is compacted straight away,
+// so the change is kept in the next snapshot instead.
+// The store needs every change to the bookshelf, so while it is attached to the event log, the log logs
+// every change at INFO and above whatever its categories are set to; levels, sampling and rate limits
+// only take effect on the other events.
+// The bookshelf must be changed, and events logged to its event log, from one thread at a time.
+public class BookshelfStore implements EventSink {
+
+    private static final int JOURNAL_QUEUE_CAPACITY = 4096;
+    private static final long JOURNAL_MAX_WAIT = 100;
+    private static final String JOURNAL_SUFFIX = ".journal";
+
+    private final String snapshotFile;
+    private final long compactionThreshold;
+    private final long durabilityWindowMillis;
+    private final ExecutorService compactor;
+
+    private Bookshelf bookshelf;
+    private EventLog eventLog;
+    private EventJournal journal;
+    private long generation;
+    private long droppedEvents;       // events the journal dropped when the last compaction started
+    private Future<?> compaction;     // the compaction started last, or null
+
+    // REQUIRES: compactionThreshold >= 0, durabilityWindowMillis >= 0
+    // EFFECTS: constructs a store keeping the snapshot in the given file and the journal next to it,
+    //      folding the journal into a new snapshot once it has compactionThreshold bytes,
+    //      and forcing changes to disk at most durabilityWindowMillis after they are made
+    public BookshelfStore(String snapshotFile, long compactionThreshold, long durabilityWindowMillis) {
+        this.snapshotFile = snapshotFile;
+        this.compactionThreshold = compactionThreshold;
+        this.durabilityWindowMillis = durabilityWindowMillis;
+        this.compactor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "bookshelf-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // REQUIRES: recover was not called on this store yet
+    // MODIFIES: this, eventLog
+    // EFFECTS: return the bookshelf as it was last: the one in the snapshot (or a new empty one if there is none)
+    //      with every change journaled after the snapshot replayed over it; from now on, the bookshelf
+    //      logs to eventLog and every event logged to eventLog is journaled;
+    //      throws IOException if the snapshot or the journal cannot be read
+    public Bookshelf recover(EventLog eventLog) throws IOException {
+        this.eventLog = eventLog;
+        new File(snapshotFile).getAbsoluteFile().getParentFile().mkdirs();
+        JsonReader reader = new JsonReader(snapshotFile);
+        Bookshelf recovered = new File(snapshotFile).exists() ? reader.read() : new Bookshelf();
+        generation = reader.getJournalGeneration();
+        deleteJournalsBefore(generation);
+
+        List<Event> events = new ArrayList<>(EventJournal.read(journalFile(generation)));
+        while (new File(journalFile(generation + 1)).exists()) {
+            generation++;
+            events.addAll(EventJournal.read(journalFile(generation)));
+        }
+        replay(recovered, events);
+
+        bookshelf = recovered;
+        bookshelf.setEventLog(eventLog);
+        journal = new EventJournal(journalFile(generation), JOURNAL_QUEUE_CAPACITY, durabilityWindowMillis,
+                JOURNAL_MAX_WAIT);
+        journal.open();
+        attach();
+        compactIfDue();
+        return bookshelf;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: return the bookshelf in the snapshot, discarding every change made since it was saved,
+    //      and journal that it was loaded (whatever the event log is set to log, since recovery depends on it),
+    //      so that the changes discarded are not recovered either;
+    //      throws IOException if it cannot be read, in which case the bookshelf is kept as it is
+    public Bookshelf load() throws IOException {
+        awaitCompaction();
+        detach();
+        try {
+            Bookshelf loaded = new JsonReader(snapshotFile).read();
+            loaded.setEventLog(eventLog);
+            bookshelf = loaded;
+        } finally {
+            attach();
+        }
+        eventLog.logEvent(Event.bookshelfLoaded(bookshelf.getNumberOfBooks()));
+        return bookshelf;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: save the bookshelf as it is now as the new snapshot and start a new generation of the journal,
+    //      deleting the older ones; throws IOException if it cannot be saved
+    public void save() throws IOException {
+        awaitCompaction();
+        BookshelfSnapshot snapshot = bookshelf.snapshot();
+        generation++;
+        journal.rotate(journalFile(generation));
+        writeSnapshot(snapshot, generation);
+        journal.flush();
+        deleteJournalsBefore(generation);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: fold the journal into a new snapshot in the background if it passed the size threshold,
+    //      or if it dropped an event since the last compaction, and no compaction is running
+    @Override
+    public void accept(Event e) {
+        compactIfDue();
+    }
+
+    // EFFECTS: wait until every change made so far is forced to disk;
+    //      throws IOException if the journal failed to write them
+    public void flush() throws IOException {
+        journal.flush();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: wait for the compaction running, if any, to finish; throws IOException if it failed
+    public void awaitCompaction() throws IOException {
+        Future<?> running = compaction;
+        compaction = null;
+        if (running == null) {
+            return;
+        }
+        try {
+            running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for compaction");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stop journaling changes, once every change made so far is forced to disk
+    //      and any compaction running has finished; throws IOException if either failed
+    public void close() throws IOException {
+        try {
+            awaitCompaction();
+        } finally {
+            detach();
+            compactor.shutdown();
+            journal.close();
+        }
+    }
+
+    // EFFECTS: return the generation of the journal changes are journaled to now
+    public long getGeneration() {
+        return generation;
+    }
+
+    // EFFECTS: return the number of bytes written to the journal since its generation started
+    public long getJournalSize() {
+        return journal.getSize();
+    }
+
+    // EFFECTS: return true, since the bookshelf is recovered from every change journaled
+    @Override
+    public boolean needsEveryChange() {
+        return true;
+    }
+
+    // EFFECTS: return the file of the given generation of the journal
+    public String journalFile(long generation) {
+        return snapshotFile + "." + generation + JOURNAL_SUFFIX;
+    }
+
+    // helper functions
+
+    // MODIFIES: bookshelf
+    // EFFECTS: replay the events over the bookshelf, starting after the last one saying the bookshelf
+    //      was loaded (i.e. brought back to the snapshot), with the changes logged to an event log of their own
+    //      that only logs warnings, so no event is built again for a change replayed
+    private static void replay(Bookshelf bookshelf, List<Event> events) {
+        int start = 0;
+        for (int i = 0; i < events.size(); i++) {
+            if (events.get(i).getType() == EventType.BOOKSHELF_LOADED) {
+                start = i + 1;
+            }
+        }
+        EventLog eventLog = bookshelf.getEventLog();
+        EventLog replayLog = EventLog.newLog();
+        for (EventCategory category : EventCategory.values()) {
+            replayLog.setLevel(category, EventLevel.WARNING);
+        }
+        bookshelf.setEventLog(replayLog);
+        for (Event event : events.subList(start, events.size())) {
+            bookshelf.replay(event);
+        }
+        bookshelf.setEventLog(eventLog);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: journal every event logged to the event log, and watch the journal grow
+    private void attach() {
+        eventLog.addSink(journal);
+        eventLog.addSink(this);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stop journaling events logged to the event log
+    private void detach() {
+        eventLog.removeSink(this);
+        eventLog.removeSink(journal);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: start a compaction if the journal is due for one and none is running
+    private void compactIfDue() {
+        if (compaction != null && !compaction.isDone()) {
+            return;
+        }
+        long dropped = journal.getDroppedEvents();
+        if (journal.getSize() >= compactionThreshold || dropped > droppedEvents) {
+            droppedEvents = dropped;
+            try {
+                compact();
+            } catch (IOException e) {
+                // the journal is failing; changes are still kept in memory, and saving will tell
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: start a new generation of the journal and, in the background, save the bookshelf as it is now
+    //      as the new snapshot and delete the older generations once they are closed
+    private void compact() throws IOException {
+        BookshelfSnapshot snapshot = bookshelf.snapshot();
+        long next = ++generation;
+        journal.rotate(journalFile(next));
+        compaction = compactor.submit(() -> {
+            writeSnapshot(snapshot, next);
+            journal.flush();
+            deleteJournalsBefore(next);
+            return null;
+        });
+    }
+
+    // EFFECTS: write the snapshot, naming the generation of the journal that follows it, to a temporary file,
+    //      force it to disk, and then move it over the snapshot file in one step,
+    //      so that a crash leaves either the old snapshot or the new one
+    private void writeSnapshot(BookshelfSnapshot snapshot, long generation) throws IOException {
+        String temporary = snapshotFile + ".tmp";
+        JsonWriter writer = new JsonWriter(temporary);
+        writer.open();
+        writer.write(() -> snapshot.toJson().put("journalGeneration", generation));
+        writer.close();
+        try (FileChannel channel = FileChannel.open(Paths.get(temporary), StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(Paths.get(temporary), Paths.get(snapshotFile),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // EFFECTS: delete the files of the generations of the journal before the given one
+    private void deleteJournalsBefore(long generation) {
+        File snapshot = new File(snapshotFile).getAbsoluteFile();
+        String prefix = snapshot.getName() + ".";
+        File[] files = snapshot.getParentFile().listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (name.startsWith(prefix) && name.endsWith(JOURNAL_SUFFIX)) {
+                String number = name.substring(prefix.length(), name.length() - JOURNAL_SUFFIX.length());
+                if (number.matches("\\d+") && Long.parseLong(number) < generation) {
+                    file.delete();
+                }
+            }
+        }
+    }
+}
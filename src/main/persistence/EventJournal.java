@@ -0,0 +1,534 @@
+package persistence;
+
+import model.BookRecord;
+import model.Event;
+import model.EventSink;
+import model.EventType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+// Represents a journal that appends every event handed to it to a binary file, e.g. every event logged
+// to an EventLog it is attached to as a sink, so the events outlive the application.
+// Events are queued and written by a single writer thread, so the threads logging them never wait for the disk:
+// the writer writes every event queued at once, and forces the events written to disk together (group commit)
+// at most the durability window after the first of them was written.
+// The queue is bounded; when it is full, a thread handing over an event waits up to a given time
+// for room (backpressure), and the event is dropped and counted if there is still none;
+// a journal can also be told to wait as long as it takes. Once the writer stops, because the journal
+// was closed or failed, every thread still waiting is let go and its event dropped and counted.
+// Each record in the file is the length of its payload (int), the payload, and the CRC32 of the payload (int),
+// so a record torn by a crash is detected when the journal is read back, and cut off when it is opened again.
+// The journal can be told to go on in another file, e.g. once the events so far are folded into a snapshot.
+public class EventJournal implements EventSink {
+
+    public static final long WAIT_FOREVER = -1;
+
+    private static final Event FLUSH = new Event("Flush the journal.");
+    private static final Event CLOSE = new Event("Close the journal.");
+    private static final int FIXED_PAYLOAD = 1 + Long.BYTES + 8 * Integer.BYTES;
+    private static final int FRAME = 2 * Integer.BYTES;   // the length and the checksum around a payload
+    private static final int CHUNK = 64 * 1024;           // bytes read from a file at a time
+
+    private final BlockingQueue<Event> queue;
+    private final long durabilityWindowMillis;
+    private final long maxWaitMillis;
+    private final AtomicLong accepted;        // events put in the queue
+    private final LongAdder dropped;
+    private volatile long durable;            // events forced to disk
+    private volatile long forces;
+    private volatile long size;               // bytes in the file written to now
+    private volatile boolean closed;
+    private volatile boolean stopped;         // the writer thread is done, and no event queued is written
+    private volatile IOException failure;
+
+    private String destination;
+    private FileChannel channel;
+    private Thread writer;
+    private long written;                     // used by the writer thread only
+    private long unforcedSince;               // when the oldest event not forced yet was written, or -1
+    private ByteArrayOutputStream pending;    // records encoded and not written yet
+    private ByteArrayOutputStream payload;    // the payload of the record being encoded
+
+    // REQUIRES: queueCapacity >= 1, durabilityWindowMillis >= 0, maxWaitMillis >= 0 or WAIT_FOREVER
+    // EFFECTS: constructs a journal appending to the destination file, queueing up to queueCapacity events,
+    //      forcing events to disk at most durabilityWindowMillis after writing them,
+    //      and waiting up to maxWaitMillis for room in a full queue before dropping an event,
+    //      or until there is room if it is WAIT_FOREVER
+    public EventJournal(String destination, int queueCapacity, long durabilityWindowMillis, long maxWaitMillis) {
+        this.destination = destination;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.durabilityWindowMillis = durabilityWindowMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.accepted = new AtomicLong();
+        this.dropped = new LongAdder();
+        this.unforcedSince = -1;
+        this.pending = new ByteArrayOutputStream();
+        this.payload = new ByteArrayOutputStream();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: open the destination file for appending, creating it if needed and cutting off a record
+    //      torn at its end, and start the writer thread; throws IOException if the file cannot be opened
+    public void open() throws IOException {
+        openChannel();
+        writer = new Thread(this::writeUntilClosed, "event-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queue the event to be written, waiting up to the given time if the queue is full,
+    //      or until there is room if the journal waits forever;
+    //      drop the event if there is still no room, if the wait is interrupted, or if the journal is closed or failed,
+    //      also while waiting
+    @Override
+    public void accept(Event e) {
+        if (closed || failure != null || writer == null) {
+            dropped.increment();
+            return;
+        }
+        try {
+            if (queue.offer(e) || enqueue(e)) {
+                if (!stopped) {
+                    accepted.incrementAndGet();
+                    return;
+                } else if (!queue.remove(e)) {
+                    return;   // the writer dropped and counted it on its way out
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        dropped.increment();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: have every event queued from now on appended to the new destination file instead,
+    //      once every event queued so far is written to the current one and forced to disk;
+    //      waits for room in the queue, but not for the switch itself (flush waits for that too)
+    public void rotate(String newDestination) throws IOException {
+        if (writer != null && !closed) {
+            putMarker(new Rotation(newDestination));
+        }
+    }
+
+    // EFFECTS: wait until every event queued so far is forced to disk;
+    //      throws IOException if the journal failed to write them or the wait is interrupted
+    public void flush() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        long target = accepted.get();
+        putMarker(FLUSH);
+        awaitDurable(target);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stop taking events, write and force every event queued, and close the file;
+    //      throws IOException if the journal failed to write them or the wait is interrupted
+    public void close() throws IOException {
+        if (writer == null || closed) {
+            return;
+        }
+        closed = true;
+        putMarker(CLOSE);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing the journal");
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // EFFECTS: return the number of events forced to disk
+    public long getDurableEvents() {
+        return durable;
+    }
+
+    // EFFECTS: return the number of events dropped because the queue stayed full or the journal was not open
+    public long getDroppedEvents() {
+        return dropped.sum();
+    }
+
+    // EFFECTS: return the number of times events were forced to disk
+    public long getNumberOfForces() {
+        return forces;
+    }
+
+    // EFFECTS: return the number of events queued and not written yet
+    public int getPendingEvents() {
+        return queue.size();
+    }
+
+    // EFFECTS: return the number of bytes written to the file the journal appends to now
+    public long getSize() {
+        return size;
+    }
+
+    // EFFECTS: reads back the events in the journal file, oldest to newest, stopping at the first record
+    //      that is incomplete or corrupt (e.g. torn by a crash); returns an empty list if there is no such file;
+    //      throws IOException if the file cannot be read
+    public static List<Event> read(String source) throws IOException {
+        List<Event> events = new ArrayList<>();
+        if (Files.exists(Paths.get(source))) {
+            try (FileChannel in = FileChannel.open(Paths.get(source), StandardOpenOption.READ)) {
+                scan(in, events);
+            }
+        }
+        return events;
+    }
+
+    // helper functions
+
+    // MODIFIES: this
+    // EFFECTS: wait for room in the full queue for up to maxWaitMillis, or for as long as it takes
+    //      if the journal waits forever, then queue the event and return true; return false if there is still none
+    private boolean enqueue(Event e) throws InterruptedException {
+        if (maxWaitMillis == WAIT_FOREVER) {
+            queue.put(e);
+            return true;
+        }
+        return queue.offer(e, maxWaitMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: open the destination file, cut off everything after its last whole record, and move to its end
+    private void openChannel() throws IOException {
+        channel = FileChannel.open(Paths.get(destination), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long valid = scan(channel, null);
+        channel.truncate(valid);
+        channel.position(valid);
+        size = valid;
+    }
+
+    // EFFECTS: put the marker in the queue, waiting for room as long as the writer is running
+    private void putMarker(Event marker) throws IOException {
+        try {
+            while (!queue.offer(marker, durabilityWindowMillis + 1, TimeUnit.MILLISECONDS)) {
+                if (!writer.isAlive()) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the journal");
+        }
+    }
+
+    // EFFECTS: wait until at least target events are forced to disk, or the writer stops
+    private synchronized void awaitDurable(long target) throws IOException {
+        try {
+            while (durable < target && failure == null && writer.isAlive()) {
+                wait(durabilityWindowMillis + 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the journal");
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: write batches of events until the journal is closed or fails, then close the file
+    //      and drop every event still queued, which makes room for every thread waiting to queue one;
+    //      each of them sees the writer stopped once it has queued its event, and drops it
+    private void writeUntilClosed() {
+        try {
+            boolean open = true;
+            while (open) {
+                open = writeNextBatch();
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            failure = new InterruptedIOException("The journal writer was interrupted");
+        } finally {
+            stopped = true;
+            closeChannel();
+            List<Event> left = new ArrayList<>();
+            queue.drainTo(left);
+            dropped.add(left.size());
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: write every event queued, waiting for one if there is none, switching files where a rotation
+    //      asks to, and force the events written to disk if they are due or a marker asks to;
+    //      return false once the journal is closed
+    private boolean writeNextBatch() throws IOException, InterruptedException {
+        boolean forceNow = false;
+        boolean open = true;
+        for (Event e : nextBatch()) {
+            if (e instanceof Rotation) {
+                writePending();
+                force();
+                closeChannel();
+                destination = e.getDescription();
+                openChannel();
+            } else if (e == FLUSH || e == CLOSE) {
+                forceNow = true;
+                open &= e != CLOSE;
+            } else {
+                encode(e);
+            }
+        }
+        writePending();
+        forceIfDue(forceNow);
+        return open;
+    }
+
+    // EFFECTS: wait for the next event, but no longer than until the events written are due to be forced,
+    //      and return every event queued by then, which is none if the wait timed out
+    private List<Event> nextBatch() throws InterruptedException {
+        Event first;
+        if (unforcedSince < 0) {
+            first = queue.take();
+        } else {
+            long wait = unforcedSince + durabilityWindowMillis - System.currentTimeMillis();
+            first = queue.poll(wait, TimeUnit.MILLISECONDS);
+        }
+        List<Event> batch = new ArrayList<>();
+        if (first != null) {
+            batch.add(first);
+            queue.drainTo(batch);
+        }
+        return batch;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: write out the records encoded and not written yet to the file
+    private void writePending() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(pending.toByteArray());
+        pending.reset();
+        while (buffer.hasRemaining()) {
+            size += channel.write(buffer);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: force the events written to disk if asked to or if the oldest of them not forced yet
+    //      was written at least the durability window ago
+    private void forceIfDue(boolean forceNow) throws IOException {
+        long now = System.currentTimeMillis();
+        if (durable < written && unforcedSince < 0) {
+            unforcedSince = now;
+        }
+        if (forceNow || (unforcedSince >= 0 && now - unforcedSince >= durabilityWindowMillis)) {
+            force();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: force every event written to disk and wake up the threads waiting for them
+    private void force() throws IOException {
+        if (durable < written) {
+            channel.force(false);
+            forces++;
+        }
+        unforcedSince = -1;
+        synchronized (this) {
+            durable = written;
+            notifyAll();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: close the file, keeping the first failure to do so
+    private void closeChannel() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: append the record of the event to the records not written yet
+    private void encode(Event e) throws IOException {
+        payload.reset();
+        DataOutputStream out = new DataOutputStream(payload);
+        out.writeByte(e.getType().ordinal());
+        out.writeLong(e.getTimestamp());
+        out.writeInt(e.getBookId());
+        out.writeInt(e.getOldPage());
+        out.writeInt(e.getNewPage());
+        out.writeInt(e.getTotalPages());
+        out.writeInt(e.getNumberOfBooks());
+        writeString(out, e.getType() == EventType.MESSAGE ? e.getDescription() : e.getTitle());
+        writeString(out, e.getGenre());
+        out.writeInt(e.getBooks().size());
+        for (BookRecord record : e.getBooks()) {
+            encode(out, record);
+        }
+        byte[] bytes = payload.toByteArray();
+        DataOutputStream record = new DataOutputStream(pending);
+        record.writeInt(bytes.length);
+        record.write(bytes);
+        record.writeInt(checksumOf(bytes, 0, bytes.length));
+        written++;
+    }
+
+    // EFFECTS: write the book record to out
+    private static void encode(DataOutputStream out, BookRecord record) throws IOException {
+        out.writeInt(record.getId());
+        writeString(out, record.getTitle());
+        out.writeInt(record.getTotalPages());
+        out.writeInt(record.getPagesRead());
+        out.writeLong(record.getAddedAt());
+        out.writeInt(record.getGenreTags().size());
+        for (String tag : record.getGenreTags()) {
+            writeString(out, tag);
+        }
+    }
+
+    // EFFECTS: write the length of the string in UTF-8 and its bytes to out, or -1 if it is null
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    // REQUIRES: the channel is at the start of the file
+    // MODIFIES: events, channel
+    // EFFECTS: decode the records in the file a chunk at a time, adding their events to events unless it is null,
+    //      up to the first record that is incomplete or corrupt; return the length of the whole records
+    private static long scan(FileChannel channel, List<Event> events) throws IOException {
+        long fileSize = channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK).flip();
+        long valid = 0;
+        while ((buffer = fill(channel, buffer, Integer.BYTES)) != null) {
+            int length = buffer.getInt(buffer.position());
+            if (length < FIXED_PAYLOAD || length > Integer.MAX_VALUE - FRAME || length + FRAME > fileSize - valid
+                    || (buffer = fill(channel, buffer, length + FRAME)) == null) {
+                break;
+            }
+            int start = buffer.position() + Integer.BYTES;
+            if (checksumOf(buffer.array(), start, length) != buffer.getInt(start + length)) {
+                break;
+            }
+            if (events != null) {
+                events.add(decode(new DataInputStream(new ByteArrayInputStream(buffer.array(), start, length))));
+            }
+            buffer.position(start + length + Integer.BYTES);
+            valid += length + FRAME;
+        }
+        return valid;
+    }
+
+    // MODIFIES: channel
+    // EFFECTS: return a buffer holding the bytes left unread in the given one followed by more of the file,
+    //      at least the given number of bytes if the file has them and null if not;
+    //      the given buffer is reused unless it is too small
+    private static ByteBuffer fill(FileChannel channel, ByteBuffer buffer, int need) throws IOException {
+        if (buffer.remaining() >= need) {
+            return buffer;
+        }
+        ByteBuffer target;
+        if (need > buffer.capacity()) {
+            target = ByteBuffer.allocate(need).put(buffer);
+        } else {
+            target = buffer.compact();
+        }
+        while (target.position() < need) {
+            if (channel.read(target) < 0) {
+                break;
+            }
+        }
+        target.flip();
+        return target.remaining() >= need ? target : null;
+    }
+
+    // EFFECTS: return the event in the payload of a record
+    private static Event decode(DataInputStream in) throws IOException {
+        EventType type = EventType.values()[in.readByte()];
+        long timestamp = in.readLong();
+        int bookId = in.readInt();
+        int oldPage = in.readInt();
+        int newPage = in.readInt();
+        int totalPages = in.readInt();
+        int numberOfBooks = in.readInt();
+        String text = readString(in);
+        String genre = readString(in);
+        int numberOfRecords = in.readInt();
+        List<BookRecord> books = new ArrayList<>(numberOfRecords);
+        for (int i = 0; i < numberOfRecords; i++) {
+            books.add(decodeRecord(in));
+        }
+        return Event.restore(type, timestamp, text, bookId, oldPage, newPage, totalPages, numberOfBooks,
+                genre, books);
+    }
+
+    // EFFECTS: return the book record read from in
+    private static BookRecord decodeRecord(DataInputStream in) throws IOException {
+        int id = in.readInt();
+        String title = readString(in);
+        int totalPages = in.readInt();
+        int pagesRead = in.readInt();
+        long addedAt = in.readLong();
+        int numberOfTags = in.readInt();
+        List<String> genreTags = new ArrayList<>(numberOfTags);
+        for (int i = 0; i < numberOfTags; i++) {
+            genreTags.add(readString(in));
+        }
+        return new BookRecord(id, title, totalPages, pagesRead, genreTags, addedAt);
+    }
+
+    // EFFECTS: return the string written by writeString, read from in
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // EFFECTS: return the CRC32 of the given bytes of data
+    private static int checksumOf(byte[] data, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(data, offset, length);
+        return (int) crc.getValue();
+    }
+
+    // Represents a marker telling the writer to go on in another file, named by its description
+    private static class Rotation extends Event {
+        Rotation(String destination) {
+            super(destination);
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package persistence;
 
 import model.Book;
+import model.BookCatalog;
 import model.Bookshelf;
+import model.BookshelfBuilder;
+import model.CatalogEntry;
+import model.ReadingHistory;
 
 import org.json.*;
 
@@ -9,6 +13,9 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
 import java.util.stream.Stream;
 
 
@@ -18,6 +25,7 @@ import java.util.stream.Stream;
 // Represents a reader that reads bookshelf from JSON data stored in file
 public class JsonReader {
     private String source;
+    private long journalGeneration;
 
     // EFFECTS: constructs reader to read from source file
     public JsonReader(String source) {
@@ -29,9 +37,16 @@ public class JsonReader {
     public Bookshelf read() throws IOException {
         String jsonData = readFile(source);
         JSONObject jsonObject = new JSONObject(jsonData);
+        journalGeneration = jsonObject.optLong("journalGeneration", 0);
         return parseBookshelf(jsonObject);
     }
 
+    // EFFECTS: return the generation of the journal that follows the bookshelf read last,
+    //      as saved by BookshelfStore; zero if it was saved without one or nothing was read yet
+    public long getJournalGeneration() {
+        return journalGeneration;
+    }
+
     // EFFECTS: read source file as string and returns it
     private String readFile(String source) throws IOException {
         StringBuilder contentBuilder = new StringBuilder();
@@ -42,39 +57,48 @@ public class JsonReader {
         return contentBuilder.toString();
     }
 
-    // EFFECTS: parses bookshelf from JSON object and returns it
+    // EFFECTS: parses bookshelf from JSON object and returns it;
+    //      all books are put on the bookshelf in one batch
     private Bookshelf parseBookshelf(JSONObject jsonObject) {
-        Bookshelf bookshelf = new Bookshelf();
-        addBooks(bookshelf, jsonObject);
-        return bookshelf;
-    }
-
-    // MODIFIES: bookshelf
-    // EFFECTS: parses books from JSON object and adds them to bookshelf
-    private void addBooks(Bookshelf bookshelf, JSONObject jsonObject) {
         JSONArray jsonArray = jsonObject.getJSONArray("collectionOfBooks");
+        BookshelfBuilder builder = new BookshelfBuilder(jsonArray.length());
         for (Object json : jsonArray) {
             JSONObject nextBook = (JSONObject) json;
-            addBook(bookshelf, nextBook);
+            builder.addBook(parseBook(nextBook));
         }
+        return builder.build();
     }
 
-    // MODIFIES: bookshelf
-    // EFFECTS: parses a book from JSON object and adds it to bookshelf
-    private void addBook(Bookshelf bookshelf, JSONObject jsonObject) {
+    // EFFECTS: parses a book from JSON object and returns it, sharing the catalog entry of every
+    //      other book with the same title, total pages and genre tags;
+    //      books saved before IDs existed get a new ID from the bookshelf
+    private Book parseBook(JSONObject jsonObject) {
+        int id = jsonObject.optInt("id", Book.NO_ID);
         String title = jsonObject.getString("title");
         int totalPages = jsonObject.getInt("totalPages");
-        Book book = new Book(title, totalPages);
-
         int pagesRead = jsonObject.getInt("pagesRead");
-        book.progressUpdate(pagesRead);
-
         JSONArray jsonArray = jsonObject.getJSONArray("genreTags");
+        List<String> genreTags = new ArrayList<>(jsonArray.length());
         for (int i = 0; i < jsonArray.length(); i++) {
-            book.addGenreTag(jsonArray.getString(i));
+            genreTags.add(jsonArray.getString(i));
+        }
+        CatalogEntry entry = BookCatalog.getInstance().canonicalize(title, totalPages, genreTags);
+        Book book = new Book(id, entry, pagesRead);
+
+        book.restoreAddedAt(jsonObject.optLong("addedAt", 0));
+        JSONObject history = jsonObject.optJSONObject("readingHistory");
+        if (history != null) {
+            book.restoreReadingHistory(parseReadingHistory(history));
         }
+        return book;
+    }
 
-        bookshelf.addBook(book);
+    // EFFECTS: parses the reading history of a book from JSON object and returns it
+    private ReadingHistory parseReadingHistory(JSONObject jsonObject) {
+        int startPage = jsonObject.getInt("startPage");
+        int size = jsonObject.getInt("size");
+        byte[] data = Base64.getDecoder().decode(jsonObject.getString("data"));
+        return new ReadingHistory(startPage, size, data);
     }
 
 
@@ -1,6 +1,5 @@
 package persistence;
 
-import model.Bookshelf;
 import org.json.JSONObject;
 
 import java.io.File;
@@ -31,8 +30,8 @@ public class JsonWriter {
     }
 
     // MODIFIES: this
-    // EFFECTS: write JSON representation of bookshelf to file
-    public void write(Bookshelf bookshelf) {
+    // EFFECTS: write JSON representation of bookshelf, or of a snapshot of one, to file
+    public void write(Writable bookshelf) {
         JSONObject jsonObject = bookshelf.toJson();
         saveToFile(jsonObject.toString(TAB));
     }
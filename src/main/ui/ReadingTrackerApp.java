@@ -2,6 +2,12 @@ package ui;
 
 import model.Book;
 import model.Bookshelf;
+import model.Event;
+import model.EventCategory;
+import model.EventLevel;
+import model.GenreQuery;
+import model.InvalidQueryException;
+import model.ShelfState;
 
 import persistence.JsonWriter;
 import persistence.JsonReader;
@@ -9,6 +15,9 @@ import persistence.JsonReader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Scanner;
 
@@ -22,6 +31,11 @@ import java.util.Scanner;
 // Reading Tracker Application
 public class ReadingTrackerApp {
     private static final String JSON_STORE = "./data/bookshelf.json";
+    private static final int SEARCH_LIMIT = 20;
+    private static final int DISTRIBUTION_RANGES = 10;
+    private static final int DISTRIBUTION_BAR_WIDTH = 20;
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final long WEEK = 7 * DAY;
     private JsonWriter jsonWriter;
     private JsonReader jsonReader;
 
@@ -87,8 +101,13 @@ public class ReadingTrackerApp {
         System.out.println("\t\ta --> add books to the bookshelf");
         System.out.println("\t\tv --> view all books on the bookshelf");
         System.out.println("\t\tg --> view books by genre");
+        System.out.println("\t\tb --> view books by genre query (e.g. Russian AND Novel AND NOT History)");
+        System.out.println("\t\tf --> find books by title");
+        System.out.println("\t\tn --> what to read next");
         System.out.println("\t\tr --> view and update pages read");
         System.out.println("\t\tp --> progress report");
+        System.out.println("\t\th --> progress report as of a past date");
+        System.out.println("\t\te --> recent events about a book");
         System.out.println("\t\ts --> save current bookshelf to file");
         System.out.println("\t\tl --> load previous bookshelf from file");
         System.out.println("\t\tq --> quit");
@@ -100,18 +119,35 @@ public class ReadingTrackerApp {
     private void processCommand(String command) {
         if (command.equals("a")) {
             doAddBooks();
-        } else if (command.equals("v")) {
-            doViewAllBooks();
-        } else if (command.equals("g")) {
-            doViewBooksByGenre();
         } else if (command.equals("r")) {
             doUpdateReadingProgress();
-        } else if (command.equals("p")) {
-            doProgressReport();
         } else if (command.equals("s")) {
             doSaveBookshelf();
         } else if (command.equals("l")) {
             doLoadBookshelf();
+        } else {
+            processViewCommand(command);
+        }
+    }
+
+    // EFFECTS: processes user command for viewing books and reports
+    private void processViewCommand(String command) {
+        if (command.equals("v")) {
+            doViewAllBooks();
+        } else if (command.equals("g")) {
+            doViewBooksByGenre();
+        } else if (command.equals("b")) {
+            doViewBooksByGenreQuery();
+        } else if (command.equals("f")) {
+            doFindBooksByTitle();
+        } else if (command.equals("n")) {
+            doWhatToReadNext();
+        } else if (command.equals("p")) {
+            doProgressReport();
+        } else if (command.equals("h")) {
+            doPastProgressReport();
+        } else if (command.equals("e")) {
+            doViewBookEvents();
         } else {
             System.out.println("Selection is not valid...");
         }
@@ -190,31 +226,87 @@ public class ReadingTrackerApp {
 
     }
 
+    // EFFECTS: user input a genre query, i.e. genre names combined with AND, OR, NOT and parentheses,
+    // and it prints out 1) number of books matching the query
+    // and 2) all the book titles of books matching the query;
+    // if the query is not valid, it prints what is wrong with it
+    private void doViewBooksByGenreQuery() {
+        if (bookshelf.getNumberOfBooks() == 0) {
+            System.out.println("No books on the bookshelf! Add books first!");
+        } else {
+            System.out.println("Enter a genre query:");
+            try {
+                GenreQuery query = GenreQuery.parse(input.next());
+                List<Book> books = bookshelf.booksMatching(query);
+                System.out.println("The number of books matching " + query + " on the bookshelf"
+                        + " is " + books.size() + ":");
+                for (Book next : books) {
+                    System.out.println("<" + next.getTitle() + ">");
+                }
+            } catch (InvalidQueryException e) {
+                System.out.println("Query is not valid: " + e.getMessage());
+            }
+        }
+    }
+
+    // EFFECTS: user input part of a title, and it prints out the best matching books
+    // (up to SEARCH_LIMIT of them), with their IDs and pages read;
+    // if no such book present, it says so
+    private void doFindBooksByTitle() {
+        System.out.println("Enter (part of) a title:");
+        List<Book> books = bookshelf.searchTitles(input.next(), SEARCH_LIMIT);
+        if (books.isEmpty()) {
+            System.out.println("No books found!");
+        }
+        for (Book next : books) {
+            System.out.println(next.getId() + ": <" + next.getTitle() + ">  Pages Read: " + next.getPagesRead()
+                    + "  Total Pages: " + next.getTotalPages());
+        }
+    }
+
+    // EFFECTS: print the books closest to finishing, i.e. with the fewest pages left,
+    // and the most neglected books, i.e. with the least progress (up to SEARCH_LIMIT of each)
+    private void doWhatToReadNext() {
+        if (bookshelf.getNumberOfBooks() == 0) {
+            System.out.println("No books on the bookshelf! Add books first!");
+        } else {
+            System.out.println("\nClosest to finishing:");
+            for (Book next : bookshelf.closestToFinishing(SEARCH_LIMIT)) {
+                System.out.println("<" + next.getTitle() + ">  "
+                        + (next.getTotalPages() - next.getPagesRead()) + " pages left");
+            }
+            System.out.println("\nMost neglected:");
+            for (Book next : bookshelf.mostNeglected(SEARCH_LIMIT)) {
+                System.out.println("<" + next.getTitle() + ">: " + next.getProgress() + "%");
+            }
+        }
+    }
+
     // REQUIRES: new # of pages read is always positive AND
     // should not be greater than the total # of pages
     // MODIFIES: this
-    // EFFECTS: print a list of books, total pages of each book
+    // EFFECTS: print a list of books with their IDs, total pages of each book
     // and how many pages read for each book;
-    // user can select a book from the printed list and update its pages read;
+    // user can select a book from the printed list by its ID and update its pages read;
     // user can also exit without changing anything
     private void doUpdateReadingProgress() {
         if (bookshelf.getNumberOfBooks() == 0) {
             System.out.println("No books on bookshelf! Add books first!");
         } else {
-            int num = 1;
             for (Book next : bookshelf.getAllBooks()) {
-                System.out.println("\n" + num + ": <" + next.getTitle() + ">");
+                System.out.println("\n" + next.getId() + ": <" + next.getTitle() + ">");
                 System.out.println("Pages Read: " + next.getPagesRead() + "  Total Pages: " + next.getTotalPages());
-                num++;
             }
 
             System.out.println("\nSelect the book you want to update by the code: (0 for exit)");
-            int index = input.nextInt();
+            int id = input.nextInt();
+            book = bookshelf.getBookById(id);
 
-            if (index == 0) {
+            if (id == 0) {
                 System.out.println("No books were changed!");
+            } else if (book == null) {
+                System.out.println("Selection is not valid...");
             } else {
-                book = bookshelf.getAllBooks().get(--index);
                 System.out.println("\nYou have selected <" + book.getTitle() + ">!");
 
                 System.out.println("\nEnter new # of pages read:");
@@ -229,15 +321,20 @@ public class ReadingTrackerApp {
     // MODIFIES: this
     // EFFECTS:
     // 1. print the total progress of all the books on the bookshelf
-    // 2. print and list all the progresses of individual books with progress bar
+    // 2. print the pages read in the last 7 days and
+    //    the statistics and the distribution of the progresses of individual books
+    // 3. print and list all the progresses of individual books with progress bar
     private void doProgressReport() {
-        bookshelf.totalProgressUpdate();
-
         System.out.println("\n### BOOK READING PROGRESS REPORT ###");
 
         String str1 = "◆◆◆◆◆◆◆◆◆◆";
         String str2 = "◇◇◇◇◇◇◇◇◇◇";
         System.out.println("\nTotal Progress: " + bookshelf.getTotalProgress() + "%\n");
+        long now = System.currentTimeMillis();
+        long pagesThisWeek = bookshelf.pagesReadBetween(now - WEEK, now);
+        System.out.printf("Pages read in the last 7 days: %d (%.1f pages per day)%n%n", pagesThisWeek,
+                pagesThisWeek / 7.0);
+        printProgressDistribution();
         for (Book next : bookshelf.getAllBooks()) {
             int i = (int) Math.floor(next.getProgress() / 10);
             System.out.println("<" + next.getTitle() + ">: " + next.getProgress() + "% "
@@ -245,6 +342,60 @@ public class ReadingTrackerApp {
         }
     }
 
+    // EFFECTS: user input a past date, and it prints the bookshelf as it was at the end of that day:
+    // 1. the number of books, the total progress, pages read and finished books
+    // 2. the genres and how many books each had
+    // 3. the progress of each book on the bookshelf then;
+    // if the date is not valid, it says so
+    private void doPastProgressReport() {
+        System.out.println("Enter a date (yyyy-mm-dd):");
+        String date = input.next();
+        try {
+            long timestamp = LocalDate.parse(date).plusDays(1).atStartOfDay(ZoneId.systemDefault())
+                    .toInstant().toEpochMilli() - 1;
+            ShelfState state = bookshelf.stateAsOf(timestamp);
+
+            System.out.println("\n### BOOK READING PROGRESS REPORT AS OF " + date + " ###");
+            System.out.println("\nNumber of books: " + state.getNumberOfBooks());
+            System.out.println("Total Progress: " + state.getTotalProgress() + "%");
+            System.out.println("Pages read: " + state.getTotalPagesRead() + " of " + state.getTotalPages()
+                    + "  Finished: " + state.getNumberOfFinishedBooks() + "\n");
+            for (String genre : state.getAllGenres()) {
+                System.out.println("\"" + genre + "\": " + state.numOfBooksTaggedBy(genre) + " books");
+            }
+            for (Book next : state.getBooks()) {
+                System.out.println("<" + next.getTitle() + ">: " + next.progressAsOf(timestamp) + "%");
+            }
+        } catch (DateTimeParseException e) {
+            System.out.println("Date is not valid...");
+        }
+    }
+
+    // EFFECTS: user input the ID of a book and a number of days, and it prints every event about the book
+    // still in the event log of the bookshelf from those last days (or from any time, for zero days),
+    // e.g. all updates to a book last week; looked up in the index of the log, so no other event is looked at;
+    // if no such book present, it says so
+    private void doViewBookEvents() {
+        System.out.println("Enter the ID of the book (find it by title with f):");
+        book = bookshelf.getBookById(input.nextInt());
+        if (book == null) {
+            System.out.println("Selection is not valid...");
+            return;
+        }
+        System.out.println("Enter the number of days to look back (0 for all):");
+        int days = input.nextInt();
+        long now = System.currentTimeMillis();
+        List<Event> events = bookshelf.getEventLog().eventsAbout(book.getId(),
+                days == 0 ? Long.MIN_VALUE : now - days * DAY, now);
+        System.out.println("\n### EVENTS ABOUT <" + book.getTitle() + "> ###");
+        if (events.isEmpty()) {
+            System.out.println("No events found!");
+        }
+        for (Event next : events) {
+            System.out.print(next.toString());
+        }
+    }
+
     // EFFECTS: saves the bookshelf to file;
     //      if unable to write to the destination file,
     //      catch FileNotFoundException and print status.
@@ -260,24 +411,24 @@ public class ReadingTrackerApp {
     }
 
     // MODIFIES: this
-    // EFFECTS: loads bookshelf from file;
+    // EFFECTS: loads bookshelf from file and logs a summary of it, not one event per book;
     //      if unable to read from file,
     //      catch IOException and print status.
     private void doLoadBookshelf() {
         try {
             bookshelf = jsonReader.read();
+            if (bookshelf.getEventLog().shouldLog(EventCategory.BOOKSHELF, EventLevel.INFO)) {
+                bookshelf.getEventLog().logEvent(Event.bookshelfLoaded(bookshelf.getNumberOfBooks()));
+            }
             System.out.println("Loaded previous bookshelf from " + JSON_STORE);
         } catch (IOException e) {
             System.out.println("Unable to read from file: " + JSON_STORE);
         }
     }
 
-    // MODIFIES: this
-    // EFFECTS: generate a new list of genre names from all the books on bookshelf;
-    // print an overview of the info on the books on the bookshelf:
+    // EFFECTS: print an overview of the info on the books on the bookshelf:
     // the number of books, the number of genres, and distinct genre names
     private void printGeneralBookInfo() {
-        bookshelf.updateGenreInfo();
         List<String> genreList = bookshelf.getAllGenres();
         System.out.println("\nNumber of books: " + bookshelf.getNumberOfBooks());
         System.out.println("\nNumber of book genres: " + bookshelf.getNumberOfGenres());
@@ -291,6 +442,30 @@ public class ReadingTrackerApp {
         }
     }
 
+    // EFFECTS: print the median, quartiles and standard deviation of the progresses of individual books,
+    // the number of finished and unstarted books, and how many books fall into each range of progress,
+    // all of which the bookshelf keeps up to date, so no book is looked at
+    private void printProgressDistribution() {
+        System.out.println("Median: " + bookshelf.getProgressPercentile(50) + "%  (25th percentile: "
+                + bookshelf.getProgressPercentile(25) + "%, 75th percentile: "
+                + bookshelf.getProgressPercentile(75) + "%)");
+        System.out.printf("Standard deviation: %.1f percentage points%n", bookshelf.getProgressStandardDeviation());
+        System.out.println("Finished: " + bookshelf.getNumberOfFinishedBooks()
+                + "  Unstarted: " + bookshelf.getNumberOfUnstartedBooks() + "\n");
+
+        int[] ranges = bookshelf.getProgressDistribution(DISTRIBUTION_RANGES);
+        int most = 1;
+        for (int next : ranges) {
+            most = Math.max(most, next);
+        }
+        int width = 100 / DISTRIBUTION_RANGES;
+        for (int i = 0; i < ranges.length; i++) {
+            int bar = (int) Math.ceil((double) ranges[i] * DISTRIBUTION_BAR_WIDTH / most);
+            System.out.printf("%3d-%3d%% | %s %d%n", i * width, (i + 1) * width, "◆".repeat(bar), ranges[i]);
+        }
+        System.out.println();
+    }
+
     // EFFECTS: print all books on the bookshelf and their corresponding genres
     private void printAllBooksAndTheirGenres() {
         for (Book next : bookshelf.getAllBooks()) {
@@ -2,17 +2,20 @@ package ui;
 
 import model.Book;
 import model.Bookshelf;
+import model.BookshelfHistory;
 import model.Event;
 import model.EventLog;
-import persistence.JsonReader;
-import persistence.JsonWriter;
+import model.GenreQuery;
+import model.InvalidQueryException;
+import persistence.BookshelfStore;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 
 // Represent the main splash screen with main icon and a menu bar for all the functions
 public class ReadingTrackerAppGUI extends JFrame implements ActionListener {
@@ -20,16 +23,25 @@ public class ReadingTrackerAppGUI extends JFrame implements ActionListener {
     private JLabel label;
     private JMenuBar menuBar;
 
+    private JMenu editMenu;
     private JMenu addBooksMenu;
     private JMenu viewBooksMenu;
     private JMenu updateBooksMenu;
     private JMenu saveBooksMenu;
     private JMenu loadBooksMenu;
 
+    private JMenuItem undoItem;
+    private JMenuItem redoItem;
     private JMenuItem addBooksItem;
     private JMenuItem viewAllBooksItem;
     private JMenuItem viewBooksByGenreItem;
+    private JMenuItem viewBooksByGenreQueryItem;
+    private JMenuItem findBooksByTitleItem;
+    private JMenuItem closestToFinishingItem;
+    private JMenuItem mostNeglectedItem;
     private JMenuItem viewReportItem;
+    private JMenuItem viewPastReportItem;
+    private JMenuItem viewEventsItem;
     private JMenuItem updateProgressItem;
     private JMenuItem saveItem;
     private JMenuItem loadItem;
@@ -37,14 +49,19 @@ public class ReadingTrackerAppGUI extends JFrame implements ActionListener {
     private static ImageIcon checkIcon = new ImageIcon("./data/checkIcon.png");
 
     private static final String JSON_STORE = "./data/bookshelf.json";
-    private JsonWriter jsonWriter;
-    private JsonReader jsonReader;
+    private static final int SEARCH_LIMIT = 20;
+    private static final int UNDO_LIMIT = 100;
+    private static final int EVENT_LOG_CAPACITY = 10000;
+    private static final long JOURNAL_DURABILITY_WINDOW = 200;
+    private static final long JOURNAL_COMPACTION_THRESHOLD = 1 << 20;
+    private BookshelfStore store;
 
     private Bookshelf bookshelf;
+    private BookshelfHistory history;
 
-    // EFFECTS: constructs a GUI for reading tracker application.
-    //      if destination file cannot be opened for writing when initialing,
-    //      catch FileNotFoundException and terminate the application with error message window.
+    // EFFECTS: constructs a GUI for reading tracker application, with the bookshelf as it was when
+    //      the application last stopped; if it cannot be recovered from file,
+    //      catch IOException, pop up an error window and start with an empty bookshelf that is not saved.
     public ReadingTrackerAppGUI() {
         //Set up the window using JFrame.
         super("Reading Tracker Application");
@@ -60,18 +77,34 @@ public class ReadingTrackerAppGUI extends JFrame implements ActionListener {
         pack();
         setVisible(true);
 
-        //initial Bookshelf, JsonReader, and JsonWriter
+        //recover Bookshelf from the last save and the changes journaled since
         try {
             init();
-        } catch (FileNotFoundException e) {
-            JOptionPane.showMessageDialog(null, "Unable to run application: FILE NOT FOUND!",
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(null, "Unable to recover bookshelf from file: " + JSON_STORE,
                     "ERROR!", JOptionPane.ERROR_MESSAGE);
+            store = null;
+            bookshelf = new Bookshelf();
+            history = new BookshelfHistory(bookshelf, UNDO_LIMIT);
         }
 
         //print EventLog on close
+        eventLogSetUp();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: keep only the most recent events in EventLog,
+    //      and print them when the window is closed, after how many earlier ones were dropped
+    private void eventLogSetUp() {
+        EventLog.getInstance().setMaxEvents(EVENT_LOG_CAPACITY);
         this.addWindowListener(new java.awt.event.WindowAdapter() {
             @Override
             public void windowClosing(java.awt.event.WindowEvent windowEvent) {
+                closeStore();
+                long dropped = EventLog.getInstance().getDroppedEvents();
+                if (dropped > 0) {
+                    System.out.println("(" + dropped + " earlier events were not kept)");
+                }
                 for (Event next : EventLog.getInstance()) {
                     System.out.println(next.toString());
                 }
@@ -81,12 +114,25 @@ public class ReadingTrackerAppGUI extends JFrame implements ActionListener {
     }
 
     // MODIFIES: this
-    // EFFECTS: instantiate bookshelf, jsonWriter, and jsonReader objects
-    private void init() throws FileNotFoundException {
-        bookshelf = new Bookshelf();
+    // EFFECTS: write every change still queued to the journal and stop journaling
+    private void closeStore() {
+        if (store == null) {
+            return;
+        }
+        try {
+            store.close();
+        } catch (IOException e) {
+            System.out.println("Unable to write to journal of: " + JSON_STORE);
+        }
+    }
 
-        jsonWriter = new JsonWriter(JSON_STORE);
-        jsonReader = new JsonReader(JSON_STORE);
+    // MODIFIES: this
+    // EFFECTS: recover the bookshelf from the last save and the changes journaled since,
+    //      start an undo history for it, and journal every change to it from now on
+    private void init() throws IOException {
+        store = new BookshelfStore(JSON_STORE, JOURNAL_COMPACTION_THRESHOLD, JOURNAL_DURABILITY_WINDOW);
+        bookshelf = store.recover(EventLog.getInstance());
+        history = new BookshelfHistory(bookshelf, UNDO_LIMIT);
     }
 
     // MODIFIES: this
@@ -127,6 +173,7 @@ public class ReadingTrackerAppGUI extends JFrame implements ActionListener {
 
         menuItemsSetUp();
 
+        menuBar.add(editMenu);
         menuBar.add(addBooksMenu);
         menuBar.add(viewBooksMenu);
         menuBar.add(updateBooksMenu);
@@ -141,6 +188,7 @@ public class ReadingTrackerAppGUI extends JFrame implements ActionListener {
     // MODIFIES: this
     // EFFECTS: set up the first layer of the menu
     private void menuSetUp() {
+        editMenu = new JMenu("Edit");
         addBooksMenu = new JMenu("Add");
         viewBooksMenu = new JMenu("View");
         updateBooksMenu = new JMenu("Update");
@@ -151,19 +199,40 @@ public class ReadingTrackerAppGUI extends JFrame implements ActionListener {
     // MODIFIES; this
     // EFFECTS: set up the second layer of the menu with menu items
     private void menuItemsSetUp() {
-
+        undoItem = new JMenuItem("Undo");
+        redoItem = new JMenuItem("Redo");
         addBooksItem = new JMenuItem("Add a book");
         viewAllBooksItem = new JMenuItem("View all books");
         viewBooksByGenreItem = new JMenuItem("View books by genre");
+        viewBooksByGenreQueryItem = new JMenuItem("View books by genre query");
+        findBooksByTitleItem = new JMenuItem("Find books by title");
+        closestToFinishingItem = new JMenuItem("View books closest to finishing");
+        mostNeglectedItem = new JMenuItem("View most neglected books");
         viewReportItem = new JMenuItem("View report");
+        viewPastReportItem = new JMenuItem("View report as of a past date");
+        viewEventsItem = new JMenuItem("View events about a book");
         updateProgressItem = new JMenuItem("Update progress");
         saveItem = new JMenuItem("Save current books");
         loadItem = new JMenuItem("Load previous books");
 
+        menuItemsAddToMenus();
+    }
+
+    // MODIFIES; this
+    // EFFECTS: add each of the menu items to its menu
+    private void menuItemsAddToMenus() {
+        editMenu.add(undoItem);
+        editMenu.add(redoItem);
         addBooksMenu.add(addBooksItem);
         viewBooksMenu.add(viewAllBooksItem);
         viewBooksMenu.add(viewBooksByGenreItem);
+        viewBooksMenu.add(viewBooksByGenreQueryItem);
+        viewBooksMenu.add(findBooksByTitleItem);
+        viewBooksMenu.add(closestToFinishingItem);
+        viewBooksMenu.add(mostNeglectedItem);
         viewBooksMenu.add(viewReportItem);
+        viewBooksMenu.add(viewPastReportItem);
+        viewBooksMenu.add(viewEventsItem);
         updateBooksMenu.add(updateProgressItem);
         saveBooksMenu.add(saveItem);
         loadBooksMenu.add(loadItem);
@@ -173,63 +242,140 @@ public class ReadingTrackerAppGUI extends JFrame implements ActionListener {
     // EFFECTS: add action listener to each of the menu item
     //      so that when clicked, they can perform their corresponding functions
     private void eventsSetUp() {
+        undoItem.addActionListener(this);
+        redoItem.addActionListener(this);
         addBooksItem.addActionListener(this);
         viewAllBooksItem.addActionListener(this);
         viewBooksByGenreItem.addActionListener(this);
+        viewBooksByGenreQueryItem.addActionListener(this);
+        findBooksByTitleItem.addActionListener(this);
+        closestToFinishingItem.addActionListener(this);
+        mostNeglectedItem.addActionListener(this);
         viewReportItem.addActionListener(this);
+        viewPastReportItem.addActionListener(this);
+        viewEventsItem.addActionListener(this);
         updateProgressItem.addActionListener(this);
         saveItem.addActionListener(this);
         loadItem.addActionListener(this);
     }
 
     // EFFECTS: process action events from user
-    //      it will open up a new window when a menu item is clicked
+    //      it will open up a new window when a menu item is clicked;
+    //      whatever was changed since the last menu item was clicked becomes one step to undo
     @Override
     public void actionPerformed(ActionEvent e) {
-        if (e.getSource().equals(addBooksItem)) {
+        history.checkpoint();
+        if (e.getSource().equals(undoItem)) {
+            doUndoOrRedo(history.undo(), "Nothing to undo!");
+        } else if (e.getSource().equals(redoItem)) {
+            doUndoOrRedo(history.redo(), "Nothing to redo!");
+        } else if (e.getSource().equals(addBooksItem)) {
             new WindowAddBooks(bookshelf);
-        } else if (e.getSource().equals(viewAllBooksItem)) {
-            new WindowViewBooks(bookshelf);
-        } else if (e.getSource().equals(viewBooksByGenreItem)) {
-            String genre = JOptionPane.showInputDialog("Input a genre name: ");
-            if (genre != null) {
-                new WindowViewBooks(bookshelf, genre);
-            }
         } else if (e.getSource().equals(viewReportItem)) {
             new WindowViewReport(bookshelf);
+        } else if (e.getSource().equals(viewPastReportItem)) {
+            doViewPastReport();
         } else if (e.getSource().equals(updateProgressItem)) {
             new WindowUpdateProgress(bookshelf);
         } else if (e.getSource().equals(saveItem)) {
             doSaveBookshelf();
         } else if (e.getSource().equals(loadItem)) {
             doLoadBookshelf();
+        } else {
+            doViewBooks(e.getSource());
+        }
+    }
+
+    // EFFECTS: pop up a message window if there was nothing to undo or redo
+    private void doUndoOrRedo(boolean done, String message) {
+        if (!done) {
+            JOptionPane.showMessageDialog(null, message, "Message", JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+
+    // EFFECTS: open a window with the books picked by the clicked "View books" menu item,
+    //      or with the events about a book
+    private void doViewBooks(Object source) {
+        if (source.equals(viewAllBooksItem)) {
+            new WindowViewBooks(bookshelf);
+        } else if (source.equals(viewBooksByGenreItem)) {
+            String genre = JOptionPane.showInputDialog("Input a genre name: ");
+            if (genre != null) {
+                new WindowViewBooks(bookshelf, genre);
+            }
+        } else if (source.equals(viewBooksByGenreQueryItem)) {
+            doViewBooksByGenreQuery();
+        } else if (source.equals(findBooksByTitleItem)) {
+            String title = JOptionPane.showInputDialog("Input (part of) a title: ");
+            if (title != null) {
+                new WindowViewBooks(bookshelf, bookshelf.searchTitles(title, SEARCH_LIMIT), "Find Books By Title");
+            }
+        } else if (source.equals(closestToFinishingItem)) {
+            new WindowViewBooks(bookshelf, bookshelf.closestToFinishing(SEARCH_LIMIT), "Closest To Finishing");
+        } else if (source.equals(mostNeglectedItem)) {
+            new WindowViewBooks(bookshelf, bookshelf.mostNeglected(SEARCH_LIMIT), "Most Neglected");
+        } else if (source.equals(viewEventsItem)) {
+            new WindowViewEvents(bookshelf);
+        }
+    }
+
+    // EFFECTS: ask for a past date and open a window with the report of the bookshelf as it was then;
+    //      if the date is not valid, pop up an error window.
+    private void doViewPastReport() {
+        String date = JOptionPane.showInputDialog("Input a date (yyyy-mm-dd): ");
+        if (date != null) {
+            try {
+                new WindowViewPastReport(bookshelf, LocalDate.parse(date));
+            } catch (DateTimeParseException e) {
+                JOptionPane.showMessageDialog(null, "Date is not valid: " + date,
+                        "ERROR!", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+
+    // EFFECTS: ask for a genre query and open a window with the books matching it;
+    //      if the query is not valid, pop up an error window explaining why.
+    private void doViewBooksByGenreQuery() {
+        String query = JOptionPane.showInputDialog("Input a genre query (e.g. Russian AND Novel AND NOT History): ");
+        if (query != null) {
+            try {
+                new WindowViewBooks(bookshelf, GenreQuery.parse(query));
+            } catch (InvalidQueryException e) {
+                JOptionPane.showMessageDialog(null, "Query is not valid: " + e.getMessage(),
+                        "ERROR!", JOptionPane.ERROR_MESSAGE);
+            }
         }
     }
 
     // MODIFIES: this
     // EFFECTS: saves the bookshelf to file and pop up a confirmation window;
     //      if unable to write to the destination file,
-    //      catch FileNotFoundException and pop up an error window.
+    //      catch IOException and pop up an error window.
     private void doSaveBookshelf() {
         try {
-            jsonWriter.open();
-            jsonWriter.write(bookshelf);
-            jsonWriter.close();
+            if (store == null) {
+                throw new IOException("Bookshelf was not recovered");
+            }
+            store.save();
             JOptionPane.showMessageDialog(null,"Saved your bookshelf to " + JSON_STORE,
                     "Confirmation", JOptionPane.INFORMATION_MESSAGE, checkIcon);
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
             JOptionPane.showMessageDialog(null, "Unable to write to file: " + JSON_STORE,
                     "ERROR!", JOptionPane.ERROR_MESSAGE);
         }
     }
 
     // MODIFIES: this
-    // EFFECTS: loads bookshelf from file and pop up a confirmation window;
+    // EFFECTS: loads bookshelf from file, starting a new undo history for it, and pop up a confirmation window;
     //      if unable to read from file,
     //      catch IOException and pop up an error window.
     private void doLoadBookshelf() {
         try {
-            bookshelf = jsonReader.read();
+            if (store == null) {
+                throw new IOException("Bookshelf was not recovered");
+            }
+            bookshelf = store.load();
+            history = new BookshelfHistory(bookshelf, UNDO_LIMIT);
             JOptionPane.showMessageDialog(null,"Loaded previous bookshelf from " + JSON_STORE,
                     "Confirmation", JOptionPane.INFORMATION_MESSAGE, checkIcon);
         } catch (IOException e) {
@@ -30,6 +30,7 @@ public class WindowUpdateProgress extends JFrame implements ActionListener {
     private JButton clearFieldsButton;
 
     private JComboBox selectBookMenu;
+    private int[] selectBookIds;
     private JTextField updatePagesTextField;
 
     private Bookshelf bookshelf;
@@ -72,12 +73,14 @@ public class WindowUpdateProgress extends JFrame implements ActionListener {
 
     // MODIFIES: this
     // EFFECTS: create a drop-down menu for user to select the book that the user
-    //      wants to update its pages read
+    //      wants to update its pages read, and remember the ID of the book behind each entry
     private void dropDownMenuSetUp() {
         List<String> bookList = new ArrayList<>();
+        selectBookIds = new int[bookshelf.getNumberOfBooks()];
         String menuStr = "";
         for (Book book : bookshelf.getAllBooks()) {
             menuStr = book.getTitle() + "  (" + book.getPagesRead() + "/" + book.getTotalPages() + ")";
+            selectBookIds[bookList.size()] = book.getId();
             bookList.add(menuStr);
         }
 
@@ -122,7 +125,7 @@ public class WindowUpdateProgress extends JFrame implements ActionListener {
         } else if (e.getSource().equals(updatePagesButton)) {
             int newPageNum = Integer.parseInt(updatePagesTextField.getText());
             int index = selectBookMenu.getSelectedIndex();
-            book = bookshelf.getAllBooks().get(index);
+            book = bookshelf.getBookById(selectBookIds[index]);
             book.progressUpdate(newPageNum);
 
             dispose();
@@ -2,16 +2,24 @@ package ui;
 
 import model.Book;
 import model.Bookshelf;
+import model.BookshelfListener;
+import model.GenreQuery;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 // Represents a window for view books. The window is in grid layout; it has 2 columns,
 //      and can have many rows. The window is also scrollable. Within each grid placed a book cover
 //      with all the information a book object can have, title, genres, progress, etc.
-public class WindowViewBooks extends JFrame {
+//      While the window is open, the cover of a book shown is rebuilt whenever the book changes;
+//      a window showing all books also adds and removes covers as books are put on and taken off the bookshelf.
+public class WindowViewBooks extends JFrame implements BookshelfListener {
     private JPanel mainPanel;
     private JPanel bookCoverPanel;
 
@@ -25,6 +33,8 @@ public class WindowViewBooks extends JFrame {
 
     private Bookshelf bookshelf;
     private Book book;
+    private boolean showsAllBooks;
+    private Map<Book, JPanel> bookCovers;
 
     // REQUIRES: bookshelf is not null
     // EFFECTS: construct a window for viewing all books
@@ -36,11 +46,14 @@ public class WindowViewBooks extends JFrame {
         this.bookshelf = bookshelf;
 
         mainPanel = new JPanel(new GridLayout(0,2, 5, 5));
+        bookCovers = new HashMap<>();
+        showsAllBooks = true;
 
         buildAndAddBookCovers();
 
         JScrollPane scrMainPanel = new JScrollPane(mainPanel);
         add(scrMainPanel, BorderLayout.CENTER);
+        listenerSetUp();
         pack();
         setVisible(true);
     }
@@ -55,11 +68,55 @@ public class WindowViewBooks extends JFrame {
         this.bookshelf = bookshelf;
 
         mainPanel = new JPanel(new GridLayout(0,2, 5, 5));
+        bookCovers = new HashMap<>();
 
         buildAndAddBookCovers(genre);
 
         JScrollPane scrMainPanel = new JScrollPane(mainPanel);
         add(scrMainPanel, BorderLayout.CENTER);
+        listenerSetUp();
+        pack();
+        setVisible(true);
+    }
+
+    // REQUIRES: bookshelf and query are not null
+    // EFFECTS: construct a window for viewing books whose genres match a genre query
+    public WindowViewBooks(Bookshelf bookshelf, GenreQuery query) {
+        super("View Books By Genre Query");
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        setLayout(new BorderLayout());
+
+        this.bookshelf = bookshelf;
+
+        mainPanel = new JPanel(new GridLayout(0,2, 5, 5));
+        bookCovers = new HashMap<>();
+
+        buildAndAddBookCovers(bookshelf.booksMatching(query));
+
+        JScrollPane scrMainPanel = new JScrollPane(mainPanel);
+        add(scrMainPanel, BorderLayout.CENTER);
+        listenerSetUp();
+        pack();
+        setVisible(true);
+    }
+
+    // REQUIRES: bookshelf, books and windowTitle are not null
+    // EFFECTS: construct a window with the given title for viewing the given books, e.g. search results
+    public WindowViewBooks(Bookshelf bookshelf, List<Book> books, String windowTitle) {
+        super(windowTitle);
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        setLayout(new BorderLayout());
+
+        this.bookshelf = bookshelf;
+
+        mainPanel = new JPanel(new GridLayout(0,2, 5, 5));
+        bookCovers = new HashMap<>();
+
+        buildAndAddBookCovers(books);
+
+        JScrollPane scrMainPanel = new JScrollPane(mainPanel);
+        add(scrMainPanel, BorderLayout.CENTER);
+        listenerSetUp();
         pack();
         setVisible(true);
     }
@@ -69,14 +126,7 @@ public class WindowViewBooks extends JFrame {
     //      For each book cover, display book title, book genres, total pages $, pages read,
     //      and progress in percentage.
     private void buildAndAddBookCovers() {
-
-        for (int i = 0; i < bookshelf.getNumberOfBooks(); i++) {
-            book = bookshelf.getAllBooks().get(i);
-            bookCoverPanel = new JPanel(new GridLayout(0,1,1,1));
-            bookCoverPanel.setBorder(BorderFactory.createLineBorder(Color.BLUE, 1));
-
-            buildAndAddBookCoverLabels();
-        }
+        buildAndAddBookCovers(bookshelf.getAllBooks());
     }
 
     // REQUIRES: genre is not null
@@ -85,16 +135,96 @@ public class WindowViewBooks extends JFrame {
     //      For each book cover, display book title, book genres, total pages $, pages read,
     //      and progress in percentage.
     private void buildAndAddBookCovers(String genre) {
-        for (int i = 0; i < bookshelf.getNumberOfBooks(); i++) {
-            book = bookshelf.getAllBooks().get(i);
-            if (book.containsGenreTag(genre)) {
-                bookCoverPanel = new JPanel(new GridLayout(0,1,1,1));
-                bookCoverPanel.setBorder(BorderFactory.createLineBorder(Color.BLUE, 1));
-                buildAndAddBookCoverLabels();
+        buildAndAddBookCovers(bookshelf.booksTaggedBy(genre));
+    }
+
+    // REQUIRES: books is not null
+    // MODIFIES: this
+    // EFFECTS: build book covers only for the given books, and add the book covers to main frame.
+    //      For each book cover, display book title, book genres, total pages $, pages read,
+    //      and progress in percentage.
+    private void buildAndAddBookCovers(List<Book> books) {
+        for (Book next : books) {
+            book = next;
+            bookCoverPanel = new JPanel(new GridLayout(0,1,1,1));
+            bookCoverPanel.setBorder(BorderFactory.createLineBorder(Color.BLUE, 1));
+            buildAndAddBookCoverLabels();
+            mainPanel.add(bookCoverPanel);
+            bookCovers.put(next, bookCoverPanel);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: rebuild the labels of the cover of the book as it is now, if the book is shown
+    private void rebuildBookCover(Book next) {
+        bookCoverPanel = bookCovers.get(next);
+        if (bookCoverPanel == null) {
+            return;
+        }
+        book = next;
+        bookCoverPanel.removeAll();
+        buildAndAddBookCoverLabels();
+        bookCoverPanel.revalidate();
+        bookCoverPanel.repaint();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: keep the book covers up to date on the event dispatch thread as the bookshelf changes,
+    //      until the window is closed
+    private void listenerSetUp() {
+        bookshelf.addListener(this, SwingUtilities::invokeLater);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                bookshelf.removeListener(WindowViewBooks.this);
             }
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: add covers for the books put on the bookshelf, if all books are shown
+    @Override
+    public void booksAdded(Bookshelf bookshelf, List<Book> books) {
+        if (showsAllBooks) {
+            buildAndAddBookCovers(books);
+            mainPanel.revalidate();
+            mainPanel.repaint();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: remove the cover of the book taken off the bookshelf, if it is shown
+    @Override
+    public void bookRemoved(Bookshelf bookshelf, Book book) {
+        JPanel cover = bookCovers.remove(book);
+        if (cover != null) {
+            mainPanel.remove(cover);
+            mainPanel.revalidate();
+            mainPanel.repaint();
         }
     }
 
+    // MODIFIES: this
+    // EFFECTS: rebuild the cover of the book whose progress was updated
+    @Override
+    public void progressUpdated(Book book, int oldPage, int newPage, long timestamp) {
+        rebuildBookCover(book);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: rebuild the cover of the book a genre tag was added to
+    @Override
+    public void genreTagAdded(Book book, String genreTag) {
+        rebuildBookCover(book);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: rebuild the cover of the book a genre tag was removed from
+    @Override
+    public void genreTagRemoved(Book book, String genreTag) {
+        rebuildBookCover(book);
+    }
+
     // MODIFIES: this
     // EFFECTS: build text labels for book covers, and add the labels to book covers
     private void buildAndAddBookCoverLabels() {
@@ -121,15 +251,13 @@ public class WindowViewBooks extends JFrame {
     }
 
     // MODIFIES: this
-    // EFFECTS: add everything to corresponding panels
+    // EFFECTS: add everything to the book cover
     private void addEverythingToPanels() {
         bookCoverPanel.add(bookCoverIconLabel);
         bookCoverPanel.add(titleLabel);
         bookCoverPanel.add(genreLabel);
         bookCoverPanel.add(pagesLabel);
         bookCoverPanel.add(progressLabel);
-
-        mainPanel.add(bookCoverPanel);
     }
 
     // REQUIRES: book is not null
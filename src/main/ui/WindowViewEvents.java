@@ -0,0 +1,109 @@
+package ui;
+
+import model.Book;
+import model.Bookshelf;
+import model.Event;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+
+// Represents a window for browsing the events about one book still in the event log of the bookshelf.
+//      User can select a book and how far back to look from drop-down menus, e.g. all updates to a book last week;
+//      the events are looked up in the index of the log, so no other event is looked at.
+public class WindowViewEvents extends JFrame implements ActionListener {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final String[] RANGE_NAMES = {"Last day", "Last week", "Last month", "All time"};
+    private static final int[] RANGE_DAYS = {1, 7, 30, 0};
+
+    private JPanel selectPanel;
+
+    private JComboBox<Object> selectBookMenu;
+    private int[] selectBookIds;
+    private JComboBox<String> selectRangeMenu;
+    private JTextArea eventsTextArea;
+
+    private Bookshelf bookshelf;
+
+    // REQUIRES: bookshelf is not null
+    // EFFECTS: construct a window that allow user to select a book and browse the events about it
+    public WindowViewEvents(Bookshelf bookshelf) {
+        //set up main frame
+        super("View Events About A Book");
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        setLayout(new BorderLayout());
+        setSize(500, 400);
+
+        this.bookshelf = bookshelf;
+
+        //set up drop down menus for book and time range select
+        dropDownMenusSetUp();
+
+        //set up the text area listing the events
+        eventsTextArea = new JTextArea();
+        eventsTextArea.setEditable(false);
+        eventsTextArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        add(selectPanel, BorderLayout.PAGE_START);
+        add(new JScrollPane(eventsTextArea), BorderLayout.CENTER);
+
+        showEvents();
+        setVisible(true);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: create a drop-down menu for user to select a book, remembering the ID of the book behind each entry,
+    //      and one to select how far back to look, and put them on a panel
+    private void dropDownMenusSetUp() {
+        List<String> bookList = new ArrayList<>();
+        selectBookIds = new int[bookshelf.getNumberOfBooks()];
+        for (Book book : bookshelf.getAllBooks()) {
+            selectBookIds[bookList.size()] = book.getId();
+            bookList.add(book.getTitle());
+        }
+        selectBookMenu = new JComboBox<>(bookList.toArray());
+        selectBookMenu.addActionListener(this);
+
+        selectRangeMenu = new JComboBox<>(RANGE_NAMES);
+        selectRangeMenu.setSelectedIndex(1);
+        selectRangeMenu.addActionListener(this);
+
+        selectPanel = new JPanel(new GridLayout(0, 2, 10, 10));
+        selectPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        selectPanel.add(selectBookMenu);
+        selectPanel.add(selectRangeMenu);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: show the events about the selected book again whenever another book or time range is selected
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        showEvents();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: list the events about the selected book from the selected time range in the text area,
+    //      oldest first, or say that there are none
+    private void showEvents() {
+        int index = selectBookMenu.getSelectedIndex();
+        if (index < 0) {
+            eventsTextArea.setText("No books on the bookshelf! Add books first!");
+            return;
+        }
+        int days = RANGE_DAYS[selectRangeMenu.getSelectedIndex()];
+        long now = System.currentTimeMillis();
+        List<Event> events = bookshelf.getEventLog().eventsAbout(selectBookIds[index],
+                days == 0 ? Long.MIN_VALUE : now - days * DAY, now);
+
+        StringBuilder str = new StringBuilder();
+        for (Event next : events) {
+            str.append(next.toString()).append("\n");
+        }
+        eventsTextArea.setText(events.isEmpty() ? "No events found!" : str.toString());
+        eventsTextArea.setCaretPosition(0);
+    }
+}
@@ -0,0 +1,129 @@
+package ui;
+
+import model.Book;
+import model.Bookshelf;
+import model.ShelfState;
+
+import javax.swing.*;
+import java.awt.*;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+// Represents a window for viewing a report about the books on the bookshelf as they were at the end of a past day.
+//      It lists the number of books on the bookshelf then, the genres and how many books each had,
+//      the progress of each book then, and the total progress then in percentage with a progress bar.
+public class WindowViewPastReport extends JFrame {
+
+    private JPanel mainPanel;
+
+    private static ImageIcon reportIcon = new ImageIcon("./data/reportIcon.png");
+
+    private JLabel iconLabel;
+    private JLabel introLabel;
+    private JLabel numOfBooksLabel;
+    private JLabel pagesLabel;
+    private JLabel genresLabel;
+    private JLabel booksLabel;
+    private JLabel progressLabel;
+
+    private JProgressBar progressBar;
+
+    private Bookshelf bookshelf;
+    private long timestamp;
+    private ShelfState state;
+
+    // REQUIRES: bookshelf and date are not null
+    // EFFECTS: construct a window for presenting the report about the books on bookshelf
+    //      as they were at the end of the given day
+    public WindowViewPastReport(Bookshelf bookshelf, LocalDate date) {
+        // create main frame
+        super("View Report As Of " + date);
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        setLayout(new BorderLayout());
+        setSize(300, 500);
+
+        this.bookshelf = bookshelf;
+        this.timestamp = date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli() - 1;
+        this.state = bookshelf.stateAsOf(timestamp);
+
+        labelsSetUp(date);
+        progressBarSetUp();
+        addToPanels();
+
+        // add everything else to main frame
+        add(iconLabel, BorderLayout.PAGE_START);
+        JScrollPane scrMainPanel = new JScrollPane(mainPanel); // make main pane scrollable
+        add(scrMainPanel, BorderLayout.CENTER);
+        add(progressBar, BorderLayout.PAGE_END);
+
+        setVisible(true);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: set up all the necessary text labels for presenting the report
+    private void labelsSetUp(LocalDate date) {
+        iconLabel = new JLabel(reportIcon);
+        iconLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        iconLabel.setSize(300,30);
+
+        introLabel = new JLabel("On " + date + ", you had...");
+        introLabel.setFont(new Font("TimesRoman", Font.BOLD, 18));
+
+        numOfBooksLabel = new JLabel(state.getNumberOfBooks() + " books on bookshelf");
+        pagesLabel = new JLabel(state.getTotalPagesRead() + " of " + state.getTotalPages() + " pages read, "
+                + state.getNumberOfFinishedBooks() + " books finished");
+
+        genresLabel = new JLabel(genresLabelString());
+        genresLabel.setFont(new Font("TimesRoman", Font.ITALIC,15));
+
+        booksLabel = new JLabel(booksLabelString());
+
+        progressLabel = new JLabel("Total progress then...");
+    }
+
+    // MODIFIES: this
+    // EFFECTS: set up the progress bar for viewing the total progress then
+    private void progressBarSetUp() {
+        progressBar = new JProgressBar(0,100);
+        progressBar.setValue((int) state.getTotalProgress());
+        progressBar.setStringPainted(true);
+        progressBar.setString(state.getTotalProgress() + "%");
+        progressBar.setSize(300,20);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: create a main panel to present the report. Add the labels to the main panel.
+    private void addToPanels() {
+        mainPanel = new JPanel(new GridLayout(0,1));
+        mainPanel.setSize(300, 450);
+        mainPanel.add(introLabel);
+        mainPanel.add(numOfBooksLabel);
+        mainPanel.add(pagesLabel);
+        mainPanel.add(genresLabel);
+        mainPanel.add(booksLabel);
+        mainPanel.add(progressLabel);
+    }
+
+    // EFFECTS: generate a string of the genre names then and how many books each had in HTML format,
+    //      so that each genre is on a new line.
+    private String genresLabelString() {
+        StringBuilder str = new StringBuilder("<html>There were...<br/>");
+        for (String tag : state.getAllGenres()) {
+            str.append("\"").append(tag).append("\": ").append(state.numOfBooksTaggedBy(tag)).append("<br/>");
+        }
+        str.append("<html>");
+        return str.toString();
+    }
+
+    // EFFECTS: generate a string of the books on the bookshelf then and their progress then in HTML format,
+    //      so that each book is on a new line.
+    private String booksLabelString() {
+        StringBuilder str = new StringBuilder("<html>");
+        for (Book next : state.getBooks()) {
+            str.append("&lt;").append(next.getTitle()).append("&gt;: ")
+                    .append(next.progressAsOf(timestamp)).append("%<br/>");
+        }
+        str.append("<html>");
+        return str.toString();
+    }
+}
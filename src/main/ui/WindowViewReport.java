@@ -1,24 +1,35 @@
 package ui;
 
+import model.Book;
 import model.Bookshelf;
+import model.BookshelfListener;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.List;
 
 // Represents a window for view a report about all the books on the bookshelf.
 //      It lists the total number books on the bookshelf, the number of distinct genres and what are they,
+//      the statistics and the distribution of the progress of individual books,
 //      and the total progress in percentage with a progress bar.
-public class WindowViewReport extends JFrame {
+//      The report stays up to date as the bookshelf changes while the window is open.
+public class WindowViewReport extends JFrame implements BookshelfListener {
 
     private JPanel mainPanel;
 
     private static ImageIcon reportIcon = new ImageIcon("./data/reportIcon.png");
+    private static final int DISTRIBUTION_RANGES = 10;
+    private static final int DISTRIBUTION_BAR_WIDTH = 20;
 
     private JLabel iconLabel;
     private JLabel introLabel;
     private JLabel numOfBooksLabel;
     private JLabel numOfGenreLabel;
     private JLabel genresLabel;
+    private JLabel statisticsLabel;
+    private JLabel distributionLabel;
     private JLabel progressLabel;
 
     private JProgressBar progressBar;
@@ -35,8 +46,6 @@ public class WindowViewReport extends JFrame {
         setSize(300, 500);
 
         this.bookshelf = bookshelf;
-        this.bookshelf.totalProgressUpdate();
-        this.bookshelf.updateGenreInfo();
 
         // create labels
         labelsSetUp();
@@ -53,9 +62,75 @@ public class WindowViewReport extends JFrame {
         add(scrMainPanel, BorderLayout.CENTER);
         add(progressBar, BorderLayout.PAGE_END);
 
+        // fill in the report, and keep it up to date until the window is closed
+        refresh();
+        listenerSetUp();
+
         setVisible(true);
     }
 
+    // MODIFIES: this
+    // EFFECTS: refresh the report on the event dispatch thread whenever the bookshelf changes,
+    //      until the window is closed
+    private void listenerSetUp() {
+        bookshelf.addListener(this, SwingUtilities::invokeLater);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                bookshelf.removeListener(WindowViewReport.this);
+            }
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: refresh the report after books are put on the bookshelf
+    @Override
+    public void booksAdded(Bookshelf bookshelf, List<Book> books) {
+        refresh();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: refresh the report after a book is taken off the bookshelf
+    @Override
+    public void bookRemoved(Bookshelf bookshelf, Book book) {
+        refresh();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: refresh the report after the progress of a book is updated
+    @Override
+    public void progressUpdated(Book book, int oldPage, int newPage, long timestamp) {
+        refresh();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: refresh the report after a genre tag is added to a book
+    @Override
+    public void genreTagAdded(Book book, String genreTag) {
+        refresh();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: refresh the report after a genre tag is removed from a book
+    @Override
+    public void genreTagRemoved(Book book, String genreTag) {
+        refresh();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: write the current numbers of books and genres, the genres, the statistics, the distribution
+    //      and the total progress of the bookshelf into the labels and the progress bar;
+    //      these are all kept up to date by the bookshelf itself, so no book is re-read
+    private void refresh() {
+        numOfBooksLabel.setText(bookshelf.getNumberOfBooks() + " books on bookshelf");
+        numOfGenreLabel.setText(bookshelf.getNumberOfGenres() + " distinct genres");
+        genresLabel.setText(genresLabelString());
+        statisticsLabel.setText(statisticsLabelString());
+        distributionLabel.setText(distributionLabelString());
+        progressBar.setValue((int) bookshelf.getTotalProgress());
+        progressBar.setString(bookshelf.getTotalProgress() + "%");
+    }
+
     // MODIFIES: this
     // EFFECTS: set up all the necessary text labels for presenting the report
     private void labelsSetUp() {
@@ -66,12 +141,16 @@ public class WindowViewReport extends JFrame {
         introLabel = new JLabel("You have...");
         introLabel.setFont(new Font("TimesRoman", Font.BOLD, 18));
 
-        numOfBooksLabel = new JLabel(bookshelf.getNumberOfBooks() + " books on bookshelf");
-        numOfGenreLabel = new JLabel(bookshelf.getNumberOfGenres() + " distinct genres");
+        numOfBooksLabel = new JLabel();
+        numOfGenreLabel = new JLabel();
 
-        genresLabel = new JLabel(genresLabelString());
+        genresLabel = new JLabel();
         genresLabel.setFont(new Font("TimesRoman", Font.ITALIC,15));
 
+        statisticsLabel = new JLabel();
+        distributionLabel = new JLabel();
+        distributionLabel.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
         progressLabel = new JLabel("Total progress so far...");
     }
 
@@ -79,9 +158,7 @@ public class WindowViewReport extends JFrame {
     // EFFECTS: set up the progress bar for viewing the total progress
     private void progressBarSetUp() {
         progressBar = new JProgressBar(0,100);
-        progressBar.setValue((int) bookshelf.getTotalProgress());
         progressBar.setStringPainted(true);
-        progressBar.setString(bookshelf.getTotalProgress() + "%");
         progressBar.setSize(300,20);
     }
 
@@ -94,6 +171,8 @@ public class WindowViewReport extends JFrame {
         mainPanel.add(numOfBooksLabel);
         mainPanel.add(numOfGenreLabel);
         mainPanel.add(genresLabel);
+        mainPanel.add(statisticsLabel);
+        mainPanel.add(distributionLabel);
         mainPanel.add(progressLabel);
     }
 
@@ -107,4 +186,33 @@ public class WindowViewReport extends JFrame {
         str.append("<html>");
         return str.toString();
     }
+
+    // EFFECTS: generate a string of the median, quartiles and standard deviation of individual progress
+    //      and the number of finished and unstarted books in HTML format, each on a new line.
+    private String statisticsLabelString() {
+        return "<html>Median progress: " + bookshelf.getProgressPercentile(50) + "%<br/>"
+                + "Middle half: " + bookshelf.getProgressPercentile(25) + "% to "
+                + bookshelf.getProgressPercentile(75) + "%<br/>"
+                + String.format("Standard deviation: %.1f%%<br/>", bookshelf.getProgressStandardDeviation())
+                + bookshelf.getNumberOfFinishedBooks() + " finished, "
+                + bookshelf.getNumberOfUnstartedBooks() + " not started<html>";
+    }
+
+    // EFFECTS: generate a string in HTML format with one bar per range of progress,
+    //      whose length shows how many books fall into that range.
+    private String distributionLabelString() {
+        int[] ranges = bookshelf.getProgressDistribution(DISTRIBUTION_RANGES);
+        int most = 1;
+        for (int next : ranges) {
+            most = Math.max(most, next);
+        }
+        int width = 100 / DISTRIBUTION_RANGES;
+        StringBuilder str = new StringBuilder("<html>");
+        for (int i = 0; i < ranges.length; i++) {
+            int bar = (int) Math.ceil((double) ranges[i] * DISTRIBUTION_BAR_WIDTH / most);
+            str.append(i * width).append("%: ").append("◆".repeat(bar)).append(" ").append(ranges[i]).append("<br/>");
+        }
+        str.append("<html>");
+        return str.toString();
+    }
 }
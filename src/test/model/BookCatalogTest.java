@@ -0,0 +1,53 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BookCatalogTest {
+
+    @Test
+    void testGetInstance() {
+        assertSame(BookCatalog.getInstance(), BookCatalog.getInstance());
+    }
+
+    @Test
+    void testCanonicalize() {
+        BookCatalog catalog = BookCatalog.getInstance();
+        CatalogEntry entry = catalog.canonicalize("Capital", 1465);
+        assertEquals("Capital", entry.getTitle());
+        assertEquals(1465, entry.getTotalPages());
+        assertTrue(entry.getDefaultGenres().isEmpty());
+        assertTrue(catalog.size() >= 1);
+
+        assertSame(entry, catalog.canonicalize(new String("Capital"), 1465));
+        assertSame(entry, catalog.canonicalize("Capital", 1465, List.of()));
+        assertNotSame(entry, catalog.canonicalize("Capital", 1466));
+        assertNotSame(entry, catalog.canonicalize("Capital", 1465, List.of("Marxism")));
+    }
+
+    @Test
+    void testCanonicalizeWithGenres() {
+        BookCatalog catalog = BookCatalog.getInstance();
+        CatalogEntry entry = catalog.canonicalize("Crime and Punishment", 782, List.of("Russian", "Novel"));
+        assertEquals(List.of("Russian", "Novel"), entry.getDefaultGenres());
+
+        assertSame(entry, catalog.canonicalize("Crime and Punishment", 782, List.of("Russian", "Novel", "Russian")));
+        assertNotSame(entry, catalog.canonicalize("Crime and Punishment", 782, List.of("Novel", "Russian")));
+        assertNotSame(entry, catalog.canonicalize("Crime and Punishment", 782, List.of("Russian")));
+    }
+
+    @Test
+    void testEquals() {
+        CatalogEntry entry = new CatalogEntry("Meditation", 181, new int[0]);
+        assertEquals(entry, entry);
+        assertEquals(entry, new CatalogEntry("Meditation", 181, new int[0]));
+        assertEquals(entry.hashCode(), new CatalogEntry("Meditation", 181, new int[0]).hashCode());
+        assertNotEquals(entry, new CatalogEntry("Meditations", 181, new int[0]));
+        assertNotEquals(entry, new CatalogEntry("Meditation", 182, new int[0]));
+        assertNotEquals(entry, new CatalogEntry("Meditation", 181, new int[] {0}));
+        assertNotEquals(entry, "Meditation");
+    }
+}
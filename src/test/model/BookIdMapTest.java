@@ -0,0 +1,88 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookIdMapTest {
+    private BookIdMap testMap;
+
+    @BeforeEach
+    void runBefore() {
+        testMap = new BookIdMap();
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, testMap.size());
+        assertNull(testMap.get(1));
+        assertFalse(testMap.containsId(1));
+    }
+
+    @Test
+    void testPutAndGet() {
+        Book book1 = new Book("Capital", 1465);
+        Book book2 = new Book("Meditation", 181);
+
+        testMap.put(3, book1);
+        testMap.put(7, book2);
+        assertEquals(2, testMap.size());
+        assertEquals(book1, testMap.get(3));
+        assertEquals(book2, testMap.get(7));
+        assertNull(testMap.get(4));
+        assertNull(testMap.get(Book.NO_ID));
+
+        testMap.put(3, book2);
+        assertEquals(2, testMap.size());
+        assertEquals(book2, testMap.get(3));
+    }
+
+    @Test
+    void testPutManyBooks() {
+        Book[] books = new Book[1000];
+        for (int i = 0; i < books.length; i++) {
+            books[i] = new Book("Book " + i, 100);
+            testMap.put(i + 1, books[i]);
+        }
+
+        assertEquals(1000, testMap.size());
+        for (int i = 0; i < books.length; i++) {
+            assertEquals(books[i], testMap.get(i + 1));
+        }
+        assertNull(testMap.get(1001));
+    }
+
+    @Test
+    void testRemove() {
+        for (int i = 1; i <= 100; i++) {
+            testMap.put(i, new Book("Book " + i, 100));
+        }
+
+        for (int i = 1; i <= 100; i += 2) {
+            testMap.remove(i);
+        }
+        testMap.remove(1);
+        testMap.remove(Book.NO_ID);
+
+        assertEquals(50, testMap.size());
+        for (int i = 1; i <= 100; i++) {
+            assertEquals(i % 2 == 0, testMap.containsId(i));
+        }
+    }
+
+    @Test
+    void testEnsureCapacity() {
+        testMap.put(7, new Book("Capital", 1465));
+        testMap.ensureCapacity(1000);
+        for (int i = 1; i <= 1000; i++) {
+            if (i != 7) {
+                testMap.put(i, new Book("Book " + i, 100));
+            }
+        }
+
+        assertEquals(1000, testMap.size());
+        assertEquals("Capital", testMap.get(7).getTitle());
+        assertEquals("Book 1000", testMap.get(1000).getTitle());
+    }
+}
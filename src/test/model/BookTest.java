@@ -3,6 +3,8 @@ package model;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class BookTest {
@@ -23,6 +25,56 @@ class BookTest {
 
         assertNotNull(testBook.getGenreTags());
         assertEquals(0,testBook.getGenreTags().size());
+        assertEquals(Book.NO_ID, testBook.getId());
+    }
+
+    @Test
+    void testConstructorWithId() {
+        Book book = new Book(42, "Capital", 1465);
+
+        assertEquals(42, book.getId());
+        assertEquals("Capital", book.getTitle());
+        assertEquals(1465, book.getTotalPages());
+        assertEquals(0, book.getPagesRead());
+    }
+
+    @Test
+    void testConstructorWithPagesRead() {
+        Book book = new Book(42, "Capital", 1465, 733);
+
+        assertEquals(42, book.getId());
+        assertEquals(1465, book.getTotalPages());
+        assertEquals(733, book.getPagesRead());
+        assertEquals(50.0, book.getProgress());
+        assertEquals(0, book.getGenreTags().size());
+    }
+
+    @Test
+    void testConstructorWithCatalogEntry() {
+        CatalogEntry entry = BookCatalog.getInstance().canonicalize("Capital", 1465, List.of("Marxism"));
+        Book book = new Book(7, entry, 733);
+        Book copy = new Book(8, entry, 0);
+
+        assertSame(entry, book.getCatalogEntry());
+        assertEquals("Capital", book.getTitle());
+        assertEquals(1465, book.getTotalPages());
+        assertEquals(50.0, book.getProgress());
+        assertEquals(List.of("Marxism"), book.getGenreTags());
+        assertTrue(book.containsGenreTag("Marxism"));
+
+        book.addGenreTag("History");
+        copy.removeGenreTag("Marxism");
+        assertEquals(List.of("Marxism", "History"), book.getGenreTags());
+        assertEquals(0, copy.getGenreTags().size());
+        assertEquals(List.of("Marxism"), entry.getDefaultGenres());
+        assertSame(entry, copy.getCatalogEntry());
+    }
+
+    @Test
+    void testConstructorsShareCatalogEntry() {
+        Book book = new Book("Capital", 1465);
+        assertSame(book.getCatalogEntry(), new Book(3, "Capital", 1465, 100).getCatalogEntry());
+        assertNotSame(book.getCatalogEntry(), new Book("Capital", 1466).getCatalogEntry());
     }
 
     @Test
@@ -92,4 +144,126 @@ class BookTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    void testRemoveGenreTag() {
+        testBook.addGenreTag("Russian");
+        testBook.addGenreTag("History");
+
+        testBook.removeGenreTag("Russian");
+        assertFalse(testBook.containsGenreTag("Russian"));
+        assertEquals(1, testBook.getGenreTags().size());
+
+        testBook.removeGenreTag("Novel");
+        assertEquals(1, testBook.getGenreTags().size());
+    }
+
+    @Test
+    void testGenreTagsAreDictionaryEncoded() {
+        testBook.addGenreTag("Russian");
+        int code = GenreDictionary.getInstance().lookup("Russian");
+
+        assertTrue(testBook.hasGenreCode(code));
+        assertFalse(testBook.hasGenreCode(-1));
+        assertFalse(testBook.containsGenreTag("BookTest never used"));
+
+        Book another = new Book("Capital", 1465);
+        another.addGenreTag("Russian");
+        assertSame(testBook.getGenreTags().get(0), another.getGenreTags().get(0));
+    }
+
+    @Test
+    void testManyGenreTags() {
+        for (int i = 0; i < 150; i++) {
+            testBook.addGenreTag("BookTest genre " + i);
+        }
+
+        assertEquals(150, testBook.getGenreTags().size());
+        assertEquals("BookTest genre 149", testBook.getGenreTags().get(149));
+        for (int i = 0; i < 150; i++) {
+            assertTrue(testBook.containsGenreTag("BookTest genre " + i));
+        }
+
+        testBook.removeGenreTag("BookTest genre 100");
+        assertFalse(testBook.containsGenreTag("BookTest genre 100"));
+        assertTrue(testBook.containsGenreTag("BookTest genre 101"));
+        assertEquals("BookTest genre 101", testBook.getGenreTags().get(100));
+    }
+
+    @Test
+    void testGenreTagsAddedOutOfCodeOrder() {
+        for (int i = 0; i < 5; i++) {
+            GenreDictionary.getInstance().codeOf("BookTest order " + i);
+        }
+        for (int i = 4; i >= 0; i -= 2) {
+            testBook.addGenreTag("BookTest order " + i);
+        }
+        testBook.addGenreTag("BookTest order 1");
+
+        assertEquals(List.of("BookTest order 4", "BookTest order 2", "BookTest order 0", "BookTest order 1"),
+                testBook.getGenreTags());
+        assertFalse(testBook.containsGenreTag("BookTest order 3"));
+        testBook.removeGenreTag("BookTest order 2");
+        assertTrue(testBook.containsGenreTag("BookTest order 0"));
+        assertTrue(testBook.containsGenreTag("BookTest order 1"));
+        assertFalse(testBook.containsGenreTag("BookTest order 2"));
+        assertTrue(testBook.containsGenreTag("BookTest order 4"));
+    }
+
+    @Test
+    void testReadingHistory() {
+        assertEquals(0, testBook.getReadingHistory().size());
+
+        testBook.progressUpdate(100, 1000);
+        testBook.progressUpdate(250, 5000);
+        testBook.progressUpdate(200, 9000);
+
+        ReadingHistory history = testBook.getReadingHistory();
+        assertEquals(3, history.size());
+        assertEquals(0, history.getStartPage());
+        assertEquals(200, history.getLastPage());
+        assertEquals(5000, history.getTimestamp(1));
+        assertEquals(250, history.getPage(1));
+
+        assertEquals(250, testBook.pagesReadBetween(0, 5000));
+        assertEquals(-50, testBook.pagesReadBetween(5000, 9000));
+        assertEquals(150, testBook.pagesReadBetween(1000, 5000));
+        assertEquals(0.0, testBook.readingVelocity(5000, 5000));
+    }
+
+    @Test
+    void testProgressUpdateRecordsCurrentTime() {
+        long before = System.currentTimeMillis();
+        testBook.progressUpdate(12);
+        long after = System.currentTimeMillis();
+
+        long timestamp = testBook.getReadingHistory().getTimestamp(0);
+        assertTrue(before <= timestamp && timestamp <= after);
+    }
+
+    @Test
+    void testRestoreReadingHistory() {
+        Book book = new Book(1, "Capital", 1465, 300);
+        assertEquals(300, book.getReadingHistory().getStartPage());
+
+        ReadingHistory history = new ReadingHistory(0);
+        history.record(1000, 300);
+        book.restoreReadingHistory(history);
+        assertEquals(300, book.pagesReadBetween(0, 1000));
+        assertEquals(1, book.getReadingHistory().size());
+    }
+
+    @Test
+    void testProgressAsOf() {
+        testBook.progressUpdate(100, 1000);
+        testBook.progressUpdate(230, 2000);
+
+        assertEquals(0, testBook.getAddedAt());
+        assertEquals(0, testBook.pagesReadAsOf(999));
+        assertEquals(100, testBook.pagesReadAsOf(1999));
+        assertEquals(44.1, testBook.progressAsOf(2000));
+
+        testBook.restoreAddedAt(500);
+        assertEquals(500, testBook.getAddedAt());
+        assertEquals(500, testBook.toJson().getLong("addedAt"));
+    }
+}
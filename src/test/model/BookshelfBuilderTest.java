@@ -0,0 +1,59 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookshelfBuilderTest {
+    private BookshelfBuilder testBuilder;
+
+    @BeforeEach
+    void runBefore() {
+        testBuilder = new BookshelfBuilder();
+    }
+
+    @Test
+    void testBuildEmpty() {
+        Bookshelf bookshelf = testBuilder.build();
+
+        assertEquals(0, testBuilder.getNumberOfBooks());
+        assertEquals(0, bookshelf.getNumberOfBooks());
+        assertEquals(0.0, bookshelf.getTotalProgress());
+    }
+
+    @Test
+    void testBuild() {
+        Book book1 = new Book(3, "Crime and Punishment", 782, 659);
+        book1.addGenreTag("Russian");
+        testBuilder.addBook(book1)
+                .addBooks(List.of(new Book("Meditation", 181), new Book(3, "Capital", 1465)));
+        assertEquals(3, testBuilder.getNumberOfBooks());
+
+        Bookshelf bookshelf = testBuilder.build();
+        assertEquals(3, bookshelf.getNumberOfBooks());
+        assertEquals(book1, bookshelf.getBookById(3));
+        assertEquals("Meditation", bookshelf.getBookById(4).getTitle());
+        assertEquals("Capital", bookshelf.getBookById(5).getTitle());
+        assertEquals(List.of("Russian"), bookshelf.getAllGenres());
+        assertEquals(2428, bookshelf.getTotalPages());
+        assertEquals(28.1, bookshelf.getTotalProgress());
+    }
+
+    @Test
+    void testBuildManyBooks() {
+        testBuilder = new BookshelfBuilder(10000);
+        for (int i = 0; i < 10000; i++) {
+            testBuilder.addBook(new Book(Book.NO_ID, "Book " + i, 100, i % 2 == 0 ? 100 : 0));
+        }
+
+        Bookshelf bookshelf = testBuilder.build();
+        assertEquals(10000, bookshelf.getNumberOfBooks());
+        assertEquals("Book 9999", bookshelf.getBookById(10000).getTitle());
+        assertEquals(500000, bookshelf.getTotalPagesRead());
+        assertEquals(5000, bookshelf.getNumberOfFinishedBooks());
+        assertEquals(50.0, bookshelf.getTotalProgress());
+    }
+}
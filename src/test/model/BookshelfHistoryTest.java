@@ -0,0 +1,144 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BookshelfHistoryTest {
+
+    private Bookshelf testBookshelf;
+    private BookshelfHistory testHistory;
+
+    @BeforeEach
+    void runBefore() {
+        testBookshelf = new Bookshelf();
+        testHistory = new BookshelfHistory(testBookshelf, 2);
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, testHistory.getNumberOfUndos());
+        assertEquals(0, testHistory.getNumberOfRedos());
+        assertFalse(testHistory.canUndo());
+        assertFalse(testHistory.canRedo());
+        assertFalse(testHistory.undo());
+        assertFalse(testHistory.redo());
+    }
+
+    @Test
+    void testCheckpoint() {
+        testHistory.checkpoint();
+        assertEquals(0, testHistory.getNumberOfUndos());
+
+        testBookshelf.addBook(new Book("Crime and Punishment", 782));
+        testHistory.checkpoint();
+        testHistory.checkpoint();
+        assertEquals(1, testHistory.getNumberOfUndos());
+
+        testBookshelf.addBook(new Book("Meditation", 181));
+        testHistory.checkpoint();
+        testBookshelf.addBook(new Book("Capital", 1465));
+        assertTrue(testHistory.canUndo());
+        assertEquals(2, testHistory.getNumberOfUndos());
+    }
+
+    @Test
+    void testUndoAndRedoAdd() {
+        Book book = new Book("Crime and Punishment", 782);
+        book.addGenreTag("Russian");
+        testBookshelf.addBook(book);
+        int id = book.getId();
+
+        assertTrue(testHistory.undo());
+        assertEquals(0, testBookshelf.getNumberOfBooks());
+        assertNull(testBookshelf.getBookById(id));
+        assertEquals(0, testBookshelf.getNumberOfGenres());
+        assertEquals(0, testBookshelf.searchTitles("crime", 5).size());
+        assertEquals(0, testBookshelf.getTotalPages());
+        assertTrue(testHistory.canRedo());
+
+        assertTrue(testHistory.redo());
+        assertEquals(1, testBookshelf.getNumberOfBooks());
+        Book restored = testBookshelf.getBookById(id);
+        assertEquals("Crime and Punishment", restored.getTitle());
+        assertEquals(List.of("Russian"), restored.getGenreTags());
+        assertEquals(1, testBookshelf.numOfBooksTaggedBy("Russian"));
+        assertEquals(List.of(restored), testBookshelf.searchTitles("crime", 5));
+        assertFalse(testHistory.canRedo());
+    }
+
+    @Test
+    void testUndoAndRedoProgressAndTags() {
+        Book book = new Book("Capital", 1465);
+        testBookshelf.addBook(book);
+        testHistory.checkpoint();
+
+        book.progressUpdate(733);
+        book.addGenreTag("Marxism");
+        assertTrue(testHistory.undo());
+        assertEquals(0, book.getPagesRead());
+        assertEquals(0.0, testBookshelf.getTotalProgress());
+        assertFalse(book.containsGenreTag("Marxism"));
+        assertEquals(0, testBookshelf.numOfBooksTaggedBy("Marxism"));
+
+        assertTrue(testHistory.redo());
+        assertEquals(733, book.getPagesRead());
+        assertEquals(50.0, testBookshelf.getTotalProgress());
+        assertTrue(book.containsGenreTag("Marxism"));
+        assertEquals(List.of(book), testBookshelf.mostNeglected(5));
+    }
+
+    @Test
+    void testChangeAfterUndoDropsRedo() {
+        testBookshelf.addBook(new Book("Capital", 1465));
+        testHistory.undo();
+        testBookshelf.addBook(new Book("Meditation", 181));
+        assertFalse(testHistory.redo());
+        assertEquals(1, testBookshelf.getNumberOfBooks());
+        assertEquals("Meditation", testBookshelf.getAllBooks().get(0).getTitle());
+    }
+
+    @Test
+    void testUndoWindow() {
+        testBookshelf.addBook(new Book("Crime and Punishment", 782));
+        testHistory.checkpoint();
+        testBookshelf.addBook(new Book("Meditation", 181));
+        testHistory.checkpoint();
+        testBookshelf.addBook(new Book("Capital", 1465));
+
+        assertTrue(testHistory.undo());
+        assertTrue(testHistory.undo());
+        assertFalse(testHistory.undo());
+        assertEquals(1, testBookshelf.getNumberOfBooks());
+        assertEquals(2, testHistory.getNumberOfRedos());
+    }
+
+    @Test
+    void testPastStateAfterUndo() {
+        Book book1 = new Book("Crime and Punishment", 782);
+        book1.restoreAddedAt(1000);
+        Book book2 = new Book("Meditation", 181);
+        book2.restoreAddedAt(2000);
+        testBookshelf.addBooks(List.of(book1, book2));
+        testHistory.checkpoint();
+        Book book3 = new Book("Capital", 1465);
+        book3.restoreAddedAt(3000);
+        book3.progressUpdate(100, 3000);
+        testBookshelf.addBook(book3);
+
+        assertTrue(testHistory.undo());
+        ShelfState then = testBookshelf.stateAsOf(3500);
+        assertEquals(3, then.getNumberOfBooks());
+        assertEquals(List.of(book1, book2, book3), then.getBooks());
+        assertEquals(6.8, then.getBooks().get(2).progressAsOf(3500));
+
+        Book book4 = new Book("Das Kapital", 1152);
+        testBookshelf.addBook(book4);
+        assertEquals(List.of(book1, book2, book3), testBookshelf.stateAsOf(3500).getBooks());
+        assertEquals(List.of(book1, book2, book4), testBookshelf.stateAsOf(Long.MAX_VALUE).getBooks());
+        assertEquals(2, testBookshelf.stateAsOf(2500).getNumberOfBooks());
+    }
+}
@@ -0,0 +1,149 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BookshelfListenerTest {
+
+    private Bookshelf testBookShelf;
+    private Book book1;
+    private Book book2;
+    private Book book3;
+    private List<String> changes;
+    private BookshelfListener recorder;
+
+    @BeforeEach
+    void runBefore() {
+        testBookShelf = new Bookshelf();
+        testBookShelf.setEventLog(EventLog.newLog());
+        book1 = new Book("Crime and Punishment", 782);
+        book2 = new Book("Meditation", 181);
+        book3 = new Book("Capital", 1465);
+        changes = Collections.synchronizedList(new ArrayList<>());
+        recorder = new BookshelfListener() {
+            @Override
+            public void booksAdded(Bookshelf bookshelf, List<Book> books) {
+                changes.add("added " + books.size());
+            }
+
+            @Override
+            public void bookRemoved(Bookshelf bookshelf, Book book) {
+                changes.add("removed " + book.getTitle());
+            }
+
+            @Override
+            public void progressUpdated(Book book, int oldPage, int newPage, long timestamp) {
+                changes.add(book.getTitle() + " " + oldPage + " to " + newPage);
+            }
+
+            @Override
+            public void genreTagAdded(Book book, String genreTag) {
+                changes.add(book.getTitle() + " + " + genreTag);
+            }
+
+            @Override
+            public void genreTagRemoved(Book book, String genreTag) {
+                changes.add(book.getTitle() + " - " + genreTag);
+            }
+        };
+    }
+
+    @Test
+    void testBookshelfListener() {
+        testBookShelf.addListener(recorder);
+        testBookShelf.addBook(book1);
+        book1.progressUpdate(100);
+        testBookShelf.addBooks(List.of(book2, book3));
+        testBookShelf.addBooks(List.of());
+        book2.addGenreTag("Philosophy");
+        book2.addGenreTag("Philosophy");
+        book2.removeGenreTag("Philosophy");
+        BookshelfSnapshot snapshot = testBookShelf.snapshot();
+        testBookShelf.addBook(new Book("Das Kapital", 1152));
+        testBookShelf.restore(snapshot);
+
+        assertEquals(List.of("added 1", "Crime and Punishment 0 to 100", "added 2",
+                "Meditation + Philosophy", "Meditation - Philosophy", "added 1", "removed Das Kapital"), changes);
+
+        testBookShelf.removeListener(recorder);
+        book1.progressUpdate(200);
+        assertEquals(7, changes.size());
+    }
+
+    @Test
+    void testBookListener() {
+        BookListener listener = new BookListener() {
+            @Override
+            public void progressUpdated(Book book, int oldPage, int newPage, long timestamp) {
+                changes.add(oldPage + " to " + newPage + " at " + timestamp);
+            }
+        };
+        book1.addListener(listener);
+        book1.progressUpdate(100, 1234L);
+        book1.addGenreTag("Russian");
+        testBookShelf.addBook(book1);
+        book1.progressUpdate(200, 5678L);
+        assertEquals(List.of("0 to 100 at 1234", "100 to 200 at 5678"), changes);
+
+        book1.removeListener(listener);
+        book1.progressUpdate(300);
+        assertEquals(2, changes.size());
+    }
+
+    @Test
+    void testAsyncDeliveryKeepsOrder() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        testBookShelf.addListener(recorder, executor);
+        testBookShelf.addBook(book1);
+        List<String> expected = new ArrayList<>();
+        expected.add("added 1");
+        for (int i = 1; i <= 500; i++) {
+            book1.progressUpdate(i);
+            expected.add("Crime and Punishment " + (i - 1) + " to " + i);
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(expected, changes);
+    }
+
+    @Test
+    void testRemoveAsyncListener() {
+        List<Runnable> tasks = new ArrayList<>();
+        testBookShelf.addListener(recorder, tasks::add);
+        testBookShelf.addBook(book1);
+        assertEquals(1, tasks.size());
+        assertTrue(changes.isEmpty());
+
+        testBookShelf.removeListener(recorder);
+        testBookShelf.addBook(book2);
+        tasks.get(0).run();
+        assertEquals(List.of("added 1"), changes);
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    void testAsyncBookListenerOnlyToldAboutBooks() {
+        List<Runnable> tasks = new ArrayList<>();
+        BookListener listener = new BookListener() {
+            @Override
+            public void genreTagAdded(Book book, String genreTag) {
+                changes.add(genreTag);
+            }
+        };
+        book1.addListener(listener, tasks::add);
+        testBookShelf.addBook(book1);
+        book1.addGenreTag("Russian");
+        assertEquals(1, tasks.size());
+        tasks.get(0).run();
+        assertEquals(List.of("Russian"), changes);
+    }
+}
@@ -0,0 +1,91 @@
+package model;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookshelfSnapshotTest {
+    private Book book1;
+    private Book book2;
+
+    @BeforeEach
+    void runBefore() {
+        book1 = new Book(1, "Crime and Punishment", 782);
+        book1.addGenreTag("Russian");
+        book1.progressUpdate(659);
+
+        book2 = new Book(2, "Meditation", 181);
+        book2.addGenreTag("Philosophy");
+    }
+
+    @Test
+    void testBookRecord() {
+        BookRecord record = new BookRecord(book1);
+        book1.progressUpdate(700);
+        book1.addGenreTag("Novel");
+
+        assertEquals(1, record.getId());
+        assertEquals("Crime and Punishment", record.getTitle());
+        assertEquals(782, record.getTotalPages());
+        assertEquals(659, record.getPagesRead());
+        assertEquals(84.3, record.getProgress());
+        assertEquals(1, record.getGenreTags().size());
+        assertTrue(record.containsGenreTag("Russian"));
+        assertFalse(record.containsGenreTag("Novel"));
+
+        JSONObject json = record.toJson();
+        assertEquals(1, json.getInt("id"));
+        assertEquals(659, json.getInt("pagesRead"));
+        assertEquals("Russian", json.getJSONArray("genreTags").getString(0));
+    }
+
+    @Test
+    void testEmptySnapshot() {
+        BookshelfSnapshot snapshot = new BookshelfSnapshot(new ArrayList<>());
+
+        assertEquals(0, snapshot.getNumberOfBooks());
+        assertEquals(0, snapshot.getTotalPages());
+        assertEquals(0.0, snapshot.getTotalProgress());
+        assertEquals(0, snapshot.toJson().getJSONArray("collectionOfBooks").length());
+    }
+
+    @Test
+    void testSnapshot() {
+        List<BookRecord> records = new ArrayList<>();
+        records.add(new BookRecord(book1));
+        records.add(new BookRecord(book2));
+        BookshelfSnapshot snapshot = new BookshelfSnapshot(records);
+
+        assertEquals(2, snapshot.getNumberOfBooks());
+        assertEquals(963, snapshot.getTotalPages());
+        assertEquals(659, snapshot.getTotalPagesRead());
+        assertEquals(42.2, snapshot.getTotalProgress());
+        assertEquals(1, snapshot.booksTaggedBy("Russian").size());
+        assertEquals("Meditation", snapshot.booksTaggedBy("Philosophy").get(0).getTitle());
+        assertTrue(snapshot.booksTaggedBy("History").isEmpty());
+        assertEquals(2, snapshot.toJson().getJSONArray("collectionOfBooks").length());
+    }
+
+    @Test
+    void testBookRecordKeepsWhenAddedAndReadingHistory() {
+        book1.restoreAddedAt(1234L);
+        BookRecord record = new BookRecord(book1);
+        book1.progressUpdate(700);
+
+        assertEquals(1234L, record.getAddedAt());
+        JSONObject json = record.toJson();
+        assertEquals(1234L, json.getLong("addedAt"));
+        assertEquals(1, json.getJSONObject("readingHistory").getInt("size"));
+        assertEquals(2, book1.toJson().getJSONObject("readingHistory").getInt("size"));
+
+        BookRecord restored = new BookRecord(2, "Meditation", 181, 90, List.of("Philosophy"), 5678L);
+        assertEquals(49.7, restored.getProgress());
+        assertEquals(5678L, restored.getAddedAt());
+        assertFalse(restored.toJson().has("readingHistory"));
+    }
+}
@@ -3,6 +3,7 @@ package model;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -56,6 +57,109 @@ public class BookshelfTest {
         assertEquals("Capital", testBookShelf.getAllBooks().get(2).getTitle());
     }
 
+    @Test
+    void testAddBooks() {
+        book1.addGenreTag("Russian");
+        book2.progressUpdate(181);
+        testBookShelf.addBook(new Book(2, "Leviathan", 736));
+
+        testBookShelf.addBooks(List.of(book1, book2, book3));
+        assertEquals(4, testBookShelf.getNumberOfBooks());
+        assertEquals("Crime and Punishment", testBookShelf.getAllBooks().get(1).getTitle());
+        assertEquals("Capital", testBookShelf.getAllBooks().get(3).getTitle());
+
+        assertEquals(3, book1.getId());
+        assertEquals(4, book2.getId());
+        assertEquals(5, book3.getId());
+        assertEquals(book2, testBookShelf.getBookById(4));
+        assertEquals(book3, testBookShelf.booksTitled("Capital").get(0));
+        assertEquals(book1, testBookShelf.searchTitles("crime", 1).get(0));
+        assertEquals(1, testBookShelf.numOfBooksTaggedBy("Russian"));
+
+        assertEquals(3164, testBookShelf.getTotalPages());
+        assertEquals(181, testBookShelf.getTotalPagesRead());
+        assertEquals(1, testBookShelf.getNumberOfFinishedBooks());
+        assertEquals(25.0, testBookShelf.getTotalProgress());
+
+        book3.progressUpdate(1465);
+        assertEquals(50.0, testBookShelf.getTotalProgress());
+        assertEquals(2, testBookShelf.getNumberOfFinishedBooks());
+    }
+
+    @Test
+    void testAddBooksLogsOneEvent() {
+        EventLog.getInstance().clear();
+        testBookShelf.addBooks(List.of(book1, book2, book3));
+        testBookShelf.addBooks(List.of());
+
+        List<String> descriptions = new ArrayList<>();
+        for (Event next : EventLog.getInstance()) {
+            descriptions.add(next.getDescription());
+        }
+        assertEquals(2, descriptions.size());
+        assertEquals("Added 3 books to bookshelf!\n", descriptions.get(1));
+    }
+
+    @Test
+    void testAddBookAssignsIds() {
+        testBookShelf.addBook(book1);
+        testBookShelf.addBook(book2);
+
+        assertEquals(1, book1.getId());
+        assertEquals(2, book2.getId());
+        assertEquals(book1, testBookShelf.getBookById(1));
+        assertEquals(book2, testBookShelf.getBookById(2));
+        assertNull(testBookShelf.getBookById(3));
+    }
+
+    @Test
+    void testAddBookKeepsExistingIds() {
+        Book loaded1 = new Book(10, "The Brothers Karamazov", 742);
+        Book loaded2 = new Book(10, "Minds and Machines", 383);
+
+        testBookShelf.addBook(loaded1);
+        testBookShelf.addBook(book1);
+        testBookShelf.addBook(loaded2);
+
+        assertEquals(10, loaded1.getId());
+        assertEquals(11, book1.getId());
+        assertEquals(12, loaded2.getId());
+        assertEquals(loaded1, testBookShelf.getBookById(10));
+        assertEquals(loaded2, testBookShelf.getBookById(12));
+    }
+
+    @Test
+    void testBooksTitled() {
+        Book anotherCapital = new Book("Capital", 1000);
+        testBookShelf.addBook(book1);
+        testBookShelf.addBook(book3);
+        testBookShelf.addBook(anotherCapital);
+
+        assertTrue(testBookShelf.booksTitled("Meditation").isEmpty());
+        assertEquals(book1, testBookShelf.booksTitled("Crime and Punishment").get(0));
+
+        List<Book> capitals = testBookShelf.booksTitled("Capital");
+        assertEquals(2, capitals.size());
+        assertEquals(book3, capitals.get(0));
+        assertEquals(anotherCapital, capitals.get(1));
+    }
+
+    @Test
+    void testSearchTitles() {
+        Book book4 = new Book("Capitalism and Freedom", 202);
+        testBookShelf.addBook(book1);
+        testBookShelf.addBook(book4);
+        testBookShelf.addBook(book3);
+
+        List<Book> result = testBookShelf.searchTitles("CAPITAL", 10);
+        assertEquals(2, result.size());
+        assertEquals(book3, result.get(0));
+        assertEquals(book4, result.get(1));
+
+        assertEquals(book1, testBookShelf.searchTitles("punish", 10).get(0));
+        assertTrue(testBookShelf.searchTitles("Meditation", 10).isEmpty());
+    }
+
     @Test
     void testBooksTaggedByWhenNoBooks() {
         assertTrue(testBookShelf.booksTaggedBy("test").isEmpty());
@@ -197,6 +301,26 @@ public class BookshelfTest {
         assertEquals(2,testBookShelf.numOfBooksTaggedBy("German"));
     }
 
+    @Test
+    void testGenreTagAddedAfterBookIsOnBookshelf() {
+        book1.addGenreTag("Russian");
+        testBookShelf.addBook(book1);
+        testBookShelf.addBook(book2);
+
+        assertEquals(0, testBookShelf.numOfBooksTaggedBy("Philosophy"));
+
+        book2.addGenreTag("Philosophy");
+        book1.addGenreTag("Philosophy");
+        book1.addGenreTag("Philosophy");
+
+        assertEquals(2, testBookShelf.numOfBooksTaggedBy("Philosophy"));
+        List<Book> philosophyBooks = testBookShelf.booksTaggedBy("Philosophy");
+        assertEquals(2, philosophyBooks.size());
+        assertTrue(philosophyBooks.contains(book1));
+        assertTrue(philosophyBooks.contains(book2));
+        assertEquals(1, testBookShelf.numOfBooksTaggedBy("Russian"));
+    }
+
     @Test
     void testUpdateGenreInfoWhenNoBooks() {
         testBookShelf.updateGenreInfo();
@@ -289,6 +413,31 @@ public class BookshelfTest {
         assertTrue(genreList2.contains("Metaphysics"));
     }
 
+    @Test
+    void testGenreInfoIsCurrentWithoutUpdate() {
+        book1.addGenreTag("Russian");
+        testBookShelf.addBook(book1);
+        testBookShelf.addBook(book2);
+
+        List<String> genreList = testBookShelf.getAllGenres();
+        assertEquals(1, testBookShelf.getNumberOfGenres());
+
+        book2.addGenreTag("Philosophy");
+        book2.addGenreTag("Russian");
+        assertEquals(2, testBookShelf.getNumberOfGenres());
+        assertEquals("Russian", genreList.get(0));
+        assertEquals("Philosophy", genreList.get(1));
+
+        book1.removeGenreTag("Russian");
+        assertEquals(2, testBookShelf.getNumberOfGenres());
+        assertEquals(1, testBookShelf.numOfBooksTaggedBy("Russian"));
+
+        book2.removeGenreTag("Russian");
+        assertEquals(1, testBookShelf.getNumberOfGenres());
+        assertEquals("Philosophy", genreList.get(0));
+        assertEquals(0, testBookShelf.numOfBooksTaggedBy("Russian"));
+    }
+
     @Test
     void testTotalProgressUpdateWhenNoBooks() {
         testBookShelf.totalProgressUpdate();
@@ -349,4 +498,243 @@ public class BookshelfTest {
 
         assertEquals(54.0, testBookShelf.getTotalProgress()); // round down
     }
+
+    @Test
+    void testTotalProgressIsCurrentWithoutUpdate() {
+        testBookShelf.addBook(book1);
+        testBookShelf.addBook(book2);
+        assertEquals(0.0, testBookShelf.getTotalProgress());
+        assertEquals(963, testBookShelf.getTotalPages());
+
+        book1.progressUpdate(659);
+        assertEquals(42.2, testBookShelf.getTotalProgress());
+        assertEquals(659, testBookShelf.getTotalPagesRead());
+        assertEquals(0, testBookShelf.getNumberOfFinishedBooks());
+
+        book2.progressUpdate(181);
+        assertEquals(92.2, testBookShelf.getTotalProgress());
+        assertEquals(840, testBookShelf.getTotalPagesRead());
+        assertEquals(1, testBookShelf.getNumberOfFinishedBooks());
+
+        book2.progressUpdate(67);
+        assertEquals(60.7, testBookShelf.getTotalProgress());
+        assertEquals(0, testBookShelf.getNumberOfFinishedBooks());
+    }
+
+    @Test
+    void testReadingOrderViews() {
+        testBookShelf.addBook(book1);
+        testBookShelf.addBooks(List.of(book2, book3));
+        assertTrue(testBookShelf.booksWithProgressBetween(40, 60).isEmpty());
+
+        book1.progressUpdate(391);
+        book2.progressUpdate(181);
+        book3.progressUpdate(100);
+
+        assertEquals(List.of(book1, book3), testBookShelf.closestToFinishing(5));
+        assertEquals(List.of(book3), testBookShelf.mostNeglected(1));
+        assertEquals(List.of(book3, book1, book2), testBookShelf.mostNeglected(5));
+        assertEquals(List.of(book1), testBookShelf.booksWithProgressBetween(40, 60));
+        assertEquals(List.of(book1), testBookShelf.booksWithProgressBetween(50.0, 50.0));
+        assertEquals(List.of(book3, book1), testBookShelf.booksWithProgressBetween(0, 50));
+        assertEquals(List.of(book2, book1), testBookShelf.shortestBooks(2));
+        assertEquals(List.of(book3), testBookShelf.longestBooks(1));
+
+        book1.progressUpdate(782);
+        assertEquals(List.of(book3), testBookShelf.closestToFinishing(5));
+        assertTrue(testBookShelf.booksWithProgressBetween(40, 60).isEmpty());
+    }
+
+    @Test
+    void testProgressStatistics() {
+        testBookShelf.addBooks(List.of(book1, book2, book3));
+        assertEquals(3, testBookShelf.getNumberOfUnstartedBooks());
+        assertEquals(0.0, testBookShelf.getProgressPercentile(50));
+
+        book1.progressUpdate(391);
+        book2.progressUpdate(181);
+        assertEquals(1, testBookShelf.getNumberOfUnstartedBooks());
+        assertEquals(50.0, testBookShelf.getProgressPercentile(50));
+        assertEquals(100.0, testBookShelf.getProgressPercentile(100));
+        assertEquals(5000.0 / 3, testBookShelf.getProgressVariance(), 1e-9);
+        assertEquals(Math.sqrt(5000.0 / 3), testBookShelf.getProgressStandardDeviation(), 1e-9);
+        assertArrayEquals(new int[] {1, 0, 1, 1}, testBookShelf.getProgressDistribution(4));
+
+        book2.progressUpdate(0);
+        assertEquals(2, testBookShelf.getNumberOfUnstartedBooks());
+        assertEquals(0.0, testBookShelf.getProgressPercentile(50));
+        assertArrayEquals(new int[] {2, 0, 1, 0}, testBookShelf.getProgressDistribution(4));
+    }
+
+    @Test
+    void testStateAsOf() {
+        long before = System.currentTimeMillis();
+        book1.addGenreTag("Russian");
+        testBookShelf.addBook(book1);
+        testBookShelf.addBooks(List.of(book2, book3));
+        long added = System.currentTimeMillis();
+
+        long later = added + 60_000;
+        book1.progressUpdate(391, later);
+        book2.progressUpdate(181, later + 1);
+        book3.addGenreTag("Marxism");
+
+        assertEquals(0, testBookShelf.stateAsOf(before - 1).getNumberOfBooks());
+        assertTrue(book1.getAddedAt() >= before && book1.getAddedAt() <= book2.getAddedAt());
+
+        ShelfState state = testBookShelf.stateAsOf(added);
+        assertEquals(3, state.getNumberOfBooks());
+        assertEquals(0, state.getTotalPagesRead());
+        assertEquals(1, state.numOfBooksTaggedBy("Russian"));
+        assertEquals(0.0, book1.progressAsOf(added));
+
+        state = testBookShelf.stateAsOf(later);
+        assertEquals(391, state.getTotalPagesRead());
+        assertEquals(16.7, state.getTotalProgress());
+        assertEquals(50.0, book1.progressAsOf(later));
+        assertEquals(391, book1.pagesReadAsOf(later));
+
+        state = testBookShelf.stateAsOf(later + 1);
+        assertEquals(572, state.getTotalPagesRead());
+        assertEquals(1, state.getNumberOfFinishedBooks());
+        assertEquals(0, testBookShelf.stateAsOf(later).numOfBooksTaggedBy("Marxism"));
+        assertEquals(testBookShelf.getTotalProgress(), testBookShelf.stateAsOf(Long.MAX_VALUE).getTotalProgress());
+        assertEquals(1, testBookShelf.stateAsOf(Long.MAX_VALUE).numOfBooksTaggedBy("Marxism"));
+    }
+
+    @Test
+    void testEventLog() {
+        assertSame(EventLog.getInstance(), testBookShelf.getEventLog());
+        EventLog log = EventLog.newLog();
+        testBookShelf.setEventLog(log);
+        assertSame(log, testBookShelf.getEventLog());
+
+        testBookShelf.addBook(book1);
+        book1.progressUpdate(100);
+        testBookShelf.addBooks(List.of(book2, book3));
+        List<String> descriptions = new ArrayList<>();
+        for (Event next : log) {
+            descriptions.add(next.getDescription());
+        }
+        assertEquals(3, descriptions.size());
+        assertEquals("Added <Crime and Punishment> to bookshelf!\n", descriptions.get(0));
+        assertTrue(descriptions.get(1).startsWith("Progress of <Crime and Punishment>"));
+        assertEquals("Added 2 books to bookshelf!\n", descriptions.get(2));
+    }
+
+    @Test
+    void testEstimateMemoryUsage() {
+        assertEquals(0, testBookShelf.estimateMemoryUsage());
+
+        testBookShelf.addBook(book1);
+        long oneBook = testBookShelf.estimateMemoryUsage();
+        assertTrue(oneBook > 0);
+
+        book1.addGenreTag("Russian");
+        long tagged = testBookShelf.estimateMemoryUsage();
+        assertTrue(tagged > oneBook);
+
+        book1.progressUpdate(100);
+        assertTrue(testBookShelf.estimateMemoryUsage() > tagged);
+
+        testBookShelf.addBook(book2);
+        assertTrue(testBookShelf.estimateMemoryUsage() > tagged + oneBook / 2);
+    }
+
+    @Test
+    void testSnapshot() {
+        testBookShelf.addBook(book1);
+        BookshelfSnapshot first = testBookShelf.snapshot();
+        assertTrue(first.hasSameBooksAs(testBookShelf.snapshot()));
+        assertEquals(1, first.getNumberOfBooks());
+
+        book1.progressUpdate(659);
+        testBookShelf.addBook(book2);
+        BookshelfSnapshot second = testBookShelf.snapshot();
+        assertFalse(second.hasSameBooksAs(first));
+        assertEquals(0, first.getAllBooks().get(0).getPagesRead());
+        assertEquals(659, second.getAllBooks().get(0).getPagesRead());
+        assertEquals("Meditation", second.getAllBooks().get(1).getTitle());
+        assertEquals(testBookShelf.getTotalProgress(), second.getTotalProgress());
+        assertEquals(963, second.getTotalPages());
+        assertEquals(659, second.getTotalPagesRead());
+    }
+
+    @Test
+    void testRestore() {
+        testBookShelf.addBook(book1);
+        testBookShelf.addBook(book2);
+        book2.addGenreTag("Philosophy");
+        BookshelfSnapshot snapshot = testBookShelf.snapshot();
+
+        book1.progressUpdate(782);
+        book2.removeGenreTag("Philosophy");
+        book2.addGenreTag("Stoicism");
+        testBookShelf.addBook(book3);
+        testBookShelf.restore(snapshot);
+
+        assertEquals(2, testBookShelf.getNumberOfBooks());
+        assertNull(testBookShelf.getBookById(book3.getId()));
+        assertTrue(testBookShelf.booksTitled("Capital").isEmpty());
+        assertEquals(0, book1.getPagesRead());
+        assertEquals(0, testBookShelf.getNumberOfFinishedBooks());
+        assertEquals(List.of("Philosophy"), book2.getGenreTags());
+        assertEquals(List.of("Philosophy"), testBookShelf.getAllGenres());
+        assertEquals(List.of(book1, book2), testBookShelf.mostNeglected(5));
+        assertEquals(963, testBookShelf.getTotalPages());
+
+        testBookShelf.addBook(new Book("Capital", 1465));
+        assertEquals(3, testBookShelf.getNumberOfBooks());
+        assertEquals(1, testBookShelf.booksTitled("Capital").size());
+    }
+
+    @Test
+    void testReplay() {
+        EventLog log = EventLog.newLog();
+        testBookShelf.setEventLog(log);
+        testBookShelf.addBook(book1);
+        book1.progressUpdate(100);
+        testBookShelf.addBooks(List.of(book2, book3));
+        book2.addGenreTag("Philosophy");
+        book3.addGenreTag("Marxism");
+        book3.removeGenreTag("Marxism");
+        BookshelfSnapshot snapshot = testBookShelf.snapshot();
+        testBookShelf.addBook(new Book("Das Kapital", 1152));
+        testBookShelf.restore(snapshot);
+
+        Bookshelf replayed = new Bookshelf();
+        replayed.setEventLog(EventLog.newLog());
+        for (Event event : log) {
+            assertTrue(replayed.replay(event));
+        }
+        assertTrue(testBookShelf.toJson().similar(replayed.toJson()));
+        assertEquals(List.of("Philosophy"), replayed.getAllGenres());
+
+        Event first = log.iterator().next();
+        assertFalse(replayed.replay(first));
+        for (Event event : log) {
+            replayed.replay(event);
+        }
+        assertTrue(testBookShelf.toJson().similar(replayed.toJson()));
+        assertFalse(replayed.replay(new Event("Sensor open at door")));
+    }
+
+    @Test
+    void testAddBooksAtDebugLevel() {
+        EventLog log = EventLog.newLog();
+        testBookShelf.setEventLog(log);
+        testBookShelf.addBooks(List.of(book1, book2), EventLevel.DEBUG);
+        assertEquals(2, testBookShelf.getNumberOfBooks());
+        assertEquals(0, log.size());
+
+        log.setLevel(EventCategory.BOOKSHELF, EventLevel.DEBUG);
+        testBookShelf.addBooks(List.of(book3), EventLevel.DEBUG);
+        assertEquals(1, log.size());
+
+        log.setLevel(EventCategory.PROGRESS, EventLevel.WARNING);
+        book1.progressUpdate(100);
+        assertEquals(1, log.size());
+        assertEquals(100, book1.getPagesRead());
+        assertEquals(100, testBookShelf.getTotalPagesRead());
+    }
 }
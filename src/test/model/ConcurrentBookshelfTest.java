@@ -0,0 +1,186 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentBookshelfTest {
+
+    private static final int WRITERS = 8;
+    private static final int READERS = 4;
+    private static final int BOOKS_PER_WRITER = 300;
+    private static final int ROUNDS = 5;
+    private static final int PAGES = 500;
+
+    private ConcurrentBookshelf testBookShelf;
+
+    @BeforeEach
+    void runBefore() {
+        testBookShelf = new ConcurrentBookshelf();
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, testBookShelf.getNumberOfBooks());
+        assertEquals(0, testBookShelf.snapshot().getNumberOfBooks());
+        assertNull(testBookShelf.getBookById(1));
+    }
+
+    @Test
+    void testAddBookAndUpdates() {
+        Book book1 = new Book("Crime and Punishment", 782);
+        Book book2 = new Book(7, "Capital", 1465);
+
+        assertEquals(1, testBookShelf.addBook(book1));
+        assertEquals(7, testBookShelf.addBook(book2));
+        assertEquals(2, testBookShelf.getNumberOfBooks());
+
+        assertTrue(testBookShelf.progressUpdate(1, 659));
+        assertTrue(testBookShelf.addGenreTag(7, "Marxism"));
+        assertFalse(testBookShelf.progressUpdate(3, 10));
+        assertFalse(testBookShelf.addGenreTag(3, "Russian"));
+
+        assertEquals(659, testBookShelf.getBookById(1).getPagesRead());
+        assertEquals(84.3, testBookShelf.getBookById(1).getProgress());
+        assertTrue(testBookShelf.getBookById(7).containsGenreTag("Marxism"));
+        assertNull(testBookShelf.getBookById(3));
+    }
+
+    @Test
+    void testSnapshotDoesNotChange() {
+        testBookShelf.addBook(new Book("Crime and Punishment", 782));
+        BookshelfSnapshot before = testBookShelf.snapshot();
+
+        testBookShelf.progressUpdate(1, 659);
+        testBookShelf.addBook(new Book("Meditation", 181));
+        BookshelfSnapshot after = testBookShelf.snapshot();
+
+        assertEquals(1, before.getNumberOfBooks());
+        assertEquals(0, before.getAllBooks().get(0).getPagesRead());
+        assertEquals(0.0, before.getTotalProgress());
+
+        assertEquals(2, after.getNumberOfBooks());
+        assertEquals(659, after.getAllBooks().get(0).getPagesRead());
+        assertEquals(42.2, after.getTotalProgress());
+    }
+
+    @Test
+    void testManyWritersAndReaders() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        List<Future<List<Integer>>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            final int writer = w;
+            writers.add(executor.submit(() -> write(writer, start)));
+        }
+        List<Future<Integer>> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            readers.add(executor.submit(() -> read(start, writing)));
+        }
+
+        start.countDown();
+        Set<Integer> ids = new HashSet<>();
+        for (Future<List<Integer>> next : writers) {
+            ids.addAll(next.get(60, TimeUnit.SECONDS));
+        }
+        writing.set(false);
+        for (Future<Integer> next : readers) {
+            assertTrue(next.get(60, TimeUnit.SECONDS) > 0);
+        }
+        executor.shutdown();
+
+        BookshelfSnapshot last = testBookShelf.snapshot();
+        assertEquals(WRITERS * BOOKS_PER_WRITER, ids.size());
+        assertEquals(WRITERS * BOOKS_PER_WRITER, last.getNumberOfBooks());
+        for (BookRecord next : last.getAllBooks()) {
+            assertEquals(PAGES, next.getPagesRead());
+            assertTrue(next.containsGenreTag("Round " + (ROUNDS - 1)));
+        }
+        assertEquals(100.0, last.getTotalProgress());
+        assertEquals(last.getTotalPages(), last.getTotalPagesRead());
+    }
+
+    @Test
+    void testSnapshotIsConsistentAcrossBooks() throws Exception {
+        int first = testBookShelf.addBook(new Book("Crime and Punishment", PAGES));
+        int second = testBookShelf.addBook(new Book("Meditation", PAGES));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> writer = executor.submit(() -> {
+            for (int page = 1; page <= PAGES; page++) {
+                testBookShelf.progressUpdate(first, page);
+                testBookShelf.progressUpdate(second, page);
+            }
+        });
+
+        while (!writer.isDone()) {
+            BookshelfSnapshot snapshot = testBookShelf.snapshot();
+            int firstPagesRead = snapshot.getAllBooks().get(0).getPagesRead();
+            int secondPagesRead = snapshot.getAllBooks().get(1).getPagesRead();
+            assertTrue(firstPagesRead == secondPagesRead || firstPagesRead == secondPagesRead + 1);
+            assertEquals(firstPagesRead + secondPagesRead, snapshot.getTotalPagesRead());
+        }
+        writer.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertEquals(2 * PAGES, testBookShelf.snapshot().getTotalPagesRead());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: add this writer's books, then move all of them forward a round at a time;
+    //      return the IDs the bookshelf gave them
+    private List<Integer> write(int writer, CountDownLatch start) throws InterruptedException {
+        start.await();
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < BOOKS_PER_WRITER; i++) {
+            ids.add(testBookShelf.addBook(new Book("Writer " + writer + " Book " + i, PAGES)));
+        }
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int id : ids) {
+                assertTrue(testBookShelf.progressUpdate(id, (round + 1) * PAGES / ROUNDS));
+                assertTrue(testBookShelf.addGenreTag(id, "Round " + round));
+            }
+        }
+        return ids;
+    }
+
+    // EFFECTS: take snapshots until the writers are done, checking that every snapshot agrees with itself
+    //      and that no book ever goes back in time between snapshots; return how many snapshots were taken
+    private int read(CountDownLatch start, AtomicBoolean writing) throws InterruptedException {
+        start.await();
+        Map<Integer, Integer> lastPagesRead = new HashMap<>();
+        int lastSize = 0;
+        int snapshots = 0;
+        do {
+            BookshelfSnapshot snapshot = testBookShelf.snapshot();
+            assertTrue(snapshot.getNumberOfBooks() >= lastSize);
+            lastSize = snapshot.getNumberOfBooks();
+
+            long pagesRead = 0;
+            for (BookRecord next : snapshot.getAllBooks()) {
+                assertTrue(next.getPagesRead() <= next.getTotalPages());
+                Integer before = lastPagesRead.put(next.getId(), next.getPagesRead());
+                assertTrue(before == null || before <= next.getPagesRead());
+                pagesRead += next.getPagesRead();
+            }
+            assertEquals(pagesRead, snapshot.getTotalPagesRead());
+            assertEquals(snapshot.getNumberOfBooks(), snapshot.toJson().getJSONArray("collectionOfBooks").length());
+            snapshots++;
+        } while (writing.get());
+        return snapshots;
+    }
+}
@@ -0,0 +1,97 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventIndexTest {
+
+    private EventIndex testIndex;
+
+    @BeforeEach
+    void runBefore() {
+        testIndex = new EventIndex();
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, testIndex.end());
+        assertTrue(testIndex.between(Long.MIN_VALUE, Long.MAX_VALUE).isEmpty());
+        assertTrue(testIndex.about(1, Long.MIN_VALUE, Long.MAX_VALUE).isEmpty());
+        assertEquals(0, testIndex.getNumberOfBooks());
+    }
+
+    @Test
+    void testOutOfOrderTimestamps() {
+        testIndex.add(0, eventAbout(1, 100L));
+        testIndex.add(1, eventAbout(2, 300L));
+        testIndex.add(2, eventAbout(1, 120L));
+        testIndex.add(3, eventAbout(1, 400L));
+
+        assertEquals(4, testIndex.end());
+        assertEquals(List.of(300L, 120L), timestampsOf(testIndex.between(110L, 300L)));
+        assertEquals(List.of(100L, 120L), timestampsOf(testIndex.about(1, 0L, 200L)));
+        assertEquals(List.of(400L), timestampsOf(testIndex.about(1, 200L, Long.MAX_VALUE)));
+        assertEquals(2, testIndex.getNumberOfBooks());
+    }
+
+    @Test
+    void testDropBeforeAndMakeRoom() {
+        for (int i = 0; i < 1000; i++) {
+            testIndex.add(i, eventAbout(i < 10 ? 1 : 2, i));
+            testIndex.dropBefore(i - 99);
+        }
+        assertEquals(1000, testIndex.end());
+        assertEquals(100, testIndex.between(0, Long.MAX_VALUE).size());
+        assertTrue(testIndex.about(1, 0, Long.MAX_VALUE).isEmpty());
+        assertEquals(1, testIndex.getNumberOfBooks());
+        assertEquals(List.of(950L), timestampsOf(testIndex.about(2, 950L, 950L)));
+    }
+
+    @Test
+    void testSkippedEventsReset() {
+        testIndex.add(0, eventAbout(1, 100L));
+        testIndex.add(5, eventAbout(2, 50L));
+        assertEquals(6, testIndex.end());
+        assertEquals(List.of(50L), timestampsOf(testIndex.between(0, Long.MAX_VALUE)));
+        assertTrue(testIndex.about(1, 0, Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void testLateEventDroppedWithRetention() {
+        testIndex.add(0, eventAbout(1, 1000L));
+        testIndex.add(1, eventAbout(1, 10L));
+        for (int i = 2; i < 300; i++) {
+            testIndex.add(i, eventAbout(2, 1000L + i));
+        }
+        assertEquals(List.of(10L), timestampsOf(testIndex.between(0L, 999L)));
+        assertEquals(List.of(1000L, 10L), timestampsOf(testIndex.about(1, 0L, 1000L)));
+        assertEquals(List.of(1002L, 1003L), timestampsOf(testIndex.between(1002L, 1003L)));
+
+        testIndex.dropBefore(2);
+        assertTrue(testIndex.between(0L, 1001L).isEmpty());
+        assertTrue(testIndex.about(1, Long.MIN_VALUE, Long.MAX_VALUE).isEmpty());
+        testIndex.add(300, eventAbout(2, 1300L));
+        assertEquals(List.of(1299L, 1300L), timestampsOf(testIndex.between(1299L, Long.MAX_VALUE)));
+    }
+
+    @Test
+    void testEmptyTimeRange() {
+        testIndex.add(0, eventAbout(1, 100L));
+        testIndex.add(1, eventAbout(1, 50L));
+        assertTrue(testIndex.between(200L, 0L).isEmpty());
+        assertTrue(testIndex.about(1, 200L, 0L).isEmpty());
+    }
+
+    private static Event eventAbout(int bookId, long timestamp) {
+        return Event.restore(EventType.PROGRESS_UPDATED, timestamp, "Book " + bookId, bookId, 0, 1, 100, 1,
+                null, List.of());
+    }
+
+    private static List<Long> timestampsOf(List<Event> events) {
+        return events.stream().map(Event::getTimestamp).toList();
+    }
+}
@@ -0,0 +1,82 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Benchmarks logging events from several threads at once, comparing EventLog with a log that appends
+// to a list under one lock, as EventLog did before it became lock-free.
+// Each round, every thread logs the same number of events to a new log; after some rounds to warm up,
+// the median of the measured rounds is reported with the slowest and fastest of them.
+// Every configuration runs in the same JVM, one after another, so it measures no more than a rough
+// comparison on the machine at hand; it is not evidence that either log scales with the number of threads.
+// Run with: java model.EventLogBenchmark [events per thread]
+public class EventLogBenchmark {
+
+    private static final int[] THREADS = {1, 2, 4, 8};
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    // Represents where the benchmarked threads log their events to
+    private interface Sink {
+        void logEvent(Event e);
+    }
+
+    // Represents a log that appends every event to a list under one lock
+    private static class LockedLog implements Sink {
+        private final List<Event> events = new ArrayList<>();
+
+        @Override
+        public synchronized void logEvent(Event e) {
+            events.add(e);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int eventsPerThread = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        Event event = new Event("Progress of <Capital> on bookshelf updated");
+        System.out.println("available processors: " + Runtime.getRuntime().availableProcessors());
+        System.out.println("threads, locked list (events/ms: median [min-max]), lock-free EventLog (same)");
+        for (int threads : THREADS) {
+            String locked = measure(LockedLog::new, threads, eventsPerThread, event);
+            String lockFree = measure(() -> EventLog.newLog()::logEvent, threads, eventsPerThread, event);
+            System.out.println(threads + ", " + locked + ", " + lockFree);
+        }
+    }
+
+    // EFFECTS: return the median, slowest and fastest events logged per millisecond in the measured rounds
+    private static String measure(Supplier<Sink> sinks, int threads, int eventsPerThread, Event event)
+            throws InterruptedException {
+        double[] rates = new double[ROUNDS];
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long nanos = timeRound(sinks.get(), threads, eventsPerThread, event);
+            if (round >= WARMUP_ROUNDS) {
+                rates[round - WARMUP_ROUNDS] = (double) threads * eventsPerThread * 1000000 / nanos;
+            }
+        }
+        Arrays.sort(rates);
+        return String.format("%.0f [%.0f-%.0f]", rates[ROUNDS / 2], rates[0], rates[ROUNDS - 1]);
+    }
+
+    // EFFECTS: return the nanoseconds it takes the threads to each log the event so many times to the sink
+    private static long timeRound(Sink sink, int threads, int eventsPerThread, Event event)
+            throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(() -> {
+                for (int j = 0; j < eventsPerThread; j++) {
+                    sink.logEvent(event);
+                }
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -3,9 +3,14 @@ package model;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -51,4 +56,455 @@ public class EventLogTest {
 		assertEquals("Event log cleared.", itr.next().getDescription());
 		assertFalse(itr.hasNext());
 	}
+
+	@Test
+	public void testNewLog() {
+		EventLog log = EventLog.newLog();
+		assertNotSame(EventLog.getInstance(), log);
+		assertFalse(log.iterator().hasNext());
+
+		Event e4 = new Event("A4");
+		log.logEvent(e4);
+		Iterator<Event> itr = log.iterator();
+		assertEquals(e4, itr.next());
+		assertFalse(itr.hasNext());
+		for (Event next : EventLog.getInstance()) {
+			assertNotEquals(e4, next);
+		}
+	}
+
+	@Test
+	public void testMaxEvents() {
+		EventLog log = EventLog.newLog();
+		log.setMaxEvents(3);
+		List<Event> logged = new ArrayList<Event>();
+		for (int i = 0; i < 50; i++) {
+			Event e = new Event("E" + i);
+			logged.add(e);
+			log.logEvent(e);
+		}
+		assertEquals(3, log.size());
+		assertEquals(47, log.getDroppedByCount());
+		assertEquals(47, log.getDroppedEvents());
+		assertEquals(logged.subList(47, 50), toList(log));
+
+		log.setMaxEvents(100);
+		log.logEvent(e1);
+		assertEquals(4, log.size());
+		log.setMaxEvents(2);
+		assertEquals(List.of(logged.get(49), e1), toList(log));
+		assertEquals(49, log.getDroppedByCount());
+	}
+
+	@Test
+	public void testMaxBytes() {
+		EventLog log = EventLog.newLog();
+		log.logEvent(e1);
+		log.logEvent(e2);
+		long bytesOfTwo = log.getRetainedBytes();
+		assertTrue(bytesOfTwo > 0);
+		log.logEvent(e3);
+		log.setMaxBytes(bytesOfTwo);
+		assertEquals(List.of(e2, e3), toList(log));
+		assertEquals(1, log.getDroppedBySize());
+		assertEquals(bytesOfTwo, log.getRetainedBytes());
+
+		log.setMaxBytes(0);
+		assertEquals(List.of(e3), toList(log));
+		assertEquals(2, log.getDroppedEvents());
+	}
+
+	@Test
+	public void testMaxBytesCountsBookRecords() {
+		List<Book> books = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			books.add(new Book("Book " + i, 100));
+		}
+		EventLog log = EventLog.newLog();
+		log.logEvent(Event.booksAdded(1));
+		long withoutRecords = log.getRetainedBytes();
+		log.logEvent(Event.booksAdded(books));
+		assertTrue(log.getRetainedBytes() - withoutRecords > 1000 * 100);
+
+		log.setMaxBytes(2 * withoutRecords);
+		assertEquals(1, log.size());
+		assertEquals(1, log.getDroppedBySize());
+		log.logEvent(Event.booksAdded(1));
+		assertEquals(1, log.size());
+		assertEquals(withoutRecords, log.getRetainedBytes());
+	}
+
+	@Test
+	public void testMaxAge() throws InterruptedException {
+		EventLog log = EventLog.newLog();
+		log.setMaxAge(60000);
+		log.logEvent(e1);
+		Thread.sleep(20);
+		Event e4 = new Event("A4");
+		log.logEvent(e4);
+		assertEquals(2, log.size());
+
+		log.setMaxAge(10);
+		assertEquals(List.of(e4), toList(log));
+		assertEquals(1, log.getDroppedByAge());
+		assertEquals(0, log.getDroppedByCount());
+	}
+
+	@Test
+	public void testClearKeepsDroppedCounts() {
+		EventLog log = EventLog.newLog();
+		log.setMaxEvents(1);
+		log.logEvent(e1);
+		log.logEvent(e2);
+		log.clear();
+		assertEquals(1, log.size());
+		assertEquals(1, log.getDroppedByCount());
+	}
+
+	private List<Event> toList(EventLog log) {
+		List<Event> events = new ArrayList<Event>();
+		for (Event next : log) {
+			events.add(next);
+		}
+		return events;
+	}
+
+	@Test
+	public void testGetInstanceFromManyThreads() throws InterruptedException {
+		EventLog[] seen = new EventLog[8];
+		Thread[] threads = new Thread[seen.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int index = i;
+			threads[i] = new Thread(() -> seen[index] = EventLog.getInstance());
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		for (EventLog log : seen) {
+			assertSame(EventLog.getInstance(), log);
+		}
+	}
+
+	@Test
+	public void testLogEventFromManyThreads() throws InterruptedException {
+		EventLog log = EventLog.newLog();
+		logFromManyThreads(log, 8, 5000);
+		assertEquals(40000, log.size());
+		assertEquals(0, log.getDroppedEvents());
+
+		Set<String> descriptions = new HashSet<String>();
+		for (Event next : log) {
+			descriptions.add(next.getDescription());
+		}
+		assertEquals(40000, descriptions.size());
+		assertTrue(descriptions.contains("T7 E4999"));
+	}
+
+	@Test
+	public void testLogEventFromManyThreadsWithMaxEvents() throws InterruptedException {
+		EventLog log = EventLog.newLog();
+		log.setMaxEvents(1000);
+		logFromManyThreads(log, 8, 5000);
+		assertEquals(1000, log.size());
+		assertEquals(39000, log.getDroppedByCount());
+		assertEquals(1000, toList(log).size());
+	}
+
+	@Test
+	public void testSinks() {
+		EventLog log = EventLog.newLog();
+		List<Event> handed = new ArrayList<Event>();
+		EventSink sink = handed::add;
+		log.addSink(sink);
+		log.logEvent(e1);
+		log.setMaxEvents(1);
+		log.logEvent(e2);
+		log.removeSink(sink);
+		log.logEvent(e3);
+		assertEquals(List.of(e1, e2), handed);
+		assertEquals(List.of(e3), toList(log));
+	}
+
+	private void logFromManyThreads(EventLog log, int numberOfThreads, int eventsPerThread)
+			throws InterruptedException {
+		Thread[] threads = new Thread[numberOfThreads];
+		for (int i = 0; i < threads.length; i++) {
+			final int thread = i;
+			threads[i] = new Thread(() -> {
+				for (int j = 0; j < eventsPerThread; j++) {
+					log.logEvent(new Event("T" + thread + " E" + j));
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+	}
+
+	@Test
+	public void testEventsBetween() {
+		EventLog log = EventLog.newLog();
+		Event early = restoreMessage("Early", 1000L);
+		Event middle = restoreMessage("Middle", 2000L);
+		Event late = restoreMessage("Late", 3000L);
+		Event behind = restoreMessage("Logged late", 1500L);
+		log.logEvent(early);
+		log.logEvent(middle);
+		log.logEvent(late);
+		log.logEvent(behind);
+
+		assertEquals(List.of(early, middle, late, behind), log.eventsBetween(0, Long.MAX_VALUE));
+		assertEquals(List.of(middle, behind), log.eventsBetween(1500L, 2000L));
+		assertEquals(List.of(late), log.eventsBetween(2001L, 5000L));
+		assertTrue(log.eventsBetween(4000L, 5000L).isEmpty());
+
+		Event later = restoreMessage("Later", 4000L);
+		log.logEvent(later);
+		assertEquals(List.of(later), log.eventsBetween(4000L, 5000L));
+	}
+
+	@Test
+	public void testEventsAbout() {
+		EventLog log = EventLog.newLog();
+		Bookshelf bookshelf = new Bookshelf();
+		bookshelf.setEventLog(log);
+		Book capital = new Book("Capital", 1465);
+		Book meditation = new Book("Meditation", 181);
+		bookshelf.addBook(capital);
+		bookshelf.addBooks(List.of(meditation, new Book("Crime and Punishment", 782)));
+		capital.progressUpdate(100, 1000L);
+		meditation.progressUpdate(50, 2000L);
+		capital.progressUpdate(200, 3000L);
+		capital.addGenreTag("Economics");
+
+		List<Event> aboutCapital = log.eventsAbout(capital.getId());
+		assertEquals(4, aboutCapital.size());
+		assertEquals(EventType.BOOK_ADDED, aboutCapital.get(0).getType());
+		assertEquals(EventType.GENRE_TAG_ADDED, aboutCapital.get(3).getType());
+		assertEquals(2, log.eventsAbout(meditation.getId()).size());
+		assertEquals(EventType.BOOKS_ADDED, log.eventsAbout(meditation.getId()).get(0).getType());
+
+		List<Event> updates = log.eventsAbout(capital.getId(), 500L, 3000L);
+		assertEquals(2, updates.size());
+		assertEquals(100, updates.get(0).getNewPage());
+		assertEquals(200, updates.get(1).getNewPage());
+		assertTrue(log.eventsAbout(99).isEmpty());
+	}
+
+	@Test
+	public void testEventsAboutSharedByBookshelvesOnOneLog() {
+		EventLog log = EventLog.newLog();
+		Bookshelf first = new Bookshelf();
+		first.setEventLog(log);
+		Bookshelf second = new Bookshelf();
+		second.setEventLog(log);
+		first.addBook(new Book(1, "Capital", 1465));
+		second.addBook(new Book(1, "Meditation", 181));
+
+		List<Event> about = log.eventsAbout(1);
+		assertEquals(2, about.size());
+		assertEquals("Capital", about.get(0).getTitle());
+		assertEquals("Meditation", about.get(1).getTitle());
+
+		EventLog own = EventLog.newLog();
+		second.setEventLog(own);
+		second.addBook(new Book(2, "Crime and Punishment", 782));
+		assertTrue(log.eventsAbout(2).isEmpty());
+		assertEquals(1, own.eventsAbout(2).size());
+	}
+
+	@Test
+	public void testIndexFollowsRetention() {
+		EventLog log = EventLog.newLog();
+		log.setMaxEvents(100);
+		Book book = new Book(7, "Capital", 1465);
+		for (int i = 1; i <= 1000; i++) {
+			log.logEvent(Event.progressUpdated(book, i - 1, i));
+			if (i % 150 == 0) {
+				assertEquals(100, log.eventsBetween(0, Long.MAX_VALUE).size());
+			}
+		}
+		List<Event> about = log.eventsAbout(7);
+		assertEquals(100, about.size());
+		assertEquals(901L, about.get(0).getTimestamp());
+		assertEquals(List.of(about.get(99)), log.eventsAbout(7, 1000L, 1000L));
+		assertTrue(log.eventsBetween(0, 900L).isEmpty());
+
+		log.clear();
+		assertTrue(log.eventsAbout(7).isEmpty());
+		assertEquals(1, log.eventsBetween(0, Long.MAX_VALUE).size());
+	}
+
+	@Test
+	public void testDroppedEventsCollectedWithoutSearching() throws InterruptedException {
+		EventLog log = EventLog.newLog();
+		log.setMaxEvents(10);
+		log.eventsBetween(0, Long.MAX_VALUE);
+		WeakReference<Event> first = logWeakly(log, new Event("First"));
+		for (int i = 0; i < 10000; i++) {
+			log.logEvent(new Event("Event " + i));
+		}
+		for (int i = 0; i < 100 && first.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(first.get());
+		assertEquals(10, log.eventsBetween(0, Long.MAX_VALUE).size());
+	}
+
+	private static WeakReference<Event> logWeakly(EventLog log, Event e) {
+		log.logEvent(e);
+		return new WeakReference<>(e);
+	}
+
+	@Test
+	public void testIndexMatchesScan() {
+		EventLog log = EventLog.newLog();
+		Random random = new Random(210);
+		for (int i = 0; i < 5000; i++) {
+			long timestamp = i * 10L + random.nextInt(40);
+			log.logEvent(Event.restore(EventType.PROGRESS_UPDATED, timestamp, "Book " + i % 17, 1 + i % 17,
+					0, 1, 100, 1, null, List.of()));
+			if (i % 997 == 0) {
+				log.eventsBetween(0, 0);
+			}
+		}
+		for (int q = 0; q < 50; q++) {
+			long from = random.nextInt(50000);
+			long to = from + random.nextInt(5000);
+			int bookId = 1 + random.nextInt(17);
+			List<Event> between = new ArrayList<>();
+			List<Event> about = new ArrayList<>();
+			for (Event next : log) {
+				if (next.getTimestamp() >= from && next.getTimestamp() <= to) {
+					between.add(next);
+					if (next.getBookId() == bookId) {
+						about.add(next);
+					}
+				}
+			}
+			assertEquals(between, log.eventsBetween(from, to));
+			assertEquals(about, log.eventsAbout(bookId, from, to));
+		}
+	}
+
+	private static Event restoreMessage(String text, long timestamp) {
+		return Event.restore(EventType.MESSAGE, timestamp, text, Book.NO_ID, 0, 0, 0, 0, null, List.of());
+	}
+
+	@Test
+	public void testLevels() {
+		EventLog log = EventLog.newLog();
+		assertTrue(log.isEnabled(EventCategory.PROGRESS, EventLevel.INFO));
+		assertFalse(log.isEnabled(EventCategory.PROGRESS, EventLevel.DEBUG));
+		assertFalse(log.shouldLog(EventCategory.PROGRESS, EventLevel.DEBUG));
+
+		log.setLevel(EventCategory.PROGRESS, EventLevel.DEBUG);
+		assertTrue(log.shouldLog(EventCategory.PROGRESS, EventLevel.DEBUG));
+		log.setLevel(EventCategory.GENRE, EventLevel.WARNING);
+		assertFalse(log.shouldLog(EventCategory.GENRE, EventLevel.INFO));
+		assertTrue(log.shouldLog(EventCategory.GENRE, EventLevel.WARNING));
+		assertTrue(log.shouldLog(EventCategory.BOOKSHELF, EventLevel.INFO));
+		assertEquals(0, log.getSuppressedEvents(EventCategory.GENRE));
+	}
+
+	@Test
+	public void testSampling() {
+		EventLog log = EventLog.newLog();
+		log.setSampling(EventCategory.PROGRESS, 10);
+		int logged = 0;
+		for (int i = 0; i < 1000; i++) {
+			if (log.shouldLog(EventCategory.PROGRESS, EventLevel.INFO)) {
+				logged++;
+			}
+		}
+		assertEquals(100, logged);
+		assertEquals(900, log.getSuppressedEvents(EventCategory.PROGRESS));
+		assertTrue(log.shouldLog(EventCategory.PROGRESS, EventLevel.WARNING));
+		assertEquals(0, log.getSuppressedEvents(EventCategory.BOOKSHELF));
+	}
+
+	@Test
+	public void testRateLimit() {
+		EventLog log = EventLog.newLog();
+		log.setRateLimit(EventCategory.BOOKSHELF, 5);
+		long second = System.currentTimeMillis() / 1000;
+		int logged = 0;
+		for (int i = 0; i < 100; i++) {
+			if (log.shouldLog(EventCategory.BOOKSHELF, EventLevel.INFO)) {
+				logged++;
+			}
+		}
+		if (System.currentTimeMillis() / 1000 == second) {
+			assertEquals(5, logged);
+			assertEquals(95, log.getSuppressedEvents(EventCategory.BOOKSHELF));
+		}
+		assertTrue(log.shouldLog(EventCategory.BOOKSHELF, EventLevel.WARNING));
+		log.setRateLimit(EventCategory.BOOKSHELF, 0);
+		assertFalse(log.shouldLog(EventCategory.BOOKSHELF, EventLevel.INFO));
+	}
+
+	@Test
+	public void testSinkNeedingEveryChangeOverridesFilters() {
+		EventLog log = EventLog.newLog();
+		log.setLevel(EventCategory.PROGRESS, EventLevel.WARNING);
+		log.setSampling(EventCategory.GENRE, 10);
+		log.setRateLimit(EventCategory.BOOKSHELF, 0);
+		log.setLevel(EventCategory.APPLICATION, EventLevel.WARNING);
+		EventSink journal = new EventSink() {
+			@Override
+			public void accept(Event e) {
+			}
+
+			@Override
+			public boolean needsEveryChange() {
+				return true;
+			}
+		};
+		log.addSink(event -> { });
+		assertFalse(log.shouldLog(EventCategory.PROGRESS, EventLevel.INFO));
+
+		log.addSink(journal);
+		for (int i = 0; i < 20; i++) {
+			assertTrue(log.shouldLog(EventCategory.PROGRESS, EventLevel.INFO));
+			assertTrue(log.shouldLog(EventCategory.GENRE, EventLevel.INFO));
+			assertTrue(log.shouldLog(EventCategory.BOOKSHELF, EventLevel.INFO));
+		}
+		assertTrue(log.isEnabled(EventCategory.PROGRESS, EventLevel.INFO));
+		assertFalse(log.shouldLog(EventCategory.BOOKSHELF, EventLevel.DEBUG));
+		assertFalse(log.shouldLog(EventCategory.APPLICATION, EventLevel.INFO));
+		assertEquals(0, log.getSuppressedEvents(EventCategory.GENRE));
+
+		log.removeSink(journal);
+		assertFalse(log.shouldLog(EventCategory.PROGRESS, EventLevel.INFO));
+		assertFalse(log.shouldLog(EventCategory.BOOKSHELF, EventLevel.INFO));
+	}
+
+	@Test
+	public void testRateLimitFromManyThreads() throws InterruptedException {
+		EventLog log = EventLog.newLog();
+		log.setRateLimit(EventCategory.PROGRESS, 1000);
+		AtomicInteger logged = new AtomicInteger();
+		long second = System.currentTimeMillis() / 1000;
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(() -> {
+				for (int j = 0; j < 2000; j++) {
+					if (log.shouldLog(EventCategory.PROGRESS, EventLevel.INFO)) {
+						logged.incrementAndGet();
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		if (System.currentTimeMillis() / 1000 == second) {
+			assertEquals(1000, logged.get());
+		}
+		assertEquals(8000, logged.get() + log.getSuppressedEvents(EventCategory.PROGRESS));
+	}
 }
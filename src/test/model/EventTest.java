@@ -5,8 +5,9 @@ import org.junit.jupiter.api.Test;
 
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Unit tests for the Event class
@@ -35,4 +36,112 @@ public class EventTest {
 	public void testToString() {
 		assertEquals(d.toString() + "\n" + "Sensor open at door", e.toString());
 	}
+
+	@Test
+	public void testMessage() {
+		assertEquals(EventType.MESSAGE, e.getType());
+		assertEquals(Book.NO_ID, e.getBookId());
+		assertNull(e.getTitle());
+		assertEquals(0, e.getNumberOfBooks());
+		assertEquals(d.getTime(), e.getTimestamp(), 1000);
+	}
+
+	@Test
+	public void testProgressUpdated() {
+		Book book = new Book(7, "Crime and Punishment", 782);
+		book.progressUpdate(659);
+		Event event = Event.progressUpdated(book, 100);
+		assertEquals(EventType.PROGRESS_UPDATED, event.getType());
+		assertEquals(7, event.getBookId());
+		assertEquals("Crime and Punishment", event.getTitle());
+		assertEquals(100, event.getOldPage());
+		assertEquals(659, event.getNewPage());
+		assertEquals(782, event.getTotalPages());
+		assertEquals(84.3, event.getProgress());
+		assertEquals(1, event.getNumberOfBooks());
+		assertEquals("Progress of <Crime and Punishment> on bookshelf updated: \n"
+				+ "Now on page 659 of 782! 84.3% read!\n", event.getDescription());
+
+		book.progressUpdate(700);
+		assertEquals(659, event.getNewPage());
+	}
+
+	@Test
+	public void testBookEvents() {
+		Book book = new Book(3, "Capital", 1465);
+		Event added = Event.bookAdded(book);
+		assertEquals(EventType.BOOK_ADDED, added.getType());
+		assertEquals(3, added.getBookId());
+		assertEquals("Added <Capital> to bookshelf!\n", added.getDescription());
+
+		Event removed = Event.bookRemoved(book);
+		assertEquals(EventType.BOOK_REMOVED, removed.getType());
+		assertEquals("Removed <Capital> from bookshelf!\n", removed.getDescription());
+
+		Event batch = Event.booksAdded(12);
+		assertEquals(EventType.BOOKS_ADDED, batch.getType());
+		assertEquals(12, batch.getNumberOfBooks());
+		assertNull(batch.getTitle());
+		assertEquals("Added 12 books to bookshelf!\n", batch.getDescription());
+		assertEquals(batch.getDate().toString() + "\n" + "Added 12 books to bookshelf!\n", batch.toString());
+	}
+
+	@Test
+	public void testRestore() {
+		Event restored = Event.restore(EventType.PROGRESS_UPDATED, 1234L, "Crime and Punishment", 7,
+				100, 659, 782, 1, null, List.of());
+		assertEquals(1234L, restored.getTimestamp());
+		assertEquals(7, restored.getBookId());
+		assertEquals(100, restored.getOldPage());
+		assertEquals(84.3, restored.getProgress());
+		assertEquals("Progress of <Crime and Punishment> on bookshelf updated: \n"
+				+ "Now on page 659 of 782! 84.3% read!\n", restored.getDescription());
+
+		Event message = Event.restore(EventType.MESSAGE, 1234L, "Sensor open at door", Book.NO_ID, 0, 0, 0, 0,
+				null, List.of());
+		assertEquals("Sensor open at door", message.getDescription());
+		assertEquals(0.0, message.getProgress());
+	}
+
+	@Test
+	public void testEqualsAndHashCode() {
+		Event same = new Event("Sensor open at door");
+		if (same.getTimestamp() == e.getTimestamp()) {
+			assertEquals(e, same);
+			assertEquals(e.hashCode(), same.hashCode());
+		}
+		assertNotEquals(e, new Event("Sensor closed at door"));
+		assertNotEquals(e, null);
+		assertNotEquals(e, "Sensor open at door");
+	}
+
+	@Test
+	public void testBookshelfChangeEvents() {
+		Book book = new Book(3, "Capital", 1465);
+		book.addGenreTag("Marxism");
+		Event batch = Event.booksAdded(List.of(book));
+		assertEquals(1, batch.getNumberOfBooks());
+		assertEquals(1, batch.getBooks().size());
+		assertEquals("Capital", batch.getBooks().get(0).getTitle());
+		assertTrue(batch.getBooks().get(0).containsGenreTag("Marxism"));
+
+		Event tagged = Event.genreTagAdded(book, "Economics");
+		assertEquals(EventType.GENRE_TAG_ADDED, tagged.getType());
+		assertEquals("Economics", tagged.getGenre());
+		assertEquals("Tagged <Capital> as Economics!\n", tagged.getDescription());
+
+		Event untagged = Event.genreTagRemoved(book, "Marxism");
+		assertEquals(EventType.GENRE_TAG_REMOVED, untagged.getType());
+		assertEquals("Removed genre tag Marxism from <Capital>!\n", untagged.getDescription());
+
+		Event loaded = Event.bookshelfLoaded(12);
+		assertEquals(EventType.BOOKSHELF_LOADED, loaded.getType());
+		assertEquals(12, loaded.getNumberOfBooks());
+		assertEquals("Loaded 12 books from file!\n", loaded.getDescription());
+		assertTrue(loaded.getBooks().isEmpty());
+		assertNull(loaded.getGenre());
+
+		Event updated = Event.progressUpdated(book, 0, 1234L);
+		assertEquals(1234L, updated.getTimestamp());
+	}
 }
@@ -0,0 +1,74 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the GenreDictionary class
+ */
+public class GenreDictionaryTest {
+
+    @Test
+    public void testGetInstance() {
+        assertNotNull(GenreDictionary.getInstance());
+        assertSame(GenreDictionary.getInstance(), GenreDictionary.getInstance());
+    }
+
+    @Test
+    public void testCodeOf() {
+        GenreDictionary dictionary = GenreDictionary.getInstance();
+        int size = dictionary.size();
+
+        int code = dictionary.codeOf("GenreDictionaryTest A");
+        assertEquals(size, code);
+        assertEquals(size + 1, dictionary.size());
+        assertEquals(code, dictionary.codeOf("GenreDictionaryTest A"));
+        assertEquals(size + 1, dictionary.size());
+
+        assertEquals(size + 1, dictionary.codeOf("GenreDictionaryTest B"));
+        assertEquals("GenreDictionaryTest A", dictionary.nameOf(code));
+        assertEquals("GenreDictionaryTest B", dictionary.nameOf(code + 1));
+    }
+
+    @Test
+    public void testLookup() {
+        GenreDictionary dictionary = GenreDictionary.getInstance();
+        int size = dictionary.size();
+
+        assertEquals(-1, dictionary.lookup("GenreDictionaryTest never used"));
+        assertEquals(size, dictionary.size());
+
+        int code = dictionary.codeOf("GenreDictionaryTest C");
+        assertEquals(code, dictionary.lookup("GenreDictionaryTest C"));
+    }
+
+    @Test
+    public void testCodeOfFromManyThreads() throws InterruptedException {
+        GenreDictionary dictionary = GenreDictionary.getInstance();
+        int size = dictionary.size();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    String name = "GenreDictionaryTest threads " + i;
+                    assertEquals(name, dictionary.nameOf(dictionary.codeOf(name)));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(size + 500, dictionary.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals("GenreDictionaryTest threads " + i, dictionary.nameOf(size + i));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenreManagerTest {
+    private GenreManager testManager;
+    private List<Book> books;
+
+    private Book book1;
+    private Book book2;
+
+    @BeforeEach
+    void runBefore() {
+        books = new ArrayList<>();
+        testManager = new GenreManager(books);
+
+        book1 = new Book("Crime and Punishment", 782);
+        book2 = new Book("Capital", 1465);
+    }
+
+    // MODIFIES: this, book
+    // EFFECTS: put the book at the next position, as a bookshelf would, and index it
+    private void shelve(Book book) {
+        book.setBookshelf(null, books.size());
+        books.add(book);
+        testManager.addBook(book);
+    }
+
+    @Test
+    void testConstructor() {
+        assertTrue(testManager.booksTaggedBy("Russian").isEmpty());
+        assertEquals(0, testManager.numOfBooksTaggedBy("Russian"));
+        assertEquals(0, testManager.getNumberOfGenres());
+        assertTrue(testManager.getAllGenres().isEmpty());
+    }
+
+    @Test
+    void testAddBook() {
+        book1.addGenreTag("Russian");
+        book1.addGenreTag("Novel");
+        book2.addGenreTag("Russian");
+
+        shelve(book1);
+        shelve(book2);
+
+        assertEquals(2, testManager.numOfBooksTaggedBy("Russian"));
+        assertEquals(1, testManager.numOfBooksTaggedBy("Novel"));
+        assertEquals(0, testManager.numOfBooksTaggedBy("History"));
+
+        List<Book> russianBooks = testManager.booksTaggedBy("Russian");
+        assertEquals(2, russianBooks.size());
+        assertEquals(book1, russianBooks.get(0));
+        assertEquals(book2, russianBooks.get(1));
+    }
+
+    @Test
+    void testAddTag() {
+        shelve(book1);
+        assertEquals(0, testManager.numOfBooksTaggedBy("History"));
+
+        testManager.addTag(book1, "History");
+        assertEquals(1, testManager.numOfBooksTaggedBy("History"));
+        assertEquals(book1, testManager.booksTaggedBy("History").get(0));
+    }
+
+    @Test
+    void testBooksTaggedByReturnsCopy() {
+        book1.addGenreTag("Russian");
+        shelve(book1);
+
+        testManager.booksTaggedBy("Russian").clear();
+        assertEquals(1, testManager.numOfBooksTaggedBy("Russian"));
+    }
+
+    @Test
+    void testDistinctGenresKeepInsertionOrder() {
+        book1.addGenreTag("Russian");
+        book1.addGenreTag("Novel");
+        book2.addGenreTag("Marxism");
+        book2.addGenreTag("Russian");
+
+        shelve(book1);
+        shelve(book2);
+
+        List<String> genres = testManager.getAllGenres();
+        assertEquals(3, testManager.getNumberOfGenres());
+        assertEquals("Russian", genres.get(0));
+        assertEquals("Novel", genres.get(1));
+        assertEquals("Marxism", genres.get(2));
+    }
+
+    @Test
+    void testRemoveTag() {
+        book1.addGenreTag("Russian");
+        book1.addGenreTag("Novel");
+        book2.addGenreTag("Russian");
+        shelve(book1);
+        shelve(book2);
+
+        testManager.removeTag(book1, "Russian");
+        assertEquals(1, testManager.numOfBooksTaggedBy("Russian"));
+        assertEquals(2, testManager.getNumberOfGenres());
+
+        testManager.removeTag(book2, "Russian");
+        assertEquals(0, testManager.numOfBooksTaggedBy("Russian"));
+        assertEquals(1, testManager.getNumberOfGenres());
+        assertEquals("Novel", testManager.getAllGenres().get(0));
+
+        testManager.removeTag(book2, "History");
+        assertEquals(1, testManager.getNumberOfGenres());
+    }
+
+    @Test
+    void testClear() {
+        book1.addGenreTag("Russian");
+        shelve(book1);
+
+        testManager.clear();
+        assertEquals(0, testManager.getNumberOfGenres());
+        assertEquals(0, testManager.numOfBooksTaggedBy("Russian"));
+    }
+
+    @Test
+    void testBooksBitmapOf() {
+        book1.addGenreTag("Russian");
+        book2.addGenreTag("Russian");
+        shelve(book1);
+        shelve(book2);
+
+        BitSet russian = testManager.booksBitmapOf("Russian");
+        assertEquals(2, russian.cardinality());
+        assertTrue(russian.get(0));
+        assertTrue(russian.get(1));
+        assertTrue(testManager.booksBitmapOf("History").isEmpty());
+    }
+
+    @Test
+    void testBooksAt() {
+        shelve(book1);
+        shelve(book2);
+
+        BitSet positions = new BitSet();
+        positions.set(1);
+        List<Book> result = testManager.booksAt(positions);
+        assertEquals(1, result.size());
+        assertEquals(book2, result.get(0));
+    }
+
+    @Test
+    void testRemoveGenreKeepsOrderOfOthers() {
+        book1.addGenreTag("Russian");
+        book1.addGenreTag("Novel");
+        book2.addGenreTag("Marxism");
+        shelve(book1);
+        shelve(book2);
+        List<String> view = testManager.getAllGenres();
+
+        testManager.removeTag(book1, "Novel");
+        assertEquals(List.of("Russian", "Marxism"), testManager.getAllGenres());
+        assertEquals(List.of("Russian", "Marxism"), view);
+        assertThrows(UnsupportedOperationException.class, () -> testManager.getAllGenres().add("History"));
+
+        testManager.addTag(book2, "Novel");
+        assertEquals(List.of("Russian", "Marxism", "Novel"), testManager.getAllGenres());
+    }
+}
@@ -0,0 +1,123 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenreQueryTest {
+    private Bookshelf testBookShelf;
+
+    private Book book1;
+    private Book book2;
+    private Book book3;
+    private Book book4;
+
+    @BeforeEach
+    void runBefore() {
+        testBookShelf = new Bookshelf();
+
+        book1 = new Book("Crime and Punishment", 782);
+        book1.addGenreTag("Russian");
+        book1.addGenreTag("Novel");
+
+        book2 = new Book("War and Peace", 1225);
+        book2.addGenreTag("Russian");
+        book2.addGenreTag("Novel");
+        book2.addGenreTag("History");
+
+        book3 = new Book("Capital", 1465);
+        book3.addGenreTag("Political Science");
+        book3.addGenreTag("German");
+
+        book4 = new Book("Meditation", 181);
+
+        testBookShelf.addBook(book1);
+        testBookShelf.addBook(book2);
+        testBookShelf.addBook(book3);
+        testBookShelf.addBook(book4);
+    }
+
+    @Test
+    void testSingleGenre() throws InvalidQueryException {
+        List<Book> books = testBookShelf.booksMatching(GenreQuery.parse("Russian"));
+        assertEquals(2, books.size());
+        assertEquals(book1, books.get(0));
+        assertEquals(book2, books.get(1));
+
+        assertEquals(0, testBookShelf.numOfBooksMatching(GenreQuery.parse("Poetry")));
+    }
+
+    @Test
+    void testMultiWordGenre() throws InvalidQueryException {
+        assertEquals(1, testBookShelf.numOfBooksMatching(GenreQuery.parse("Political Science")));
+        assertEquals(1, testBookShelf.numOfBooksMatching(GenreQuery.parse("\"Political Science\"")));
+        assertEquals(book3, testBookShelf.booksMatching(GenreQuery.parse("Political Science AND German")).get(0));
+    }
+
+    @Test
+    void testAndNot() throws InvalidQueryException {
+        List<Book> books = testBookShelf.booksMatching(GenreQuery.parse("Russian AND Novel AND NOT History"));
+        assertEquals(1, books.size());
+        assertEquals(book1, books.get(0));
+    }
+
+    @Test
+    void testOr() throws InvalidQueryException {
+        List<Book> books = testBookShelf.booksMatching(GenreQuery.parse("History OR German"));
+        assertEquals(2, books.size());
+        assertEquals(book2, books.get(0));
+        assertEquals(book3, books.get(1));
+    }
+
+    @Test
+    void testNot() throws InvalidQueryException {
+        List<Book> books = testBookShelf.booksMatching(GenreQuery.parse("NOT Russian"));
+        assertEquals(2, books.size());
+        assertEquals(book3, books.get(0));
+        assertEquals(book4, books.get(1));
+
+        assertEquals(4, testBookShelf.numOfBooksMatching(GenreQuery.parse("NOT Poetry")));
+    }
+
+    @Test
+    void testPrecedenceAndParentheses() throws InvalidQueryException {
+        // AND binds tighter than OR
+        assertEquals(2, testBookShelf.numOfBooksMatching(GenreQuery.parse("German OR Russian AND History")));
+        assertEquals(1, testBookShelf.numOfBooksMatching(GenreQuery.parse("(German OR Russian) AND History")));
+        assertEquals(3, testBookShelf.numOfBooksMatching(GenreQuery.parse("NOT (Novel AND History)")));
+    }
+
+    @Test
+    void testQueryFollowsTagChanges() throws InvalidQueryException {
+        GenreQuery query = GenreQuery.parse("Russian AND NOT History");
+        assertEquals(1, testBookShelf.numOfBooksMatching(query));
+
+        book2.removeGenreTag("History");
+        assertEquals(2, testBookShelf.numOfBooksMatching(query));
+
+        book4.addGenreTag("Russian");
+        assertEquals(3, testBookShelf.numOfBooksMatching(query));
+    }
+
+    @Test
+    void testToString() throws InvalidQueryException {
+        assertEquals("((\"Russian\" AND \"Novel\") OR NOT \"History\")",
+                GenreQuery.parse("Russian AND Novel OR NOT History").toString());
+    }
+
+    @Test
+    void testInvalidQueries() {
+        String[] invalidQueries = {"", "Russian AND", "AND Russian", "(Russian", "Russian)", "\"Russian", "NOT"};
+        for (String text : invalidQueries) {
+            try {
+                GenreQuery.parse(text);
+                fail("Expect InvalidQueryException for: " + text);
+            } catch (InvalidQueryException e) {
+                // expected
+            }
+        }
+    }
+}
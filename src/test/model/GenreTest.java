@@ -0,0 +1,51 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenreTest {
+    private Genre testGenre;
+
+    @BeforeEach
+    void runBefore() {
+        testGenre = new Genre("Russian");
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals("Russian", testGenre.getName());
+        assertNotNull(testGenre.getBooks());
+        assertTrue(testGenre.getBooks().isEmpty());
+        assertEquals(0, testGenre.getNumberOfBooks());
+    }
+
+    @Test
+    void testAddBook() {
+        testGenre.addBook(0);
+        assertEquals(1, testGenre.getNumberOfBooks());
+        assertTrue(testGenre.getBooks().get(0));
+
+        testGenre.addBook(5);
+        assertEquals(2, testGenre.getNumberOfBooks());
+        assertTrue(testGenre.getBooks().get(5));
+
+        testGenre.addBook(5);
+        assertEquals(2, testGenre.getNumberOfBooks());
+    }
+
+    @Test
+    void testRemoveBook() {
+        testGenre.addBook(0);
+        testGenre.addBook(5);
+
+        testGenre.removeBook(0);
+        assertEquals(1, testGenre.getNumberOfBooks());
+        assertFalse(testGenre.getBooks().get(0));
+        assertTrue(testGenre.getBooks().get(5));
+
+        testGenre.removeBook(3);
+        assertEquals(1, testGenre.getNumberOfBooks());
+    }
+}
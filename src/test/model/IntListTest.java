@@ -0,0 +1,62 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntListTest {
+    private IntList testList;
+
+    @BeforeEach
+    void runBefore() {
+        testList = new IntList();
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, testList.size());
+        assertTrue(testList.isEmpty());
+        assertEquals(-1, testList.last());
+    }
+
+    @Test
+    void testAdd() {
+        for (int i = 0; i < 100; i++) {
+            testList.add(i * 2);
+        }
+
+        assertEquals(100, testList.size());
+        assertFalse(testList.isEmpty());
+        assertEquals(0, testList.get(0));
+        assertEquals(198, testList.get(99));
+        assertEquals(198, testList.last());
+    }
+
+    @Test
+    void testRemove() {
+        testList.add(3);
+        testList.add(5);
+        testList.add(3);
+
+        testList.remove(3);
+        assertEquals(2, testList.size());
+        assertEquals(5, testList.get(0));
+        assertEquals(3, testList.get(1));
+
+        testList.remove(7);
+        assertEquals(2, testList.size());
+    }
+
+    @Test
+    void testRemoveLast() {
+        testList.add(3);
+        testList.add(5);
+        testList.removeLast();
+        assertEquals(1, testList.size());
+        assertEquals(3, testList.last());
+        testList.removeLast();
+        assertTrue(testList.isEmpty());
+        assertEquals(-1, testList.last());
+    }
+}
@@ -0,0 +1,103 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentVectorTest {
+
+    @Test
+    void testEmpty() {
+        PersistentVector<Integer> empty = PersistentVector.empty();
+        assertEquals(0, empty.size());
+        assertTrue(empty.isEmpty());
+        assertSame(empty, PersistentVector.of(new ArrayList<Integer>()));
+        assertThrows(IndexOutOfBoundsException.class, () -> empty.get(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> empty.minusLast());
+        assertThrows(IndexOutOfBoundsException.class, () -> empty.with(0, 1));
+    }
+
+    @Test
+    void testPlusAndMinusLast() {
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        List<PersistentVector<Integer>> versions = new ArrayList<>();
+        for (int i = 0; i < 40000; i++) {
+            versions.add(vector);
+            vector = vector.plus(i);
+        }
+        assertEquals(40000, vector.size());
+        for (int i = 0; i < 40000; i += 997) {
+            assertEquals(i, vector.get(i));
+            assertEquals(i, versions.get(i).size());
+        }
+        assertEquals(39999, vector.get(39999));
+        assertEquals(1024, versions.get(1025).get(1024));
+
+        for (int i = 40000; i > 0; i--) {
+            vector = vector.minusLast();
+            assertEquals(i - 1, vector.size());
+            if (i - 1 > 0) {
+                assertEquals(i - 2, vector.get(i - 2));
+            }
+        }
+        assertEquals(0, vector.size());
+        assertEquals(39999, versions.get(39999).size());
+    }
+
+    @Test
+    void testOf() {
+        for (int n : new int[] {1, 31, 32, 33, 1024, 1025, 40000}) {
+            List<Integer> elements = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                elements.add(i);
+            }
+            PersistentVector<Integer> vector = PersistentVector.of(elements);
+            assertEquals(elements, vector);
+            assertEquals(elements, new ArrayList<>(vector.plus(n).minusLast()));
+            assertEquals(n, vector.plus(n).get(n));
+        }
+    }
+
+    @Test
+    void testWith() {
+        List<Integer> elements = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            elements.add(i);
+        }
+        PersistentVector<Integer> vector = PersistentVector.of(elements);
+        PersistentVector<Integer> changed = vector.with(1500, -1).with(3, -3);
+        assertEquals(-1, changed.get(1500));
+        assertEquals(-3, changed.get(3));
+        assertEquals(1500, vector.get(1500));
+        assertEquals(3, vector.get(3));
+        assertEquals(2000, changed.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> vector.with(2000, 0));
+    }
+
+    @Test
+    void testChangedIndexes() {
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        for (int i = 0; i < 5000; i++) {
+            vector = vector.plus(i);
+        }
+        PersistentVector<Integer> changed = vector.with(7, 100).with(4096, 5).with(4999, 0);
+        IntList indexes = vector.changedIndexes(changed);
+        assertEquals(3, indexes.size());
+        assertEquals(7, indexes.get(0));
+        assertEquals(4096, indexes.get(1));
+        assertEquals(4999, indexes.get(2));
+
+        assertTrue(vector.changedIndexes(vector).isEmpty());
+        PersistentVector<Integer> shorter = changed;
+        for (int i = 0; i < 4000; i++) {
+            shorter = shorter.minusLast();
+        }
+        indexes = shorter.changedIndexes(vector.plus(1));
+        assertEquals(1, indexes.size());
+        assertEquals(7, indexes.get(0));
+        assertTrue(shorter.changedIndexes(PersistentVector.empty()).isEmpty());
+    }
+}
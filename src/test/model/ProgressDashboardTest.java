@@ -0,0 +1,157 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgressDashboardTest {
+    private ProgressDashboard testDashboard;
+
+    private Book book1;
+    private Book book2;
+
+    @BeforeEach
+    void runBefore() {
+        testDashboard = new ProgressDashboard();
+
+        book1 = new Book("Crime and Punishment", 782);
+        book2 = new Book("Meditation", 181);
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, testDashboard.getNumberOfBooks());
+        assertEquals(0, testDashboard.getTotalPages());
+        assertEquals(0, testDashboard.getPagesRead());
+        assertEquals(0, testDashboard.getNumberOfFinishedBooks());
+        assertEquals(0.0, testDashboard.getTotalProgress());
+    }
+
+    @Test
+    void testAddBook() {
+        book1.progressUpdate(659);
+        book2.progressUpdate(181);
+
+        testDashboard.addBook(book1);
+        assertEquals(1, testDashboard.getNumberOfBooks());
+        assertEquals(782, testDashboard.getTotalPages());
+        assertEquals(659, testDashboard.getPagesRead());
+        assertEquals(0, testDashboard.getNumberOfFinishedBooks());
+        assertEquals(84.3, testDashboard.getTotalProgress());
+
+        testDashboard.addBook(book2);
+        assertEquals(2, testDashboard.getNumberOfBooks());
+        assertEquals(963, testDashboard.getTotalPages());
+        assertEquals(840, testDashboard.getPagesRead());
+        assertEquals(1, testDashboard.getNumberOfFinishedBooks());
+        assertEquals(92.2, testDashboard.getTotalProgress());
+    }
+
+    @Test
+    void testProgressUpdated() {
+        testDashboard.addBook(book1);
+        testDashboard.addBook(book2);
+
+        book2.progressUpdate(181);
+        testDashboard.progressUpdated(book2, 0, 0.0);
+        assertEquals(181, testDashboard.getPagesRead());
+        assertEquals(1, testDashboard.getNumberOfFinishedBooks());
+        assertEquals(50.0, testDashboard.getTotalProgress());
+
+        book2.progressUpdate(67);
+        testDashboard.progressUpdated(book2, 181, 100.0);
+        assertEquals(67, testDashboard.getPagesRead());
+        assertEquals(0, testDashboard.getNumberOfFinishedBooks());
+        assertEquals(18.5, testDashboard.getTotalProgress());
+    }
+
+    @Test
+    void testReset() {
+        book1.progressUpdate(659);
+        testDashboard.addBook(book1);
+
+        testDashboard.reset();
+        assertEquals(0, testDashboard.getNumberOfBooks());
+        assertEquals(0, testDashboard.getTotalPages());
+        assertEquals(0, testDashboard.getPagesRead());
+        assertEquals(0.0, testDashboard.getTotalProgress());
+    }
+
+    @Test
+    void testRebuild() {
+        book1.progressUpdate(659);
+        book2.progressUpdate(181);
+
+        testDashboard.rebuild(List.of(book1, book2));
+        assertEquals(2, testDashboard.getNumberOfBooks());
+        assertEquals(963, testDashboard.getTotalPages());
+        assertEquals(840, testDashboard.getPagesRead());
+        assertEquals(1, testDashboard.getNumberOfFinishedBooks());
+        assertEquals(92.2, testDashboard.getTotalProgress());
+    }
+
+    @Test
+    void testAddRows() {
+        List<Book> books = List.of(book1, book2);
+        book1.progressUpdate(659);
+        book2.progressUpdate(181);
+        testDashboard.addBook(book1);
+
+        testDashboard.addRows(books, 1);
+        assertEquals(2, testDashboard.getNumberOfBooks());
+        assertEquals(963, testDashboard.getTotalPages());
+        assertEquals(840, testDashboard.getPagesRead());
+        assertEquals(1, testDashboard.getNumberOfFinishedBooks());
+        assertEquals(92.2, testDashboard.getTotalProgress());
+
+        testDashboard.addRows(books, 2);
+        assertEquals(2, testDashboard.getNumberOfBooks());
+        assertEquals(963, testDashboard.getTotalPages());
+    }
+
+    @Test
+    void testHistogramAndUnstartedBooks() {
+        testDashboard.addBook(book1);
+        testDashboard.addBook(book2);
+        assertEquals(2, testDashboard.getNumberOfUnstartedBooks());
+        assertEquals(2, testDashboard.getProgressHistogram().countAt(0));
+
+        book2.progressUpdate(181);
+        testDashboard.progressUpdated(book2, 0, 0.0);
+        assertEquals(1, testDashboard.getNumberOfUnstartedBooks());
+        assertEquals(1, testDashboard.getProgressHistogram().countAt(1000));
+        assertEquals(0.0, testDashboard.getProgressHistogram().getMedian());
+        assertEquals(100.0, testDashboard.getProgressHistogram().getPercentile(75));
+
+        book2.progressUpdate(0);
+        testDashboard.progressUpdated(book2, 181, 100.0);
+        assertEquals(2, testDashboard.getNumberOfUnstartedBooks());
+        assertEquals(0, testDashboard.getProgressHistogram().countAt(1000));
+        assertEquals(0.0, testDashboard.getProgressHistogram().getVariance());
+
+        testDashboard.rebuild(List.of(book1));
+        assertEquals(1, testDashboard.getNumberOfUnstartedBooks());
+        assertEquals(1, testDashboard.getProgressHistogram().getCount());
+    }
+
+    @Test
+    void testRemoveBook() {
+        book1.progressUpdate(782);
+        testDashboard.addBook(book1);
+        testDashboard.addBook(book2);
+        testDashboard.removeBook(book2);
+        assertEquals(1, testDashboard.getNumberOfBooks());
+        assertEquals(782, testDashboard.getTotalPages());
+        assertEquals(0, testDashboard.getNumberOfUnstartedBooks());
+        assertEquals(100.0, testDashboard.getTotalProgress());
+
+        testDashboard.removeBook(book1);
+        assertEquals(0, testDashboard.getNumberOfBooks());
+        assertEquals(0, testDashboard.getPagesRead());
+        assertEquals(0, testDashboard.getNumberOfFinishedBooks());
+        assertEquals(0, testDashboard.getProgressHistogram().getCount());
+    }
+}
@@ -0,0 +1,100 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgressHistogramTest {
+    private ProgressHistogram testHistogram;
+
+    @BeforeEach
+    void runBefore() {
+        testHistogram = new ProgressHistogram();
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, testHistogram.getCount());
+        assertEquals(0.0, testHistogram.getMean());
+        assertEquals(0.0, testHistogram.getVariance());
+        assertEquals(0.0, testHistogram.getMedian());
+        assertArrayEquals(new int[4], testHistogram.getDistribution(4));
+    }
+
+    @Test
+    void testAdd() {
+        testHistogram.add(0);
+        testHistogram.add(200);
+        testHistogram.add(400);
+        testHistogram.add(1000);
+
+        assertEquals(4, testHistogram.getCount());
+        assertEquals(40.0, testHistogram.getMean());
+        assertEquals(1400.0, testHistogram.getVariance(), 1e-9);
+        assertEquals(Math.sqrt(1400.0), testHistogram.getStandardDeviation(), 1e-9);
+        assertEquals(1, testHistogram.countAt(200));
+        assertEquals(0, testHistogram.countAt(300));
+    }
+
+    @Test
+    void testPercentiles() {
+        for (int i = 1; i <= 10; i++) {
+            testHistogram.add(i * 100);
+        }
+
+        assertEquals(10.0, testHistogram.getPercentile(0));
+        assertEquals(10.0, testHistogram.getPercentile(10));
+        assertEquals(30.0, testHistogram.getPercentile(25));
+        assertEquals(50.0, testHistogram.getMedian());
+        assertEquals(90.0, testHistogram.getPercentile(90));
+        assertEquals(100.0, testHistogram.getPercentile(100));
+    }
+
+    @Test
+    void testDistribution() {
+        testHistogram.add(0);
+        testHistogram.add(99);
+        testHistogram.add(100);
+        testHistogram.add(999);
+        testHistogram.add(1000);
+
+        int[] ranges = testHistogram.getDistribution(10);
+        assertEquals(2, ranges[0]);
+        assertEquals(1, ranges[1]);
+        assertEquals(2, ranges[9]);
+        assertArrayEquals(new int[] {5}, testHistogram.getDistribution(1));
+    }
+
+    @Test
+    void testMoveUpAndDown() {
+        testHistogram.add(0);
+        testHistogram.add(500);
+
+        testHistogram.move(0, 1000);
+        assertEquals(75.0, testHistogram.getMean());
+        assertEquals(625.0, testHistogram.getVariance(), 1e-9);
+        assertEquals(0, testHistogram.countAt(0));
+
+        testHistogram.move(1000, 500);
+        testHistogram.move(500, 500);
+        assertEquals(50.0, testHistogram.getMean());
+        assertEquals(0.0, testHistogram.getVariance());
+        assertEquals(2, testHistogram.countAt(500));
+
+        testHistogram.remove(500);
+        testHistogram.remove(500);
+        assertEquals(0, testHistogram.getCount());
+        assertEquals(0.0, testHistogram.getMedian());
+    }
+
+    @Test
+    void testReset() {
+        testHistogram.add(300);
+        testHistogram.reset();
+
+        assertEquals(0, testHistogram.getCount());
+        assertEquals(0, testHistogram.countAt(300));
+        assertEquals(0.0, testHistogram.getMean());
+    }
+}
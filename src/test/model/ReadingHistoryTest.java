@@ -0,0 +1,132 @@
+package model;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import persistence.Writable;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadingHistoryTest {
+    private static final long DAY = 24 * 60 * 60 * 1000;
+    private static final long START = 1_600_000_000_000L;
+
+    private ReadingHistory testHistory;
+
+    @BeforeEach
+    void runBefore() {
+        testHistory = new ReadingHistory(10);
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, testHistory.size());
+        assertEquals(10, testHistory.getStartPage());
+        assertEquals(10, testHistory.getLastPage());
+        assertEquals(10, testHistory.pageAt(START));
+        assertEquals(0, testHistory.pagesReadBetween(0, START));
+    }
+
+    @Test
+    void testRecordAndPageAt() {
+        testHistory.record(START, 20);
+        testHistory.record(START + DAY, 50);
+        testHistory.record(START + 2 * DAY, 40);
+
+        assertEquals(3, testHistory.size());
+        assertEquals(10, testHistory.pageAt(START - 1));
+        assertEquals(20, testHistory.pageAt(START));
+        assertEquals(20, testHistory.pageAt(START + DAY - 1));
+        assertEquals(50, testHistory.pageAt(START + DAY));
+        assertEquals(40, testHistory.pageAt(Long.MAX_VALUE));
+
+        assertEquals(40, testHistory.pagesReadBetween(0, START + DAY));
+        assertEquals(-10, testHistory.pagesReadBetween(START + DAY, START + 2 * DAY));
+        assertEquals(10.0, testHistory.velocity(START, START + 2 * DAY));
+        assertEquals(0.0, testHistory.velocity(START + DAY, START));
+    }
+
+    @Test
+    void testTimestampsStayInOrder() {
+        testHistory.record(START, 20);
+        testHistory.record(START - DAY, 30);
+
+        assertEquals(START, testHistory.getTimestamp(1));
+        assertEquals(30, testHistory.pageAt(START));
+    }
+
+    @Test
+    void testManyEntries() {
+        for (int i = 0; i < 1000; i++) {
+            testHistory.record(START + i * 60_000L, 10 + i);
+        }
+
+        assertEquals(1000, testHistory.size());
+        assertEquals(START + 999 * 60_000L, testHistory.getTimestamp(999));
+        assertEquals(10 + 640, testHistory.getPage(640));
+        for (int i = 0; i < 1000; i += 37) {
+            assertEquals(10 + i, testHistory.pageAt(START + i * 60_000L));
+            assertEquals(10 + i, testHistory.pageAt(START + i * 60_000L + 59_999L));
+        }
+        assertEquals(100, testHistory.pagesReadBetween(START + 100 * 60_000L, START + 200 * 60_000L));
+    }
+
+    @Test
+    void testManyEntriesWithTheSameTimestamp() {
+        for (int i = 0; i < 200; i++) {
+            testHistory.record(START, i);
+        }
+        testHistory.record(START + 1, 500);
+
+        assertEquals(199, testHistory.pageAt(START));
+        assertEquals(500, testHistory.pageAt(START + 1));
+    }
+
+    @Test
+    void testEncodingIsCompact() {
+        for (int i = 0; i < 100; i++) {
+            testHistory.record(START + i * 1000L, 10 + i);
+        }
+
+        byte[] data = Base64.getDecoder().decode(testHistory.toJson().getString("data"));
+        // the first entry holds the whole timestamp, every later one a couple of bytes each way
+        assertTrue(data.length <= 8 + 99 * 3);
+    }
+
+    @Test
+    void testToJsonAndBack() {
+        for (int i = 0; i < 150; i++) {
+            testHistory.record(START + i * DAY, 10 + (i * 31) % 400);
+        }
+
+        JSONObject json = testHistory.toJson();
+        assertEquals(10, json.getInt("startPage"));
+        assertEquals(150, json.getInt("size"));
+
+        ReadingHistory copy = new ReadingHistory(json.getInt("startPage"), json.getInt("size"),
+                Base64.getDecoder().decode(json.getString("data")));
+        assertEquals(150, copy.size());
+        assertEquals(testHistory.getLastPage(), copy.getLastPage());
+        for (int i = 0; i < 150; i++) {
+            assertEquals(testHistory.getTimestamp(i), copy.getTimestamp(i));
+            assertEquals(testHistory.getPage(i), copy.getPage(i));
+        }
+    }
+
+    @Test
+    void testFreeze() {
+        testHistory.record(START, 50);
+        testHistory.record(START + DAY, 90);
+        JSONObject before = testHistory.toJson();
+        Writable frozen = testHistory.freeze();
+        for (int i = 2; i < 100; i++) {
+            testHistory.record(START + i * DAY, 90 + i);
+        }
+
+        assertTrue(before.similar(frozen.toJson()));
+        assertEquals(2, frozen.toJson().getInt("size"));
+        assertEquals(100, testHistory.toJson().getInt("size"));
+    }
+}
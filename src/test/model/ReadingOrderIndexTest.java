@@ -0,0 +1,106 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadingOrderIndexTest {
+    private ReadingOrderIndex testIndex;
+
+    @BeforeEach
+    void runBefore() {
+        testIndex = new ReadingOrderIndex();
+        testIndex.add(0, 782, 659, 843);
+        testIndex.add(1, 181, 0, 0);
+        testIndex.add(2, 1465, 1465, 1000);
+        testIndex.add(3, 300, 150, 500);
+    }
+
+    @Test
+    void testEmpty() {
+        testIndex = new ReadingOrderIndex();
+
+        assertEquals(0, testIndex.size());
+        assertTrue(testIndex.lowestProgress(5).isEmpty());
+        assertTrue(testIndex.fewestPagesRemaining(5).isEmpty());
+        assertTrue(testIndex.progressBetween(0, 1000).isEmpty());
+    }
+
+    @Test
+    void testTopK() {
+        assertEquals(4, testIndex.size());
+        assertEquals(List.of(1, 3), testIndex.lowestProgress(2));
+        assertEquals(List.of(1, 3, 0, 2), testIndex.lowestProgress(10));
+        assertEquals(List.of(0, 3, 1), testIndex.fewestPagesRemaining(10));
+        assertEquals(List.of(0), testIndex.fewestPagesRemaining(1));
+        assertEquals(List.of(1, 3), testIndex.fewestTotalPages(2));
+        assertEquals(List.of(2, 0), testIndex.mostTotalPages(2));
+        assertTrue(testIndex.lowestProgress(0).isEmpty());
+    }
+
+    @Test
+    void testProgressBetween() {
+        assertEquals(List.of(3), testIndex.progressBetween(400, 600));
+        assertEquals(List.of(3, 0, 2), testIndex.progressBetween(500, 1000));
+        assertEquals(List.of(1), testIndex.progressBetween(0, 0));
+        assertTrue(testIndex.progressBetween(600, 400).isEmpty());
+    }
+
+    @Test
+    void testTiesGoToEarlierPositions() {
+        testIndex.add(4, 181, 0, 0);
+
+        assertEquals(List.of(1, 4), testIndex.lowestProgress(2));
+        assertEquals(List.of(1, 4), testIndex.fewestTotalPages(2));
+        assertEquals(List.of(4, 1), testIndex.mostTotalPages(5).subList(3, 5));
+    }
+
+    @Test
+    void testUpdate() {
+        testIndex.update(1, 181, 0, 0, 181, 1000);
+        testIndex.update(3, 300, 150, 500, 290, 967);
+
+        assertEquals(List.of(0, 3, 1, 2), testIndex.lowestProgress(10));
+        assertEquals(List.of(3, 0), testIndex.fewestPagesRemaining(10));
+        assertEquals(List.of(1, 3), testIndex.fewestTotalPages(2));
+        assertTrue(testIndex.progressBetween(400, 600).isEmpty());
+
+        testIndex.clear();
+        assertEquals(0, testIndex.size());
+        assertTrue(testIndex.lowestProgress(5).isEmpty());
+    }
+
+    @Test
+    void testAddRows() {
+        Book book1 = new Book(1, "Crime and Punishment", 782, 659);
+        Book book2 = new Book(2, "Meditation", 181, 0);
+        Book book3 = new Book(3, "Capital", 1465, 1465);
+        List<Book> books = List.of(book1, book2, book3);
+
+        testIndex = new ReadingOrderIndex();
+        testIndex.addRows(books, 1);
+        assertEquals(2, testIndex.size());
+        assertEquals(List.of(1, 2), testIndex.lowestProgress(5));
+
+        testIndex.addRows(books, 0);
+        assertEquals(3, testIndex.size());
+        assertEquals(List.of(1, 0, 2), testIndex.lowestProgress(5));
+        assertEquals(List.of(0, 1), testIndex.fewestPagesRemaining(5));
+        assertEquals(List.of(2, 0, 1), testIndex.mostTotalPages(5));
+
+        testIndex.update(1, 181, 0, 0, 181, 1000);
+        assertEquals(List.of(0, 1, 2), testIndex.lowestProgress(5));
+    }
+
+    @Test
+    void testRemove() {
+        testIndex.remove(3, 300, 150, 500);
+        assertEquals(3, testIndex.size());
+        assertEquals(List.of(1, 0, 2), testIndex.lowestProgress(10));
+        assertEquals(List.of(0, 1), testIndex.fewestPagesRemaining(10));
+        assertEquals(List.of(1, 0, 2), testIndex.fewestTotalPages(10));
+    }
+}
@@ -0,0 +1,189 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShelfTimelineTest {
+    private ShelfTimeline testTimeline;
+
+    private Book book1;
+    private Book book2;
+
+    @BeforeEach
+    void runBefore() {
+        testTimeline = new ShelfTimeline();
+
+        book1 = new Book("Crime and Punishment", 782);
+        book1.addGenreTag("Russian");
+        book1.restoreAddedAt(1000);
+        book2 = new Book("Meditation", 181);
+        book2.restoreAddedAt(2000);
+    }
+
+    @Test
+    void testEmpty() {
+        ShelfState state = testTimeline.asOf(5000);
+
+        assertEquals(0, testTimeline.size());
+        assertEquals(0, testTimeline.getLastTimestamp());
+        assertEquals(5000, state.getTimestamp());
+        assertEquals(0, state.getNumberOfBooks());
+        assertEquals(0.0, state.getTotalProgress());
+        assertTrue(state.getAllGenres().isEmpty());
+    }
+
+    @Test
+    void testBooksAdded() {
+        testTimeline.booksAdded(List.of(book1, book2));
+
+        assertEquals(3, testTimeline.size());
+        assertEquals(0, testTimeline.asOf(999).getNumberOfBooks());
+        assertEquals(0, testTimeline.asOf(999).numOfBooksTaggedBy("Russian"));
+
+        ShelfState state = testTimeline.asOf(1000);
+        assertEquals(1, state.getNumberOfBooks());
+        assertEquals(782, state.getTotalPages());
+        assertEquals(1, state.numOfBooksTaggedBy("Russian"));
+        assertEquals(List.of("Russian"), state.getAllGenres());
+        assertEquals(1, state.getNumberOfGenres());
+
+        assertEquals(2, testTimeline.asOf(2000).getNumberOfBooks());
+        assertEquals(963, testTimeline.asOf(2000).getTotalPages());
+    }
+
+    @Test
+    void testBooksAddedWithReadingHistory() {
+        book1.progressUpdate(100, 500);
+        book1.progressUpdate(391, 3000);
+        book2.progressUpdate(181, 2500);
+        testTimeline.booksAdded(List.of(book1, book2));
+
+        assertEquals(100, testTimeline.asOf(1000).getTotalPagesRead());
+        assertEquals(12.8, testTimeline.asOf(1000).getTotalProgress());
+        assertEquals(100, testTimeline.asOf(2000).getTotalPagesRead());
+        assertEquals(281, testTimeline.asOf(2500).getTotalPagesRead());
+        assertEquals(1, testTimeline.asOf(2500).getNumberOfFinishedBooks());
+        assertEquals(572, testTimeline.asOf(3000).getTotalPagesRead());
+        assertEquals(75.0, testTimeline.asOf(3000).getTotalProgress());
+    }
+
+    @Test
+    void testBooksAddedMixingBooksWithAndWithoutHistory() {
+        Book bookA = new Book("Capital", 1465);
+        bookA.restoreAddedAt(1000);
+        bookA.progressUpdate(10, 5000);
+        Book bookC = new Book("Meditation", 181);
+        bookC.restoreAddedAt(3000);
+        bookC.progressUpdate(20, 4000);
+        Book bookD = new Book("The Brothers Karamazov", 796);
+        bookD.restoreAddedAt(6000);
+        testTimeline.booksAdded(List.of(bookA, bookC, bookD));
+
+        assertEquals(1, testTimeline.asOf(2000).getNumberOfBooks());
+        assertEquals(2, testTimeline.asOf(3000).getNumberOfBooks());
+        assertEquals(0, testTimeline.asOf(3000).getTotalPagesRead());
+        assertEquals(20, testTimeline.asOf(4000).getTotalPagesRead());
+        assertEquals(30, testTimeline.asOf(5000).getTotalPagesRead());
+        assertEquals(2, testTimeline.asOf(5999).getNumberOfBooks());
+        assertEquals(3, testTimeline.asOf(6000).getNumberOfBooks());
+        assertEquals(List.of(bookA, bookC, bookD), testTimeline.asOf(6000).getBooks());
+    }
+
+    @Test
+    void testProgressAndTagChanges() {
+        testTimeline.booksAdded(List.of(book1, book2));
+
+        book2.progressUpdate(181, 3000);
+        testTimeline.progressChanged(3000, book2, 0, 0.0);
+        testTimeline.tagAdded(4000, GenreDictionary.getInstance().codeOf("Philosophy"));
+        testTimeline.tagRemoved(5000, GenreDictionary.getInstance().codeOf("Russian"));
+        book2.progressUpdate(90, 6000);
+        testTimeline.progressChanged(6000, book2, 181, 100.0);
+
+        assertEquals(0, testTimeline.asOf(2999).getNumberOfFinishedBooks());
+        assertEquals(1, testTimeline.asOf(3000).getNumberOfFinishedBooks());
+        assertEquals(181, testTimeline.asOf(3000).getTotalPagesRead());
+        assertEquals(50.0, testTimeline.asOf(3000).getTotalProgress());
+        assertEquals(List.of("Russian"), testTimeline.asOf(3999).getAllGenres());
+        assertEquals(1, testTimeline.asOf(4000).numOfBooksTaggedBy("Philosophy"));
+        assertEquals(0, testTimeline.asOf(5000).numOfBooksTaggedBy("Russian"));
+        assertEquals(List.of("Philosophy"), testTimeline.asOf(5000).getAllGenres());
+        assertEquals(90, testTimeline.asOf(6000).getTotalPagesRead());
+        assertEquals(0, testTimeline.asOf(6000).getNumberOfFinishedBooks());
+        assertEquals(0, testTimeline.asOf(6000).numOfBooksTaggedBy("No Such Genre"));
+    }
+
+    @Test
+    void testTimestampsStayInOrder() {
+        testTimeline.booksAdded(List.of(book2));
+        testTimeline.tagAdded(1500, GenreDictionary.getInstance().codeOf("Philosophy"));
+
+        assertEquals(2000, testTimeline.getLastTimestamp());
+        assertEquals(0, testTimeline.asOf(1999).numOfBooksTaggedBy("Philosophy"));
+        assertEquals(1, testTimeline.asOf(2000).numOfBooksTaggedBy("Philosophy"));
+    }
+
+    @Test
+    void testManyChangesAcrossCheckpoints() {
+        Book book = new Book("Capital", 10000);
+        book.restoreAddedAt(1);
+        testTimeline.booksAdded(List.of(book));
+        for (int i = 1; i <= 5000; i++) {
+            book.progressUpdate(i * 2, 1 + i * 10L);
+            testTimeline.progressChanged(1 + i * 10L, book, i * 2 - 2, Book.percentageOf(i * 2 - 2, 10000));
+        }
+
+        assertEquals(5001, testTimeline.size());
+        for (int i = 0; i <= 5000; i += 123) {
+            assertEquals(i * 2, testTimeline.asOf(1 + i * 10L).getTotalPagesRead());
+            assertEquals(i * 2, testTimeline.asOf(1 + i * 10L + 9).getTotalPagesRead());
+            assertEquals(Book.percentageOf(i * 2, 10000), testTimeline.asOf(1 + i * 10L).getTotalProgress());
+        }
+        assertEquals(1, testTimeline.asOf(Long.MAX_VALUE).getNumberOfFinishedBooks());
+    }
+
+    @Test
+    void testBookRemoved() {
+        testTimeline.booksAdded(List.of(book1, book2));
+        book1.progressUpdate(782, 3000);
+        testTimeline.progressChanged(3000, book1, 0, 0.0);
+        testTimeline.bookRemoved(4000, book1);
+
+        ShelfState before = testTimeline.asOf(3500);
+        assertEquals(2, before.getNumberOfBooks());
+        assertEquals(1, before.getNumberOfFinishedBooks());
+        assertEquals(1, before.numOfBooksTaggedBy("Russian"));
+
+        ShelfState after = testTimeline.asOf(4000);
+        assertEquals(1, after.getNumberOfBooks());
+        assertEquals(181, after.getTotalPages());
+        assertEquals(0, after.getTotalPagesRead());
+        assertEquals(0, after.getNumberOfFinishedBooks());
+        assertEquals(0.0, after.getTotalProgress());
+        assertEquals(0, after.numOfBooksTaggedBy("Russian"));
+    }
+
+    @Test
+    void testBooksAtInstantAcrossCheckpoints() {
+        testTimeline.booksAdded(List.of(book1, book2));
+        testTimeline.bookRemoved(3000, book2);
+        Book book3 = new Book("Capital", 1465);
+        book3.restoreAddedAt(4000);
+        testTimeline.booksAdded(List.of(book3));
+        for (int i = 1; i <= 600; i++) {
+            testTimeline.tagAdded(4000 + i, GenreDictionary.getInstance().codeOf("Marxism"));
+        }
+
+        assertEquals(List.of(book1), testTimeline.asOf(1500).getBooks());
+        assertEquals(List.of(book1, book2), testTimeline.asOf(2999).getBooks());
+        assertEquals(List.of(book1), testTimeline.asOf(3000).getBooks());
+        assertEquals(List.of(book1, book3), testTimeline.asOf(4000).getBooks());
+        assertEquals(List.of(book1, book3), testTimeline.asOf(Long.MAX_VALUE).getBooks());
+        assertEquals(2, testTimeline.asOf(Long.MAX_VALUE).getNumberOfBooks());
+        assertThrows(UnsupportedOperationException.class, () -> testTimeline.asOf(4000).getBooks().clear());
+    }
+}
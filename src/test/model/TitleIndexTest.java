@@ -0,0 +1,191 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TitleIndexTest {
+    private TitleIndex testIndex;
+
+    @BeforeEach
+    void runBefore() {
+        testIndex = new TitleIndex();
+
+        String[] titles = {"Capital", "The Brothers Karamazov", "Crime and Punishment",
+                "Capitalism and Freedom", "Recapitalization", "The Capital of the World", "Meditation"};
+        for (int i = 0; i < titles.length; i++) {
+            Book book = new Book(titles[i], 100);
+            book.setBookshelf(null, i);
+            testIndex.add(book);
+        }
+    }
+
+    @Test
+    void testConstructor() {
+        TitleIndex index = new TitleIndex();
+        assertEquals(0, index.size());
+        assertTrue(index.search("Capital", 10).isEmpty());
+        assertTrue(index.startingWith("C").isEmpty());
+    }
+
+    @Test
+    void testSearchRanksMatches() {
+        List<Integer> result = testIndex.search("capital", 10);
+
+        assertEquals(4, result.size());
+        assertEquals(0, result.get(0));   // exact
+        assertEquals(3, result.get(1));   // prefix
+        assertEquals(5, result.get(2));   // word prefix
+        assertEquals(4, result.get(3));   // substring
+    }
+
+    @Test
+    void testSearchIgnoresCase() {
+        List<Integer> result = testIndex.search("KARAMAZOV", 10);
+        assertEquals(1, result.size());
+        assertEquals(1, result.get(0));
+    }
+
+    @Test
+    void testSearchLimit() {
+        List<Integer> result = testIndex.search("Capital", 2);
+        assertEquals(2, result.size());
+        assertEquals(0, result.get(0));
+        assertEquals(3, result.get(1));
+
+        assertTrue(testIndex.search("Capital", 0).isEmpty());
+    }
+
+    @Test
+    void testSearchShortQuery() {
+        List<Integer> result = testIndex.search("me", 10);
+        assertEquals(2, result.size());
+        assertEquals(6, result.get(0));
+        assertEquals(2, result.get(1));
+    }
+
+    @Test
+    void testSearchNoMatch() {
+        assertTrue(testIndex.search("Anna Karenina", 10).isEmpty());
+        assertTrue(testIndex.search("Capitol", 10).isEmpty());
+        assertTrue(testIndex.search("", 10).isEmpty());
+    }
+
+    @Test
+    void testSearchRepeatedTrigrams() {
+        Book book = new Book("Aaaaaa", 100);
+        book.setBookshelf(null, 7);
+        testIndex.add(book);
+
+        List<Integer> result = testIndex.search("aaaa", 10);
+        assertEquals(1, result.size());
+        assertEquals(7, result.get(0));
+    }
+
+    @Test
+    void testStartingWith() {
+        List<Integer> result = testIndex.startingWith("cap");
+        assertEquals(2, result.size());
+        assertEquals(0, result.get(0));
+        assertEquals(3, result.get(1));
+
+        assertEquals(2, testIndex.startingWith("The").size());
+        assertEquals(7, testIndex.startingWith("").size());
+        assertTrue(testIndex.startingWith("Anna").isEmpty());
+    }
+
+    @Test
+    void testRemoveLast() {
+        Book book = new Book("Capital", 100);
+        book.setBookshelf(null, 7);
+        testIndex.add(book);
+        assertEquals(List.of(0, 7), testIndex.startingWith("capital").subList(0, 2));
+
+        testIndex.removeLast();
+        assertEquals(7, testIndex.size());
+        assertEquals(List.of(0, 3, 5, 4), testIndex.search("capital", 10));
+        testIndex.removeLast();
+        assertTrue(testIndex.search("meditation", 10).isEmpty());
+        assertTrue(testIndex.search("edit", 10).isEmpty());
+        assertEquals(6, testIndex.size());
+
+        Book other = new Book("Meditations", 100);
+        other.setBookshelf(null, 6);
+        testIndex.add(other);
+        assertEquals(List.of(6), testIndex.search("meditation", 10));
+    }
+
+    @Test
+    void testSearchShortQueryRanksMatches() {
+        List<Integer> result = testIndex.search("t", 10);
+        // starting with it, then containing it, shorter titles first
+        assertEquals(List.of(1, 5, 0, 6, 4, 2, 3), result);
+        assertEquals(List.of(1, 5, 0), testIndex.search("t", 3));
+        assertEquals(List.of(2, 3), testIndex.search("an", 10));
+        assertTrue(testIndex.search("qz", 10).isEmpty());
+    }
+
+    @Test
+    void testRemoveLastShortQuery() {
+        Book book = new Book("Kant", 100);
+        book.setBookshelf(null, 7);
+        testIndex.add(book);
+        assertEquals(List.of(2, 3, 7), testIndex.search("an", 10));
+        assertEquals(List.of(7, 2), testIndex.search("nt", 10));
+
+        testIndex.removeLast();
+        assertEquals(List.of(2, 3), testIndex.search("an", 10));
+        assertEquals(List.of(2), testIndex.search("nt", 10));
+    }
+
+    @Test
+    void testShortQueriesMatchEveryTitleContainingThem() {
+        Random random = new Random(210);
+        TitleIndex index = new TitleIndex();
+        List<String> titles = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder title = new StringBuilder();
+            for (int j = random.nextInt(12); j >= 0; j--) {
+                title.append(random.nextInt(5) == 0 ? ' ' : (char) ('a' + random.nextInt(6)));
+            }
+            Book book = new Book(title.toString(), 100);
+            book.setBookshelf(null, i);
+            index.add(book);
+            titles.add(title.toString());
+        }
+
+        for (String query : List.of("a", "f", " ", "ab", "b ", " c", "ff", "aa")) {
+            assertEquals(rankedMatches(titles, query), index.search(query, Integer.MAX_VALUE), query);
+        }
+    }
+
+    // EFFECTS: return the positions of all titles containing the query, ranked the way search ranks them,
+    //      by checking every title
+    private static List<Integer> rankedMatches(List<String> titles, String query) {
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < titles.size(); i++) {
+            if (titles.get(i).contains(query)) {
+                matches.add(i);
+            }
+        }
+        matches.sort(Comparator.comparingInt((Integer i) -> rank(titles.get(i), query))
+                .thenComparingInt(i -> titles.get(i).length()).thenComparingInt(i -> i));
+        return matches;
+    }
+
+    // EFFECTS: return 0 if the title is the query, 1 if it starts with it, 2 if a word in it does, else 3
+    private static int rank(String title, String query) {
+        if (title.equals(query)) {
+            return 0;
+        } else if (title.startsWith(query)) {
+            return 1;
+        }
+        return title.contains(" " + query) ? 2 : 3;
+    }
+}
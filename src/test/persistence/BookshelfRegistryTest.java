@@ -0,0 +1,212 @@
+package persistence;
+
+import model.Book;
+import model.Bookshelf;
+import model.Event;
+import model.EventLog;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BookshelfRegistryTest {
+
+    private Path directory;
+    private BookshelfRegistry testRegistry;
+
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        directory = Files.createTempDirectory("testRegistry");
+        testRegistry = new BookshelfRegistry(directory.toString(), Long.MAX_VALUE);
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(Long.MAX_VALUE, testRegistry.getMemoryBudget());
+        assertTrue(testRegistry.getLoadedUsers().isEmpty());
+        assertEquals(0, testRegistry.getTotalMemoryUsage());
+        assertFalse(testRegistry.isLoaded("alice"));
+        assertEquals(0, testRegistry.getMemoryUsage("alice"));
+    }
+
+    @Test
+    void testGetBookshelfLazily() throws IOException {
+        Bookshelf alice = testRegistry.getBookshelf("alice");
+        assertEquals(0, alice.getNumberOfBooks());
+        assertTrue(testRegistry.isLoaded("alice"));
+        assertSame(alice, testRegistry.getBookshelf("alice"));
+        assertFalse(new File(directory + "/alice.json").exists());
+
+        Bookshelf bob = testRegistry.getBookshelf("bob");
+        assertNotSame(alice, bob);
+        assertEquals(List.of("alice", "bob"), testRegistry.getLoadedUsers());
+        testRegistry.getBookshelf("alice");
+        assertEquals(List.of("bob", "alice"), testRegistry.getLoadedUsers());
+    }
+
+    @Test
+    void testEventLogPerUser() throws IOException {
+        Bookshelf alice = testRegistry.getBookshelf("alice");
+        assertSame(testRegistry.getEventLog("alice"), alice.getEventLog());
+        assertNotSame(EventLog.getInstance(), alice.getEventLog());
+
+        Book book = new Book("Crime and Punishment", 782);
+        alice.addBook(book);
+        book.progressUpdate(100);
+        int events = 0;
+        for (Event next : testRegistry.getEventLog("alice")) {
+            events++;
+        }
+        assertEquals(2, events);
+        assertFalse(testRegistry.getEventLog("bob").iterator().hasNext());
+    }
+
+    @Test
+    void testEvictAndReload() throws IOException {
+        Bookshelf alice = testRegistry.getBookshelf("alice");
+        Book book = new Book("Crime and Punishment", 782);
+        book.addGenreTag("Russian");
+        alice.addBook(book);
+        book.progressUpdate(659);
+        EventLog log = testRegistry.getEventLog("alice");
+
+        testRegistry.evict("alice");
+        assertFalse(testRegistry.isLoaded("alice"));
+        assertEquals(0, testRegistry.getTotalMemoryUsage());
+        assertTrue(new File(directory + "/alice.json").exists());
+
+        Bookshelf reloaded = testRegistry.getBookshelf("alice");
+        assertNotSame(alice, reloaded);
+        assertEquals(1, reloaded.getNumberOfBooks());
+        assertEquals(659, reloaded.getBookById(book.getId()).getPagesRead());
+        assertEquals(1, reloaded.numOfBooksTaggedBy("Russian"));
+        assertNotSame(log, reloaded.getEventLog());
+        assertFalse(reloaded.getEventLog().iterator().hasNext());
+
+        testRegistry.evict("bob");
+        assertFalse(testRegistry.isLoaded("bob"));
+    }
+
+    @Test
+    void testEvictUnderMemoryBudget() throws IOException {
+        Bookshelf sample = testRegistry.getBookshelf("sample");
+        sample.addBook(new Book("Crime and Punishment", 782));
+        long sampleUsage = testRegistry.getMemoryUsage("sample");
+        assertTrue(sampleUsage > sample.estimateMemoryUsage());
+        testRegistry = new BookshelfRegistry(directory.toString(), 2 * sampleUsage);
+
+        testRegistry.getBookshelf("alice").addBook(new Book("Crime and Punishment", 782));
+        testRegistry.getBookshelf("bob").addBook(new Book("Crime and Punishment", 782));
+        testRegistry.getBookshelf("alice");
+        assertEquals(List.of("bob", "alice"), testRegistry.getLoadedUsers());
+        assertEquals(2 * sampleUsage, testRegistry.getTotalMemoryUsage());
+
+        testRegistry.getBookshelf("carol").addBook(new Book("Capital", 1465));
+        testRegistry.getBookshelf("carol");
+        assertEquals(List.of("alice", "carol"), testRegistry.getLoadedUsers());
+        assertTrue(new File(directory + "/bob.json").exists());
+        assertFalse(new File(directory + "/alice.json").exists());
+
+        assertEquals(1, testRegistry.getBookshelf("bob").getNumberOfBooks());
+        assertFalse(testRegistry.isLoaded("alice"));
+    }
+
+    @Test
+    void testKeepBookshelfLargerThanBudget() throws IOException {
+        testRegistry = new BookshelfRegistry(directory.toString(), 0);
+        Bookshelf alice = testRegistry.getBookshelf("alice");
+        alice.addBook(new Book("Crime and Punishment", 782));
+        assertTrue(testRegistry.getMemoryUsage("alice") > 0);
+
+        assertSame(alice, testRegistry.getBookshelf("alice"));
+        testRegistry.getBookshelf("bob");
+        assertEquals(List.of("bob"), testRegistry.getLoadedUsers());
+    }
+
+    @Test
+    void testSaveAndSaveAll() throws IOException {
+        testRegistry.getBookshelf("alice").addBook(new Book("Crime and Punishment", 782));
+        testRegistry.getBookshelf("bob");
+        testRegistry.save("carol");
+        assertFalse(new File(directory + "/carol.json").exists());
+
+        testRegistry.save("alice");
+        assertTrue(new File(directory + "/alice.json").exists());
+        assertFalse(new File(directory + "/bob.json").exists());
+
+        testRegistry.saveAll();
+        assertTrue(new File(directory + "/bob.json").exists());
+        assertEquals(1, new JsonReader(directory + "/alice.json").read().getNumberOfBooks());
+        assertTrue(testRegistry.isLoaded("alice"));
+    }
+
+    @Test
+    void testEvictFails() throws IOException {
+        testRegistry = new BookshelfRegistry("./data/\0illegal", Long.MAX_VALUE);
+        testRegistry.getBookshelf("alice");
+        try {
+            testRegistry.evict("alice");
+            fail("Expect IOException");
+        } catch (IOException e) {
+            assertTrue(testRegistry.isLoaded("alice"));
+        }
+    }
+
+    @Test
+    void testEventLogsBoundedAndCounted() throws IOException {
+        testRegistry = new BookshelfRegistry(directory.toString(), Long.MAX_VALUE, 1024);
+        Bookshelf alice = testRegistry.getBookshelf("alice");
+        Book book = new Book("Crime and Punishment", 782);
+        alice.addBook(book);
+        long withOneEvent = testRegistry.getMemoryUsage("alice");
+        assertEquals(alice.estimateMemoryUsage() + alice.getEventLog().getRetainedBytes(), withOneEvent);
+
+        for (int i = 1; i <= 500; i++) {
+            book.progressUpdate(i);
+        }
+        EventLog log = alice.getEventLog();
+        assertTrue(log.getRetainedBytes() <= 1024);
+        assertTrue(log.getDroppedBySize() > 0);
+        assertEquals(alice.estimateMemoryUsage() + log.getRetainedBytes(), testRegistry.getMemoryUsage("alice"));
+
+        testRegistry.evict("alice");
+        assertEquals(0, testRegistry.getTotalMemoryUsage());
+    }
+
+    @Test
+    void testSaveHoldsBookshelfLock() throws Exception {
+        Bookshelf alice = testRegistry.getBookshelf("alice");
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                synchronized (alice) {
+                    alice.addBook(new Book("Book " + i, 100));
+                }
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            testRegistry.save("alice");
+        }
+        writer.join();
+        testRegistry.save("alice");
+        assertEquals(2000, new JsonReader(directory + "/alice.json").read().getNumberOfBooks());
+    }
+}
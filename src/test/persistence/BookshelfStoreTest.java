@@ -0,0 +1,195 @@
+package persistence;
+
+import model.Book;
+import model.Bookshelf;
+import model.BookshelfHistory;
+import model.EventCategory;
+import model.EventLevel;
+import model.EventLog;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BookshelfStoreTest {
+
+    private Path directory;
+    private String snapshot;
+    private BookshelfStore store;
+    private Bookshelf bookshelf;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        directory = Files.createTempDirectory("testStore");
+        snapshot = directory + "/bookshelf.json";
+        store = new BookshelfStore(snapshot, 1 << 20, 0);
+        bookshelf = store.recover(EventLog.newLog());
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testRecoverWithNoFiles() throws IOException {
+        assertEquals(0, bookshelf.getNumberOfBooks());
+        assertEquals(0, store.getGeneration());
+        assertEquals(0, store.getJournalSize());
+        store.close();
+        assertFalse(new File(snapshot).exists());
+    }
+
+    @Test
+    void testRecoverUnsavedChanges() throws IOException {
+        makeChanges();
+        store.flush();
+        assertTrue(store.getJournalSize() > 0);
+        store.close();
+
+        Bookshelf recovered = recoverAgain();
+        assertTrue(bookshelf.toJson().similar(recovered.toJson()));
+        assertEquals(List.of("Philosophy"), recovered.getAllGenres());
+    }
+
+    @Test
+    void testSaveStartsNewGeneration() throws IOException {
+        makeChanges();
+        store.save();
+        assertEquals(1, store.getGeneration());
+        assertTrue(new File(snapshot).exists());
+        assertFalse(new File(store.journalFile(0)).exists());
+        assertEquals(0, store.getJournalSize());
+
+        bookshelf.getBookById(1).progressUpdate(700);
+        store.close();
+
+        Bookshelf recovered = recoverAgain();
+        assertEquals(700, recovered.getBookById(1).getPagesRead());
+        assertTrue(bookshelf.toJson().similar(recovered.toJson()));
+    }
+
+    @Test
+    void testLoadDiscardsUnsavedChanges() throws IOException {
+        bookshelf.addBook(new Book("Crime and Punishment", 782));
+        store.save();
+        bookshelf.addBook(new Book("Meditation", 181));
+
+        Bookshelf loaded = store.load();
+        assertEquals(1, loaded.getNumberOfBooks());
+        loaded.getBookById(1).progressUpdate(100);
+        store.close();
+
+        Bookshelf recovered = recoverAgain();
+        assertEquals(1, recovered.getNumberOfBooks());
+        assertEquals(100, recovered.getBookById(1).getPagesRead());
+    }
+
+    @Test
+    void testCompaction() throws IOException {
+        store.close();
+        store = new BookshelfStore(snapshot, 1, 0);
+        bookshelf = store.recover(EventLog.newLog());
+        makeChanges();
+        store.flush();
+        // the journal grows as its writer catches up, so the change after a flush is sure to find it full
+        bookshelf.getBookById(3).addGenreTag("Marxism");
+        store.awaitCompaction();
+        assertTrue(store.getGeneration() > 0);
+        assertTrue(new File(snapshot).exists());
+        assertFalse(new File(store.journalFile(0)).exists());
+        store.close();
+
+        Bookshelf recovered = recoverAgain();
+        assertTrue(bookshelf.toJson().similar(recovered.toJson()));
+    }
+
+    @Test
+    void testRecoverUndoAndRedo() throws IOException {
+        BookshelfHistory history = new BookshelfHistory(bookshelf, 10);
+        bookshelf.addBook(new Book("Crime and Punishment", 782));
+        history.checkpoint();
+        bookshelf.addBooks(List.of(new Book("Meditation", 181), new Book("Capital", 1465)));
+        history.checkpoint();
+        bookshelf.getBookById(1).progressUpdate(659);
+        history.checkpoint();
+        assertTrue(history.undo());
+        assertTrue(history.undo());
+        assertTrue(history.redo());
+        store.close();
+
+        Bookshelf recovered = recoverAgain();
+        assertEquals(3, recovered.getNumberOfBooks());
+        assertEquals(0, recovered.getBookById(1).getPagesRead());
+        assertTrue(bookshelf.toJson().similar(recovered.toJson()));
+    }
+
+    @Test
+    void testRecoverTornJournal() throws IOException {
+        bookshelf.addBook(new Book("Crime and Punishment", 782));
+        bookshelf.addBook(new Book("Meditation", 181));
+        store.close();
+        try (RandomAccessFile file = new RandomAccessFile(store.journalFile(0), "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        Bookshelf recovered = recoverAgain();
+        assertEquals(1, recovered.getNumberOfBooks());
+        recovered.addBook(new Book("Capital", 1465));
+        store.close();
+        assertEquals(2, recoverAgain().getNumberOfBooks());
+    }
+
+    @Test
+    void testRecoverFromFilteredLog() throws IOException {
+        store.close();
+        EventLog log = EventLog.newLog();
+        log.setLevel(EventCategory.BOOKSHELF, EventLevel.WARNING);
+        log.setSampling(EventCategory.PROGRESS, 7);
+        log.setRateLimit(EventCategory.GENRE, 0);
+        store = new BookshelfStore(snapshot, 1 << 20, 0);
+        bookshelf = store.recover(log);
+        makeChanges();
+        for (int i = 1; i <= 100; i++) {
+            bookshelf.getBookById(3).progressUpdate(i * 10);
+        }
+        bookshelf.getBookById(3).addGenreTag("Marxism");
+        store.close();
+
+        Bookshelf recovered = recoverAgain();
+        assertTrue(bookshelf.toJson().similar(recovered.toJson()));
+        assertEquals(1000, recovered.getBookById(3).getPagesRead());
+        assertEquals(0, log.getSuppressedEvents(EventCategory.PROGRESS));
+        assertFalse(log.shouldLog(EventCategory.BOOKSHELF, EventLevel.INFO));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: put books on the bookshelf, read them and tag them
+    private void makeChanges() {
+        bookshelf.addBook(new Book("Crime and Punishment", 782));
+        bookshelf.getBookById(1).progressUpdate(100);
+        bookshelf.addBooks(List.of(new Book("Meditation", 181), new Book("Capital", 1465)));
+        bookshelf.getBookById(2).addGenreTag("Philosophy");
+        bookshelf.getBookById(1).progressUpdate(659);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: recover the bookshelf with a new store, as after the application restarts
+    private Bookshelf recoverAgain() throws IOException {
+        store = new BookshelfStore(snapshot, 1 << 20, 0);
+        return store.recover(EventLog.newLog());
+    }
+}
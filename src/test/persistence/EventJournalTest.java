@@ -0,0 +1,331 @@
+package persistence;
+
+import model.Book;
+import model.BookRecord;
+import model.Event;
+import model.EventLog;
+import model.EventType;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventJournalTest {
+
+    private Path directory;
+    private String journalFile;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        directory = Files.createTempDirectory("testJournal");
+        journalFile = directory + "/testJournal.bin";
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testWriteAndRead() throws IOException {
+        Book book = new Book(7, "Crime and Punishment", 782);
+        book.progressUpdate(659);
+        Event message = new Event("Sensor open at door");
+        Event added = Event.bookAdded(book);
+        Event batch = Event.booksAdded(12);
+        Event updated = Event.progressUpdated(book, 100);
+
+        EventJournal journal = new EventJournal(journalFile, 16, 0, 0);
+        journal.open();
+        journal.accept(message);
+        journal.accept(added);
+        journal.accept(batch);
+        journal.accept(updated);
+        journal.flush();
+        assertEquals(4, journal.getDurableEvents());
+        journal.close();
+
+        List<Event> events = EventJournal.read(journalFile);
+        assertEquals(List.of(message, added, batch, updated), events);
+        Event restored = events.get(3);
+        assertEquals(EventType.PROGRESS_UPDATED, restored.getType());
+        assertEquals(7, restored.getBookId());
+        assertEquals(100, restored.getOldPage());
+        assertEquals(659, restored.getNewPage());
+        assertEquals(84.3, restored.getProgress());
+        assertEquals(12, events.get(2).getNumberOfBooks());
+        assertNull(events.get(2).getTitle());
+    }
+
+    @Test
+    void testAppendsAcrossOpens() throws IOException {
+        EventJournal journal = new EventJournal(journalFile, 16, 0, 0);
+        journal.open();
+        journal.accept(new Event("First"));
+        journal.close();
+
+        journal = new EventJournal(journalFile, 16, 0, 0);
+        journal.open();
+        journal.accept(new Event("Second"));
+        journal.close();
+
+        List<Event> events = EventJournal.read(journalFile);
+        assertEquals(2, events.size());
+        assertEquals("Second", events.get(1).getDescription());
+    }
+
+    @Test
+    void testGroupCommitFromEventLog() throws IOException, InterruptedException {
+        EventLog log = EventLog.newLog();
+        EventJournal journal = new EventJournal(journalFile, 256, 50, 1000);
+        journal.open();
+        log.addSink(journal);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final int thread = i;
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 500; j++) {
+                    log.logEvent(new Event("T" + thread + " E" + j));
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        journal.close();
+
+        assertEquals(0, journal.getDroppedEvents());
+        assertEquals(2000, journal.getDurableEvents());
+        assertTrue(journal.getNumberOfForces() < 2000);
+        assertEquals(0, journal.getPendingEvents());
+        assertEquals(2000, EventJournal.read(journalFile).size());
+    }
+
+    @Test
+    void testDurabilityWindow() throws IOException, InterruptedException {
+        EventJournal journal = new EventJournal(journalFile, 16, 100, 0);
+        journal.open();
+        journal.accept(new Event("Sensor open at door"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (journal.getDurableEvents() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, journal.getDurableEvents());
+        assertEquals(1, journal.getNumberOfForces());
+        journal.close();
+        assertEquals(1, journal.getNumberOfForces());
+    }
+
+    @Test
+    void testWaitForeverNeverDrops() throws IOException, InterruptedException {
+        EventJournal journal = new EventJournal(journalFile, 1, 0, EventJournal.WAIT_FOREVER);
+        journal.open();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 500; j++) {
+                    journal.accept(new Event("Event " + j));
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        journal.close();
+
+        assertEquals(0, journal.getDroppedEvents());
+        assertEquals(2000, EventJournal.read(journalFile).size());
+    }
+
+    @Test
+    void testWaitingThreadsLetGoWhenWriterFails() throws IOException, InterruptedException {
+        EventJournal journal = new EventJournal(journalFile, 1, 0, EventJournal.WAIT_FOREVER);
+        journal.open();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 2000; j++) {
+                    journal.accept(new Event("Event " + j));
+                }
+            });
+            threads[i].start();
+        }
+        journal.rotate(directory + "/noSuchDirectory/testJournal.bin");
+        for (Thread thread : threads) {
+            thread.join(10000);
+            assertFalse(thread.isAlive());
+        }
+
+        assertTrue(journal.getDroppedEvents() > 0);
+        assertThrows(IOException.class, journal::flush);
+    }
+
+    @Test
+    void testDropsWhenNotOpen() throws IOException {
+        EventJournal journal = new EventJournal(journalFile, 16, 0, 0);
+        journal.accept(new Event("Before open"));
+        journal.flush();
+        journal.close();
+        assertEquals(1, journal.getDroppedEvents());
+
+        journal.open();
+        journal.close();
+        journal.accept(new Event("After close"));
+        assertEquals(2, journal.getDroppedEvents());
+        assertTrue(EventJournal.read(journalFile).isEmpty());
+    }
+
+    @Test
+    void testReadStopsAtTornRecord() throws IOException {
+        EventJournal journal = new EventJournal(journalFile, 16, 0, 0);
+        journal.open();
+        journal.accept(new Event("First"));
+        journal.accept(new Event("Second"));
+        journal.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+        List<Event> events = EventJournal.read(journalFile);
+        assertEquals(1, events.size());
+        assertEquals("First", events.get(0).getDescription());
+    }
+
+    @Test
+    void testReadStopsAtCorruptRecord() throws IOException {
+        EventJournal journal = new EventJournal(journalFile, 16, 0, 0);
+        journal.open();
+        journal.accept(new Event("First"));
+        journal.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+            file.seek(file.length() - 6);
+            file.write('X');
+        }
+        assertTrue(EventJournal.read(journalFile).isEmpty());
+    }
+
+    @Test
+    void testRecoverFromCorruptLength() throws IOException {
+        EventJournal journal = new EventJournal(journalFile, 16, 0, 0);
+        journal.open();
+        journal.accept(new Event("First"));
+        journal.close();
+        long valid = new File(journalFile).length();
+
+        try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+            file.seek(valid);
+            file.writeInt(Integer.MAX_VALUE - 2);
+            file.write(new byte[64]);
+        }
+        assertEquals(1, EventJournal.read(journalFile).size());
+
+        journal = new EventJournal(journalFile, 16, 0, 0);
+        journal.open();
+        assertEquals(valid, journal.getSize());
+        journal.accept(new Event("Second"));
+        journal.close();
+        assertEquals(2, EventJournal.read(journalFile).size());
+    }
+
+    @Test
+    void testReadRecordsAcrossChunks() throws IOException {
+        String longText = "x".repeat(100 * 1024);
+        EventJournal journal = new EventJournal(journalFile, 4096, 0, 0);
+        journal.open();
+        for (int i = 0; i < 3000; i++) {
+            journal.accept(new Event(i == 1500 ? longText : "Event " + i));
+        }
+        journal.close();
+
+        List<Event> events = EventJournal.read(journalFile);
+        assertEquals(3000, events.size());
+        assertEquals("Event 2999", events.get(2999).getDescription());
+        assertEquals(longText, events.get(1500).getDescription());
+    }
+
+    @Test
+    void testReadMissingFile() throws IOException {
+        assertTrue(EventJournal.read(directory + "/noSuchJournal.bin").isEmpty());
+    }
+
+    @Test
+    void testWriteAndReadBookshelfChanges() throws IOException {
+        Book book = new Book(3, "Capital", 1465);
+        book.addGenreTag("Marxism");
+        book.restoreAddedAt(1234L);
+        EventJournal journal = new EventJournal(journalFile, 16, 0, 0);
+        journal.open();
+        journal.accept(Event.booksAdded(List.of(book, new Book(4, "Meditation", 181))));
+        journal.accept(Event.genreTagAdded(book, "Economics"));
+        journal.accept(Event.bookshelfLoaded(2));
+        journal.close();
+
+        List<Event> events = EventJournal.read(journalFile);
+        assertEquals(3, events.size());
+        List<BookRecord> records = events.get(0).getBooks();
+        assertEquals(2, records.size());
+        assertEquals("Capital", records.get(0).getTitle());
+        assertEquals(1234L, records.get(0).getAddedAt());
+        assertEquals(List.of("Marxism"), records.get(0).getGenreTags());
+        assertEquals(181, records.get(1).getTotalPages());
+        assertEquals("Economics", events.get(1).getGenre());
+        assertEquals(EventType.BOOKSHELF_LOADED, events.get(2).getType());
+        assertEquals(2, events.get(2).getNumberOfBooks());
+    }
+
+    @Test
+    void testRotate() throws IOException {
+        String next = directory + "/testJournal2.bin";
+        EventJournal journal = new EventJournal(journalFile, 16, 0, 0);
+        journal.open();
+        journal.accept(new Event("First"));
+        journal.rotate(next);
+        journal.accept(new Event("Second"));
+        journal.flush();
+        assertEquals(new File(next).length(), journal.getSize());
+        journal.close();
+
+        assertEquals("First", EventJournal.read(journalFile).get(0).getDescription());
+        assertEquals(1, EventJournal.read(journalFile).size());
+        assertEquals("Second", EventJournal.read(next).get(0).getDescription());
+        assertEquals(1, EventJournal.read(next).size());
+    }
+
+    @Test
+    void testOpenTruncatesTornRecord() throws IOException {
+        EventJournal journal = new EventJournal(journalFile, 16, 0, 0);
+        journal.open();
+        journal.accept(new Event("First"));
+        journal.accept(new Event("Second"));
+        journal.close();
+        try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        journal = new EventJournal(journalFile, 16, 0, 0);
+        journal.open();
+        assertEquals(new File(journalFile).length(), journal.getSize());
+        journal.accept(new Event("Third"));
+        journal.close();
+
+        List<Event> events = EventJournal.read(journalFile);
+        assertEquals(2, events.size());
+        assertEquals("Third", events.get(1).getDescription());
+    }
+}
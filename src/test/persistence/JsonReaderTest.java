@@ -59,6 +59,11 @@ public class JsonReaderTest extends JsonTest {
             checkSecondBook(booksFromReader.get(1));
             checkThirdBook(booksFromReader.get(2));
 
+            // books saved without IDs get new ones when loaded
+            assertEquals(1, booksFromReader.get(0).getId());
+            assertEquals(2, booksFromReader.get(1).getId());
+            assertEquals(3, booksFromReader.get(2).getId());
+
             //checkOtherPropertiesOfBookshelf(bookshelfFromReader);
 
 
@@ -67,6 +72,23 @@ public class JsonReaderTest extends JsonTest {
         }
     }
 
+    @Test
+    void testReaderSharesCatalogEntries() {
+        JsonReader reader = new JsonReader("./data/testReaderGeneralBookshelf.json");
+        try {
+            List<Book> books = reader.read().getAllBooks();
+            List<Book> otherBooks = reader.read().getAllBooks();
+
+            for (int i = 0; i < books.size(); i++) {
+                assertNotSame(books.get(i), otherBooks.get(i));
+                assertSame(books.get(i).getCatalogEntry(), otherBooks.get(i).getCatalogEntry());
+            }
+            assertEquals(books.get(1).getGenreTags(), books.get(1).getCatalogEntry().getDefaultGenres());
+        } catch (IOException e) {
+            fail("No Exception Expected!");
+        }
+    }
+
     private void checkFirstBook(Book book) {
         List<String> genreTags = new ArrayList<>();
         checkBook("Minds and Machines", 383, 0, 0.0, genreTags, book);
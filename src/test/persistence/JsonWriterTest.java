@@ -3,11 +3,17 @@ package persistence;
 import model.Bookshelf;
 import model.Book;
 
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -16,6 +22,19 @@ import static org.junit.jupiter.api.Assertions.*;
 // source: https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo.git
 
 public class JsonWriterTest extends JsonTest {
+    private Path directory;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        directory = Files.createTempDirectory("testWriter");
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
 
     @Test
     void testWriterInvalidFile() {
@@ -33,13 +52,13 @@ public class JsonWriterTest extends JsonTest {
     void testWriterEmptyBookshelf() {
         try {
             Bookshelf bookshelfToWriter = new Bookshelf();
-            JsonWriter writer = new JsonWriter("./data/testWriterEmptyBookshelf.json");
+            JsonWriter writer = new JsonWriter(directory + "/testWriterEmptyBookshelf.json");
             writer.open();
             writer.write(bookshelfToWriter);
             writer.close();
 
 
-            JsonReader reader = new JsonReader("./data/testWriterEmptyBookshelf.json");
+            JsonReader reader = new JsonReader(directory + "/testWriterEmptyBookshelf.json");
             Bookshelf bookshelfFromReader = reader.read();
 
             assertNotNull(bookshelfFromReader);
@@ -60,13 +79,13 @@ public class JsonWriterTest extends JsonTest {
             Bookshelf bookshelfToWriter = new Bookshelf();
             addBooksToBookshelf(bookshelfToWriter);
 
-            JsonWriter writer = new JsonWriter("./data/testWriterGeneralBookshelf.json");
+            JsonWriter writer = new JsonWriter(directory + "/testWriterGeneralBookshelf.json");
             writer.open();
             writer.write(bookshelfToWriter);
             writer.close();
 
 
-            JsonReader reader = new JsonReader("./data/testWriterGeneralBookshelf.json");
+            JsonReader reader = new JsonReader(directory + "/testWriterGeneralBookshelf.json");
             Bookshelf bookshelfFromReader = reader.read();
 
             assertNotNull(bookshelfFromReader);
@@ -78,6 +97,12 @@ public class JsonWriterTest extends JsonTest {
             checkSecondBook(booksFromReader.get(1));
             checkThirdBook(booksFromReader.get(2));
 
+            for (int i = 0; i < 3; i++) {
+                Book bookToWriter = bookshelfToWriter.getAllBooks().get(i);
+                assertEquals(bookToWriter.getId(), booksFromReader.get(i).getId());
+                assertEquals(booksFromReader.get(i), bookshelfFromReader.getBookById(bookToWriter.getId()));
+            }
+
             //checkOtherPropertiesOfBookshelf(bookshelfFromReader);
 
         } catch (IOException e) {
@@ -85,8 +110,40 @@ public class JsonWriterTest extends JsonTest {
         }
     }
 
+    @Test
+    void testWriterReadingHistory() {
+        try {
+            Bookshelf bookshelfToWriter = new Bookshelf();
+            Book book = new Book("Crime and Punishment", 792);
+            for (int i = 1; i <= 100; i++) {
+                book.progressUpdate(i * 7, 1_600_000_000_000L + i * 3_600_000L);
+            }
+            bookshelfToWriter.addBook(book);
+            bookshelfToWriter.addBook(new Book("Meditation", 181));
+
+            JsonWriter writer = new JsonWriter(directory + "/testWriterGeneralBookshelf.json");
+            writer.open();
+            writer.write(bookshelfToWriter);
+            writer.close();
+
+            JsonReader reader = new JsonReader(directory + "/testWriterGeneralBookshelf.json");
+            Bookshelf bookshelfFromReader = reader.read();
+            Book bookFromReader = bookshelfFromReader.getAllBooks().get(0);
+
+            assertEquals(700, bookFromReader.getPagesRead());
+            assertEquals(100, bookFromReader.getReadingHistory().size());
+            assertEquals(1_600_000_000_000L + 50 * 3_600_000L, bookFromReader.getReadingHistory().getTimestamp(49));
+            assertEquals(350, bookFromReader.getReadingHistory().getPage(49));
+            assertEquals(70, bookFromReader.pagesReadBetween(1_600_000_000_000L + 10 * 3_600_000L,
+                    1_600_000_000_000L + 20 * 3_600_000L));
+            assertEquals(0, bookshelfFromReader.getAllBooks().get(1).getReadingHistory().size());
+        } catch (IOException e) {
+            fail("No Exception Expected!");
+        }
+    }
+
     private void addBooksToBookshelf(Bookshelf bookshelf) {
-        bookshelf.addBook(new Book("Nineteen Eighty-Four", 355));
+        bookshelf.addBook(new Book(5, "Nineteen Eighty-Four", 355));
 
         Book book1 = new Book("Pride and Prejudice", 427);
         book1.addGenreTag("Romance");